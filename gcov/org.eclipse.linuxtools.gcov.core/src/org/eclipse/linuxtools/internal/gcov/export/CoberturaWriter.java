@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.linuxtools.internal.gcov.parser.CovSummary;
+
+/**
+ * Write a coverage summary as a Cobertura XML report, as read by most CI
+ * servers. Each folder of sources is a package, and each source file is a
+ * class. Only line coverage is reported.
+ */
+public final class CoberturaWriter {
+
+    private static final String DTD = "http://cobertura.sourceforge.net/xml/coverage-04.dtd"; //$NON-NLS-1$
+
+    private CoberturaWriter() {
+    }
+
+    /**
+     * @param summary coverage summary
+     * @param sourceRoot folder against which source names are made relative, or null
+     * @param timestamp report time, in ms
+     * @param out writer of the report
+     * @throws IOException
+     */
+    public static void write(CovSummary summary, String sourceRoot, long timestamp, Writer out) throws IOException {
+        Map<String, List<CovSummary.Source>> packages = new TreeMap<>();
+        Map<CovSummary.Source, String> names = new HashMap<>();
+        for (CovSummary.Source src : summary.getSources()) {
+            String name = relativize(sourceRoot, src.getName());
+            names.put(src, name);
+            int slash = name.lastIndexOf('/');
+            String pkg = slash < 0 ? "" : name.substring(0, slash).replace('/', '.'); //$NON-NLS-1$
+            packages.computeIfAbsent(pkg, k -> new ArrayList<>()).add(src);
+        }
+
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"); //$NON-NLS-1$
+        out.write("<!DOCTYPE coverage SYSTEM \"" + DTD + "\">\n"); //$NON-NLS-1$ //$NON-NLS-2$
+        out.write("<coverage line-rate=\"" + rate(summary.getLinesExecuted(), summary.getLinesInstrumented()) //$NON-NLS-1$
+                + "\" branch-rate=\"0\" lines-covered=\"" + summary.getLinesExecuted() //$NON-NLS-1$
+                + "\" lines-valid=\"" + summary.getLinesInstrumented() //$NON-NLS-1$
+                + "\" branches-covered=\"0\" branches-valid=\"0\" complexity=\"0\" version=\"gcov\" timestamp=\"" //$NON-NLS-1$
+                + timestamp / 1000 + "\">\n"); //$NON-NLS-1$
+        out.write("  <sources>\n"); //$NON-NLS-1$
+        out.write("    <source>" + escape(sourceRoot != null ? sourceRoot : ".") + "</source>\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        out.write("  </sources>\n"); //$NON-NLS-1$
+        out.write("  <packages>\n"); //$NON-NLS-1$
+        for (Map.Entry<String, List<CovSummary.Source>> pkg : packages.entrySet()) {
+            int executed = 0;
+            int instrumented = 0;
+            for (CovSummary.Source src : pkg.getValue()) {
+                executed += src.getLinesExecuted();
+                instrumented += src.getLinesInstrumented();
+            }
+            out.write("    <package name=\"" + escape(pkg.getKey()) + "\" line-rate=\"" //$NON-NLS-1$ //$NON-NLS-2$
+                    + rate(executed, instrumented) + "\" branch-rate=\"0\" complexity=\"0\">\n"); //$NON-NLS-1$
+            out.write("      <classes>\n"); //$NON-NLS-1$
+            for (CovSummary.Source src : pkg.getValue()) {
+                writeClass(src, names.get(src), out);
+            }
+            out.write("      </classes>\n"); //$NON-NLS-1$
+            out.write("    </package>\n"); //$NON-NLS-1$
+        }
+        out.write("  </packages>\n"); //$NON-NLS-1$
+        out.write("</coverage>\n"); //$NON-NLS-1$
+    }
+
+    private static void writeClass(CovSummary.Source src, String name, Writer out) throws IOException {
+        int slash = name.lastIndexOf('/');
+        out.write("        <class name=\"" + escape(name.substring(slash + 1)) + "\" filename=\"" + escape(name) //$NON-NLS-1$ //$NON-NLS-2$
+                + "\" line-rate=\"" + rate(src.getLinesExecuted(), src.getLinesInstrumented()) //$NON-NLS-1$
+                + "\" branch-rate=\"0\" complexity=\"0\">\n"); //$NON-NLS-1$
+        out.write("          <methods>\n"); //$NON-NLS-1$
+        for (CovSummary.Function f : src.getFunctions()) {
+            out.write("            <method name=\"" + escape(f.getName()) + "\" signature=\"\" line-rate=\"" //$NON-NLS-1$ //$NON-NLS-2$
+                    + (f.getCount() != 0 ? "1" : "0") + "\" branch-rate=\"0\">\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            out.write("              <lines>\n"); //$NON-NLS-1$
+            out.write("                <line number=\"" + f.getFirstLine() + "\" hits=\"" + f.getCount() //$NON-NLS-1$ //$NON-NLS-2$
+                    + "\" branch=\"false\"/>\n"); //$NON-NLS-1$
+            out.write("              </lines>\n"); //$NON-NLS-1$
+            out.write("            </method>\n"); //$NON-NLS-1$
+        }
+        out.write("          </methods>\n"); //$NON-NLS-1$
+        out.write("          <lines>\n"); //$NON-NLS-1$
+        for (int line = src.nextLine(0); line >= 0; line = src.nextLine(line + 1)) {
+            out.write("            <line number=\"" + line + "\" hits=\"" + src.getLineCount(line) //$NON-NLS-1$ //$NON-NLS-2$
+                    + "\" branch=\"false\"/>\n"); //$NON-NLS-1$
+        }
+        out.write("          </lines>\n"); //$NON-NLS-1$
+        out.write("        </class>\n"); //$NON-NLS-1$
+    }
+
+    private static String relativize(String sourceRoot, String name) {
+        if (sourceRoot != null) {
+            try {
+                Path root = Paths.get(sourceRoot).normalize();
+                Path p = Paths.get(name).normalize();
+                if (p.isAbsolute() == root.isAbsolute() && p.startsWith(root)) {
+                    name = root.relativize(p).toString();
+                }
+            } catch (InvalidPathException e) {
+                // keep the name as is
+            }
+        }
+        return name.replace('\\', '/');
+    }
+
+    private static String rate(int executed, int instrumented) {
+        return instrumented == 0 ? "1" : Double.toString((double) executed / instrumented); //$NON-NLS-1$
+    }
+
+    private static String escape(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+    }
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.eclipse.linuxtools.internal.gcov.parser.CovExporter;
+import org.eclipse.linuxtools.internal.gcov.parser.CovSummary;
+import org.eclipse.osgi.util.NLS;
+
+/**
+ * Headless application exporting gcov results, e.g. from a continuous
+ * integration job:
+ * <pre>
+ * eclipse -nosplash -application org.eclipse.linuxtools.gcov.core.export \
+ *     -gcda shard1 -gcda shard2 -objdir build -root src -lcov out.info -cobertura coverage.xml
+ * </pre>
+ * Each -gcda argument is a run, whose counts are merged with the other ones.
+ */
+public class CovExportApplication implements IApplication {
+
+    @Override
+    public Object start(IApplicationContext context) {
+        String[] args = (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+        return Integer.valueOf(run(args != null ? args : new String[0], System.out));
+    }
+
+    @Override
+    public void stop() {
+        // nothing to do: the export is not interruptible
+    }
+
+    /**
+     * Run the export.
+     * @param args command line arguments
+     * @param out stream on which the result or the errors are reported
+     * @return the exit code: 0 on success, 1 on error
+     */
+    public static int run(String[] args, PrintStream out) {
+        List<File> shards = new ArrayList<>();
+        List<File> tracefiles = new ArrayList<>();
+        File objectDirectory = null;
+        File lcovFile = null;
+        File coberturaFile = null;
+        String sourceRoot = null;
+        String testName = null;
+        int nbrThreads = 0;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (!arg.startsWith("-")) { //$NON-NLS-1$
+                    throw new IllegalArgumentException(NLS.bind(Messages.CovExportApplication_Unknown_Argument, arg));
+                }
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException(NLS.bind(Messages.CovExportApplication_Missing_Value, arg));
+                }
+                String value = args[++i];
+                switch (arg) {
+                case "-gcda": //$NON-NLS-1$
+                    shards.add(new File(value));
+                    break;
+                case "-objdir": //$NON-NLS-1$
+                    objectDirectory = new File(value);
+                    break;
+                case "-merge": //$NON-NLS-1$
+                    tracefiles.add(new File(value));
+                    break;
+                case "-lcov": //$NON-NLS-1$
+                    lcovFile = new File(value);
+                    break;
+                case "-cobertura": //$NON-NLS-1$
+                    coberturaFile = new File(value);
+                    break;
+                case "-root": //$NON-NLS-1$
+                    sourceRoot = new File(value).getAbsolutePath();
+                    break;
+                case "-testname": //$NON-NLS-1$
+                    testName = value;
+                    break;
+                case "-threads": //$NON-NLS-1$
+                    nbrThreads = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException(NLS.bind(Messages.CovExportApplication_Unknown_Argument, arg));
+                }
+            }
+            if (shards.isEmpty() && tracefiles.isEmpty()) {
+                throw new IllegalArgumentException(Messages.CovExportApplication_Usage);
+            }
+        } catch (IllegalArgumentException e) {
+            out.println(e.getMessage());
+            if (!Messages.CovExportApplication_Usage.equals(e.getMessage())) {
+                out.println(Messages.CovExportApplication_Usage);
+            }
+            return 1;
+        }
+
+        try {
+            CovExporter exporter = new CovExporter();
+            exporter.setNbrThreads(nbrThreads);
+            exporter.setObjectDirectory(objectDirectory);
+            CovSummary summary = shards.isEmpty() ? new CovSummary() : exporter.processShards(shards);
+            for (File tracefile : tracefiles) {
+                try (Reader reader = new InputStreamReader(Files.newInputStream(tracefile.toPath()),
+                        StandardCharsets.UTF_8)) {
+                    LcovReader.read(reader, summary);
+                }
+            }
+            if (lcovFile != null) {
+                try (Writer writer = new OutputStreamWriter(Files.newOutputStream(lcovFile.toPath()),
+                        StandardCharsets.UTF_8)) {
+                    LcovWriter.write(summary, testName, writer);
+                }
+            }
+            if (coberturaFile != null) {
+                try (Writer writer = new OutputStreamWriter(Files.newOutputStream(coberturaFile.toPath()),
+                        StandardCharsets.UTF_8)) {
+                    CoberturaWriter.write(summary, sourceRoot, System.currentTimeMillis(), writer);
+                }
+            }
+            out.println(NLS.bind(Messages.CovExportApplication_Summary, new Object[] { summary.getSources().size(),
+                    summary.getLinesExecuted(), summary.getLinesInstrumented() }));
+            return 0;
+        } catch (CoreException e) {
+            out.println(NLS.bind(Messages.CovExportApplication_Error, e.getStatus().getMessage()));
+        } catch (IOException e) {
+            out.println(NLS.bind(Messages.CovExportApplication_Error, e.getMessage()));
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.export;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.linuxtools.internal.gcov.parser.CovSummary;
+import org.eclipse.osgi.util.NLS;
+
+/**
+ * Read lcov tracefiles (see {@link LcovWriter}), so that coverage results of
+ * several runs or machines can be merged. Only function and line counts are
+ * read: other records (e.g. branches) are ignored.
+ */
+public final class LcovReader {
+
+    private LcovReader() {
+    }
+
+    /**
+     * Add the counts of a tracefile to a summary.
+     * @param in reader of the tracefile
+     * @param summary summary to which counts are added
+     * @throws IOException if the tracefile cannot be read or is invalid
+     */
+    public static void read(Reader in, CovSummary summary) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        CovSummary.Source src = null;
+        Map<String, Integer> fnctnLines = new HashMap<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            try {
+                if (line.startsWith("SF:")) { //$NON-NLS-1$
+                    src = summary.getOrAddSource(line.substring(3));
+                    fnctnLines.clear();
+                } else if (line.equals("end_of_record")) { //$NON-NLS-1$
+                    src = null;
+                } else if (src != null && line.startsWith("DA:")) { //$NON-NLS-1$
+                    String[] fields = line.substring(3).split(","); //$NON-NLS-1$
+                    src.addLineCount(Integer.parseInt(fields[0]), Long.parseLong(fields[1]));
+                } else if (src != null && line.startsWith("FN:")) { //$NON-NLS-1$
+                    // FN:<line>,<name> or FN:<line>,<end line>,<name>
+                    String[] fields = line.substring(3).split(",", 2); //$NON-NLS-1$
+                    String name = fields[1];
+                    int comma = name.indexOf(',');
+                    if (comma > 0 && isNumber(name.substring(0, comma))) {
+                        name = name.substring(comma + 1);
+                    }
+                    fnctnLines.put(name, Integer.valueOf(fields[0]));
+                } else if (src != null && line.startsWith("FNDA:")) { //$NON-NLS-1$
+                    String[] fields = line.substring(5).split(",", 2); //$NON-NLS-1$
+                    Integer firstLine = fnctnLines.get(fields[1]);
+                    src.addFunctionCount(fields[1], firstLine != null ? firstLine.intValue() : 0,
+                            Long.parseLong(fields[0]));
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException(NLS.bind(Messages.LcovReader_Invalid_Line, lineNumber, line), e);
+            }
+        }
+    }
+
+    private static boolean isNumber(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (!Character.isDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return !s.isEmpty();
+    }
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.eclipse.linuxtools.internal.gcov.parser.CovSummary;
+
+/**
+ * Write a coverage summary in the lcov tracefile format (see geninfo(1)):
+ * one record per source file, with function and line counts.
+ */
+public final class LcovWriter {
+
+    private LcovWriter() {
+    }
+
+    /**
+     * @param summary coverage summary
+     * @param testName name of the test, or null
+     * @param out writer of the tracefile
+     * @throws IOException
+     */
+    public static void write(CovSummary summary, String testName, Writer out) throws IOException {
+        for (CovSummary.Source src : summary.getSources()) {
+            out.write("TN:"); //$NON-NLS-1$
+            out.write(testName != null ? testName : ""); //$NON-NLS-1$
+            out.write('\n');
+            out.write("SF:"); //$NON-NLS-1$
+            out.write(src.getName());
+            out.write('\n');
+            int fnctnsHit = 0;
+            for (CovSummary.Function f : src.getFunctions()) {
+                out.write("FN:" + f.getFirstLine() + ',' + f.getName() + '\n'); //$NON-NLS-1$
+            }
+            for (CovSummary.Function f : src.getFunctions()) {
+                out.write("FNDA:" + f.getCount() + ',' + f.getName() + '\n'); //$NON-NLS-1$
+                if (f.getCount() != 0) {
+                    fnctnsHit++;
+                }
+            }
+            out.write("FNF:" + src.getFunctions().size() + '\n'); //$NON-NLS-1$
+            out.write("FNH:" + fnctnsHit + '\n'); //$NON-NLS-1$
+            int linesFound = 0;
+            int linesHit = 0;
+            for (int line = src.nextLine(0); line >= 0; line = src.nextLine(line + 1)) {
+                long count = src.getLineCount(line);
+                out.write("DA:" + line + ',' + count + '\n'); //$NON-NLS-1$
+                linesFound++;
+                if (count != 0) {
+                    linesHit++;
+                }
+            }
+            out.write("LF:" + linesFound + '\n'); //$NON-NLS-1$
+            out.write("LH:" + linesHit + '\n'); //$NON-NLS-1$
+            out.write("end_of_record\n"); //$NON-NLS-1$
+        }
+    }
+}
@@ -21,9 +21,9 @@ public abstract class AbstractTreeElement implements TreeElement{
     private final TreeElement parent;
     private final LinkedList<TreeElement> children = new LinkedList<>();
     private final String name;
-    private final int totalLines;
-    private final int executedLines;
-    private final int instrumentedLines;
+    private int totalLines;
+    private int executedLines;
+    private int instrumentedLines;
 
     public AbstractTreeElement(TreeElement parent, String name, int totalLines,
             int executedLines, int instrumentedLines) {
@@ -80,6 +80,15 @@ public abstract class AbstractTreeElement implements TreeElement{
         else return 0;
     }
 
+    /**
+     * Update the counts of this element, when coverage data has been refreshed
+     */
+    public void setCounts(int totalLines, int executedLines, int instrumentedLines) {
+        this.totalLines = totalLines;
+        this.executedLines = executedLines;
+        this.instrumentedLines = instrumentedLines;
+    }
+
     public void addChild(TreeElement child){
         children.add(child);
     }
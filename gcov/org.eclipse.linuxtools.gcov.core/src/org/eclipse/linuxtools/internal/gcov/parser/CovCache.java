@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.linuxtools.internal.gcov.Activator;
+
+/**
+ * On-disk cache of solved coverage data, one file per binary.
+ *
+ * Each parsed gcno/gcda pair is stored with the size and modification time
+ * of both files and a CRC of the gcda file: an entry is only reused if none
+ * of them changed, so that only modified object files are parsed again. The
+ * gcda file holds the counters and is small, so its checksum catches a new
+ * run within the timestamp resolution; the gcno file is only checked by size
+ * and time, it changes with a new build which also changes the gcda file.
+ */
+final class CovCache {
+
+    private static final int MAGIC = 0x67637663; // gcvc
+    private static final int VERSION = 2;
+    private static final String CACHE_FOLDER = "coverage"; //$NON-NLS-1$
+
+    private final File file;
+    private final String binaryPath;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private static final class Entry {
+        String gcnoPath;
+        long gcnoSize, gcnoStamp, gcdaSize, gcdaStamp, gcdaCrc;
+        byte[] data;
+    }
+
+    /**
+     * Constructor
+     * @param file the cache file
+     * @param binaryPath the binary whose coverage data is cached
+     */
+    CovCache(File file, String binaryPath) {
+        this.file = file;
+        this.binaryPath = binaryPath;
+    }
+
+    /**
+     * @param binaryPath
+     * @return the default location of the cache file of the given binary, in the plug-in state location, or
+     *         null if it is not available
+     */
+    static File getDefaultCacheFile(String binaryPath) {
+        Activator activator = Activator.getDefault();
+        if (activator == null) {
+            return null;
+        }
+        IPath location = activator.getStateLocation().append(CACHE_FOLDER);
+        String name = Integer.toHexString(new File(binaryPath).getAbsolutePath().hashCode()) + ".bin"; //$NON-NLS-1$
+        return location.append(name).toFile();
+    }
+
+    /**
+     * Load the cache file. A missing, unreadable or outdated cache file is ignored.
+     */
+    void load() {
+        entries.clear();
+        if (!file.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !binaryPath.equals(readString(in))) {
+                return;
+            }
+            int nbrEntries = in.readInt();
+            for (int i = 0; i < nbrEntries; i++) {
+                String gcdaPath = readString(in);
+                Entry e = new Entry();
+                e.gcnoPath = readString(in);
+                e.gcnoSize = in.readLong();
+                e.gcnoStamp = in.readLong();
+                e.gcdaSize = in.readLong();
+                e.gcdaStamp = in.readLong();
+                e.gcdaCrc = in.readLong();
+                e.data = new byte[in.readInt()];
+                in.readFully(e.data);
+                entries.put(gcdaPath, e);
+            }
+        } catch (IOException | RuntimeException e) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @param objectFile
+     * @return the cached data of the given object file, or null if it is not cached or not up to date
+     */
+    byte[] get(CovObjectFile objectFile) {
+        Entry e = entries.get(objectFile.getGcdaFile().getPath());
+        if (e != null && e.gcnoPath.equals(objectFile.getGcnoFile().getPath())
+                && e.gcnoSize == objectFile.getGcnoSize() && e.gcnoStamp == objectFile.getGcnoStamp()
+                && e.gcdaSize == objectFile.getGcdaSize() && e.gcdaStamp == objectFile.getGcdaStamp()
+                && e.gcdaCrc == objectFile.getGcdaCrc()) {
+            return e.data;
+        }
+        return null;
+    }
+
+    /**
+     * Save the given object files in the cache file. Entries of other object files are kept, so that opening the
+     * coverage of a single gcda file does not invalidate the others. Nothing is written if all the given object
+     * files were loaded from the cache.
+     * @param objectFiles
+     */
+    void save(List<CovObjectFile> objectFiles) {
+        boolean modified = false;
+        Map<String, Entry> others = new LinkedHashMap<>(entries);
+        for (CovObjectFile objectFile : objectFiles) {
+            if (objectFile.getData() == null) {
+                return;
+            }
+            modified |= get(objectFile) != objectFile.getData();
+            others.remove(objectFile.getGcdaFile().getPath());
+        }
+        if (!modified) {
+            return;
+        }
+        // several managers may save the same cache: each writes its own file, then replaces the cache at once
+        Path tmp = null;
+        try {
+            file.getParentFile().mkdirs();
+            tmp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp"); //$NON-NLS-1$
+            write(tmp, objectFiles, others);
+            try {
+                Files.move(tmp, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            if (tmp != null) {
+                tmp.toFile().delete();
+            }
+            Activator activator = Activator.getDefault();
+            if (activator != null) {
+                activator.getLog().log(new Status(IStatus.WARNING, Activator.PLUGIN_ID, e.getMessage(), e));
+            }
+        }
+    }
+
+    private void write(Path tmp, List<CovObjectFile> objectFiles, Map<String, Entry> others) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, binaryPath);
+            out.writeInt(objectFiles.size() + others.size());
+            for (CovObjectFile objectFile : objectFiles) {
+                writeString(out, objectFile.getGcdaFile().getPath());
+                writeString(out, objectFile.getGcnoFile().getPath());
+                out.writeLong(objectFile.getGcnoSize());
+                out.writeLong(objectFile.getGcnoStamp());
+                out.writeLong(objectFile.getGcdaSize());
+                out.writeLong(objectFile.getGcdaStamp());
+                out.writeLong(objectFile.getGcdaCrc());
+                out.writeInt(objectFile.getData().length);
+                out.write(objectFile.getData());
+            }
+            for (Map.Entry<String, Entry> other : others.entrySet()) {
+                Entry e = other.getValue();
+                writeString(out, other.getKey());
+                writeString(out, e.gcnoPath);
+                out.writeLong(e.gcnoSize);
+                out.writeLong(e.gcnoStamp);
+                out.writeLong(e.gcdaSize);
+                out.writeLong(e.gcdaStamp);
+                out.writeLong(e.gcdaCrc);
+                out.writeInt(e.data.length);
+                out.write(e.data);
+            }
+        }
+    }
+
+    /**
+     * @param file
+     * @return the CRC-32 of the contents of the given file
+     * @throws IOException
+     */
+    static long checksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = new FileInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, n);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException();
+        }
+        byte[] b = new byte[length];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.linuxtools.internal.gcov.Activator;
+import org.eclipse.osgi.util.NLS;
+
+/**
+ * Headless processing of gcda files, e.g. for continuous integration: gcno/gcda pairs are parsed and solved as
+ * {@link CovManager} does, but each object file is folded in a {@link CovSummary} as soon as it is solved, and no view
+ * model is built. Nothing is cached and the user is never prompted: a missing gcno file is an error.
+ * <p>
+ * Gcda files of several shards (e.g. test runs on several machines, written with GCOV_PREFIX) are processed in
+ * parallel and merged. The gcno files may be located in a separate object directory, see
+ * {@link #setObjectDirectory(File)}.
+ */
+public class CovExporter {
+
+    /** Number of gcda files processed by each task */
+    private static final int CHUNK_SIZE = 32;
+
+    /**
+     * A gcno/gcda pair, only parsed when its chunk is processed
+     */
+    private static final class ObjectFilePaths {
+        private final File gcno;
+        private final File gcda;
+
+        ObjectFilePaths(File gcno, File gcda) {
+            this.gcno = gcno;
+            this.gcda = gcda;
+        }
+    }
+
+    private int nbrThreads = 0;
+    private File objectDirectory;
+
+    /**
+     * @param nbrThreads number of threads used to process gcda files, 0 for one per available processor
+     */
+    public void setNbrThreads(int nbrThreads) {
+        this.nbrThreads = nbrThreads;
+    }
+
+    /**
+     * @param objectDirectory directory containing the gcno files, mirroring the directory tree of each shard, or
+     *            null if gcno files are next to gcda files
+     */
+    public void setObjectDirectory(File objectDirectory) {
+        this.objectDirectory = objectDirectory;
+    }
+
+    /**
+     * Process the gcda files of one run.
+     * @param gcdaPaths paths of gcda files, whose gcno file is next to them
+     * @return the summary of the counts of these files
+     * @throws CoreException, IOException
+     */
+    public CovSummary process(List<String> gcdaPaths) throws CoreException, IOException {
+        List<ObjectFilePaths> objectFiles = new ArrayList<>(gcdaPaths.size());
+        for (String gcdaPath : gcdaPaths) {
+            File gcda = new File(gcdaPath).getAbsoluteFile();
+            objectFiles.add(createObjectFile(gcda, new File(toGcno(gcda.getPath()))));
+        }
+        return processAll(Collections.singletonList(objectFiles));
+    }
+
+    /**
+     * Process the gcda files of several runs in parallel, and merge their counts.
+     * @param shardRoots for each run, a gcda file or a directory searched for gcda files
+     * @return the merged summary
+     * @throws CoreException, IOException
+     */
+    public CovSummary processShards(List<File> shardRoots) throws CoreException, IOException {
+        List<List<ObjectFilePaths>> shards = new ArrayList<>(shardRoots.size());
+        for (File root : shardRoots) {
+            Path rootPath = root.getAbsoluteFile().toPath().normalize();
+            List<ObjectFilePaths> objectFiles = new ArrayList<>();
+            for (Path gcda : findGcdaFiles(rootPath)) {
+                File gcno;
+                if (objectDirectory != null) {
+                    Path relative = Files.isDirectory(rootPath) ? rootPath.relativize(gcda) : gcda.getFileName();
+                    gcno = new File(toGcno(objectDirectory.toPath().resolve(relative).toString()));
+                } else {
+                    gcno = new File(toGcno(gcda.toString()));
+                }
+                objectFiles.add(createObjectFile(gcda.toFile(), gcno));
+            }
+            shards.add(objectFiles);
+        }
+        return processAll(shards);
+    }
+
+    /**
+     * @param root a gcda file or a directory
+     * @return the gcda files found in this directory tree, sorted by path
+     * @throws IOException
+     */
+    public static List<Path> findGcdaFiles(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return Collections.singletonList(root);
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(p -> p.getFileName().toString().endsWith(".gcda") //$NON-NLS-1$
+                    && Files.isRegularFile(p)).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static String toGcno(String gcdaPath) {
+        return gcdaPath.substring(0, gcdaPath.length() - ".gcda".length()) + ".gcno"; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static ObjectFilePaths createObjectFile(File gcda, File gcno) throws CoreException {
+        if (!gcno.isFile()) {
+            String message = NLS.bind(Messages.CovExporter_Gcno_Not_Found, gcno, gcda);
+            throw new CoreException(new Status(IStatus.ERROR, Activator.PLUGIN_ID, message));
+        }
+        return new ObjectFilePaths(gcno, gcda);
+    }
+
+    /**
+     * Object files of all shards are processed by chunks on a common pool: each chunk is folded in its own summary,
+     * then summaries are merged in order, so that the result does not depend on the scheduling.
+     */
+    private CovSummary processAll(List<List<ObjectFilePaths>> shards) throws CoreException, IOException {
+        List<List<ObjectFilePaths>> chunks = new ArrayList<>();
+        List<Integer> chunkShards = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            List<ObjectFilePaths> objectFiles = shards.get(i);
+            for (int start = 0; start < objectFiles.size(); start += CHUNK_SIZE) {
+                chunks.add(objectFiles.subList(start, Math.min(objectFiles.size(), start + CHUNK_SIZE)));
+                chunkShards.add(i);
+            }
+        }
+
+        int threads = nbrThreads > 0 ? nbrThreads : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = threads > 1 && chunks.size() > 1 ? new ForkJoinPool(threads) : null;
+        List<CovSummary> chunkSummaries;
+        try {
+            chunkSummaries = CovManager.runAll(pool, chunks, chunk -> {
+                CovSummary summary = new CovSummary();
+                for (ObjectFilePaths paths : chunk) {
+                    // parsed data is released as soon as it is folded in the summary
+                    CovObjectFile objectFile = new CovObjectFile(paths.gcno.getPath(), paths.gcno, paths.gcda);
+                    summary.addObjectFile(objectFile.process(null));
+                }
+                return summary;
+            });
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        CovSummary[] shardSummaries = new CovSummary[shards.size()];
+        for (int i = 0; i < chunkSummaries.size(); i++) {
+            int shard = chunkShards.get(i);
+            if (shardSummaries[shard] == null) {
+                shardSummaries[shard] = chunkSummaries.get(i);
+            } else {
+                shardSummaries[shard].mergeObjectFiles(chunkSummaries.get(i));
+            }
+        }
+        CovSummary result = new CovSummary();
+        for (CovSummary shardSummary : shardSummaries) {
+            if (shardSummary != null) {
+                result.merge(shardSummary);
+            }
+        }
+        return result;
+    }
+}
@@ -11,23 +11,33 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.gcov.parser;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.DataInput;
-import java.io.DataInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.LineNumberReader;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
 import org.eclipse.core.resources.IProject;
@@ -37,13 +47,18 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.linuxtools.binutils.elf.ElfFile;
 import org.eclipse.linuxtools.binutils.utils.STStrings;
 import org.eclipse.linuxtools.binutils.utils.STSymbolManager;
 import org.eclipse.linuxtools.internal.gcov.Activator;
+import org.eclipse.linuxtools.internal.gcov.model.AbstractTreeElement;
 import org.eclipse.linuxtools.internal.gcov.model.CovFileTreeElement;
 import org.eclipse.linuxtools.internal.gcov.model.CovFolderTreeElement;
 import org.eclipse.linuxtools.internal.gcov.model.CovFunctionTreeElement;
 import org.eclipse.linuxtools.internal.gcov.model.CovRootTreeElement;
+import org.eclipse.linuxtools.internal.gcov.model.TreeElement;
+import org.eclipse.linuxtools.internal.gcov.preferences.ParserPreferencePage;
+import org.eclipse.linuxtools.internal.gcov.utils.GcovRecordReader;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.FileDialog;
@@ -66,11 +81,18 @@ public class CovManager implements Serializable {
     private final String binaryPath;
     // results
     private final ArrayList<Folder> allFolders = new ArrayList<>();
+    private final HashMap<String, Folder> folderMap = new HashMap<>();
     private final ArrayList<SourceFile> allSrcs = new ArrayList<>();
     private final ArrayList<GcnoFunction> allFnctns = new ArrayList<>();
     private final HashMap<String, SourceFile> sourceMap = new HashMap<>();
     private long nbrPgmRuns = 0;
+    private int nbrThreads = 0;
+    private File cacheFile;
+    private boolean cacheEnabled = true;
+    private final transient ArrayList<CovObjectFile> objectFiles = new ArrayList<>();
+    private Boolean folderTree;
     // for view
+    private final transient HashMap<Folder, CovFolderTreeElement> folderElements = new HashMap<>();
     private CovRootTreeElement rootNode;
     private final IProject project;
 
@@ -95,14 +117,13 @@ public class CovManager implements Serializable {
 
     /**
      * parse coverage files, execute resolve graph algorithm, process counts for functions, lines and folders.
+     * gcno/gcda pairs are parsed and solved on a fork-join pool, see {@link #setNbrThreads(int)}. Results are
+     * cached per binary, and only the gcno/gcda pairs modified since the last call are parsed again.
      * @param List of coverage files paths
      * @throws CoreException, IOException, InterruptedException
      */
 
     public void processCovFiles(List<String> covFilesPaths, String initialGcda) throws CoreException, IOException {
-        GcdaRecordsParser daRcrd = null;
-        DataInput traceFile;
-
         Map<File, File> sourcePath = new HashMap<>();
 
         if (initialGcda != null) {
@@ -122,98 +143,342 @@ public class CovManager implements Serializable {
             }
         }
 
+        // locate every gcno/gcda pair first: this may prompt the user, so it
+        // has to be done sequentially, before any parsing job is started
+        List<CovObjectFile> objectFiles = new ArrayList<>(covFilesPaths.size());
         for (String gcdaPath : covFilesPaths) {
             String gcnoPath = gcdaPath.replace(".gcda", ".gcno"); //$NON-NLS-1$ //$NON-NLS-2$
-            // parse GCNO file
-            traceFile = openTraceFileStream(gcnoPath, ".gcno", sourcePath); //$NON-NLS-1$
-            if (traceFile == null) {
+            File gcnoFile = findTraceFile(gcnoPath, ".gcno", sourcePath); //$NON-NLS-1$
+            if (gcnoFile == null) {
                 return;
             }
-            GcnoRecordsParser noRcrd = new GcnoRecordsParser(sourceMap, allSrcs);
-            noRcrd.parseData(traceFile);
-
-            // add new functions parsed to AllSrcs array
-            for (GcnoFunction f : noRcrd.getFnctns()) {
-                allFnctns.add(f);
+            File gcdaFile = findTraceFile(gcdaPath, ".gcda", sourcePath); //$NON-NLS-1$
+            if (gcdaFile == null) {
+                return;
             }
+            objectFiles.add(new CovObjectFile(gcnoPath, gcnoFile, gcdaFile));
+        }
 
-            // close the input stream
-            if (traceFile.getClass() == DataInputStream.class) {
-                ((DataInputStream) traceFile).close();
+        CovCache cache = openCache();
+        ForkJoinPool pool = createPool(objectFiles.size());
+        try {
+            // parse GCNO/GCDA files and solve graph for each function,
+            // unless up to date results are found in the cache
+            runAll(pool, objectFiles, objectFile -> objectFile.process(cache));
+            if (cache != null) {
+                cache.save(objectFiles);
+            }
+            for (CovObjectFile objectFile : objectFiles) {
+                mergeObjectFile(objectFile);
             }
+            this.objectFiles.addAll(objectFiles);
 
-            // parse GCDA file
-            traceFile = openTraceFileStream(gcdaPath, ".gcda", sourcePath); //$NON-NLS-1$
-            if (traceFile == null) {
-                return;
+            // to fill the view title
+            if (!objectFiles.isEmpty()) {
+                nbrPgmRuns = objectFiles.get(objectFiles.size() - 1).getPgmSmryNbrPgmRuns();
             }
-            if (noRcrd.getFnctns().isEmpty()) {
-                String message = NLS.bind(Messages.CovManager_No_Funcs_Error, gcnoPath);
-                Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, message);
-                throw new CoreException(status);
+
+            /* process counts from data parsed */
+
+            // allocate lines
+            runAll(pool, allSrcs, sourceFile -> {
+                sourceFile.createLines();
+                return sourceFile;
+            });
+
+            countLines(pool);
+
+            /* compute counts by folder */
+
+            // make the folders list: sources are indexed by normalized parent path
+            for (SourceFile sf : allSrcs) {
+                String folderName = getFolderPath(sf.getName());
+                Folder folder = folderMap.get(folderName);
+                if (folder == null) {
+                    folder = new Folder(folderName);
+                    folderMap.put(folderName, folder);
+                    allFolders.add(folder);
+                }
+                folder.addSrcFiles(sf);
             }
-            daRcrd = new GcdaRecordsParser(noRcrd.getFnctns());
-            daRcrd.parseGcdaRecord(traceFile);
 
-            // close the input stream
-            if (traceFile.getClass() == DataInputStream.class) {
-                ((DataInputStream) traceFile).close();
+            // assign sourcesList for each folder
+            accumulateFolderCounts(pool);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
             }
         }
+    }
 
-        // to fill the view title
-        if (daRcrd != null) {
-            nbrPgmRuns = daRcrd.getPgmSmryNbrPgmRuns();
+    /**
+     * Update the counts of the model in place after some gcda files have been modified, e.g. by a new run of the
+     * program: only the gcda files whose size or timestamp changed are parsed again. Sources, folders, functions
+     * and tree elements are kept, so that clients holding them see the new counts.
+     * @param gcdaFiles gcda files that may have been modified, see {@link #getGcdaFiles()}
+     * @return false if the model cannot be updated in place because a gcno file has changed (i.e. the program has
+     *         been rebuilt): coverage files have to be processed again by a new CovManager
+     * @throws CoreException, IOException
+     */
+    public boolean updateCovFiles(Collection<File> gcdaFiles) throws CoreException, IOException {
+        Set<File> candidates = new HashSet<>();
+        for (File f : gcdaFiles) {
+            candidates.add(f.getAbsoluteFile());
+        }
+        List<CovObjectFile> modified = new ArrayList<>();
+        for (CovObjectFile objectFile : objectFiles) {
+            if (candidates.contains(objectFile.getGcdaFile()) && objectFile.isModified()) {
+                if (objectFile.isRebuilt()) {
+                    return false;
+                }
+                modified.add(objectFile);
+            }
+        }
+        if (modified.isEmpty()) {
+            return true;
         }
 
-        /* process counts from data parsed */
+        CovCache cache = openCache();
+        ForkJoinPool pool = createPool(modified.size());
+        try {
+            List<CovObjectFile> parsed = runAll(pool, modified, objectFile -> new CovObjectFile(
+                    objectFile.getGcnoPath(), objectFile.getGcnoFile(), objectFile.getGcdaFile()).process(cache));
+            for (int i = 0; i < modified.size(); i++) {
+                if (!modified.get(i).isCompatible(parsed.get(i))) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < modified.size(); i++) {
+                modified.get(i).updateCounts(parsed.get(i));
+            }
+            if (cache != null) {
+                cache.save(modified);
+            }
+            nbrPgmRuns = objectFiles.get(objectFiles.size() - 1).getPgmSmryNbrPgmRuns();
+
+            // line counts are not additive per object file (a line may be shared by
+            // several functions), so they are all computed again from block counts
+            runAll(pool, allSrcs, sourceFile -> {
+                sourceFile.resetLineCounts();
+                return sourceFile;
+            });
+            for (GcnoFunction gf : allFnctns) {
+                gf.getCvrge().reset();
+            }
+            countLines(pool);
+            accumulateFolderCounts(pool);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        if (rootNode != null) {
+            updateGcovView();
+        }
+        return true;
+    }
 
-        // solve graph for each function
-        for (GcnoFunction gf : allFnctns) {
-            gf.solveGraphFnctn();
+    private CovCache openCache() {
+        if (!cacheEnabled) {
+            return null;
         }
+        File cacheLocation = cacheFile != null ? cacheFile : CovCache.getDefaultCacheFile(binaryPath);
+        CovCache cache = cacheLocation != null ? new CovCache(cacheLocation, binaryPath) : null;
+        if (cache != null) {
+            cache.load();
+        }
+        return cache;
+    }
 
-        // allocate lines
-        for (SourceFile sourceFile : allSrcs) {
-            sourceFile.createLines();
+    private ForkJoinPool createPool(int nbrTasks) {
+        int threads = getNbrThreads();
+        if (threads > 1 && nbrTasks > 1) {
+            return new ForkJoinPool(threads);
         }
+        return null;
+    }
 
-        // add line counts
+    /**
+     * Compute line counts from the block counts of all functions, then accumulate them by source file.
+     */
+    private void countLines(ForkJoinPool pool) throws CoreException, IOException {
+        // add line counts: several functions may share the same lines, so this
+        // step is kept sequential to preserve the instrumented/executed counts
         for (GcnoFunction gf : allFnctns) {
             gf.addLineCounts(allSrcs);
         }
 
         // accumulate lines
-        for (SourceFile sf : allSrcs) {
-            sf.accumulateLineCounts();
+        runAll(pool, allSrcs, sourceFile -> {
+            sourceFile.accumulateLineCounts();
+            return sourceFile;
+        });
+    }
+
+    private void accumulateFolderCounts(ForkJoinPool pool) throws CoreException, IOException {
+        runAll(pool, allFolders, folder -> {
+            folder.accumulateSourcesCounts();
+            return folder;
+        });
+    }
+
+    /**
+     * @param sourceName
+     * @return the normalized path of the folder of a source file, so that e.g. "src/a.c" and "src/./b.c" are
+     *         in the same folder
+     */
+    private static String getFolderPath(String sourceName) {
+        String folderName = new File(sourceName).getParent();
+        if (folderName == null) {
+            return "?"; //$NON-NLS-1$
+        }
+        try {
+            String normalized = Paths.get(folderName).normalize().toString();
+            return normalized.isEmpty() ? folderName : normalized;
+        } catch (InvalidPathException e) {
+            return folderName;
         }
+    }
 
-        /* compute counts by folder */
+    /**
+     * Merge the sources and functions parsed from one object file in the global model. Object files are merged in
+     * the order of the coverage files list, so that source indexes and functions order do not depend on the order
+     * in which parsing jobs complete.
+     * @param objectFile a parsed object file
+     */
+    private void mergeObjectFile(CovObjectFile objectFile) {
+        List<SourceFile> localSrcs = objectFile.getSrcs();
+        int[] indexes = new int[localSrcs.size() + 1];
+        for (SourceFile localSrc : localSrcs) {
+            SourceFile src = sourceMap.get(localSrc.getName());
+            if (src == null) {
+                src = new SourceFile(localSrc.getName(), allSrcs.size() + 1);
+                allSrcs.add(src);
+                sourceMap.put(src.getName(), src);
+            }
+            if (localSrc.getNumLines() > src.getNumLines()) {
+                src.setNumLines(localSrc.getNumLines());
+            }
+            for (GcnoFunction f : localSrc.getFnctns()) {
+                src.addFnctn(f);
+            }
+            indexes[localSrc.getIndex()] = src.getIndex();
+        }
+        for (GcnoFunction f : objectFile.getFnctns()) {
+            f.remapSources(indexes);
+            allFnctns.add(f);
+        }
+    }
 
-        // make the folders list
-        for (SourceFile sf : allSrcs) {
-            File srcFile = new File(sf.getName());
-            String folderName = srcFile.getParent();
-            if (folderName == null) {
-                folderName = "?"; //$NON-NLS-1$
+    /**
+     * Apply a task on each element of a list, using the given pool if any. Results are returned in the order of the
+     * input list.
+     */
+    static <T, R> List<R> runAll(ForkJoinPool pool, List<T> elements, CovTask<T, R> task)
+            throws CoreException, IOException {
+        List<R> results = new ArrayList<>(elements.size());
+        if (pool == null) {
+            for (T element : elements) {
+                results.add(task.run(element));
             }
-            Folder folder = null;
-            for (Folder f : allFolders) {
-                if (f.getPath().equals(folderName)) {
-                    folder = f;
+            return results;
+        }
+        List<Callable<R>> callables = new ArrayList<>(elements.size());
+        for (T element : elements) {
+            callables.add(() -> task.run(element));
+        }
+        for (Future<R> future : pool.invokeAll(callables)) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof CoreException) {
+                    throw (CoreException) cause;
+                } else if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
                 }
+                throw new IOException(cause);
             }
-            if (folder == null) {
-                folder = new Folder(folderName);
-                allFolders.add(folder);
-            }
-            folder.addSrcFiles(sf);
         }
+        return results;
+    }
+
+    @FunctionalInterface
+    interface CovTask<T, R> {
+        R run(T element) throws CoreException, IOException;
+    }
+
+    /**
+     * @return the number of threads used to process coverage files
+     */
+    public int getNbrThreads() {
+        if (nbrThreads > 0) {
+            return nbrThreads;
+        }
+        int threads = 0;
+        Activator activator = Activator.getDefault();
+        if (activator != null) {
+            threads = activator.getPreferenceStore().getInt(ParserPreferencePage.PREFKEY_COV_PARSER_THREADS);
+        }
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+        return threads;
+    }
+
+    /**
+     * Set the number of threads used to process coverage files. 1 processes them sequentially, 0 (the default)
+     * uses the value from the preferences.
+     * @param nbrThreads
+     */
+    public void setNbrThreads(int nbrThreads) {
+        this.nbrThreads = nbrThreads;
+    }
+
+    /**
+     * Set the file used to cache the solved coverage data. By default, a file of the plug-in state location is
+     * used.
+     * @param cacheFile
+     */
+    public void setCacheFile(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Enable or disable the cache of solved coverage data (enabled by default). When disabled, all coverage files
+     * are parsed, and nothing is read from or written to the cache file.
+     * @param cacheEnabled
+     */
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
 
-        // assign sourcesList for each folder
-        for (Folder f : allFolders) {
-            f.accumulateSourcesCounts();
+    /**
+     * @return true if folders are shown as a directory tree, false if they are shown as a flat list
+     */
+    public boolean isFolderTree() {
+        if (folderTree != null) {
+            return folderTree.booleanValue();
         }
+        Activator activator = Activator.getDefault();
+        return activator != null
+                && activator.getPreferenceStore().getBoolean(ParserPreferencePage.PREFKEY_COV_FOLDER_TREE);
+    }
+
+    /**
+     * Show folders as a directory tree or as a flat list in the model filled by {@link #fillGcovView()}. By
+     * default, the value from the preferences is used.
+     * @param folderTree
+     */
+    public void setFolderTree(boolean folderTree) {
+        this.folderTree = Boolean.valueOf(folderTree);
     }
 
     /**
@@ -222,39 +487,148 @@ public class CovManager implements Serializable {
      */
 
     public void fillGcovView() {
-        // process counts for summary level
-        int summaryTotal = 0, summaryInstrumented = 0, summaryExecuted = 0;
-        for (Folder f : allFolders) {
-            summaryTotal += f.getNumLines();
-            summaryInstrumented += f.getLinesInstrumented();
-            summaryExecuted += f.getLinesExecuted();
-        }
-
         // fill rootNode model: the entry of the contentProvider
-        rootNode = new CovRootTreeElement(Messages.CovManager_Summary, summaryTotal, summaryExecuted,
-                summaryInstrumented);
+        rootNode = new CovRootTreeElement(Messages.CovManager_Summary, 0, 0, 0);
+        folderElements.clear();
         IBinaryObject binaryObject = STSymbolManager.sharedInstance.getBinaryObject(new Path(binaryPath));
 
-        for (Folder fldr : allFolders) {
-            String folderLocation = fldr.getPath();
-            CovFolderTreeElement fldrTreeElem = new CovFolderTreeElement(rootNode, folderLocation, fldr.getNumLines(),
-                    fldr.getLinesExecuted(), fldr.getLinesInstrumented());
-            rootNode.addChild(fldrTreeElem);
+        if (isFolderTree()) {
+            DirectoryNode top = new DirectoryNode(null);
+            for (Folder fldr : allFolders) {
+                top.getDescendant(fldr.getPath()).folder = fldr;
+            }
+            for (DirectoryNode child : top.children.values()) {
+                addDirectoryElement(rootNode, child, child.name, binaryObject);
+            }
+        } else {
+            for (Folder fldr : allFolders) {
+                CovFolderTreeElement fldrTreeElem = new CovFolderTreeElement(rootNode, fldr.getPath(), 0, 0, 0);
+                rootNode.addChild(fldrTreeElem);
+                addSourceElements(fldrTreeElem, fldr, binaryObject);
+            }
+        }
+        // process counts for folder and summary levels
+        accumulateElementCounts(rootNode);
+    }
+
+    /**
+     * Add the element of a directory. Directories without sources and with a single sub-directory are merged with
+     * it, so that common prefixes (e.g. the home directory) do not add useless levels.
+     */
+    private void addDirectoryElement(AbstractTreeElement parent, DirectoryNode dir, String name,
+            IBinaryObject binaryObject) {
+        while (dir.folder == null && dir.children.size() == 1) {
+            dir = dir.children.values().iterator().next();
+            name = name.endsWith(File.separator) ? name + dir.name : name + File.separator + dir.name;
+        }
+        CovFolderTreeElement fldrTreeElem = new CovFolderTreeElement(parent, name, 0, 0, 0);
+        parent.addChild(fldrTreeElem);
+        // sources come first, see updateGcovView()
+        if (dir.folder != null) {
+            addSourceElements(fldrTreeElem, dir.folder, binaryObject);
+        }
+        for (DirectoryNode child : dir.children.values()) {
+            addDirectoryElement(fldrTreeElem, child, child.name, binaryObject);
+        }
+    }
+
+    private void addSourceElements(CovFolderTreeElement fldrTreeElem, Folder fldr, IBinaryObject binaryObject) {
+        folderElements.put(fldr, fldrTreeElem);
+        for (SourceFile src : fldr.getSrcFiles()) {
+            CovFileTreeElement srcTreeElem = new CovFileTreeElement(fldrTreeElem, src.getName(), src.getNumLines(),
+                    src.getLinesExecuted(), src.getLinesInstrumented());
+            fldrTreeElem.addChild(srcTreeElem);
+
+            for (GcnoFunction fnctn : src.getFnctns()) {
+                String name = fnctn.getName();
+                name = STSymbolManager.sharedInstance.demangle(binaryObject, name, project);
+                srcTreeElem.addChild(new CovFunctionTreeElement(srcTreeElem, name, fnctn.getSrcFile(), fnctn
+                        .getFirstLineNmbr(), fnctn.getCvrge().getLinesExecuted(), fnctn.getCvrge()
+                        .getLinesInstrumented()));
+            }
+        }
+    }
 
+    /**
+     * Set the counts of the root and folder elements to the sum of the counts of their children.
+     * @return the total, executed and instrumented line counts of the element
+     */
+    private static int[] accumulateElementCounts(AbstractTreeElement elem) {
+        int[] counts = new int[3];
+        for (TreeElement child : elem.getChildren()) {
+            if (child instanceof CovFolderTreeElement) {
+                int[] childCounts = accumulateElementCounts((CovFolderTreeElement) child);
+                counts[0] += childCounts[0];
+                counts[1] += childCounts[1];
+                counts[2] += childCounts[2];
+            } else {
+                counts[0] += child.getTotalLines();
+                counts[1] += child.getExecutedLines();
+                counts[2] += child.getInstrumentedLines();
+            }
+        }
+        elem.setCounts(counts[0], counts[1], counts[2]);
+        return counts;
+    }
+
+    /**
+     * Update the counts of the tree elements created by {@link #fillGcovView()}: the children of each folder
+     * element are its sources, in the same order, possibly followed by sub-directories.
+     */
+    private void updateGcovView() {
+        for (Folder fldr : allFolders) {
+            CovFolderTreeElement fldrTreeElem = folderElements.get(fldr);
+            Iterator<? extends TreeElement> srcElems = fldrTreeElem.getChildren().iterator();
             for (SourceFile src : fldr.getSrcFiles()) {
-                CovFileTreeElement srcTreeElem = new CovFileTreeElement(fldrTreeElem, src.getName(), src.getNumLines(),
-                        src.getLinesExecuted(), src.getLinesInstrumented());
-                fldrTreeElem.addChild(srcTreeElem);
+                CovFileTreeElement srcTreeElem = (CovFileTreeElement) srcElems.next();
+                srcTreeElem.setCounts(src.getNumLines(), src.getLinesExecuted(), src.getLinesInstrumented());
 
+                Iterator<? extends TreeElement> fnctnElems = srcTreeElem.getChildren().iterator();
                 for (GcnoFunction fnctn : src.getFnctns()) {
-                    String name = fnctn.getName();
-                    name = STSymbolManager.sharedInstance.demangle(binaryObject, name, project);
-                    srcTreeElem.addChild(new CovFunctionTreeElement(srcTreeElem, name, fnctn.getSrcFile(), fnctn
-                            .getFirstLineNmbr(), fnctn.getCvrge().getLinesExecuted(), fnctn.getCvrge()
-                            .getLinesInstrumented()));
+                    ((CovFunctionTreeElement) fnctnElems.next()).setCounts(-1, fnctn.getCvrge().getLinesExecuted(),
+                            fnctn.getCvrge().getLinesInstrumented());
                 }
             }
         }
+        accumulateElementCounts(rootNode);
+    }
+
+    /**
+     * A directory of the tree of folders, see {@link CovManager#isFolderTree()}
+     */
+    private static final class DirectoryNode {
+        private final String name;
+        private final Map<String, DirectoryNode> children = new LinkedHashMap<>();
+        private Folder folder;
+
+        DirectoryNode(String name) {
+            this.name = name;
+        }
+
+        DirectoryNode getDescendant(String path) {
+            List<String> segments = new ArrayList<>();
+            try {
+                java.nio.file.Path p = Paths.get(path);
+                if (p.getRoot() != null) {
+                    segments.add(p.getRoot().toString());
+                }
+                for (java.nio.file.Path segment : p) {
+                    segments.add(segment.toString());
+                }
+            } catch (InvalidPathException e) {
+                segments.add(path);
+            }
+            DirectoryNode node = this;
+            for (String segment : segments) {
+                DirectoryNode child = node.children.get(segment);
+                if (child == null) {
+                    child = new DirectoryNode(segment);
+                    node.children.put(segment, child);
+                }
+                node = child;
+            }
+            return node;
+        }
     }
 
     // Get the Windows OS Type.  We might have to change a path over to Windows format
@@ -293,18 +667,15 @@ public class CovManager implements Serializable {
         return s;
     }
 
-    // transform String path to stream
-    private DataInput openTraceFileStream(String filePath, String extension, Map<File, File> sourcePath)
-            throws FileNotFoundException {
+    // locate a coverage file, asking the user if it cannot be found
+    private File findTraceFile(String filePath, String extension, Map<File, File> sourcePath) {
         Path p = new Path(filePath);
         // get the file path transformed to work on local OS (e.g. Windows)
         filePath = getTransformedPathString(p);
         File f = new File(filePath).getAbsoluteFile();
         String filename = f.getName();
         if (f.isFile() && f.canRead()) {
-            FileInputStream fis = new FileInputStream(f);
-            InputStream inputStream = new BufferedInputStream(fis);
-            return new DataInputStream(inputStream);
+            return f;
         } else {
             String postfix = ""; //$NON-NLS-1$
             File dir = null;
@@ -325,7 +696,7 @@ public class CovManager implements Serializable {
             if (dir != null) {
                 f = new File(dir, postfix);
                 if (f.isFile() && f.canRead()) {
-                    return openTraceFileStream(f.getAbsolutePath(), extension, sourcePath);
+                    return findTraceFile(f.getAbsolutePath(), extension, sourcePath);
                 }
             }
 
@@ -341,9 +712,7 @@ public class CovManager implements Serializable {
                 f = new File(s).getAbsoluteFile();
                 addSourceLookup(sourcePath, f, new File(filePath).getAbsoluteFile());
                 if (f.isFile() && f.canRead()) {
-                    FileInputStream fis = new FileInputStream(f);
-                    InputStream inputStream = new BufferedInputStream(fis);
-                    return new DataInputStream(inputStream);
+                    return f;
                 }
             }
         }
@@ -354,6 +723,17 @@ public class CovManager implements Serializable {
         return allSrcs;
     }
 
+    /**
+     * @return the gcda files processed by this manager, once located on the local file system
+     */
+    public List<File> getGcdaFiles() {
+        List<File> files = new ArrayList<>(objectFiles.size());
+        for (CovObjectFile objectFile : objectFiles) {
+            files.add(objectFile.getGcdaFile());
+        }
+        return files;
+    }
+
     public ArrayList<GcnoFunction> getAllFnctns() {
         return allFnctns;
     }
@@ -375,28 +755,100 @@ public class CovManager implements Serializable {
     }
 
     /**
-     * Retrieve a list containing gcda paths from a binary file
+     * Retrieve a list containing gcda paths from a binary file. The data sections of ELF binaries are scanned
+     * directly, the strings tool is used for other binaries.
      * @return
      * @throws InterruptedException
      */
     public List<String> getGCDALocations() throws InterruptedException {
         IBinaryObject binaryObject = STSymbolManager.sharedInstance.getBinaryObject(new Path(binaryPath));
         String binaryPath = binaryObject.getPath().toOSString();
+        Set<String> locations = new LinkedHashSet<>();
+        try {
+            readGCDALocations(new File(binaryPath), locations);
+        } catch (IOException e) {
+            // not an ELF file: use the strings tool
+        }
+        if (!locations.isEmpty()) {
+            return new LinkedList<>(locations);
+        }
+
         STStrings strings = STSymbolManager.sharedInstance.getStrings(binaryObject, project);
-        List<String> l = new LinkedList<>();
         Process p;
         p = getStringsProcess(strings.getName(), strings.getArgs(), binaryPath);
         if (p == null) {
             Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, IStatus.ERROR,
                     Messages.CovManager_Retrieval_Error, new IOException());
             Activator.getDefault().getLog().log(status);
-            return l;
+            return new LinkedList<>();
         }
-        ThreadConsumer t = new ThreadConsumer(p, l);
+        ThreadConsumer t = new ThreadConsumer(p, locations);
         t.start();
         p.waitFor();
         t.join();
-        return l;
+        return new LinkedList<>(locations);
+    }
+
+    /**
+     * Find gcda paths in the initialized data sections of an ELF binary, as the strings tool would: gcda paths are
+     * NUL-terminated strings referenced by the gcov_info structure of each object file.
+     * @param binary an ELF binary
+     * @param locations set to which gcda paths are added
+     * @throws IOException if the binary is not an ELF file
+     */
+    static void readGCDALocations(File binary, Set<String> locations) throws IOException {
+        byte[] suffix = ".gcda".getBytes(StandardCharsets.US_ASCII); //$NON-NLS-1$
+        try (ElfFile elf = ElfFile.open(binary)) {
+            for (ElfFile.Section section : elf.getSections()) {
+                if (section.getType() != ElfFile.SHT_PROGBITS || (section.getFlags() & ElfFile.SHF_ALLOC) == 0
+                        || (section.getFlags() & ElfFile.SHF_EXECINSTR) != 0) {
+                    continue;
+                }
+                ByteBuffer data = elf.getData(section);
+                int limit = data.limit();
+                // look for the NUL terminating each ".gcda" suffix
+                for (int end = suffix.length; end < limit; end++) {
+                    if (data.get(end) != 0 || data.get(end - 1) != 'a' || !endsWith(data, end, suffix)) {
+                        continue;
+                    }
+                    int start = end - suffix.length;
+                    while (start > 0 && isPrintable(data.get(start - 1))) {
+                        start--;
+                    }
+                    byte[] chars = new byte[end - start];
+                    for (int i = 0; i < chars.length; i++) {
+                        chars[i] = data.get(start + i);
+                    }
+                    addGCDALocation(locations, new String(chars, StandardCharsets.ISO_8859_1));
+                }
+            }
+        }
+    }
+
+    private static boolean endsWith(ByteBuffer data, int end, byte[] suffix) {
+        for (int i = 0; i < suffix.length; i++) {
+            if (data.get(end - suffix.length + i) != suffix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // printable characters, as defined by the strings tool
+    private static boolean isPrintable(byte b) {
+        return (b >= 0x20 && b < 0x7f) || b == '\t';
+    }
+
+    private static void addGCDALocation(Set<String> locations, String line) {
+        // absolute .gcda filepaths retrieved using the "strings" tool may
+        // be prefixed by random printable characters so strip leading
+        // characters until the filepath starts with "X:/", "X:\", "/"  or "\"
+        // FIXME: need a more robust mechanism to locate .gcda files [Bugzilla 329710]
+        while ((line.length() > 6) && !line.matches("^([A-Za-z]:)?[/\\\\].*")) { //$NON-NLS-1$
+            line = line.substring(1);
+        }
+        IPath p = new Path(line);
+        locations.add(p.toString());
     }
 
     private Process getStringsProcess(String stringsTool, String[] stringsArgs, String binaryPath) {
@@ -413,12 +865,12 @@ public class CovManager implements Serializable {
 
     private static final class ThreadConsumer extends Thread {
         private final Process p;
-        private final List<String> list;
+        private final Set<String> locations;
 
-        ThreadConsumer(Process p, List<String> files) {
+        ThreadConsumer(Process p, Set<String> files) {
             super();
             this.p = p;
-            this.list = files;
+            this.locations = files;
         }
 
         @Override
@@ -436,19 +888,7 @@ public class CovManager implements Serializable {
             while ((line = lnr.readLine()) != null) {
                 if (line.endsWith(".gcda")) //$NON-NLS-1$
                 {
-                    // absolute .gcda filepaths retrieved using the "strings" tool may
-                    // be prefixed by random printable characters so strip leading
-                    // characters until the filepath starts with "X:/", "X:\", "/"  or "\"
-                    // FIXME: need a more robust mechanism to locate .gcda files [Bugzilla 329710]
-                    while ((line.length() > 6) && !line.matches("^([A-Za-z]:)?[/\\\\].*")) { //$NON-NLS-1$
-                        line = line.substring(1);
-                    }
-                    IPath p = new Path(line);
-                    String filename = p.toString();
-
-                    if (!list.contains(filename)) {
-                        list.add(filename);
-                    }
+                    addGCDALocation(locations, line);
                 }
             }
         }
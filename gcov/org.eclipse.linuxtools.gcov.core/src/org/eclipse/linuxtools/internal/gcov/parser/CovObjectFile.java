@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.linuxtools.internal.gcov.Activator;
+import org.eclipse.linuxtools.internal.gcov.utils.GcovRecordReader;
+import org.eclipse.linuxtools.internal.gcov.utils.MasksGenerator;
+import org.eclipse.osgi.util.NLS;
+
+/**
+ * A gcno/gcda pair, parsed independently of the other pairs.
+ *
+ * Once parsed and solved, only the block counts and line encodings of its
+ * functions are needed to compute line counts: this is what is stored in the
+ * coverage cache (see {@link CovCache}).
+ */
+final class CovObjectFile {
+    private final String gcnoPath;
+    private final File gcnoFile;
+    private final File gcdaFile;
+    private final HashMap<String, SourceFile> srcMap = new HashMap<>();
+    private final ArrayList<SourceFile> srcs = new ArrayList<>();
+    private ArrayList<GcnoFunction> fnctns;
+    private long pgmSmryNbrPgmRuns;
+    private long gcnoSize, gcnoStamp, gcdaSize, gcdaStamp, gcdaCrc;
+    private byte[] data;
+
+    CovObjectFile(String gcnoPath, File gcnoFile, File gcdaFile) {
+        this.gcnoPath = gcnoPath;
+        this.gcnoFile = gcnoFile;
+        this.gcdaFile = gcdaFile;
+    }
+
+    /**
+     * Load this object file from the cache if it is up to date, parse it otherwise.
+     * @param cache the coverage cache, or null
+     * @return this object file
+     * @throws CoreException
+     * @throws IOException
+     */
+    CovObjectFile process(CovCache cache) throws CoreException, IOException {
+        gcnoSize = gcnoFile.length();
+        gcnoStamp = gcnoFile.lastModified();
+        gcdaSize = gcdaFile.length();
+        gcdaStamp = gcdaFile.lastModified();
+        if (cache != null) {
+            gcdaCrc = CovCache.checksum(gcdaFile);
+            byte[] cached = cache.get(this);
+            if (cached != null) {
+                try {
+                    read(cached);
+                    data = cached;
+                    return this;
+                } catch (IOException e) {
+                    // corrupted entry: parse again
+                    srcMap.clear();
+                    srcs.clear();
+                }
+            }
+        }
+        parse();
+        if (cache != null) {
+            data = write();
+        }
+        return this;
+    }
+
+    /**
+     * @return true if the gcno or gcda file has been modified since this object file was processed
+     */
+    boolean isModified() {
+        return gcdaFile.length() != gcdaSize || gcdaFile.lastModified() != gcdaStamp || isRebuilt();
+    }
+
+    /**
+     * @return true if the gcno file has been modified since this object file was processed
+     */
+    boolean isRebuilt() {
+        return gcnoFile.length() != gcnoSize || gcnoFile.lastModified() != gcnoStamp;
+    }
+
+    /**
+     * @param other a new parse of the same gcno/gcda pair
+     * @return true if the functions of both object files have the same blocks, i.e. only their counts may differ
+     */
+    boolean isCompatible(CovObjectFile other) {
+        if (other.fnctns.size() != fnctns.size()) {
+            return false;
+        }
+        for (int i = 0; i < fnctns.size(); i++) {
+            GcnoFunction f = fnctns.get(i);
+            GcnoFunction o = other.fnctns.get(i);
+            if (f.getIdent() != o.getIdent() || f.getCheksum() != o.getCheksum()
+                    || f.getNumBlocks() != o.getNumBlocks()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copy the block counts of a new parse of the same gcno/gcda pair in the functions of this object file, which
+     * are kept merged in the global model. Line counts have to be computed again afterwards.
+     * @param other a compatible object file, see {@link #isCompatible(CovObjectFile)}
+     */
+    void updateCounts(CovObjectFile other) {
+        for (int i = 0; i < fnctns.size(); i++) {
+            GcnoFunction f = fnctns.get(i);
+            GcnoFunction o = other.fnctns.get(i);
+            for (int j = 0; j < f.getNumBlocks(); j++) {
+                f.setBlockCount(j, o.getBlockCount(j));
+            }
+        }
+        pgmSmryNbrPgmRuns = other.pgmSmryNbrPgmRuns;
+        gcnoSize = other.gcnoSize;
+        gcnoStamp = other.gcnoStamp;
+        gcdaSize = other.gcdaSize;
+        gcdaStamp = other.gcdaStamp;
+        gcdaCrc = other.gcdaCrc;
+        data = other.data;
+    }
+
+    private void parse() throws CoreException, IOException {
+        // parse GCNO file
+        GcnoRecordsParser noRcrd = new GcnoRecordsParser(srcMap, srcs);
+        noRcrd.parseData(GcovRecordReader.open(gcnoFile));
+        fnctns = noRcrd.getFnctns();
+
+        // parse GCDA file
+        if (fnctns.isEmpty()) {
+            String message = NLS.bind(Messages.CovManager_No_Funcs_Error, gcnoPath);
+            Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, message);
+            throw new CoreException(status);
+        }
+        GcdaRecordsParser daRcrd = new GcdaRecordsParser(fnctns);
+        daRcrd.parseGcdaRecord(GcovRecordReader.open(gcdaFile));
+        pgmSmryNbrPgmRuns = daRcrd.getPgmSmryNbrPgmRuns();
+
+        // solve graph for each function, then release the graph
+        for (GcnoFunction gf : fnctns) {
+            gf.solveGraphFnctn();
+            gf.compact();
+        }
+    }
+
+    /*
+     * Serialized form: program runs, sources (name, number of lines), then
+     * functions (ident, checksum, name, source, first line) with the count
+     * and line encoding of each of their blocks.
+     */
+
+    private byte[] write() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(pgmSmryNbrPgmRuns);
+            out.writeInt(srcs.size());
+            for (SourceFile src : srcs) {
+                writeString(out, src.getName());
+                out.writeInt(src.getNumLines());
+            }
+            out.writeInt(fnctns.size());
+            for (GcnoFunction f : fnctns) {
+                out.writeInt((int) f.getIdent());
+                out.writeInt((int) f.getCheksum());
+                writeString(out, f.getName());
+                writeString(out, f.getSrcFile());
+                out.writeInt((int) f.getFirstLineNmbr());
+                out.writeInt(f.getNumBlocks());
+                int[] starts = f.getLineStarts();
+                int[] enc = f.getLineEncodings();
+                for (int i = 0; i < f.getNumBlocks(); i++) {
+                    out.writeLong(f.getBlockCount(i));
+                    out.writeInt(starts[i + 1] - starts[i]);
+                    for (int j = starts[i]; j < starts[i + 1]; j++) {
+                        out.writeInt(enc[j]);
+                    }
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private void read(byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            pgmSmryNbrPgmRuns = in.readLong();
+            int nbrSrcs = in.readInt();
+            for (int i = 0; i < nbrSrcs; i++) {
+                SourceFile src = new SourceFile(readString(in), srcs.size() + 1);
+                src.setNumLines(in.readInt());
+                srcs.add(src);
+                srcMap.put(src.getName(), src);
+            }
+            int nbrFnctns = in.readInt();
+            fnctns = new ArrayList<>(nbrFnctns);
+            for (int i = 0; i < nbrFnctns; i++) {
+                long ident = in.readInt() & MasksGenerator.UNSIGNED_INT_MASK;
+                long chksm = in.readInt() & MasksGenerator.UNSIGNED_INT_MASK;
+                String name = readString(in);
+                String srcFile = readString(in);
+                long firstLine = in.readInt() & MasksGenerator.UNSIGNED_INT_MASK;
+                GcnoFunction f = new GcnoFunction(ident, chksm, name, srcFile, firstLine);
+                int nbrBlocks = in.readInt();
+                if (nbrBlocks < 0 || nbrBlocks > in.available()) {
+                    throw new IOException();
+                }
+                long[] counts = new long[nbrBlocks];
+                int[] starts = new int[nbrBlocks + 1];
+                int[] enc = new int[16];
+                int total = 0;
+                for (int j = 0; j < nbrBlocks; j++) {
+                    counts[j] = in.readLong();
+                    int n = in.readInt();
+                    if (n < 0 || n > in.available()) {
+                        throw new IOException();
+                    }
+                    starts[j] = total;
+                    if (total + n > enc.length) {
+                        enc = Arrays.copyOf(enc, Math.max(2 * enc.length, total + n));
+                    }
+                    for (int k = 0; k < n; k++) {
+                        enc[total++] = in.readInt();
+                    }
+                }
+                starts[nbrBlocks] = total;
+                f.setBlockData(counts, starts, Arrays.copyOf(enc, total));
+                SourceFile src = srcMap.get(srcFile);
+                if (src == null) {
+                    throw new IOException();
+                }
+                src.addFnctn(f);
+                fnctns.add(f);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException();
+        }
+        byte[] b = new byte[length];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    String getGcnoPath() {
+        return gcnoPath;
+    }
+
+    File getGcnoFile() {
+        return gcnoFile;
+    }
+
+    File getGcdaFile() {
+        return gcdaFile;
+    }
+
+    long getGcnoSize() {
+        return gcnoSize;
+    }
+
+    long getGcnoStamp() {
+        return gcnoStamp;
+    }
+
+    long getGcdaSize() {
+        return gcdaSize;
+    }
+
+    long getGcdaStamp() {
+        return gcdaStamp;
+    }
+
+    /**
+     * @return the CRC-32 of the gcda file, only computed if the object file is cached
+     */
+    long getGcdaCrc() {
+        return gcdaCrc;
+    }
+
+    /**
+     * @return the serialized form of this object file, or null if it is not cached
+     */
+    byte[] getData() {
+        return data;
+    }
+
+    List<SourceFile> getSrcs() {
+        return srcs;
+    }
+
+    List<GcnoFunction> getFnctns() {
+        return fnctns;
+    }
+
+    long getPgmSmryNbrPgmRuns() {
+        return pgmSmryNbrPgmRuns;
+    }
+}
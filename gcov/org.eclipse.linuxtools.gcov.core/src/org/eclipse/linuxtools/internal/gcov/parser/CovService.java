@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.linuxtools.internal.gcov.Activator;
+
+/**
+ * Workspace-level access to the coverage data of binaries. Coverage files of a binary are parsed once, and the
+ * result is shared by every client (e.g. the annotation model of each opened source editor) until the binary or one
+ * of its gcda files is modified. When only gcda files are modified, the coverage data is updated in place (see
+ * {@link CovManager#updateCovFiles(java.util.Collection)}), otherwise it is processed again, relying on the
+ * {@link CovCache} so that only the modified gcno/gcda pairs are parsed again.
+ * <p>
+ * In watch mode (see {@link CovWatcher#isEnabled()}), gcda files are watched and listeners are notified when they
+ * are modified, so that clients can query the updated coverage.
+ */
+public final class CovService {
+
+    private static final CovService INSTANCE = new CovService();
+
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Notified from a background thread when gcda files of a binary have been modified.
+         * @param binaryPath path of the binary
+         */
+        void coverageChanged(String binaryPath);
+    }
+
+    private final Map<String, BinaryCoverage> coverages = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private CovService() {
+    }
+
+    public static CovService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param binaryPath path of a binary compiled with coverage flags
+     * @return the up to date coverage data of this binary
+     * @throws CoreException, IOException, InterruptedException
+     */
+    public CovManager getCovManager(String binaryPath) throws CoreException, IOException, InterruptedException {
+        return getCoverage(binaryPath).getCovManager();
+    }
+
+    /**
+     * @param binaryPath path of a binary compiled with coverage flags
+     * @return the up to date list of source files covered by this binary
+     * @throws CoreException, IOException, InterruptedException
+     */
+    public List<SourceFile> getSourceFiles(String binaryPath) throws CoreException, IOException, InterruptedException {
+        return getCoverage(binaryPath).getCovManager().getAllSrcs();
+    }
+
+    /**
+     * Find the coverage of a source file. Relative source names are resolved against the folder of the binary.
+     * @param binaryPath path of a binary compiled with coverage flags
+     * @param sourceLocation absolute location of a source file
+     * @return the up to date coverage of this source file, or null if this binary does not cover it
+     * @throws CoreException, IOException, InterruptedException
+     */
+    public SourceFile getSourceFile(String binaryPath, String sourceLocation)
+            throws CoreException, IOException, InterruptedException {
+        String key = normalize(null, sourceLocation);
+        return key == null ? null : getCoverage(binaryPath).getSourceFile(key);
+    }
+
+    /**
+     * Forget the coverage data of a binary, e.g. when it is not tracked anymore.
+     * @param binaryPath path of a binary
+     */
+    public void remove(String binaryPath) {
+        BinaryCoverage coverage = coverages.remove(new File(binaryPath).getAbsolutePath());
+        if (coverage != null) {
+            coverage.stopWatching();
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireCoverageChanged(String binaryPath) {
+        for (Listener l : listeners) {
+            l.coverageChanged(binaryPath);
+        }
+    }
+
+    private BinaryCoverage getCoverage(String binaryPath) {
+        return coverages.computeIfAbsent(new File(binaryPath).getAbsolutePath(), BinaryCoverage::new);
+    }
+
+    private static String normalize(File folder, String path) {
+        try {
+            java.nio.file.Path p = Paths.get(path);
+            if (!p.isAbsolute()) {
+                if (folder == null) {
+                    return null;
+                }
+                p = folder.toPath().resolve(p);
+            }
+            return p.normalize().toString();
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Coverage data of one binary, along with the stamps of the files it has been computed from.
+     */
+    private final class BinaryCoverage {
+        private final String binaryPath;
+        private final File binaryFile;
+        private long binaryStamp = -1;
+        private CovManager covManager;
+        private Map<String, SourceFile> sourceIndex = Collections.emptyMap();
+        private CovWatcher watcher;
+
+        BinaryCoverage(String binaryPath) {
+            this.binaryPath = binaryPath;
+            this.binaryFile = new File(binaryPath);
+        }
+
+        synchronized CovManager getCovManager() throws CoreException, IOException, InterruptedException {
+            refresh();
+            return covManager;
+        }
+
+        synchronized SourceFile getSourceFile(String key) throws CoreException, IOException, InterruptedException {
+            refresh();
+            return sourceIndex.get(key);
+        }
+
+        private void refresh() throws CoreException, IOException, InterruptedException {
+            long stamp = stamp(binaryFile);
+            if (covManager != null && stamp == binaryStamp && covManager.updateCovFiles(covManager.getGcdaFiles())) {
+                return;
+            }
+            CovManager manager = new CovManager(binaryPath);
+            manager.processCovFiles(manager.getGCDALocations(), null);
+
+            File binaryFolder = binaryFile.getParentFile();
+            Map<String, SourceFile> index = new HashMap<>();
+            for (SourceFile sf : manager.getAllSrcs()) {
+                String key = normalize(binaryFolder, sf.getName());
+                if (key != null) {
+                    index.putIfAbsent(key, sf);
+                }
+            }
+
+            covManager = manager;
+            binaryStamp = stamp;
+            sourceIndex = index;
+            stopWatching();
+            if (CovWatcher.isEnabled()) {
+                // live updates are optional: e.g. the inotify limits may be reached on large trees
+                try {
+                    watcher = new CovWatcher(manager.getGcdaFiles(), files -> fireCoverageChanged(binaryPath));
+                } catch (IOException e) {
+                    Activator activator = Activator.getDefault();
+                    if (activator != null) {
+                        activator.getLog().log(new Status(IStatus.WARNING, Activator.PLUGIN_ID, e.getMessage(), e));
+                    }
+                }
+            }
+        }
+
+        synchronized void stopWatching() {
+            if (watcher != null) {
+                try {
+                    watcher.close();
+                } catch (IOException e) {
+                    // nothing to do
+                }
+                watcher = null;
+            }
+        }
+
+        private long stamp(File f) {
+            return f.lastModified() * 31 + f.length();
+        }
+    }
+}
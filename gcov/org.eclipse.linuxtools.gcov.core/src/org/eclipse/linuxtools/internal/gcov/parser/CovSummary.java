@@ -0,0 +1,257 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.parser;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Line and function counts by source file, without any view model. Object files are folded in a summary as soon as
+ * they are parsed (see {@link CovExporter}), and summaries of several runs (e.g. test shards or machines) can be
+ * merged.
+ */
+public class CovSummary {
+
+    /**
+     * Counts of a function
+     */
+    public static final class Function {
+        private final String name;
+        private final int firstLine;
+        private long count;
+
+        Function(String name, int firstLine) {
+            this.name = name;
+            this.firstLine = firstLine;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getFirstLine() {
+            return firstLine;
+        }
+
+        /**
+         * @return the number of calls of this function
+         */
+        public long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Counts of a source file
+     */
+    public static final class Source {
+        private final String name;
+        private long[] counts = new long[0];
+        private final BitSet lines = new BitSet();
+        private final Map<String, Function> functions = new LinkedHashMap<>();
+
+        Source(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return a number greater than the last instrumented line
+         */
+        public int getNumLines() {
+            return lines.length();
+        }
+
+        public boolean lineExists(int line) {
+            return lines.get(line);
+        }
+
+        public long getLineCount(int line) {
+            return line < counts.length ? counts[line] : 0;
+        }
+
+        /**
+         * @param line
+         * @return the next instrumented line, starting from the given one, or -1
+         */
+        public int nextLine(int line) {
+            return lines.nextSetBit(line);
+        }
+
+        public int getLinesInstrumented() {
+            return lines.cardinality();
+        }
+
+        public int getLinesExecuted() {
+            int executed = 0;
+            for (int i = lines.nextSetBit(0); i >= 0; i = lines.nextSetBit(i + 1)) {
+                if (counts[i] != 0) {
+                    executed++;
+                }
+            }
+            return executed;
+        }
+
+        public Collection<Function> getFunctions() {
+            return functions.values();
+        }
+
+        /**
+         * Mark a line as instrumented, and add to its execution count
+         * @param line
+         * @param count
+         */
+        public void addLineCount(int line, long count) {
+            if (line >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(line + 1, 2 * counts.length));
+            }
+            lines.set(line);
+            counts[line] += count;
+        }
+
+        /**
+         * Add to the number of calls of a function
+         * @param fnctnName
+         * @param firstLine
+         * @param count
+         */
+        public void addFunctionCount(String fnctnName, int firstLine, long count) {
+            Function f = functions.get(fnctnName);
+            if (f == null) {
+                f = new Function(fnctnName, firstLine);
+                functions.put(fnctnName, f);
+            }
+            f.count += count;
+        }
+
+        private void merge(Source other) {
+            for (int i = other.lines.nextSetBit(0); i >= 0; i = other.lines.nextSetBit(i + 1)) {
+                addLineCount(i, other.counts[i]);
+            }
+            for (Function f : other.functions.values()) {
+                addFunctionCount(f.name, f.firstLine, f.count);
+            }
+        }
+    }
+
+    // sorted by name, so that exports do not depend on the processing order
+    private final Map<String, Source> sources = new TreeMap<>();
+    private long nbrPgmRuns;
+
+    public Collection<Source> getSources() {
+        return sources.values();
+    }
+
+    public Source getSource(String name) {
+        return sources.get(name);
+    }
+
+    /**
+     * @param name
+     * @return the source with the given name, created if needed
+     */
+    public Source getOrAddSource(String name) {
+        Source src = sources.get(name);
+        if (src == null) {
+            src = new Source(name);
+            sources.put(name, src);
+        }
+        return src;
+    }
+
+    public long getNbrPgmRuns() {
+        return nbrPgmRuns;
+    }
+
+    public void setNbrPgmRuns(long nbrPgmRuns) {
+        this.nbrPgmRuns = nbrPgmRuns;
+    }
+
+    public int getLinesInstrumented() {
+        int total = 0;
+        for (Source src : sources.values()) {
+            total += src.getLinesInstrumented();
+        }
+        return total;
+    }
+
+    public int getLinesExecuted() {
+        int total = 0;
+        for (Source src : sources.values()) {
+            total += src.getLinesExecuted();
+        }
+        return total;
+    }
+
+    /**
+     * Merge the counts of another run (e.g. another test shard) in this summary: counts and program runs are added.
+     * @param other
+     */
+    public void merge(CovSummary other) {
+        mergeCounts(other);
+        nbrPgmRuns += other.nbrPgmRuns;
+    }
+
+    /**
+     * Merge the counts of other object files of the same run in this summary.
+     * @param other
+     */
+    void mergeObjectFiles(CovSummary other) {
+        mergeCounts(other);
+        nbrPgmRuns = Math.max(nbrPgmRuns, other.nbrPgmRuns);
+    }
+
+    private void mergeCounts(CovSummary other) {
+        for (Source src : other.sources.values()) {
+            getOrAddSource(src.name).merge(src);
+        }
+    }
+
+    /**
+     * Fold the line and function counts of a solved object file in this summary.
+     * @param objectFile
+     */
+    void addObjectFile(CovObjectFile objectFile) {
+        List<SourceFile> srcs = objectFile.getSrcs();
+        Source[] byIndex = new Source[srcs.size() + 1];
+        for (SourceFile sf : srcs) {
+            byIndex[sf.getIndex()] = getOrAddSource(sf.getName());
+        }
+        for (GcnoFunction f : objectFile.getFnctns()) {
+            int[] starts = f.getLineStarts();
+            int[] enc = f.getLineEncodings();
+            for (int i = 0; i < f.getNumBlocks(); i++) {
+                long count = f.getBlockCount(i);
+                Source src = null;
+                for (int k = starts[i]; k < starts[i + 1]; k++) {
+                    if (enc[k] == 0) {
+                        int srcn = enc[++k];
+                        src = srcn > 0 && srcn < byIndex.length ? byIndex[srcn] : null;
+                    } else if (src != null) {
+                        src.addLineCount(enc[k], count);
+                    }
+                }
+            }
+            Source fnctnSrc = getOrAddSource(f.getSrcFile());
+            fnctnSrc.addFunctionCount(f.getName(), (int) f.getFirstLineNmbr(),
+                    f.getNumBlocks() > 0 ? f.getBlockCount(0) : 0);
+        }
+        nbrPgmRuns = Math.max(nbrPgmRuns, objectFile.getPgmSmryNbrPgmRuns());
+    }
+}
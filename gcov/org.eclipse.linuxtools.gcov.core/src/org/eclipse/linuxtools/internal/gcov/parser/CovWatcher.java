@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.parser;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.linuxtools.internal.gcov.Activator;
+import org.eclipse.linuxtools.internal.gcov.preferences.ParserPreferencePage;
+
+/**
+ * Watch the folders of a set of gcda files, and notify a listener when some of them are written, e.g. at the end of
+ * each run of an instrumented program. Notifications are sent from a daemon thread, once no more gcda file has been
+ * written for {@link #QUIET_PERIOD} ms, so that a run writing many gcda files only triggers one notification.
+ */
+public final class CovWatcher implements Closeable {
+
+    /** Delay without any modification before listeners are notified, in ms */
+    public static final long QUIET_PERIOD = 500;
+
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * @param gcdaFiles watched gcda files that have been created or modified
+         */
+        void gcdaFilesChanged(Set<File> gcdaFiles);
+    }
+
+    /**
+     * @return true if coverage data should be updated when gcda files are modified
+     */
+    public static boolean isEnabled() {
+        Activator activator = Activator.getDefault();
+        return activator != null
+                && activator.getPreferenceStore().getBoolean(ParserPreferencePage.PREFKEY_COV_WATCH);
+    }
+
+    private final WatchService watchService;
+    private final Map<WatchKey, File> folders = new HashMap<>();
+    private final Set<File> gcdaFiles = new HashSet<>();
+    private final Listener listener;
+    private final Thread thread;
+
+    /**
+     * Start watching.
+     * @param gcdaFiles gcda files to watch, see {@link CovManager#getGcdaFiles()}
+     * @param listener listener notified when some of these files are modified
+     * @throws IOException if watching the folders of the gcda files is not possible
+     */
+    public CovWatcher(Collection<File> gcdaFiles, Listener listener) throws IOException {
+        this.listener = listener;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        try {
+            Set<File> registered = new HashSet<>();
+            for (File f : gcdaFiles) {
+                File gcda = f.getAbsoluteFile();
+                this.gcdaFiles.add(gcda);
+                File folder = gcda.getParentFile();
+                if (folder != null && folder.isDirectory() && registered.add(folder)) {
+                    WatchKey key = folder.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY);
+                    folders.put(key, folder);
+                }
+            }
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        thread = new Thread(this::watch, "Gcov watcher"); //$NON-NLS-1$
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watch() {
+        Set<File> changed = new LinkedHashSet<>();
+        try {
+            while (true) {
+                // block until a first event, then wait for the end of the burst
+                WatchKey key = changed.isEmpty() ? watchService.take()
+                        : watchService.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    listener.gcdaFilesChanged(changed);
+                    changed = new LinkedHashSet<>();
+                    continue;
+                }
+                File folder = folders.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (folder != null && context instanceof java.nio.file.Path) {
+                        File f = new File(folder, context.toString());
+                        if (gcdaFiles.contains(f)) {
+                            changed.add(f);
+                        }
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    /**
+     * Stop watching. No notification is sent once this method returns.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
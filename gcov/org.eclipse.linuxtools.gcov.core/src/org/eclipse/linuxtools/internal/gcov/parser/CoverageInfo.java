@@ -48,5 +48,10 @@ public class CoverageInfo implements Serializable{
         this.linesExecuted++;
     }
 
+    public void reset() {
+        this.linesInstrumented = 0;
+        this.linesExecuted = 0;
+    }
+
 
 }
@@ -34,6 +34,9 @@ public class Folder implements Serializable {
 
 
     public void accumulateSourcesCounts(){
+        numLines = 0;
+        linesInstrumented = 0;
+        linesExecuted = 0;
         for (SourceFile srcFile: srcFiles) {
             numLines += srcFile.getNumLines();
             linesInstrumented += srcFile.getLinesInstrumented();
@@ -10,8 +10,6 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.gcov.parser;
 
-import java.io.DataInput;
-import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -20,9 +18,8 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.linuxtools.internal.gcov.Activator;
-import org.eclipse.linuxtools.internal.gcov.utils.BEDataInputStream;
-import org.eclipse.linuxtools.internal.gcov.utils.LEDataInputStream;
-import org.eclipse.linuxtools.internal.gcov.utils.MasksGenerator;
+import org.eclipse.linuxtools.internal.gcov.utils.GcovRecordReader;
+import org.eclipse.linuxtools.internal.gcov.utils.LongObjectMap;
 import org.eclipse.osgi.util.NLS;
 
 public class GcdaRecordsParser {
@@ -34,6 +31,7 @@ public class GcdaRecordsParser {
     private static final int GCOV_TAG_PROGRAM_SUMMARY = 0xa3000000;
 
     private final ArrayList<GcnoFunction> fnctns;
+    private final LongObjectMap<GcnoFunction> fnctnsByIdent;
     private long objSmryNbrPgmRuns = 0;
     private long pgmSmryChksm = 0;
     private long pgmSmryNbrPgmRuns = 0;
@@ -45,30 +43,22 @@ public class GcdaRecordsParser {
 
     public GcdaRecordsParser(ArrayList<GcnoFunction> fnctns) {
         this.fnctns = fnctns;
+        this.fnctnsByIdent = new LongObjectMap<>(fnctns.size());
+        for (GcnoFunction f : fnctns) {
+            // keep the first function with a given ident
+            fnctnsByIdent.putIfAbsent(f.getIdent(), f);
+        }
     }
 
-    public void parseGcdaRecord(DataInput stream) throws IOException, CoreException {
-        // header data
-        int magic = 0;
-
+    public void parseGcdaRecord(GcovRecordReader stream) throws IOException, CoreException {
         // data & flags to process tests
         GcnoFunction currentFnctn = null;
 
         // read magic
-        magic = stream.readInt();
-
-        if (magic == GCOV_DATA_MAGIC) {
-            stream = new BEDataInputStream((DataInputStream) stream);
-        } else {
-            magic = (magic >> 16) | (magic << 16);
-            magic = ((magic & 0xff00ff) << 8) | ((magic >> 8) & 0xff00ff);
-            if (magic == GCOV_DATA_MAGIC) {
-                stream = new LEDataInputStream((DataInputStream) stream);
-            } else {
-                String message = NLS.bind(Messages.GcdaRecordsParser_magic_num_error, magic);
-                Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, message);
-                throw new CoreException(status);
-            }
+        if (!stream.readMagic(GCOV_DATA_MAGIC)) {
+            String message = NLS.bind(Messages.GcdaRecordsParser_magic_num_error, stream.getMagic());
+            Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, message);
+            throw new CoreException(status);
         }
 
         // read version
@@ -90,47 +80,39 @@ public class GcdaRecordsParser {
                     continue;
                 }
 
-                long length = (stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK);
+                long length = stream.readUnsignedInt();
                 // parse gcda data
                 switch (tag) {
                 case GCOV_TAG_FUNCTION: {
-                    long fnctnId = stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK;
+                    long fnctnId = stream.readUnsignedInt();
                     if (!fnctns.isEmpty()) {
-                        boolean fnctnFound = false;
-                        for (GcnoFunction f : fnctns) {
-                            if (f.getIdent() == fnctnId) {
-                                fnctnFound = true;
-                                currentFnctn = f;
-                                long fnctnChksm = stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK;
-                                if (f.getCheksum() != fnctnChksm) {
-                                    String message = NLS.bind(Messages.GcdaRecordsParser_checksum_error, new Object[] {
-                                            currentFnctn.getName(), fnctnId });
-                                    Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, message);
-                                    throw new CoreException(status);
-                                }
-
-                                /*
-                                 * danielhb, 2012-08-06: Gcov versions 4.7.0 or later (long value = 875575082) has
-                                 * different format for the data file: prior format: announce_function: header
-                                 * int32:ident int32:checksum new format: announce_function: header int32:ident
-                                 * int32:lineno_checksum int32:cfg_checksum TL;DR Need to consume the extra long value.
-                                 */
-                                if (version >= 875575082) {
-                                    // long cfgChksm = (stream.readInt()&MasksGenerator.UNSIGNED_INT_MASK);
-                                    stream.readInt();
-                                }
-
-                                break;
-                            }
-                        }
-
-                        if (!fnctnFound) {
+                        GcnoFunction f = fnctnsByIdent.get(fnctnId);
+                        if (f == null) {
                             currentFnctn = null;
                             String message = NLS.bind(Messages.GcdaRecordsParser_func_not_found, fnctnId);
                             Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, message);
                             throw new CoreException(status);
                         }
 
+                        currentFnctn = f;
+                        long fnctnChksm = stream.readUnsignedInt();
+                        if (f.getCheksum() != fnctnChksm) {
+                            String message = NLS.bind(Messages.GcdaRecordsParser_checksum_error, new Object[] {
+                                    currentFnctn.getName(), fnctnId });
+                            Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, message);
+                            throw new CoreException(status);
+                        }
+
+                        /*
+                         * danielhb, 2012-08-06: Gcov versions 4.7.0 or later (long value = 875575082) has
+                         * different format for the data file: prior format: announce_function: header
+                         * int32:ident int32:checksum new format: announce_function: header int32:ident
+                         * int32:lineno_checksum int32:cfg_checksum TL;DR Need to consume the extra long value.
+                         */
+                        if (version >= 875575082) {
+                            // long cfgChksm = (stream.readInt()&MasksGenerator.UNSIGNED_INT_MASK);
+                            stream.readInt();
+                        }
                     }
                     break;
                 }
@@ -165,7 +147,7 @@ public class GcdaRecordsParser {
                                 nonFakeExit++;
                             }
                             if (!extArc.isOnTree()) {
-                                long arcsCnts = stream.readLong();
+                                long arcsCnts = stream.readCounter();
                                 extArc.setCount(arcsCnts);
                                 extArc.setCountValid(true);
                                 b.decNumSuccs();
@@ -202,23 +184,23 @@ public class GcdaRecordsParser {
                 }
 
                 case GCOV_TAG_OBJECT_SYMMARY: {
-                    objSmryChksm = (stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK);
-                    objSmryArcCnts = (stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK);
-                    objSmryNbrPgmRuns = (stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK);
-                    objSmrytotalCnts = stream.readLong();
-                    objSmryRunMax = stream.readLong();
-                    objSmrySumMax = stream.readLong();
+                    objSmryChksm = stream.readUnsignedInt();
+                    objSmryArcCnts = stream.readUnsignedInt();
+                    objSmryNbrPgmRuns = stream.readUnsignedInt();
+                    objSmrytotalCnts = stream.readCounter();
+                    objSmryRunMax = stream.readCounter();
+                    objSmrySumMax = stream.readCounter();
                     break;
                 }
 
                 // program summary tag
                 case GCOV_TAG_PROGRAM_SUMMARY: {
                     // long[] pgmSmryskips = new long[(int) length];
-                    pgmSmryChksm = (stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK);
+                    pgmSmryChksm = stream.readUnsignedInt();
                     stream.readInt();
-                    pgmSmryNbrPgmRuns = (stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK);
+                    pgmSmryNbrPgmRuns = stream.readUnsignedInt();
                     for (int i = 0; i < length - 3; i++) {
-                        // pgmSmryskips[i] = (stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK);
+                        // pgmSmryskips[i] = stream.readUnsignedInt();
                         stream.readInt();
                     }
                     break;
@@ -24,6 +24,11 @@ public class GcnoFunction implements Serializable, Comparable<GcnoFunction> {
     private final String srcFile;
     private ArrayList<Block> functionBlocks = new ArrayList<>();
     private int numCounts = 0, numBlocks = 0;
+    // once the graph is solved, only block counts and line encodings are needed:
+    // they are kept in arrays, and the blocks and arcs are released (see compact())
+    private long[] blockCounts;
+    private int[] lineStarts;
+    private int[] lineEncodings;
     private final CoverageInfo cvrge = new CoverageInfo();
 
     public GcnoFunction(long fnctnIdent, long fnctnChksm, String fnctnName, String fnctnSrcFle, long fnctnFrstLnNmbr) {
@@ -45,36 +50,98 @@ public class GcnoFunction implements Serializable, Comparable<GcnoFunction> {
     }
 
     public void addLineCounts(ArrayList<SourceFile> srcs) {
+        if (blockCounts == null) {
+            compact();
+        }
         for (int i = 0; i != numBlocks; i++) {
-            Block blk = functionBlocks.get(i);
+            long count = blockCounts[i];
             SourceFile fileSrc = null;
 
-            long[] enc = blk.getEncoding();
-            for (int j = 0, k = 0; j != blk.getLineNum(); j++, k++) {
-                if (enc[k] == 0) {
-                    int srcn = (int) enc[++k];
-                    for (SourceFile sf : srcs) {
-                        if (sf.getIndex() == srcn) {
-                            fileSrc = sf;
-                            break;
+            // line encoding of a block: line numbers, each source change being
+            // encoded as 0 followed by the index of the new source
+            for (int k = lineStarts[i]; k < lineStarts[i + 1]; k++) {
+                int enc = lineEncodings[k];
+                if (enc == 0) {
+                    int srcn = lineEncodings[++k];
+                    // sources are usually stored by index (see CovManager)
+                    if (srcn > 0 && srcn <= srcs.size() && srcs.get(srcn - 1).getIndex() == srcn) {
+                        fileSrc = srcs.get(srcn - 1);
+                    } else {
+                        for (SourceFile sf : srcs) {
+                            if (sf.getIndex() == srcn) {
+                                fileSrc = sf;
+                                break;
+                            }
                         }
                     }
-                    j++;
-                } else if ((fileSrc != null) && enc[k] < fileSrc.getLines().size()) {
-                    Line line = fileSrc.getLines().get((int) enc[k]);
-                    if (!line.exists()) {
+                } else if ((fileSrc != null) && enc < fileSrc.getNumLines()) {
+                    if (!fileSrc.lineExists(enc)) {
                         cvrge.incLinesInstrumented();
                     }
-                    if ((line.getCount() == 0) && (blk.getCount() != 0)) {
+                    if ((fileSrc.getLineCount(enc) == 0) && (count != 0)) {
                         cvrge.incLinesExecuted();
                     }
-                    line.setExists(true);
-                    line.setCount(line.getCount() + blk.getCount());
+                    fileSrc.addLineCount(enc, count);
                 }
             }
         }
     }
 
+    /**
+     * Keep the block counts and line encodings of the solved graph in arrays,
+     * and release the blocks and arcs of the graph.
+     */
+    public void compact() {
+        int n = Math.min(numBlocks, functionBlocks.size());
+        long[] counts = new long[n];
+        int[] starts = new int[n + 1];
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            Block blk = functionBlocks.get(i);
+            counts[i] = blk.getCount();
+            total += blk.getEncoding() == null ? 0 : blk.getLineNum();
+        }
+        int[] encodings = new int[total];
+        for (int i = 0, k = 0; i < n; i++) {
+            Block blk = functionBlocks.get(i);
+            starts[i] = k;
+            long[] enc = blk.getEncoding();
+            int lineNum = enc == null ? 0 : blk.getLineNum();
+            for (int j = 0; j < lineNum; j++) {
+                encodings[k++] = (int) enc[j];
+            }
+        }
+        starts[n] = total;
+        setBlockData(counts, starts, encodings);
+    }
+
+    /**
+     * Set the block counts and line encodings of this function, once its graph has been solved
+     * @param counts count of each block
+     * @param starts index of the line encoding of each block in encodings, followed by the length of encodings
+     * @param encodings line encodings of all blocks
+     */
+    public void setBlockData(long[] counts, int[] starts, int[] encodings) {
+        this.blockCounts = counts;
+        this.lineStarts = starts;
+        this.lineEncodings = encodings;
+        this.numBlocks = counts.length;
+        this.functionBlocks = null;
+    }
+
+    /**
+     * Replace source indexes in line encodings, when this function is merged in a model with more sources
+     * @param indexes new index of each source, by old index
+     */
+    void remapSources(int[] indexes) {
+        for (int k = 0; k < lineEncodings.length; k++) {
+            if (lineEncodings[k] == 0) {
+                k++;
+                lineEncodings[k] = indexes[lineEncodings[k]];
+            }
+        }
+    }
+
     public void solveGraphFnctn() {
         ArrayList<Block> fnctnBlcks = this.functionBlocks;
         ArrayList<Block> validBlocks = new ArrayList<>();
@@ -233,6 +300,22 @@ public class GcnoFunction implements Serializable, Comparable<GcnoFunction> {
         this.functionBlocks = functionBlocks;
     }
 
+    public long getBlockCount(int i) {
+        return blockCounts[i];
+    }
+
+    public void setBlockCount(int i, long count) {
+        blockCounts[i] = count;
+    }
+
+    public int[] getLineStarts() {
+        return lineStarts;
+    }
+
+    public int[] getLineEncodings() {
+        return lineEncodings;
+    }
+
     public void incNumCounts() {
         this.numCounts++;
     }
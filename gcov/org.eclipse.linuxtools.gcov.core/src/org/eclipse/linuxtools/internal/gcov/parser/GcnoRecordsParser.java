@@ -10,8 +10,6 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.gcov.parser;
 
-import java.io.DataInput;
-import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -21,10 +19,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.linuxtools.internal.gcov.Activator;
-import org.eclipse.linuxtools.internal.gcov.utils.BEDataInputStream;
-import org.eclipse.linuxtools.internal.gcov.utils.GcovStringReader;
-import org.eclipse.linuxtools.internal.gcov.utils.LEDataInputStream;
-import org.eclipse.linuxtools.internal.gcov.utils.MasksGenerator;
+import org.eclipse.linuxtools.internal.gcov.utils.GcovRecordReader;
 import org.eclipse.osgi.util.NLS;
 
 public class GcnoRecordsParser {
@@ -55,9 +50,7 @@ public class GcnoRecordsParser {
         return newsrc; // return the new added element
     }
 
-    public void parseData(DataInput stream) throws IOException, CoreException {
-        // header data
-        int magic = 0;
+    public void parseData(GcovRecordReader stream) throws IOException, CoreException {
         // blocks data
         ArrayList<Block> blocks = null;
         // source file data
@@ -65,19 +58,10 @@ public class GcnoRecordsParser {
         // flag
         boolean parseFirstFnctn = false;
 
-        magic = stream.readInt();
-        if (magic == GCOV_NOTE_MAGIC) {
-            stream = new BEDataInputStream((DataInputStream) stream);
-        } else {
-            magic = (magic >> 16) | (magic << 16);
-            magic = ((magic & 0xff00ff) << 8) | ((magic >> 8) & 0xff00ff);
-            if (magic == GCOV_NOTE_MAGIC) {
-                stream = new LEDataInputStream((DataInputStream) stream);
-            } else {
-                String message = NLS.bind(Messages.GcnoRecordsParser_magic_num_error, magic);
-                Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, message);
-                throw new CoreException(status);
-            }
+        if (!stream.readMagic(GCOV_NOTE_MAGIC)) {
+            String message = NLS.bind(Messages.GcnoRecordsParser_magic_num_error, stream.getMagic());
+            Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, message);
+            throw new CoreException(status);
         }
 
         int version = stream.readInt();
@@ -107,8 +91,8 @@ public class GcnoRecordsParser {
                         fnctns.add(fnctn);
                     }
 
-                    long fnctnIdent = (stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK);
-                    long fnctnChksm = (stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK);
+                    long fnctnIdent = stream.readUnsignedInt();
+                    long fnctnChksm = stream.readUnsignedInt();
                     /*
                      * danielhb, 2012-08-06: Gcov versions 4.7.0 or later (long value = 875575082) has different format
                      * for the data file: prior format: announce_function: header int32:ident int32:checksum new format:
@@ -119,9 +103,9 @@ public class GcnoRecordsParser {
                         // long cfgChksm = (stream.readInt()&MasksGenerator.UNSIGNED_INT_MASK);
                         stream.readInt();
                     }
-                    String fnctnName = GcovStringReader.readString(stream);
-                    String fnctnSrcFle = GcovStringReader.readString(stream);
-                    long fnctnFrstLnNmbr = (stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK);
+                    String fnctnName = stream.readString();
+                    String fnctnSrcFle = stream.readString();
+                    long fnctnFrstLnNmbr = stream.readUnsignedInt();
 
                     fnctn = new GcnoFunction(fnctnIdent, fnctnChksm, fnctnName, fnctnSrcFle, fnctnFrstLnNmbr);
                     SourceFile srcFle2 = findOrAdd(fnctn.getSrcFile());
@@ -136,7 +120,7 @@ public class GcnoRecordsParser {
                 else if (tag == GCOV_TAG_BLOCKS) {
                     blocks = new ArrayList<>();
                     for (int i = 0; i < length; i++) {
-                        long BlckFlag = stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK;
+                        long BlckFlag = stream.readUnsignedInt();
                         Block blck = new Block(BlckFlag);
                         blocks.add(blck);
                     }
@@ -149,7 +133,7 @@ public class GcnoRecordsParser {
 
                     for (int i = 0; i < nmbrArcs; i++) {
                         int dstnatnBlockIndice = stream.readInt();
-                        long flag = (stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK);
+                        long flag = stream.readUnsignedInt();
                         Arc arc = new Arc(srcBlockIndice, dstnatnBlockIndice, flag, blocks);
                         arcs.add(arc);
                     }
@@ -198,7 +182,7 @@ public class GcnoRecordsParser {
                     long[] lineNos = new long[length - 1];
                     int ix = 0;
                     do {
-                        long lineNumber = stream.readInt() & MasksGenerator.UNSIGNED_INT_MASK;
+                        long lineNumber = stream.readUnsignedInt();
                         if (lineNumber != 0) {
                             if (ix == 0) {
                                 lineNos[ix++] = 0;
@@ -209,7 +193,7 @@ public class GcnoRecordsParser {
                                 source.setNumLines((int) lineNumber + 1);
                             }
                         } else {
-                            String fileName = GcovStringReader.readString(stream);
+                            String fileName = stream.readString();
                             if (fileName.equals(Messages.GcnoRecordsParser_null_string)){
                                 break;
                             }
@@ -20,6 +20,7 @@ public class Messages extends NLS {
     public static String CovManager_Summary;
     public static String CovManager_No_Funcs_Error;
     public static String CovManager_No_FilePath_Error;
+    public static String CovExporter_Gcno_Not_Found;
 
     public static String GcdaRecordsParser_content_inconsistent;
     public static String GcdaRecordsParser_func_block_empty;
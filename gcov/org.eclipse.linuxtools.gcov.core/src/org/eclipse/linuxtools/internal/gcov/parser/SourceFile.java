@@ -11,7 +11,8 @@
 package org.eclipse.linuxtools.internal.gcov.parser;
 
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -23,7 +24,9 @@ public class SourceFile implements Serializable {
     private static final long serialVersionUID = -9182882194956475711L;
     private final String name;
     private final int index;
-    private final ArrayList<Line> lines = new ArrayList<>();
+    // line counts, by line number, and lines that exist (i.e. are instrumented)
+    private long[] lineCounts = new long[0];
+    private BitSet linesExist = new BitSet();
     private final TreeSet<GcnoFunction> fnctns = new TreeSet<>();
     private int numLines = 1;
     private final CoverageInfo cvrge = new CoverageInfo();
@@ -39,21 +42,29 @@ public class SourceFile implements Serializable {
 
 
     public void accumulateLineCounts() {
-        for (Line line : lines) {
-            if (line.exists()) {
-                cvrge.incLinesInstrumented();
-                if (line.getCount() != 0) {
-                    cvrge.incLinesExecuted();
-                }
+        for (int i = linesExist.nextSetBit(0); i >= 0; i = linesExist.nextSetBit(i + 1)) {
+            cvrge.incLinesInstrumented();
+            if (lineCounts[i] != 0) {
+                cvrge.incLinesExecuted();
             }
         }
     }
 
+    /**
+     * Reset the counts of the lines of this file, before they are computed again
+     */
+    public void resetLineCounts() {
+        Arrays.fill(lineCounts, 0);
+        linesExist.clear();
+        cvrge.reset();
+        maxCount = -1;
+    }
+
     public long getmaxLineCount() {
         if (maxCount < 0) {
-            for (Line line : lines) {
-                if (line.getCount() > maxCount) {
-                    maxCount = line.getCount();
+            for (long count : lineCounts) {
+                if (count > maxCount) {
+                    maxCount = count;
                 }
             }
         }
@@ -76,8 +87,30 @@ public class SourceFile implements Serializable {
         return name;
     }
 
-    public ArrayList<Line> getLines() {
-        return lines;
+    /**
+     * @param line a line number, lower than {@link #getNumLines()}
+     * @return true if the line is instrumented
+     */
+    public boolean lineExists(int line) {
+        return linesExist.get(line);
+    }
+
+    /**
+     * @param line a line number, lower than {@link #getNumLines()}
+     * @return the execution count of the line
+     */
+    public long getLineCount(int line) {
+        return lineCounts[line];
+    }
+
+    /**
+     * Mark a line as instrumented, and add to its execution count
+     * @param line a line number, lower than {@link #getNumLines()}
+     * @param count
+     */
+    public void addLineCount(int line, long count) {
+        linesExist.set(line);
+        lineCounts[line] += count;
     }
 
     public SortedSet<GcnoFunction> getFnctns() {
@@ -102,10 +135,8 @@ public class SourceFile implements Serializable {
 
     public void createLines() {
         int n = getNumLines();
-        lines.ensureCapacity(n);
-        for (int j = 0; j < n; j++) {
-            lines.add(new Line());
-        }
+        lineCounts = new long[n];
+        linesExist = new BitSet(n);
     }
 
 
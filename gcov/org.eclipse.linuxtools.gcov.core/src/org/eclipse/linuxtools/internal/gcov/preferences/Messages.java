@@ -21,6 +21,11 @@ public class Messages extends NLS {
     public static String ColorPreferencePage_Description;
     public static String ColorPreferencePage_Title;
     public static String ColorPreferencePage_UseGradient;
+    public static String ParserPreferencePage_Description;
+    public static String ParserPreferencePage_FolderTree;
+    public static String ParserPreferencePage_Threads;
+    public static String ParserPreferencePage_Title;
+    public static String ParserPreferencePage_Watch;
     static {
         // initialize resource bundle
         NLS.initializeMessages(BUNDLE_NAME, Messages.class);
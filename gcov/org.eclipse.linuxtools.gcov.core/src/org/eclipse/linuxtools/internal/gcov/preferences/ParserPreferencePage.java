@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.preferences;
+
+import org.eclipse.jface.preference.BooleanFieldEditor;
+import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
+import org.eclipse.linuxtools.internal.gcov.Activator;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPreferencePage;
+
+/**
+ * Preferences used when parsing gcda/gcno files.
+ */
+public class ParserPreferencePage extends FieldEditorPreferencePage implements IWorkbenchPreferencePage {
+
+    public static final String PREFKEY_COV_PARSER_THREADS = "PREFKEY_COV_PARSER_THREADS"; //$NON-NLS-1$
+    public static final String PREFKEY_COV_WATCH = "PREFKEY_COV_WATCH"; //$NON-NLS-1$
+    public static final String PREFKEY_COV_FOLDER_TREE = "PREFKEY_COV_FOLDER_TREE"; //$NON-NLS-1$
+
+    public ParserPreferencePage() {
+        super(Messages.ParserPreferencePage_Title, FieldEditorPreferencePage.GRID);
+        this.setPreferenceStore(Activator.getDefault().getPreferenceStore());
+        this.setDescription(Messages.ParserPreferencePage_Description);
+    }
+
+    @Override
+    public void init(IWorkbench workbench) {
+    }
+
+    @Override
+    protected void createFieldEditors() {
+        IntegerFieldEditor fifeThreads = new IntegerFieldEditor(PREFKEY_COV_PARSER_THREADS,
+                Messages.ParserPreferencePage_Threads, this.getFieldEditorParent());
+        fifeThreads.setValidRange(0, 256);
+        this.addField(fifeThreads);
+
+        BooleanFieldEditor bfeWatch = new BooleanFieldEditor(PREFKEY_COV_WATCH, Messages.ParserPreferencePage_Watch,
+                this.getFieldEditorParent());
+        this.addField(bfeWatch);
+
+        BooleanFieldEditor bfeFolderTree = new BooleanFieldEditor(PREFKEY_COV_FOLDER_TREE,
+                Messages.ParserPreferencePage_FolderTree, this.getFieldEditorParent());
+        this.addField(bfeFolderTree);
+    }
+
+}
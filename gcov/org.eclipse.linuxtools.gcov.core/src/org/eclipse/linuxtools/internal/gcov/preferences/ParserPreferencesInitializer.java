@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.preferences;
+
+import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.linuxtools.internal.gcov.Activator;
+
+public class ParserPreferencesInitializer extends AbstractPreferenceInitializer {
+
+    @Override
+    public void initializeDefaultPreferences() {
+        IPreferenceStore store = Activator.getDefault().getPreferenceStore();
+        // 0: one thread per available processor
+        store.setDefault(ParserPreferencePage.PREFKEY_COV_PARSER_THREADS, 0);
+        store.setDefault(ParserPreferencePage.PREFKEY_COV_WATCH, true);
+        store.setDefault(ParserPreferencePage.PREFKEY_COV_FOLDER_TREE, false);
+    }
+
+}
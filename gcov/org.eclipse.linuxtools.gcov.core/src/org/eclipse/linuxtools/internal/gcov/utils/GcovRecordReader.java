@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.utils;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reader of gcno/gcda records, backed by a {@link ByteBuffer}.
+ *
+ * Gcov files are made of 32-bit words whose byte order depends on the target.
+ * The byte order is given by the magic number: once {@link #readMagic(int)}
+ * has been called, all words are read in the right order directly from the
+ * buffer, without any intermediate stream or per-record allocation.
+ */
+public class GcovRecordReader {
+
+    /** Files bigger than this are memory-mapped, smaller ones are read in a heap buffer. */
+    private static final long MAP_THRESHOLD = 1024 * 1024;
+
+    private final ByteBuffer buffer;
+    private int magic;
+    private byte[] chars = new byte[256];
+
+    /**
+     * Constructor
+     * @param buffer the buffer containing a whole gcno/gcda file
+     */
+    public GcovRecordReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Open a gcno/gcda file
+     * @param file
+     * @return a reader positioned on the first word of the file
+     * @throws IOException
+     */
+    public static GcovRecordReader open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); //$NON-NLS-1$
+                FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            ByteBuffer buffer;
+            if (size > MAP_THRESHOLD) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // read the whole file
+                }
+                buffer.flip();
+            }
+            return new GcovRecordReader(buffer);
+        }
+    }
+
+    /**
+     * Read the magic number of the file and set the byte order accordingly.
+     * @param expectedMagic the magic number expected for this kind of file
+     * @return true if the file starts with the expected magic number, in either byte order
+     * @throws IOException
+     */
+    public boolean readMagic(int expectedMagic) throws IOException {
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        magic = readInt();
+        if (magic == expectedMagic) {
+            return true;
+        }
+        if (Integer.reverseBytes(magic) == expectedMagic) {
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the magic number read by {@link #readMagic(int)}
+     */
+    public int getMagic() {
+        return magic;
+    }
+
+    /**
+     * @return true if there are words left to read
+     */
+    public boolean hasRemaining() {
+        return buffer.remaining() >= 4;
+    }
+
+    /**
+     * Read a 32-bit word
+     * @return the word
+     * @throws EOFException if the end of the file is reached
+     */
+    public int readInt() throws EOFException {
+        if (buffer.remaining() < 4) {
+            throw new EOFException();
+        }
+        return buffer.getInt();
+    }
+
+    /**
+     * Read a 32-bit word as an unsigned value
+     * @return the word
+     * @throws EOFException if the end of the file is reached
+     */
+    public long readUnsignedInt() throws EOFException {
+        return readInt() & MasksGenerator.UNSIGNED_INT_MASK;
+    }
+
+    /**
+     * Read a 64-bit counter, stored as two words, low word first
+     * @return the counter
+     * @throws EOFException if the end of the file is reached
+     */
+    public long readCounter() throws EOFException {
+        if (buffer.remaining() < 8) {
+            throw new EOFException();
+        }
+        long low = buffer.getInt() & MasksGenerator.UNSIGNED_INT_MASK;
+        long high = buffer.getInt();
+        return (high << 32) | low;
+    }
+
+    /**
+     * Skip words
+     * @param n number of words to skip
+     * @throws EOFException if the end of the file is reached
+     */
+    public void skipWords(long n) throws EOFException {
+        if (n < 0 || buffer.remaining() < n * 4) {
+            throw new EOFException();
+        }
+        buffer.position(buffer.position() + (int) (n * 4));
+    }
+
+    /**
+     * Read a string: a length in words, followed by the NUL-padded characters
+     * @return the string, or {@link Messages#GcovRecordReader_null_string} for an empty string
+     * @throws EOFException if the end of the file is reached
+     */
+    public String readString() throws EOFException {
+        long length = readUnsignedInt();
+        if (length == 0) {
+            return Messages.GcovRecordReader_null_string;
+        }
+        if (buffer.remaining() < length * 4) {
+            throw new EOFException();
+        }
+        int ln = ((int) length) << 2;
+        if (chars.length < ln) {
+            chars = new byte[ln];
+        }
+        int n = 0;
+        for (int j = 0; j < ln; j++) {
+            byte b = buffer.get();
+            if (b != 0) {
+                chars[n++] = b;
+            }
+        }
+        return new String(chars, 0, n, StandardCharsets.ISO_8859_1);
+    }
+}
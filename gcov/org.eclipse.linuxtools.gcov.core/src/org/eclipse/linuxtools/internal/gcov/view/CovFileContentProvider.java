@@ -40,18 +40,25 @@ public class CovFileContentProvider extends CovFolderContentProvider {
 
     protected LinkedList<? extends TreeElement> getElementChildrenList(CovRootTreeElement root) {
         LinkedList<TreeElement> ret = new LinkedList<>();
-        LinkedList<? extends TreeElement> list = root.getChildren();
-        for (TreeElement folderlist : list) {
-            LinkedList<? extends TreeElement> partialList = folderlist.getChildren();
-            ret.addAll(partialList);
-        }
+        addFileElements(root, ret);
         return ret;
     }
 
+    // folders may be nested, see CovManager.isFolderTree()
+    private static void addFileElements(TreeElement folder, LinkedList<TreeElement> ret) {
+        for (TreeElement child : folder.getChildren()) {
+            if (child instanceof CovFolderTreeElement) {
+                addFileElements(child, ret);
+            } else {
+                ret.add(child);
+            }
+        }
+    }
+
     @Override
     public Object getParent(Object element) {
         Object o = super.getParent(element);
-        if (o instanceof CovFolderTreeElement) {
+        while (o instanceof CovFolderTreeElement) {
             o = super.getParent(o);
         }
         return o;
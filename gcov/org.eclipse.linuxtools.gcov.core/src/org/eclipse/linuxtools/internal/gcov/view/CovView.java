@@ -17,6 +17,7 @@ import java.text.DateFormat;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -40,6 +41,7 @@ import org.eclipse.linuxtools.dataviewers.charts.actions.ChartAction;
 import org.eclipse.linuxtools.internal.gcov.Activator;
 import org.eclipse.linuxtools.internal.gcov.action.SwitchContentProviderAction;
 import org.eclipse.linuxtools.internal.gcov.parser.CovManager;
+import org.eclipse.linuxtools.internal.gcov.parser.CovWatcher;
 import org.eclipse.linuxtools.internal.gcov.parser.SourceFile;
 import org.eclipse.linuxtools.internal.gcov.view.annotatedsource.OpenSourceFileAction;
 import org.eclipse.osgi.util.NLS;
@@ -47,6 +49,7 @@ import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Text;
@@ -70,6 +73,8 @@ public class CovView extends AbstractSTDataView {
     private Action fileAction;
     private Action functionAction;
 
+    private CovWatcher watcher;
+
     @Override
     protected AbstractSTViewer createAbstractSTViewer(Composite parent) {
         return new CovViewer(parent);
@@ -227,9 +232,68 @@ public class CovView extends AbstractSTDataView {
         cvrgeView.setInput(cvrgeMnger);
         CovViewer stviewer = (CovViewer) cvrgeView.getSTViewer();
         stviewer.getViewer().expandToLevel(2);
+        cvrgeView.watch(cvrgeMnger);
         return cvrgeView;
     }
 
+    /**
+     * Update the displayed coverage when its gcda files are modified, see {@link CovWatcher}.
+     */
+    private void watch(CovManager cvrgeMnger) {
+        stopWatching();
+        if (!CovWatcher.isEnabled()) {
+            return;
+        }
+        Display display = getSite().getShell().getDisplay();
+        try {
+            watcher = new CovWatcher(cvrgeMnger.getGcdaFiles(),
+                    files -> display.asyncExec(() -> updateCovResults(cvrgeMnger, files)));
+        } catch (IOException e) {
+            Activator.getDefault().getLog().log(new Status(IStatus.WARNING, Activator.PLUGIN_ID, e.getMessage(), e));
+        }
+    }
+
+    private void stopWatching() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+            watcher = null;
+        }
+    }
+
+    private void updateCovResults(CovManager cvrgeMnger, Set<File> gcdaFiles) {
+        if (label.isDisposed() || getSTViewer().getInput() != cvrgeMnger) {
+            return;
+        }
+        try {
+            if (cvrgeMnger.updateCovFiles(gcdaFiles)) {
+                long lastModified = 0;
+                for (File f : cvrgeMnger.getGcdaFiles()) {
+                    lastModified = Math.max(lastModified, f.lastModified());
+                }
+                String timestamp = DateFormat.getInstance().format(new Date(lastModified));
+                setCovViewTitle(this, Integer.toString((int) cvrgeMnger.getNbrPgmRuns()),
+                        cvrgeMnger.getBinaryPath(), timestamp);
+                getSTViewer().getViewer().refresh();
+            } else {
+                // the program has been rebuilt: coverage files have to be processed again
+                stopWatching();
+                displayCovResults(cvrgeMnger.getBinaryPath(), null);
+            }
+        } catch (CoreException|IOException e) {
+            reportError(e);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        stopWatching();
+        super.dispose();
+    }
+
     @Override
     protected IAction createExportToCSVAction() {
         IAction action = new STExportToCSVAction(this.getSTViewer()) {
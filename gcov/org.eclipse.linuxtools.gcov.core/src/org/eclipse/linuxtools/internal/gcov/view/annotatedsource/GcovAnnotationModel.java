@@ -43,8 +43,7 @@ import org.eclipse.jface.text.source.IAnnotationModelExtension;
 import org.eclipse.jface.text.source.IAnnotationModelListener;
 import org.eclipse.jface.text.source.IAnnotationModelListenerExtension;
 import org.eclipse.linuxtools.binutils.link2source.STLink2SourceSupport;
-import org.eclipse.linuxtools.internal.gcov.parser.CovManager;
-import org.eclipse.linuxtools.internal.gcov.parser.Line;
+import org.eclipse.linuxtools.internal.gcov.parser.CovService;
 import org.eclipse.linuxtools.internal.gcov.parser.SourceFile;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.texteditor.IDocumentProvider;
@@ -132,6 +131,28 @@ public final class GcovAnnotationModel implements IAnnotationModel {
         }
     }
 
+    /**
+     * Update the coverage annotations of the given editor, e.g. when its
+     * coverage data has been modified by a new run of the program.
+     *
+     * @param editor Editor whose annotation model should be updated
+     */
+    public static void refresh(ITextEditor editor) {
+        IDocumentProvider provider = editor.getDocumentProvider();
+        if (provider == null) {
+            return;
+        }
+        IAnnotationModel model = provider.getAnnotationModel(editor.getEditorInput());
+        if (!(model instanceof IAnnotationModelExtension)) {
+            return;
+        }
+        IAnnotationModelExtension modelex = (IAnnotationModelExtension) model;
+        IAnnotationModel coverageModel = modelex.getAnnotationModel(KEY);
+        if (coverageModel instanceof GcovAnnotationModel) {
+            ((GcovAnnotationModel) coverageModel).updateAnnotations(true);
+        }
+    }
+
     private void updateAnnotations(boolean force) {
         // We used to not annotate any editor displaying content of an element whose project was not tracked.
         // This logic fails when we have a linked-in file which won't point back to a project that has
@@ -239,15 +260,32 @@ public final class GcovAnnotationModel implements IAnnotationModel {
             }
         }
 
+        // coverage data is parsed once per binary and shared by all editors
+        String binaryPath = null;
         try {
             IBinary[] binaries = cProject.getBinaryContainer().getBinaries();
             for (IBinary b : binaries) {
                 if (b.getResource().getLocation().equals(target)) {
-                    CovManager covManager = new CovManager(b.getResource().getLocation().toOSString());
-                    covManager.processCovFiles(covManager.getGCDALocations(), null);
-                    sources.addAll(covManager.getAllSrcs());
+                    binaryPath = b.getResource().getLocation().toOSString();
+                    break;
                 }
             }
+            if (binaryPath == null) {
+                return null;
+            }
+            CovService service = CovService.getInstance();
+            sources.addAll(service.getSourceFiles(binaryPath));
+
+            // fast path: the element location matches the location of a source file
+            IPath location = elementResource != null ? elementResource.getLocation() : null;
+            SourceFile sf = location != null ? service.getSourceFile(binaryPath, location.toOSString()) : null;
+            URI elementURI = element.getLocationURI();
+            if (sf == null && elementURI != null && elementURI.getPath() != null) {
+                sf = service.getSourceFile(binaryPath, elementURI.getPath());
+            }
+            if (sf != null) {
+                return sf;
+            }
         } catch (IOException|CoreException|InterruptedException e) {
         }
 
@@ -291,38 +329,40 @@ public final class GcovAnnotationModel implements IAnnotationModel {
     private void createAnnotations(SourceFile sourceFile) {
         AnnotationModelEvent event = new AnnotationModelEvent(this);
         clear(event);
-        List<Line> lines = sourceFile.getLines();
+        int numLines = sourceFile.getNumLines();
 
-        List<Long> tmp = new ArrayList<>();
-        for (Line line : lines) {
+        long[] counts = new long[numLines];
+        int nonZero = 0;
+        for (int i = 0; i < numLines; i++) {
             // Remove 0 from our calculation
-            if (line.getCount() != 0) {
-                tmp.add(line.getCount());
+            if (sourceFile.getLineCount(i) != 0) {
+                counts[nonZero++] = sourceFile.getLineCount(i);
             }
         }
-        Long[] counts = tmp.toArray(new Long[0]);
+        counts = Arrays.copyOf(counts, nonZero);
         Arrays.sort(counts);
 
         float outlierThreshold = 0;
-        if (!tmp.isEmpty()) {
+        if (nonZero != 0) {
             // Formula for outlier (upper quartile)
             final int q1 = (int) Math.floor(0.25 * counts.length);
             final int q3 = (int) Math.floor(0.75 * counts.length);
             outlierThreshold = counts[q3] + (1.5f * (counts[q3] - counts[q1]));
         }
 
-        for (int i = 0; i < lines.size(); i++) {
+        for (int i = 0; i < numLines; i++) {
             try {
-                Line line = lines.get((i+1) % lines.size());
+                int line = (i+1) % numLines;
+                long count = sourceFile.getLineCount(line);
                 String type = COVERAGE;
-                if (line.getCount() == 0) {
+                if (count == 0) {
                     type = NO_COVERAGE;
-                } else if (line.getCount() > outlierThreshold) {
+                } else if (count > outlierThreshold) {
                     type = THOROUGH_COVERAGE;
                 }
-                if (line.exists()) {
+                if (sourceFile.lineExists(line)) {
                     GcovAnnotation ca = new GcovAnnotation(document.getLineOffset(i),
-                            document.getLineLength(i), line.getCount(), type);
+                            document.getLineLength(i), count, type);
                     annotations.add(ca);
                     event.annotationAdded(ca);
                 }
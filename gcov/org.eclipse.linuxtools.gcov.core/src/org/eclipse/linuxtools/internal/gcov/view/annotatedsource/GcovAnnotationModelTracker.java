@@ -24,6 +24,7 @@ import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.linuxtools.internal.gcov.parser.CovService;
 import org.eclipse.ui.IEditorReference;
 import org.eclipse.ui.IPartListener2;
 import org.eclipse.ui.IWindowListener;
@@ -66,6 +67,12 @@ public final class GcovAnnotationModelTracker {
         public void windowDeactivated(IWorkbenchWindow window) {}
     };
 
+    /**
+     * Update annotations when gcda files are modified by a new run of a binary.
+     */
+    private CovService.Listener coverageListener = binaryPath ->
+        PlatformUI.getWorkbench().getDisplay().asyncExec(this::refreshAllCEditors);
+
     /**
      * Add the GcovAnnotationModel to any part that contains an
      * instance of ICEditor.
@@ -110,6 +117,8 @@ public final class GcovAnnotationModelTracker {
 
         // Add window listener to workbench for future windows
         workbench.addWindowListener(windowListener);
+
+        CovService.getInstance().addListener(coverageListener);
     }
 
     public static GcovAnnotationModelTracker getInstance () {
@@ -136,6 +145,7 @@ public final class GcovAnnotationModelTracker {
     }
 
     public void dispose() {
+        CovService.getInstance().removeListener(coverageListener);
         workbench.removeWindowListener(windowListener);
         for (IWorkbenchWindow w : workbench.getWorkbenchWindows()) {
             w.getPartService().removePartListener(partListener);
@@ -152,6 +162,19 @@ public final class GcovAnnotationModelTracker {
         }
     }
 
+    private void refreshAllCEditors() {
+        for (IWorkbenchWindow w : workbench.getWorkbenchWindows()) {
+            for (IWorkbenchPage p : w.getPages()) {
+                for (IEditorReference e : p.getEditorReferences()) {
+                    IWorkbenchPart part = e.getPart(false);
+                    if (part instanceof ICEditor) {
+                        GcovAnnotationModel.refresh((ITextEditor) part);
+                    }
+                }
+            }
+        }
+    }
+
     private void annotateCEditor(IWorkbenchPartReference partref) {
         IWorkbenchPart part = partref.getPart(false);
         if (part instanceof ICEditor) {
@@ -193,7 +216,10 @@ public final class GcovAnnotationModelTracker {
                         // do not track this project and de-register this listener
                         GcovAnnotationModel.clear(editor);
                         ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
-                        trackedProjects.remove(project);
+                        IPath binary = trackedProjects.remove(project);
+                        if (binary != null) {
+                            CovService.getInstance().remove(binary.toOSString());
+                        }
                     }
                 }
             }
@@ -17,7 +17,9 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
     GcovTestC.class,
     GcovTestCPP.class,
-    GcovTestCLibrary.class
+    GcovTestCLibrary.class,
+    CovManagerParserTest.class,
+    CovExporterTest.class
 })
 public class AllGcovTests {
 
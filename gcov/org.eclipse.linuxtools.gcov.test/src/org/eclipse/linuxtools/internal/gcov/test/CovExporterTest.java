@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.linuxtools.internal.gcov.export.CoberturaWriter;
+import org.eclipse.linuxtools.internal.gcov.export.CovExportApplication;
+import org.eclipse.linuxtools.internal.gcov.export.LcovReader;
+import org.eclipse.linuxtools.internal.gcov.export.LcovWriter;
+import org.eclipse.linuxtools.internal.gcov.parser.CovExporter;
+import org.eclipse.linuxtools.internal.gcov.parser.CovManager;
+import org.eclipse.linuxtools.internal.gcov.parser.CovSummary;
+import org.eclipse.linuxtools.internal.gcov.parser.SourceFile;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+/**
+ * Headless export of synthetic gcda files: summaries match the results of
+ * {@link CovManager}, shards are merged, and lcov and Cobertura outputs can
+ * be read back.
+ */
+public class CovExporterTest {
+
+    private static final int NBR_OBJECT_FILES = 200;
+    private static final int NBR_FUNCTIONS = 10;
+    private static final int NBR_FOLDERS = 10;
+
+    private static File dir;
+    private static List<String> gcdaPaths;
+
+    @BeforeClass
+    public static void generate() throws IOException {
+        dir = Files.createTempDirectory("gcov-export").toFile(); //$NON-NLS-1$
+        gcdaPaths = GcovDataGenerator.generate(new File(dir, "build"), NBR_OBJECT_FILES, NBR_FUNCTIONS, NBR_FOLDERS); //$NON-NLS-1$
+    }
+
+    @AfterClass
+    public static void cleanUp() {
+        delete(dir);
+    }
+
+    private static void delete(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        f.delete();
+    }
+
+    private static CovSummary export() throws CoreException, IOException {
+        CovExporter exporter = new CovExporter();
+        exporter.setNbrThreads(Runtime.getRuntime().availableProcessors());
+        return exporter.process(gcdaPaths);
+    }
+
+    /**
+     * Copy the gcda files (but not the gcno files) of the build directory in a shard directory.
+     */
+    private static File createShard(String name) throws IOException {
+        Path build = new File(dir, "build").toPath(); //$NON-NLS-1$
+        File shard = new File(dir, name);
+        for (Path gcda : CovExporter.findGcdaFiles(build)) {
+            Path target = shard.toPath().resolve(build.relativize(gcda));
+            Files.createDirectories(target.getParent());
+            Files.copy(gcda, target);
+        }
+        return shard;
+    }
+
+    private static void assertSameSummary(CovSummary expected, CovSummary actual) {
+        assertEquals(expected.getSources().size(), actual.getSources().size());
+        for (CovSummary.Source src : expected.getSources()) {
+            CovSummary.Source other = actual.getSource(src.getName());
+            assertNotNull(src.getName(), other);
+            assertEquals(src.getName(), src.getNumLines(), other.getNumLines());
+            for (int line = src.nextLine(0); line >= 0; line = src.nextLine(line + 1)) {
+                assertEquals(src.getName() + ':' + line, src.getLineCount(line), other.getLineCount(line));
+            }
+            assertEquals(src.getFunctions().size(), other.getFunctions().size());
+        }
+    }
+
+    @Test
+    public void testSummaryMatchesCovManager() throws CoreException, IOException {
+        CovManager cvrgeMnger = new CovManager("a.out"); //$NON-NLS-1$
+        cvrgeMnger.setCacheEnabled(false);
+        cvrgeMnger.processCovFiles(gcdaPaths, null);
+        CovSummary summary = export();
+
+        assertEquals(cvrgeMnger.getAllSrcs().size(), summary.getSources().size());
+        assertEquals(cvrgeMnger.getNbrPgmRuns(), summary.getNbrPgmRuns());
+        for (SourceFile sf : cvrgeMnger.getAllSrcs()) {
+            CovSummary.Source src = summary.getSource(sf.getName());
+            assertNotNull(sf.getName(), src);
+            assertEquals(sf.getName(), sf.getLinesInstrumented(), src.getLinesInstrumented());
+            assertEquals(sf.getName(), sf.getLinesExecuted(), src.getLinesExecuted());
+            for (int line = 0; line < sf.getNumLines(); line++) {
+                assertEquals(sf.getName() + ':' + line, sf.getLineCount(line), src.getLineCount(line));
+            }
+        }
+    }
+
+    @Test
+    public void testShardsAreMerged() throws CoreException, IOException {
+        File shard1 = createShard("shard1"); //$NON-NLS-1$
+        File shard2 = createShard("shard2"); //$NON-NLS-1$
+        CovSummary single = export();
+
+        CovExporter exporter = new CovExporter();
+        exporter.setObjectDirectory(new File(dir, "build")); //$NON-NLS-1$
+        CovSummary merged = exporter.processShards(Arrays.asList(shard1, shard2));
+
+        assertEquals(2 * single.getNbrPgmRuns(), merged.getNbrPgmRuns());
+        assertEquals(single.getSources().size(), merged.getSources().size());
+        for (CovSummary.Source src : single.getSources()) {
+            CovSummary.Source other = merged.getSource(src.getName());
+            for (int line = src.nextLine(0); line >= 0; line = src.nextLine(line + 1)) {
+                assertEquals(2 * src.getLineCount(line), other.getLineCount(line));
+            }
+            for (CovSummary.Function f : src.getFunctions()) {
+                for (CovSummary.Function g : other.getFunctions()) {
+                    if (g.getName().equals(f.getName())) {
+                        assertEquals(2 * f.getCount(), g.getCount());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLcovRoundTrip() throws CoreException, IOException {
+        CovSummary summary = export();
+        StringWriter out = new StringWriter();
+        LcovWriter.write(summary, "test", out); //$NON-NLS-1$
+        CovSummary read = new CovSummary();
+        LcovReader.read(new StringReader(out.toString()), read);
+        assertSameSummary(summary, read);
+
+        // reading the tracefile twice doubles the counts
+        LcovReader.read(new StringReader(out.toString()), read);
+        CovSummary.Source src = summary.getSources().iterator().next();
+        int line = src.nextLine(0);
+        assertEquals(2 * src.getLineCount(line), read.getSource(src.getName()).getLineCount(line));
+    }
+
+    @Test
+    public void testCoberturaIsWellFormed() throws Exception {
+        CovSummary summary = export();
+        StringWriter out = new StringWriter();
+        CoberturaWriter.write(summary, "/synthetic", 0, out); //$NON-NLS-1$
+
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false); //$NON-NLS-1$
+        Document doc = factory.newDocumentBuilder()
+                .parse(new ByteArrayInputStream(out.toString().getBytes(StandardCharsets.UTF_8)));
+        assertEquals(NBR_FOLDERS + 1, doc.getElementsByTagName("package").getLength()); //$NON-NLS-1$
+        assertEquals(summary.getSources().size(), doc.getElementsByTagName("class").getLength()); //$NON-NLS-1$
+        assertEquals(Integer.toString(summary.getLinesExecuted()),
+                doc.getDocumentElement().getAttribute("lines-covered")); //$NON-NLS-1$
+    }
+
+    @Test
+    public void testApplication() throws IOException {
+        File lcov = new File(dir, "app.info"); //$NON-NLS-1$
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int exitCode = CovExportApplication.run(new String[] { "-gcda", new File(dir, "build").getPath(), //$NON-NLS-1$ //$NON-NLS-2$
+                "-lcov", lcov.getPath() }, new PrintStream(output, true)); //$NON-NLS-1$
+        assertEquals(output.toString(), 0, exitCode);
+        CovSummary read = new CovSummary();
+        try (StringReader reader = new StringReader(
+                new String(Files.readAllBytes(lcov.toPath()), StandardCharsets.UTF_8))) {
+            LcovReader.read(reader, read);
+        }
+        assertEquals(NBR_OBJECT_FILES + 1, read.getSources().size());
+
+        assertEquals(1, CovExportApplication.run(new String[] { "-unknown", "x" }, //$NON-NLS-1$ //$NON-NLS-2$
+                new PrintStream(new ByteArrayOutputStream(), true)));
+    }
+}
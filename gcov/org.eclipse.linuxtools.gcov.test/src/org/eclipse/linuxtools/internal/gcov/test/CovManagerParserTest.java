@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.linuxtools.internal.gcov.model.CovRootTreeElement;
+import org.eclipse.linuxtools.internal.gcov.model.TreeElement;
+import org.eclipse.linuxtools.internal.gcov.parser.CovManager;
+import org.eclipse.linuxtools.internal.gcov.parser.CovWatcher;
+import org.eclipse.linuxtools.internal.gcov.parser.GcnoFunction;
+import org.eclipse.linuxtools.internal.gcov.parser.SourceFile;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Parses synthetic gcda files: checks that a tree of a few thousand gcda
+ * files gives the same model when processed sequentially, in parallel and
+ * from the cache, and that a single gcda file containing a large number of
+ * functions is parsed. Also checks that coverage is updated in place when
+ * gcda files are modified, and that folders can be shown as a directory
+ * tree.
+ */
+public class CovManagerParserTest {
+
+    private static final int NBR_OBJECT_FILES = 3000;
+    private static final int NBR_FUNCTIONS = 20;
+    private static final int NBR_FOLDERS = 50;
+    private static final int NBR_FUNCTIONS_IN_OBJECT_FILE = 25000;
+
+    private static File dir;
+    private static List<String> gcdaPaths;
+
+    @BeforeClass
+    public static void generate() throws IOException {
+        dir = Files.createTempDirectory("gcov-synthetic").toFile(); //$NON-NLS-1$
+        gcdaPaths = GcovDataGenerator.generate(dir, NBR_OBJECT_FILES, NBR_FUNCTIONS, NBR_FOLDERS);
+    }
+
+    @AfterClass
+    public static void cleanUp() {
+        delete(dir);
+    }
+
+    private static void delete(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        f.delete();
+    }
+
+    private static CovManager process(int nbrThreads) throws CoreException, IOException {
+        return process(nbrThreads, null);
+    }
+
+    /*
+     * A null cache file disables the cache: the default one is shared by all
+     * the managers of the same binary, which would hide the parsing done here.
+     */
+    private static CovManager process(int nbrThreads, File cacheFile) throws CoreException, IOException {
+        CovManager cvrgeMnger = new CovManager("a.out"); //$NON-NLS-1$
+        cvrgeMnger.setNbrThreads(nbrThreads);
+        cvrgeMnger.setCacheFile(cacheFile);
+        cvrgeMnger.setCacheEnabled(cacheFile != null);
+        cvrgeMnger.processCovFiles(gcdaPaths, null);
+        return cvrgeMnger;
+    }
+
+    @Test
+    public void testParallelProcessingMatchesSequential() throws CoreException, IOException {
+        CovManager sequential = process(1);
+        CovManager parallel = process(Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+        // one source per object file, plus the shared header
+        assertEquals(NBR_OBJECT_FILES + 1, sequential.getAllSrcs().size());
+        assertEquals(NBR_OBJECT_FILES * NBR_FUNCTIONS, sequential.getAllFnctns().size());
+        assertEquals(sequential.getNbrPgmRuns(), parallel.getNbrPgmRuns());
+        assertSameModel(sequential, parallel);
+    }
+
+    @Test
+    public void testObjectFileWithManyFunctions() throws CoreException, IOException {
+        File manyDir = new File(dir, "many"); //$NON-NLS-1$
+        List<String> paths = GcovDataGenerator.generate(manyDir, 1, NBR_FUNCTIONS_IN_OBJECT_FILE, 1);
+        CovManager cvrgeMnger = new CovManager("a.out"); //$NON-NLS-1$
+        cvrgeMnger.setCacheEnabled(false);
+        cvrgeMnger.processCovFiles(paths, null);
+
+        assertEquals(NBR_FUNCTIONS_IN_OBJECT_FILE, cvrgeMnger.getAllFnctns().size());
+        // functions whose index is a multiple of 7 are never called
+        int called = NBR_FUNCTIONS_IN_OBJECT_FILE - (NBR_FUNCTIONS_IN_OBJECT_FILE + 6) / 7;
+        SourceFile source = cvrgeMnger.getAllSrcs().get(0);
+        assertEquals(3 * NBR_FUNCTIONS_IN_OBJECT_FILE, source.getLinesInstrumented());
+        assertEquals(3 * called, source.getLinesExecuted());
+    }
+
+    @Test
+    public void testCachedProcessingMatchesParsing() throws CoreException, IOException {
+        File cacheFile = new File(dir, "cache.bin"); //$NON-NLS-1$
+        int nbrThreads = Runtime.getRuntime().availableProcessors();
+        CovManager parsed = process(nbrThreads, cacheFile);
+        CovManager cached = process(nbrThreads, cacheFile);
+        assertSameModel(parsed, cached);
+
+        // only the modified object file is parsed again
+        File gcda = new File(gcdaPaths.get(NBR_OBJECT_FILES / 2));
+        long stamp = gcda.lastModified();
+        GcovDataGenerator.writeGcda(gcda, NBR_FUNCTIONS, 3);
+        gcda.setLastModified(stamp + 2000);
+        try {
+            CovManager updated = process(nbrThreads, cacheFile);
+            assertSameModel(process(nbrThreads, null), updated);
+        } finally {
+            GcovDataGenerator.writeGcda(gcda, NBR_FUNCTIONS, NBR_OBJECT_FILES / 2);
+        }
+    }
+
+    @Test
+    public void testUpdateInPlaceMatchesProcessing() throws CoreException, IOException {
+        int nbrThreads = Runtime.getRuntime().availableProcessors();
+        CovManager cvrgeMnger = process(nbrThreads);
+        SourceFile source = cvrgeMnger.getAllSrcs().get(NBR_OBJECT_FILES / 3);
+        File gcda = new File(gcdaPaths.get(NBR_OBJECT_FILES / 3));
+        long stamp = gcda.lastModified();
+        GcovDataGenerator.writeGcda(gcda, NBR_FUNCTIONS, 7);
+        gcda.setLastModified(stamp + 2000);
+        try {
+            assertTrue(cvrgeMnger.updateCovFiles(cvrgeMnger.getGcdaFiles()));
+
+            // same objects, new counts
+            assertSame(source, cvrgeMnger.getAllSrcs().get(NBR_OBJECT_FILES / 3));
+            assertSameModel(process(nbrThreads), cvrgeMnger);
+        } finally {
+            GcovDataGenerator.writeGcda(gcda, NBR_FUNCTIONS, NBR_OBJECT_FILES / 3);
+        }
+    }
+
+    @Test
+    public void testWatcherReportsModifiedGcda() throws IOException, InterruptedException {
+        File watchDir = new File(dir, "watch"); //$NON-NLS-1$
+        List<String> paths = GcovDataGenerator.generate(watchDir, 4, NBR_FUNCTIONS, 2);
+        List<File> gcdaFiles = new ArrayList<>();
+        for (String path : paths) {
+            gcdaFiles.add(new File(path).getAbsoluteFile());
+        }
+        BlockingQueue<Set<File>> notifications = new LinkedBlockingQueue<>();
+        try (CovWatcher watcher = new CovWatcher(gcdaFiles, notifications::add)) {
+            GcovDataGenerator.writeGcda(gcdaFiles.get(1), NBR_FUNCTIONS, 11);
+            GcovDataGenerator.writeGcda(gcdaFiles.get(2), NBR_FUNCTIONS, 11);
+            Set<File> changed = new HashSet<>();
+            long deadline = System.currentTimeMillis() + 30000;
+            while (changed.size() < 2 && System.currentTimeMillis() < deadline) {
+                Set<File> files = notifications.poll(1, TimeUnit.SECONDS);
+                if (files != null) {
+                    changed.addAll(files);
+                }
+            }
+            assertEquals(new HashSet<>(gcdaFiles.subList(1, 3)), changed);
+        }
+    }
+
+    @Test
+    public void testFolderTreeMatchesFlatFolders() throws CoreException, IOException {
+        CovManager cvrgeMnger = process(Runtime.getRuntime().availableProcessors());
+        cvrgeMnger.setFolderTree(false);
+        cvrgeMnger.fillGcovView();
+        CovRootTreeElement flat = cvrgeMnger.getRootNode();
+        // one folder per source folder, plus the folder of the shared header
+        assertEquals(NBR_FOLDERS + 1, flat.getChildren().size());
+
+        cvrgeMnger.setFolderTree(true);
+        cvrgeMnger.fillGcovView();
+        CovRootTreeElement tree = cvrgeMnger.getRootNode();
+        assertEquals(flat.getTotalLines(), tree.getTotalLines());
+        assertEquals(flat.getExecutedLines(), tree.getExecutedLines());
+        assertEquals(flat.getInstrumentedLines(), tree.getInstrumentedLines());
+
+        // "/" and "synthetic" are merged, since "/" has no source and a single sub-directory
+        assertEquals(1, tree.getChildren().size());
+        TreeElement synthetic = tree.getChildren().getFirst();
+        assertEquals(new File("/synthetic").getPath(), synthetic.getName()); //$NON-NLS-1$
+        assertEquals(NBR_FOLDERS + 1, synthetic.getChildren().size());
+        assertEquals(tree.getExecutedLines(), synthetic.getExecutedLines());
+    }
+
+    static void assertSameModel(CovManager expected, CovManager actual) {
+        List<SourceFile> expectedSrcs = expected.getAllSrcs();
+        List<SourceFile> actualSrcs = actual.getAllSrcs();
+        assertEquals(expectedSrcs.size(), actualSrcs.size());
+        for (int i = 0; i < expectedSrcs.size(); i++) {
+            SourceFile e = expectedSrcs.get(i);
+            SourceFile a = actualSrcs.get(i);
+            assertEquals(e.getName(), a.getName());
+            assertEquals(e.getIndex(), a.getIndex());
+            assertEquals(e.getNumLines(), a.getNumLines());
+            assertEquals(e.getLinesInstrumented(), a.getLinesInstrumented());
+            assertEquals(e.getLinesExecuted(), a.getLinesExecuted());
+            assertEquals(e.getFnctns().size(), a.getFnctns().size());
+            for (int j = 0; j < e.getNumLines(); j++) {
+                assertEquals(e.getName() + ':' + j, e.lineExists(j), a.lineExists(j));
+                assertEquals(e.getName() + ':' + j, e.getLineCount(j), a.getLineCount(j));
+            }
+        }
+        List<GcnoFunction> expectedFnctns = expected.getAllFnctns();
+        List<GcnoFunction> actualFnctns = actual.getAllFnctns();
+        assertEquals(expectedFnctns.size(), actualFnctns.size());
+        for (int i = 0; i < expectedFnctns.size(); i++) {
+            GcnoFunction e = expectedFnctns.get(i);
+            GcnoFunction a = actualFnctns.get(i);
+            assertEquals(e.getName(), a.getName());
+            assertEquals(e.getSrcFile(), a.getSrcFile());
+            assertEquals(e.getCvrge().getLinesInstrumented(), a.getCvrge().getLinesInstrumented());
+            assertEquals(e.getCvrge().getLinesExecuted(), a.getCvrge().getLinesExecuted());
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gcov.test;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes synthetic gcno/gcda pairs (gcc 4.7 format, big-endian) used to
+ * exercise and benchmark the gcov parsers without compiling anything.
+ *
+ * Each object file contains a number of functions made of 4 blocks (entry,
+ * condition, then-branch, exit); every function also has a line in a header
+ * shared by all object files.
+ */
+public class GcovDataGenerator {
+
+    private static final int GCOV_NOTE_MAGIC = 0x67636e6f;
+    private static final int GCOV_DATA_MAGIC = 0x67636461;
+    private static final int GCOV_VERSION = 0x3430372a; // "407*"
+    private static final int GCOV_TAG_FUNCTION = 0x01000000;
+    private static final int GCOV_TAG_BLOCKS = 0x01410000;
+    private static final int GCOV_TAG_ARCS = 0x01430000;
+    private static final int GCOV_TAG_LINES = 0x01450000;
+    private static final int GCOV_COUNTER_ARCS = 0x01a10000;
+    private static final int GCOV_TAG_PROGRAM_SUMMARY = 0xa3000000;
+
+    private static final int ARC_ON_TREE = 1;
+
+    public static final String SHARED_HEADER = "/synthetic/include/common.h";
+
+    /**
+     * Generate a tree of object files.
+     * @param dir directory where gcno/gcda files are written
+     * @param nbrObjectFiles number of gcno/gcda pairs
+     * @param nbrFunctions number of functions in each object file
+     * @param nbrFolders number of source folders the sources are spread over
+     * @return the list of generated gcda paths
+     * @throws IOException
+     */
+    public static List<String> generate(File dir, int nbrObjectFiles, int nbrFunctions, int nbrFolders)
+            throws IOException {
+        List<String> gcdaPaths = new ArrayList<>(nbrObjectFiles);
+        for (int i = 0; i < nbrObjectFiles; i++) {
+            File objDir = new File(dir, "obj" + (i % nbrFolders)); //$NON-NLS-1$
+            objDir.mkdirs();
+            String source = "/synthetic/src" + (i % nbrFolders) + "/unit" + i + ".c"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            File gcno = new File(objDir, "unit" + i + ".gcno"); //$NON-NLS-1$ //$NON-NLS-2$
+            File gcda = new File(objDir, "unit" + i + ".gcda"); //$NON-NLS-1$ //$NON-NLS-2$
+            writeGcno(gcno, source, nbrFunctions);
+            writeGcda(gcda, nbrFunctions, i);
+            gcdaPaths.add(gcda.getAbsolutePath());
+        }
+        return gcdaPaths;
+    }
+
+    private static void writeGcno(File f, String source, int nbrFunctions) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)))) {
+            out.writeInt(GCOV_NOTE_MAGIC);
+            out.writeInt(GCOV_VERSION);
+            out.writeInt(0);
+            for (int fn = 0; fn < nbrFunctions; fn++) {
+                int firstLine = 1 + fn * 5;
+                String name = "function_" + fn; //$NON-NLS-1$
+                out.writeInt(GCOV_TAG_FUNCTION);
+                out.writeInt(3 + stringLength(name) + stringLength(source) + 1);
+                out.writeInt(fn + 1); // ident
+                out.writeInt(fn); // lineno checksum
+                out.writeInt(0); // cfg checksum
+                writeString(out, name);
+                writeString(out, source);
+                out.writeInt(firstLine);
+
+                out.writeInt(GCOV_TAG_BLOCKS);
+                out.writeInt(4);
+                for (int b = 0; b < 4; b++) {
+                    out.writeInt(0);
+                }
+
+                writeArcs(out, 0, new int[] { 1 }, new int[] { 0 });
+                writeArcs(out, 1, new int[] { 2, 3 }, new int[] { 0, ARC_ON_TREE });
+                writeArcs(out, 2, new int[] { 3 }, new int[] { ARC_ON_TREE });
+
+                writeLines(out, 1, source, new int[] { firstLine + 1 });
+                writeLines(out, 2, SHARED_HEADER, new int[] { 10 });
+                writeLines(out, 3, source, new int[] { firstLine + 3, firstLine + 4 });
+            }
+        }
+    }
+
+    /**
+     * Write a gcda file matching the gcno files written by {@link #generate(File, int, int, int)}.
+     * @param f the gcda file
+     * @param nbrFunctions number of functions in the object file
+     * @param seed value used to compute counters
+     * @throws IOException
+     */
+    public static void writeGcda(File f, int nbrFunctions, int seed) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)))) {
+            out.writeInt(GCOV_DATA_MAGIC);
+            out.writeInt(GCOV_VERSION);
+            out.writeInt(0);
+            for (int fn = 0; fn < nbrFunctions; fn++) {
+                out.writeInt(GCOV_TAG_FUNCTION);
+                out.writeInt(3);
+                out.writeInt(fn + 1);
+                out.writeInt(fn);
+                out.writeInt(0);
+
+                // counters of the two arcs which are not on the spanning tree
+                long entries = (seed + fn) % 7;
+                long taken = entries / 2;
+                out.writeInt(GCOV_COUNTER_ARCS);
+                out.writeInt(4);
+                writeCounter(out, entries);
+                writeCounter(out, taken);
+            }
+            out.writeInt(GCOV_TAG_PROGRAM_SUMMARY);
+            out.writeInt(3);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeInt(1); // number of runs
+        }
+    }
+
+    private static void writeArcs(DataOutputStream out, int src, int[] dsts, int[] flags) throws IOException {
+        out.writeInt(GCOV_TAG_ARCS);
+        out.writeInt(1 + 2 * dsts.length);
+        out.writeInt(src);
+        for (int i = 0; i < dsts.length; i++) {
+            out.writeInt(dsts[i]);
+            out.writeInt(flags[i]);
+        }
+    }
+
+    private static void writeLines(DataOutputStream out, int block, String file, int[] lines) throws IOException {
+        out.writeInt(GCOV_TAG_LINES);
+        out.writeInt(1 + 1 + stringLength(file) + lines.length + 2);
+        out.writeInt(block);
+        out.writeInt(0);
+        writeString(out, file);
+        for (int line : lines) {
+            out.writeInt(line);
+        }
+        out.writeInt(0);
+        out.writeInt(0);
+    }
+
+    // counters are stored as two 32-bit words, low word first
+    private static void writeCounter(DataOutputStream out, long value) throws IOException {
+        out.writeInt((int) value);
+        out.writeInt((int) (value >>> 32));
+    }
+
+    private static int stringLength(String s) {
+        return s.length() / 4 + 1;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.US_ASCII);
+        int words = stringLength(s);
+        out.writeInt(words);
+        out.write(bytes);
+        for (int i = bytes.length; i < words * 4; i++) {
+            out.write(0);
+        }
+    }
+}
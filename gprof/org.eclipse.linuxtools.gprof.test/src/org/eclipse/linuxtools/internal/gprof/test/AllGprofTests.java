@@ -14,8 +14,9 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ GprofAggregatorTest.class, GprofBinaryTest.class,
+@Suite.SuiteClasses({ GprofAggregatorTest.class, GprofBinaryTest.class, GprofDiffTest.class,
         GprofParserTest.class, GprofLaunchTest.class, GprofShortcutTest.class,
-        GprofTest.class })
+        GprofTest.class, STDwarfSourceLocatorTest.class, STItaniumDemanglerTest.class,
+        STNMTest.class })
 public class AllGprofTests {
 }
@@ -12,15 +12,22 @@ package org.eclipse.linuxtools.internal.gprof.test;
 
 import static org.eclipse.linuxtools.internal.gprof.test.STJunitUtils.BINARY_FILE;
 import static org.eclipse.linuxtools.internal.gprof.test.STJunitUtils.OUTPUT_FILE;
+import static org.junit.Assert.assertEquals;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
+import org.eclipse.linuxtools.binutils.utils.STSymbolManager;
+import org.eclipse.linuxtools.internal.gprof.parser.GmonDecoder;
 import org.eclipse.linuxtools.internal.gprof.utils.Aggregator;
+import org.eclipse.linuxtools.internal.gprof.view.histogram.TreeElement;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -79,4 +86,49 @@ public class GprofAggregatorTest {
         p.waitFor();
         p2.waitFor();
     }
+
+    /**
+     * Aggregating a gmon file several times in-process multiplies all the
+     * samples and call counts of this file.
+     */
+    @Test
+    public void testParallelAggregation() throws IOException {
+        String gmon = STJunitUtils.getAbsolutePath("org.eclipse.linuxtools.gprof.test", //$NON-NLS-1$
+                dir + File.separator + OUTPUT_FILE);
+        String binary = STJunitUtils.getAbsolutePath("org.eclipse.linuxtools.gprof.test", //$NON-NLS-1$
+                dir + File.separator + BINARY_FILE);
+        IBinaryObject program = STSymbolManager.sharedInstance.getBinaryObject(binary);
+
+        int nbrFiles = 3;
+        GmonDecoder aggregated = new GmonDecoder(program, null);
+        aggregated.read(Collections.nCopies(nbrFiles, gmon));
+        GmonDecoder single = new GmonDecoder(program, null);
+        single.read(gmon);
+
+        assertEquals(nbrFiles, aggregated.getGmonFiles().size());
+        assertScaledTree(single.getRootNode(), aggregated.getRootNode(), nbrFiles);
+    }
+
+    private static void assertScaledTree(TreeElement expected, TreeElement actual, int factor) {
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getName(), factor * expected.getSamples(), actual.getSamples());
+        // a negative count means that there is no call information
+        int calls = expected.getCalls() < 0 ? expected.getCalls() : factor * expected.getCalls();
+        assertEquals(expected.getName(), calls, actual.getCalls());
+        if (expected.getChildren() == null) {
+            assertEquals(expected.getName(), null, actual.getChildren());
+            return;
+        }
+        // the order of children depends on the order of call arcs in the files
+        List<TreeElement> expectedChildren = new ArrayList<>(expected.getChildren());
+        List<TreeElement> actualChildren = new ArrayList<>(actual.getChildren());
+        Comparator<TreeElement> byName = Comparator.comparing(TreeElement::getName,
+                Comparator.nullsFirst(Comparator.naturalOrder()));
+        expectedChildren.sort(byName);
+        actualChildren.sort(byName);
+        assertEquals(expected.getName(), expectedChildren.size(), actualChildren.size());
+        for (int i = 0; i < expectedChildren.size(); i++) {
+            assertScaledTree(expectedChildren.get(i), actualChildren.get(i), factor);
+        }
+    }
 }
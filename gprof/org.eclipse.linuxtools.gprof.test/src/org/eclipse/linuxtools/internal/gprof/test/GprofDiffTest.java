@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gprof.test;
+
+import static org.eclipse.linuxtools.internal.gprof.test.STJunitUtils.BINARY_FILE;
+import static org.eclipse.linuxtools.internal.gprof.test.STJunitUtils.OUTPUT_FILE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
+import org.eclipse.linuxtools.binutils.utils.STSymbolManager;
+import org.eclipse.linuxtools.internal.gprof.parser.GmonDecoder;
+import org.eclipse.linuxtools.internal.gprof.parser.GmonDiff;
+import org.eclipse.linuxtools.internal.gprof.view.histogram.DiffFunction;
+import org.eclipse.linuxtools.internal.gprof.view.histogram.DiffRoot;
+import org.eclipse.linuxtools.internal.gprof.view.histogram.TreeElement;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class GprofDiffTest {
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        List<Object[]> params = new ArrayList<>();
+        for (File testDir : STJunitUtils.getTestDirs()) {
+            params.add(new Object[] { testDir.getName() });
+        }
+        return params;
+    }
+
+    private final String gmon;
+    private final IBinaryObject program;
+
+    public GprofDiffTest(String dir) {
+        gmon = STJunitUtils.getAbsolutePath("org.eclipse.linuxtools.gprof.test", //$NON-NLS-1$
+                dir + File.separator + OUTPUT_FILE);
+        String binary = STJunitUtils.getAbsolutePath("org.eclipse.linuxtools.gprof.test", //$NON-NLS-1$
+                dir + File.separator + BINARY_FILE);
+        program = STSymbolManager.sharedInstance.getBinaryObject(binary);
+    }
+
+    /**
+     * A profile compared with itself has no difference.
+     */
+    @Test
+    public void testDiffWithItself() throws IOException {
+        GmonDiff diff = GmonDiff.read(new GmonDecoder(program, null), gmon, new GmonDecoder(program, null), gmon);
+        DiffRoot root = diff.getRootNode();
+        assertEquals(0, root.getSamples());
+        assertEquals(0, root.getCalls());
+        assertEquals(diff.getCurrent().getRootNode().getSamples(), root.getCurrentSamples());
+        for (TreeElement e : root.getChildren()) {
+            DiffFunction f = (DiffFunction) e;
+            assertNotNull(f.getName(), f.getBaseline());
+            assertNotNull(f.getName(), f.getCurrent());
+            assertEquals(f.getName(), 0, f.getSamples());
+            assertEquals(f.getName(), 0, f.getCalls());
+            assertEquals(f.getName(), f.getBaselineSamples(), f.getCurrentSamples());
+        }
+    }
+
+    /**
+     * Comparing a profile aggregated twice with the profile itself gives the
+     * samples and calls of the profile as differences.
+     */
+    @Test
+    public void testDiffWithAggregation() throws IOException {
+        GmonDecoder current = new GmonDecoder(program, null);
+        GmonDiff diff = GmonDiff.read(new GmonDecoder(program, null), Collections.singletonList(gmon), current,
+                Collections.nCopies(2, gmon));
+        DiffRoot root = diff.getRootNode();
+        assertEquals(diff.getBaseline().getRootNode().getSamples(), root.getSamples());
+        for (TreeElement e : root.getChildren()) {
+            DiffFunction f = (DiffFunction) e;
+            assertEquals(f.getName(), f.getBaselineSamples(), f.getSamples());
+            assertEquals(f.getName(), f.getBaselineCalls(), f.getCalls());
+            if (f.getBaselineCalls() > 0) {
+                // twice the samples in twice the calls
+                assertEquals(f.getName(), 0, f.getSamplesPerCallDelta(), 1e-9);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gprof.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+import org.eclipse.cdt.core.IAddress;
+import org.eclipse.cdt.core.IAddressFactory;
+import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
+import org.eclipse.linuxtools.binutils.utils.STDwarfSourceLocator;
+import org.eclipse.linuxtools.binutils.utils.STSourceLocation;
+import org.eclipse.linuxtools.binutils.utils.STSymbolManager;
+import org.junit.Test;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Resolves addresses of the test binaries to source locations from their
+ * DWARF line information, without addr2line. Expected locations are the ones
+ * addr2line gives.
+ */
+public class STDwarfSourceLocatorTest {
+
+    private static final String FOOX = "foox_gprof_input/a.out"; //$NON-NLS-1$
+    private static final String PARTIAL = "partially-pg-build_gprof_input/a.out"; //$NON-NLS-1$
+
+    /**
+     * Resolve the given addresses with the symbol manager, and check that the
+     * source locator of the binary gives the same locations on its own.
+     */
+    private static STSourceLocation[] resolve(String binary, long... addresses) throws IOException {
+        String path = STJunitUtils.getAbsolutePath(
+                FrameworkUtil.getBundle(STDwarfSourceLocatorTest.class).getSymbolicName(), binary);
+        IBinaryObject program = STSymbolManager.sharedInstance.getBinaryObject(path);
+        IAddressFactory addressFactory = program.getAddressFactory();
+        IAddress[] addrs = new IAddress[addresses.length];
+        for (int i = 0; i < addresses.length; i++) {
+            addrs[i] = addressFactory.createAddress(BigInteger.valueOf(addresses[i]));
+        }
+        STSourceLocation[] ret = STSymbolManager.sharedInstance.getSourceLocations(program, addrs, null);
+
+        STDwarfSourceLocator locator = STDwarfSourceLocator.open(path);
+        assertNotNull(locator);
+        for (int i = 0; i < addresses.length; i++) {
+            STSourceLocation location = locator.getSourceLocation(addresses[i]);
+            assertEquals(location.getFileName(), ret[i].getFileName());
+            assertEquals(location.getLineNumber(), ret[i].getLineNumber());
+        }
+        return ret;
+    }
+
+    private static void assertLocation(String file, int line, STSourceLocation location) {
+        assertNotNull(location.getFileName());
+        assertTrue(location.getFileName(), location.getFileName().endsWith(file));
+        assertEquals(line, location.getLineNumber());
+    }
+
+    @Test
+    public void testLineTable() throws IOException {
+        STSourceLocation[] locations = resolve(FOOX,
+                0x8048914, // main
+                0x8048944, // main + 0x30
+                0x80485c6, // func_a
+                0x80487c5, // func_b
+                0x8048474); // dead_func
+        String file = "foox_gprof_input/src/foox.c"; //$NON-NLS-1$
+        assertLocation(file, 59, locations[0]);
+        assertLocation(file, 61, locations[1]);
+        assertLocation(file, 36, locations[2]);
+        assertLocation(file, 50, locations[3]);
+        assertLocation(file, 22, locations[4]);
+    }
+
+    @Test
+    public void testLineTableOfSeveralUnits() throws IOException {
+        STSourceLocation[] locations = resolve(PARTIAL,
+                0x80484b4, // main
+                0x8048530, // function_one
+                0x804858c, // function_two
+                0x8048570, // function_three
+                0x80485ac); // unused_function
+        assertLocation("src/main.c", 8, locations[0]); //$NON-NLS-1$
+        assertLocation("src/one.c", 6, locations[1]); //$NON-NLS-1$
+        assertLocation("src/two.c", 5, locations[2]); //$NON-NLS-1$
+        assertLocation("src/three.c", 3, locations[3]); //$NON-NLS-1$
+        assertLocation("src/unused.c", 3, locations[4]); //$NON-NLS-1$
+    }
+
+    @Test
+    public void testSymbolFileFallback() throws IOException {
+        STSourceLocation[] locations = resolve(FOOX,
+                0x8048448, // frame_dummy
+                0x8048be8, // __do_global_ctors_aux
+                0x804838c); // _start
+        // no line information, but an STT_FILE symbol before the function
+        assertEquals("crtstuff.c", locations[0].getFileName()); //$NON-NLS-1$
+        assertEquals(-1, locations[0].getLineNumber());
+        assertEquals("crtstuff.c", locations[1].getFileName()); //$NON-NLS-1$
+        assertEquals(-1, locations[1].getLineNumber());
+        // no file either
+        assertNull(locations[2].getFileName());
+        assertEquals(-1, locations[2].getLineNumber());
+    }
+}
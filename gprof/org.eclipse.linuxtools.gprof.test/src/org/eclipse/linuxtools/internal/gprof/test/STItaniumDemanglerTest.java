@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gprof.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.eclipse.linuxtools.binutils.utils.ISTDemangler;
+import org.eclipse.linuxtools.binutils.utils.STItaniumDemangler;
+import org.junit.Test;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Checks the in-process demangler against the output of c++filt, on a corpus
+ * of names taken from system libraries and programs and of mutations of
+ * them.
+ */
+public class STItaniumDemanglerTest {
+
+    private static final String CORPUS = "resources/demangle/cxxfilt.txt"; //$NON-NLS-1$
+
+    private final ISTDemangler demangler = new STItaniumDemangler();
+
+    @Test
+    public void testCorpusMatchesCxxfilt() throws IOException {
+        String path = STJunitUtils.getAbsolutePath(
+                FrameworkUtil.getBundle(STItaniumDemanglerTest.class).getSymbolicName(), CORPUS);
+        int nbrNames = 0;
+        int nbrRejected = 0;
+        List<String> failures = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) { //$NON-NLS-1$
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                String mangled = line.substring(0, tab);
+                String expected = line.substring(tab + 1);
+                // c++filt prints the names it rejects unchanged
+                if (expected.equals(mangled)) {
+                    expected = null;
+                    nbrRejected++;
+                }
+                String actual = demangler.demangle(mangled);
+                if (!Objects.equals(expected, actual)) {
+                    failures.add(mangled + " -> " + actual + ", c++filt: " + expected); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                nbrNames++;
+            }
+        }
+        assertTrue(nbrNames > 3000);
+        assertTrue(nbrRejected > 500);
+        assertEquals(failures.size() + " names differ from c++filt", //$NON-NLS-1$
+                new ArrayList<String>(), failures.subList(0, Math.min(20, failures.size())));
+    }
+
+    @Test
+    public void testUnsupportedNames() {
+        // not C++ names
+        assertNull(demangler.demangle("main")); //$NON-NLS-1$
+        assertNull(demangler.demangle("_GLOBAL__sub_I_main")); //$NON-NLS-1$
+        // Java class names are left to c++filt
+        assertNull(demangler.demangle("_ZTJN6icu_728numparse4impl16CodePointMatcherE")); //$NON-NLS-1$
+        // trailing characters
+        assertNull(demangler.demangle("_Z3fooiX")); //$NON-NLS-1$
+    }
+}
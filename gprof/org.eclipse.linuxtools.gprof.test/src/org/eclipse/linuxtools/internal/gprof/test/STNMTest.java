@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gprof.test;
+
+import static org.eclipse.linuxtools.internal.gprof.test.STJunitUtils.BINARY_FILE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.linuxtools.binutils.utils.STNM;
+import org.eclipse.linuxtools.binutils.utils.STNMSymbolsHandler;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Checks that the symbols STNM reads in-process from the symbol table of the
+ * test binaries are the ones nm reports.
+ */
+@RunWith(Parameterized.class)
+public class STNMTest {
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        List<Object[]> params = new ArrayList<>();
+        for (File testDir : STJunitUtils.getTestDirs()) {
+            params.add(new Object[] { new File(testDir, BINARY_FILE) });
+        }
+        return params;
+    }
+
+    private File binaryFile;
+
+    public STNMTest(File binaryFile) {
+        this.binaryFile = binaryFile;
+    }
+
+    private List<String> readSymbols(String[] params) throws IOException {
+        List<String> ret = new ArrayList<>();
+        new STNM("nm", params, binaryFile.getAbsolutePath(), new STNMSymbolsHandler() { //$NON-NLS-1$
+            @Override
+            public void foundUndefSymbol(String symbol) {
+                ret.add("U " + symbol); //$NON-NLS-1$
+            }
+
+            @Override
+            public void foundTextSymbol(String symbol, String address) {
+                ret.add("T " + symbol + ' ' + address); //$NON-NLS-1$
+            }
+
+            @Override
+            public void foundBssSymbol(String symbol, String address) {
+                ret.add("B " + symbol + ' ' + address); //$NON-NLS-1$
+            }
+
+            @Override
+            public void foundDataSymbol(String symbol, String address) {
+                ret.add("D " + symbol + ' ' + address); //$NON-NLS-1$
+            }
+        }, null);
+        // nm sorts symbols by name, the symbol table is read by address
+        Collections.sort(ret);
+        return ret;
+    }
+
+    @Test
+    public void testSymbolTableMatchesNm() throws IOException {
+        // without options the symbol table is read in-process; --no-demangle is
+        // the default of nm, and only makes STNM run it
+        List<String> nm = readSymbols(new String[] { "--no-demangle" }); //$NON-NLS-1$
+        List<String> inProcess = readSymbols(null);
+        assertFalse(nm.isEmpty());
+        assertEquals(nm, inProcess);
+    }
+}
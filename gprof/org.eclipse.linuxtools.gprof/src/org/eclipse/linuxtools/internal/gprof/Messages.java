@@ -14,9 +14,12 @@ import org.eclipse.osgi.util.NLS;
 
 public class Messages extends NLS {
     private static final String BUNDLE_NAME = "org.eclipse.linuxtools.internal.gprof.messages"; //$NON-NLS-1$
+    public static String CompareWithBaselineAction_COMPARE_WITH_BASELINE;
+    public static String CompareWithBaselineAction_SELECT_BASELINE_GMON;
     public static String GmonDecoder_BAD_TAG_ERROR;
     public static String HistogramDecoder_INCOMPATIBLE_HIST_HEADER_ERROR_MSG;
     public static String HistRoot_Summary;
+    public static String OpenGmonDialog_AGGREGATE;
     public static String OpenGmonDialog_BINARY_FILE;
     public static String OpenGmonDialog_DOES_NOT_EXIST;
     public static String OpenGmonDialog_FILE_SYSTEM;
@@ -27,6 +30,7 @@ public class Messages extends NLS {
     public static String OpenGmonDialog_WORKSPACE;
     public static String SamplePerCallField_TIME_CALL;
     public static String SamplePerCallField_TIME_CALL_TOOLTIP;
+    public static String SampleProfField_BASELINE_AND_CURRENT;
     public static String SampleProfField_SAMPLE_HDR;
     public static String SampleProfField_TIME_HDR;
     public static String SampleProfField_TIME_SPENT_AT_LOCATION;
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gprof.action;
+
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.window.Window;
+import org.eclipse.linuxtools.dataviewers.abstractview.AbstractSTDataView;
+import org.eclipse.linuxtools.internal.gprof.Activator;
+import org.eclipse.linuxtools.internal.gprof.Messages;
+import org.eclipse.linuxtools.internal.gprof.dialog.OpenGmonDialog;
+import org.eclipse.linuxtools.internal.gprof.parser.GmonDecoder;
+import org.eclipse.linuxtools.internal.gprof.parser.GmonDiff;
+import org.eclipse.linuxtools.internal.gprof.view.GmonView;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.FileDialog;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * This action compares the profile displayed in the
+ * {@link org.eclipse.linuxtools.internal.gprof.view.GmonView} with a baseline
+ * gmon file, e.g. produced by a previous build of the program.
+ */
+public class CompareWithBaselineAction extends Action {
+
+    private final AbstractSTDataView view;
+
+    /**
+     * Constructor
+     * @param view the Gmon view
+     */
+    public CompareWithBaselineAction(AbstractSTDataView view) {
+        super(Messages.CompareWithBaselineAction_COMPARE_WITH_BASELINE);
+        this.setImageDescriptor(Activator.getImageDescriptor("icons/toggle.gif")); //$NON-NLS-1$
+        this.setToolTipText(Messages.CompareWithBaselineAction_COMPARE_WITH_BASELINE);
+        this.view = view;
+    }
+
+    @Override
+    public void run() {
+        Object input = view.getSTViewer().getInput();
+        if (input instanceof GmonDiff) {
+            input = ((GmonDiff) input).getCurrent();
+        }
+        if (!(input instanceof GmonDecoder)) {
+            return;
+        }
+        GmonDecoder current = (GmonDecoder) input;
+        Shell shell = view.getSite().getShell();
+        FileDialog fd = new FileDialog(shell, SWT.OPEN);
+        fd.setText(Messages.CompareWithBaselineAction_SELECT_BASELINE_GMON);
+        fd.setFilterPath(new Path(current.getGmonFile()).removeLastSegments(1).toOSString());
+        String baselineGmon = fd.open();
+        if (baselineGmon == null) {
+            return;
+        }
+        // the baseline is usually produced by another build of the same program
+        OpenGmonDialog d = new OpenGmonDialog(shell, current.getProgram().getPath().toOSString(),
+                new Path(baselineGmon));
+        if (d.open() != Window.OK) {
+            return;
+        }
+        GmonView.displayGprofDiffView(d.getBinaryFile(), d.getGmonFiles(), current);
+    }
+}
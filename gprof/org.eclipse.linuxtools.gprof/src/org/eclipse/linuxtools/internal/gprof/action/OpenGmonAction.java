@@ -47,7 +47,7 @@ public class OpenGmonAction implements IEditorLauncher {
         if (f != null) {
             project = f.getProject();
         }
-        GmonView.displayGprofView(binaryPath, file.toOSString(), project);
+        GmonView.displayGprofView(binaryPath, d.getGmonFiles(), project);
     }
 
     private String getDefaultBinary(IPath file) {
@@ -17,6 +17,7 @@ import org.eclipse.linuxtools.dataviewers.abstractviewers.AbstractSTTreeViewer;
 import org.eclipse.linuxtools.internal.gprof.Activator;
 import org.eclipse.linuxtools.internal.gprof.Messages;
 import org.eclipse.linuxtools.internal.gprof.parser.GmonDecoder;
+import org.eclipse.linuxtools.internal.gprof.parser.GmonDiff;
 import org.eclipse.linuxtools.internal.gprof.view.fields.SampleProfField;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.TreeColumn;
@@ -47,8 +48,12 @@ public class SwitchSampleTimeAction extends Action {
     @Override
     public void run() {
         AbstractSTTreeViewer gmonViewer = (AbstractSTTreeViewer)view.getSTViewer();
-        GmonDecoder decoder = (GmonDecoder) gmonViewer.getInput();
-        if(decoder != null){
+        Object input = gmonViewer.getInput();
+        if (input instanceof GmonDiff) {
+            input = ((GmonDiff) input).getCurrent();
+        }
+        if (input instanceof GmonDecoder) {
+            GmonDecoder decoder = (GmonDecoder) input;
             int prof_rate = decoder.getHistogramDecoder().getProfRate();
 
             if (prof_rate == 0) {
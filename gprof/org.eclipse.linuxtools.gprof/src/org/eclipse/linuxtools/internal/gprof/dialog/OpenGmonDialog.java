@@ -11,6 +11,10 @@
 package org.eclipse.linuxtools.internal.gprof.dialog;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -26,6 +30,7 @@ import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.dialogs.IDialogConstants;
 import org.eclipse.linuxtools.internal.gprof.Activator;
 import org.eclipse.linuxtools.internal.gprof.Messages;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ModifyEvent;
 import org.eclipse.swt.events.ModifyListener;
@@ -67,6 +72,10 @@ public class OpenGmonDialog extends Dialog {
     private final String defaultValue;
     private final IPath gmonFile;
 
+    /* other gmon files of the same folder, which may be aggregated with the selected one */
+    private final List<String> siblingGmonFiles;
+    private boolean aggregate;
+
     /**
      * Constructor
      *
@@ -79,6 +88,25 @@ public class OpenGmonDialog extends Dialog {
         this.gmonFile = gmonFile;
         setShellStyle(getShellStyle() | SWT.RESIZE);
         this.defaultValue = binPath;
+        this.siblingGmonFiles = findSiblingGmonFiles(gmonFile);
+    }
+
+    private static List<String> findSiblingGmonFiles(IPath gmonFile) {
+        File file = gmonFile.toFile();
+        File folder = file.getAbsoluteFile().getParentFile();
+        // e.g. gmon.out.<pid> files written with GMON_OUT_PREFIX, but not exports of the gprof view
+        File[] siblings = folder == null ? null
+                : folder.listFiles(f -> f.isFile() && f.getName().startsWith("gmon.") //$NON-NLS-1$
+                        && !f.getName().endsWith(".csv") && !f.equals(file.getAbsoluteFile())); //$NON-NLS-1$
+        if (siblings == null) {
+            return Collections.emptyList();
+        }
+        Arrays.sort(siblings);
+        List<String> result = new ArrayList<>(siblings.length);
+        for (File f : siblings) {
+            result.add(f.getPath());
+        }
+        return result;
     }
 
     /**
@@ -90,6 +118,21 @@ public class OpenGmonDialog extends Dialog {
         return binValue;
     }
 
+    /**
+     * Gets the gmon files to display: the selected one, followed by the other gmon files of its folder if the user
+     * chose to aggregate them
+     *
+     * @return paths to gmon files
+     */
+    public List<String> getGmonFiles() {
+        List<String> result = new ArrayList<>();
+        result.add(gmonFile.toOSString());
+        if (aggregate) {
+            result.addAll(siblingGmonFiles);
+        }
+        return result;
+    }
+
     @Override
     protected Control createContents(Composite parent) {
         Control composite = super.createContents(parent);
@@ -137,6 +180,14 @@ public class OpenGmonDialog extends Dialog {
 		binBrowseFileSystemButton.addSelectionListener(SelectionListener
 				.widgetSelectedAdapter(e -> handleBrowse(Messages.OpenGmonDialog_OPEN_BINARY_FILE, binText)));
 
+        if (!siblingGmonFiles.isEmpty()) {
+            Button aggregateButton = new Button(composite, SWT.CHECK);
+            aggregateButton.setText(NLS.bind(Messages.OpenGmonDialog_AGGREGATE, siblingGmonFiles.size()));
+            aggregateButton.setSelection(aggregate);
+            aggregateButton.addSelectionListener(SelectionListener
+                    .widgetSelectedAdapter(e -> aggregate = aggregateButton.getSelection()));
+        }
+
         /* 2sd line */
         errorLabel = new Label(composite, SWT.NONE);
         data = new GridData(GridData.FILL_HORIZONTAL);
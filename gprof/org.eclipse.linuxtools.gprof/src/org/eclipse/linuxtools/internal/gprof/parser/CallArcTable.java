@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gprof.parser;
+
+import java.util.Arrays;
+
+/**
+ * Call arcs read from gmon files, before any symbol resolution: the count of
+ * each (from pc, self pc) pair, in primitive arrays. Arcs are kept in the
+ * order in which they are first added.
+ */
+final class CallArcTable {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] fromPcs = new long[INITIAL_CAPACITY];
+    private long[] selfPcs = new long[INITIAL_CAPACITY];
+    private long[] counts = new long[INITIAL_CAPACITY];
+    /** open addressing table: index of the arc + 1, or 0 for an empty slot */
+    private int[] slots = new int[2 * INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Add to the count of an arc
+     * @param fromPc address of the call
+     * @param selfPc address of the callee
+     * @param count
+     */
+    void add(long fromPc, long selfPc, long count) {
+        int mask = slots.length - 1;
+        int slot = hash(fromPc, selfPc) & mask;
+        while (slots[slot] != 0) {
+            int i = slots[slot] - 1;
+            if (fromPcs[i] == fromPc && selfPcs[i] == selfPc) {
+                counts[i] += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == fromPcs.length) {
+            grow();
+            add(fromPc, selfPc, count);
+            return;
+        }
+        fromPcs[size] = fromPc;
+        selfPcs[size] = selfPc;
+        counts[size] = count;
+        slots[slot] = ++size;
+    }
+
+    /**
+     * Add the counts of all arcs of another table
+     * @param other
+     */
+    void addAll(CallArcTable other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.fromPcs[i], other.selfPcs[i], other.counts[i]);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long getFromPc(int i) {
+        return fromPcs[i];
+    }
+
+    long getSelfPc(int i) {
+        return selfPcs[i];
+    }
+
+    long getCount(int i) {
+        return counts[i];
+    }
+
+    /**
+     * @return the sorted addresses of all callers and callees, without duplicates
+     */
+    long[] getDistinctPcs() {
+        long[] pcs = new long[2 * size];
+        System.arraycopy(fromPcs, 0, pcs, 0, size);
+        System.arraycopy(selfPcs, 0, pcs, size, size);
+        Arrays.sort(pcs);
+        int n = 0;
+        for (int i = 0; i < pcs.length; i++) {
+            if (n == 0 || pcs[i] != pcs[n - 1]) {
+                pcs[n++] = pcs[i];
+            }
+        }
+        return Arrays.copyOf(pcs, n);
+    }
+
+    private void grow() {
+        int capacity = 2 * fromPcs.length;
+        fromPcs = Arrays.copyOf(fromPcs, capacity);
+        selfPcs = Arrays.copyOf(selfPcs, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        slots = new int[2 * capacity];
+        int mask = slots.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hash(fromPcs[i], selfPcs[i]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+    }
+
+    private static int hash(long fromPc, long selfPc) {
+        long h = fromPc * 0x9E3779B97F4A7C15L + selfPc;
+        h ^= h >>> 32;
+        h *= 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 29));
+    }
+}
@@ -12,6 +12,8 @@ package org.eclipse.linuxtools.internal.gprof.parser;
 
 import java.io.DataInput;
 import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -35,6 +37,10 @@ public class CallGraphDecoder {
 
 
     private final Map<ISymbol, CallGraphNode> nodes = new HashMap<>();
+    /** arcs of each caller, by callee: only used while arcs are resolved */
+    private final Map<CallGraphNode, Map<CallGraphNode, CallGraphArc>> outputArcs = new HashMap<>();
+    /** arcs read so far, resolved to symbols by {@link #populate(HistRoot)} */
+    private final CallArcTable arcs = new CallArcTable();
 
     /**
      * Constructor
@@ -53,16 +59,7 @@ public class CallGraphDecoder {
         long from_pc = readAddress(stream);
         long self_pc = readAddress(stream);
         int count    = bsdFormat?(int)readAddress(stream):stream.readInt();
-        IBinaryObject program = decoder.getProgram();
-        IAddressFactory addressFactory = program.getAddressFactory();
-        IAddress parentAddress = addressFactory.createAddress(Long.toString(from_pc));
-        ISymbol  parentSymbol  = program.getSymbol(parentAddress);
-        IAddress childAddress  = addressFactory.createAddress(Long.toString(self_pc));
-        ISymbol  childSymbol   = program.getSymbol(childAddress);
-        if (childSymbol == null || parentSymbol == null) {
-            return;
-        }
-        addCallArc(parentSymbol, parentAddress, childSymbol, count);
+        arcs.add(from_pc, self_pc, count);
     }
 
 
@@ -70,6 +67,15 @@ public class CallGraphDecoder {
         return stream.readInt() & 0xFFFFFFFFL;
     }
 
+    /**
+     * Add the arcs read by another decoder (e.g. from another gmon file of the same program) to the ones of this
+     * decoder.
+     * @param other
+     */
+    void merge(CallGraphDecoder other) {
+        arcs.addAll(other.arcs);
+    }
+
 
     private void addCallArc(ISymbol parent, IAddress parentAddress, ISymbol child, int count) {
         CallGraphNode parentNode = nodes.get(parent);
@@ -82,21 +88,44 @@ public class CallGraphDecoder {
             childNode = new CallGraphNode(child);
             nodes.put(child, childNode);
         }
-        CallGraphArc arc = parentNode.getOutputArc(childNode);
+        Map<CallGraphNode, CallGraphArc> parentArcs = outputArcs.get(parentNode);
+        if (parentArcs == null) {
+            parentArcs = new HashMap<>();
+            outputArcs.put(parentNode, parentArcs);
+        }
+        CallGraphArc arc = parentArcs.get(childNode);
         if (arc == null) {
             arc = new CallGraphArc(parentNode, parentAddress, childNode, count, decoder.getProgram(), decoder.getProject());
             parentNode.getChildren().add(arc);
             childNode.getParents().add(arc);
+            parentArcs.put(childNode, arc);
         } else {
             arc.setCount(arc.getCount() + count);
         }
     }
 
     void populate(HistRoot rootNode) {
+        IBinaryObject program = decoder.getProgram();
+        IAddressFactory addressFactory = program.getAddressFactory();
+        /* each distinct pc is resolved once, then arcs find their pcs in this sorted index */
+        long[] pcs = arcs.getDistinctPcs();
+        IAddress[] addresses = new IAddress[pcs.length];
+        ISymbol[] symbols = new ISymbol[pcs.length];
+        for (int i = 0; i < pcs.length; i++) {
+            addresses[i] = addressFactory.createAddress(BigInteger.valueOf(pcs[i]));
+            symbols[i] = program.getSymbol(addresses[i]);
+        }
+        for (int i = 0; i < arcs.size(); i++) {
+            int parent = Arrays.binarySearch(pcs, arcs.getFromPc(i));
+            int child = Arrays.binarySearch(pcs, arcs.getSelfPc(i));
+            if (symbols[child] != null && symbols[parent] != null) {
+                addCallArc(symbols[parent], addresses[parent], symbols[child], (int) arcs.getCount(i));
+            }
+        }
+        outputArcs.clear();
         for (CallGraphNode callGraphNode : nodes.values()) {
             rootNode.addCallGraphNode(callGraphNode);
         }
     }
 
-
 }
@@ -17,15 +17,26 @@ import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.PrintStream;
 import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
+import org.eclipse.cdt.core.IAddress;
 import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
 import org.eclipse.cdt.core.IBinaryParser.ISymbol;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.linuxtools.binutils.utils.STSourceLocation;
 import org.eclipse.linuxtools.binutils.utils.STSymbolManager;
 import org.eclipse.linuxtools.internal.gprof.Messages;
 import org.eclipse.linuxtools.internal.gprof.utils.LEDataInputStream;
@@ -55,7 +66,7 @@ public class GmonDecoder {
     private CallGraphDecoder callGraph;
     private final PrintStream ps;
     private final HistRoot rootNode = new HistRoot(this);
-    private String file;
+    private List<String> files = Collections.emptyList();
     private int tag = -1;
 
     private final HashMap<ISymbol, String> filenames = new HashMap<>();
@@ -97,6 +108,26 @@ public class GmonDecoder {
         }
     }
 
+    /**
+     * Constructor of a decoder only used to read some of the gmon files aggregated by another decoder: its
+     * histogram and call arcs are merged in the other decoder, and it never resolves symbols.
+     *
+     * @param aggregator
+     */
+    private GmonDecoder(GmonDecoder aggregator) {
+        this.program = aggregator.program;
+        this.ps = aggregator.ps;
+        this.project = aggregator.project;
+        this._32_bit_platform = aggregator._32_bit_platform;
+        if (_32_bit_platform) {
+            histo = new HistogramDecoder(this);
+            callGraph = new CallGraphDecoder(this);
+        } else {
+            histo = new HistogramDecoder64(this);
+            callGraph = new CallGraphDecoder64(this);
+        }
+    }
+
     /**
      * Reads the given file
      *
@@ -104,55 +135,124 @@ public class GmonDecoder {
      * @throws IOException
      */
     public void read(String file) throws IOException {
-        this.file = file;
+        this.files = Collections.singletonList(file);
+        decode(file);
+        this.callGraph.populate(rootNode);
+        this.histo.assignSamplesSymbol();
+    }
+
+    /**
+     * Reads and aggregates the given files, e.g. the gmon.out.&lt;pid&gt; files of several runs of the program. Files
+     * are decoded concurrently, each thread accumulating the histogram and call arcs of its files in its own
+     * buffers. These buffers are then merged, and symbols are resolved once, on the merged profile.
+     *
+     * @param files gmon files, written by the same program
+     * @throws IOException
+     */
+    public void read(List<String> files) throws IOException {
+        if (files.size() <= 1) {
+            if (!files.isEmpty()) {
+                read(files.get(0));
+            }
+            return;
+        }
+        this.files = new ArrayList<>(files);
+        int nbrTasks = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+        List<Callable<GmonDecoder>> tasks = new ArrayList<>(nbrTasks);
+        for (int t = 0; t < nbrTasks; t++) {
+            List<String> slice = files.subList(t * files.size() / nbrTasks, (t + 1) * files.size() / nbrTasks);
+            GmonDecoder partial = new GmonDecoder(this);
+            tasks.add(() -> {
+                for (String f : slice) {
+                    partial.decode(f);
+                }
+                return partial;
+            });
+        }
+
+        // partial results are merged in order, so that the result does not depend on the scheduling
+        for (GmonDecoder partial : invokeAll(tasks)) {
+            histo.merge(partial.histo);
+            callGraph.merge(partial.callGraph);
+        }
+        this.callGraph.populate(rootNode);
+        this.histo.assignSamplesSymbol();
+    }
+
+    /**
+     * Runs the given tasks in parallel, one thread each.
+     *
+     * @param tasks
+     * @return the results of the tasks, in order
+     * @throws IOException the exception of the first failed task, or an {@link InterruptedIOException}
+     */
+    static <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(tasks.size());
+        try {
+            List<T> ret = new ArrayList<>(tasks.size());
+            for (Future<T> future : pool.invokeAll(tasks)) {
+                ret.add(future.get());
+            }
+            return ret;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Decodes the given file: its histogram and call arcs are added to the ones already read, but no symbol is
+     * resolved yet.
+     *
+     * @param file
+     * @throws IOException
+     */
+    private void decode(String file) throws IOException {
         DataInputStream beStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
         if (program.isLittleEndian()) {
             try (LEDataInputStream leStream = new LEDataInputStream(beStream)) {
-                leStream.mark(1000);
-                boolean gmonType = readHeader(leStream);
-                if (gmonType)
-                    readGmonContent(leStream);
-                else {
-                    leStream.reset();
-                    histo.decodeOldHeader(leStream);
-                    histo.decodeHistRecord(leStream);
-                    try {
-                        do {
-                            this.callGraph.decodeCallGraphRecord(leStream, true);
-                        } while (true);
-                    } catch (EOFException e) {
-                        // normal. End of file reached.
-                    }
-                    this.callGraph.populate(rootNode);
-                    this.histo.assignSamplesSymbol();
-                }
+                decode(leStream);
             }
         } else {
             try {
-                beStream.mark(1000);
-                boolean gmonType = readHeader(beStream);
-                if (gmonType) {
-                    readGmonContent(beStream);
-                } else {
-                    beStream.reset();
-                    histo.decodeOldHeader(beStream);
-                    histo.decodeHistRecord(beStream);
-                    try {
-                        do {
-                            this.callGraph.decodeCallGraphRecord(beStream, true);
-                        } while (true);
-                    } catch (EOFException e) {
-                        // normal. End of file reached.
-                    }
-                    this.callGraph.populate(rootNode);
-                    this.histo.assignSamplesSymbol();
-                }
+                decode(beStream);
             } finally {
                 beStream.close();
             }
         }
     }
 
+    private <T extends InputStream & DataInput> void decode(T stream) throws IOException {
+        stream.mark(1000);
+        boolean gmonType = readHeader(stream);
+        if (gmonType) {
+            readGmonContent(stream);
+        } else {
+            stream.reset();
+            histo.decodeOldHeader(stream);
+            histo.decodeHistRecord(stream);
+            try {
+                do {
+                    this.callGraph.decodeCallGraphRecord(stream, true);
+                } while (true);
+            } catch (EOFException e) {
+                // normal. End of file reached.
+            }
+        }
+    }
+
     /**
      * Read gmon header
      *
@@ -204,10 +304,6 @@ public class GmonDecoder {
             }
 
         } while (true);
-
-        this.callGraph.populate(rootNode);
-        this.histo.assignSamplesSymbol();
-
     }
 
     public void dumpGmonResult(PrintStream ps) {
@@ -250,17 +346,64 @@ public class GmonDecoder {
     }
 
     /**
-     * @return the (last) parsed gmon file
+     * @return the parsed gmon file, or the first one if several files have been aggregated
      */
     public String getGmonFile() {
-        return file;
+        return files.isEmpty() ? null : files.get(0);
+    }
+
+    /**
+     * @return the parsed gmon files
+     */
+    public List<String> getGmonFiles() {
+        return files;
     }
 
     /**
-     * @return the modification timestamp of (last) parsed gmon file
+     * @return the modification timestamp of the parsed gmon file, or of the most recent one if several files have
+     *         been aggregated
      */
     public String getGmonFileTimeStamp() {
-        return DateFormat.getInstance().format(new Date(new File(file).lastModified()));
+        long lastModified = 0;
+        for (String f : files) {
+            lastModified = Math.max(lastModified, new File(f).lastModified());
+        }
+        return DateFormat.getInstance().format(new Date(lastModified));
+    }
+
+    /**
+     * Resolve the file names of several symbols at once
+     * @param symbols
+     * @return the file name of each symbol, see {@link #getFileName(ISymbol)}
+     */
+    public String[] getFileNames(List<ISymbol> symbols) {
+        String[] ret = new String[symbols.size()];
+        List<ISymbol> unresolved = new ArrayList<>();
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = filenames.get(symbols.get(i));
+            if (ret[i] == null) {
+                unresolved.add(symbols.get(i));
+            }
+        }
+        if (unresolved.isEmpty()) {
+            return ret;
+        }
+        // a single addr2line run for all symbols
+        IAddress[] addresses = new IAddress[unresolved.size()];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = unresolved.get(i).getAddress();
+        }
+        STSourceLocation[] locations = STSymbolManager.sharedInstance.getSourceLocations(program, addresses, project);
+        for (int i = 0; i < addresses.length; i++) {
+            String fileName = locations[i].getFileName();
+            filenames.put(unresolved.get(i), fileName == null ? "??" : fileName); //$NON-NLS-1$
+        }
+        for (int i = 0; i < ret.length; i++) {
+            if (ret[i] == null) {
+                ret[i] = filenames.get(symbols.get(i));
+            }
+        }
+        return ret;
     }
 
     public String getFileName(ISymbol s) {
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gprof.parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.eclipse.linuxtools.internal.gprof.view.histogram.DiffRoot;
+
+/**
+ * Differential profile: the functions of a baseline profile and of a current
+ * profile (e.g. of two builds of the same program) are matched by demangled
+ * name and source file, and the differences of samples and calls are
+ * displayed.
+ */
+public class GmonDiff {
+
+    private final GmonDecoder baseline;
+    private final GmonDecoder current;
+    private final DiffRoot rootNode;
+
+    /**
+     * Constructor
+     * @param baseline the decoded baseline profile
+     * @param current the decoded current profile
+     */
+    public GmonDiff(GmonDecoder baseline, GmonDecoder current) {
+        this.baseline = baseline;
+        this.current = current;
+        this.rootNode = new DiffRoot(this);
+    }
+
+    /**
+     * Reads the baseline and current gmon files concurrently, then compares them.
+     *
+     * @param baseline decoder of the baseline profile, not read yet
+     * @param baselineFiles gmon files of the baseline profile
+     * @param current decoder of the current profile, not read yet
+     * @param currentFiles gmon files of the current profile
+     * @return the comparison of both profiles
+     * @throws IOException
+     */
+    public static GmonDiff read(GmonDecoder baseline, List<String> baselineFiles, GmonDecoder current,
+            List<String> currentFiles) throws IOException {
+        List<Callable<Void>> tasks = new ArrayList<>(2);
+        tasks.add(() -> {
+            baseline.read(baselineFiles);
+            return null;
+        });
+        tasks.add(() -> {
+            current.read(currentFiles);
+            return null;
+        });
+        GmonDecoder.invokeAll(tasks);
+        return new GmonDiff(baseline, current);
+    }
+
+    /**
+     * Reads the baseline and current gmon files concurrently, then compares them.
+     *
+     * @param baseline decoder of the baseline profile, not read yet
+     * @param baselineFile gmon file of the baseline profile
+     * @param current decoder of the current profile, not read yet
+     * @param currentFile gmon file of the current profile
+     * @return the comparison of both profiles
+     * @throws IOException
+     */
+    public static GmonDiff read(GmonDecoder baseline, String baselineFile, GmonDecoder current, String currentFile)
+            throws IOException {
+        return read(baseline, Arrays.asList(baselineFile), current, Arrays.asList(currentFile));
+    }
+
+    /**
+     * @return the baseline profile
+     */
+    public GmonDecoder getBaseline() {
+        return baseline;
+    }
+
+    /**
+     * @return the current profile
+     */
+    public GmonDecoder getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return the root of the tree of compared functions
+     */
+    public DiffRoot getRootNode() {
+        return rootNode;
+    }
+}
@@ -13,10 +13,11 @@ package org.eclipse.linuxtools.internal.gprof.parser;
 import java.io.DataInput;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Comparator;
 
 import org.eclipse.cdt.core.IBinaryParser.ISymbol;
 import org.eclipse.linuxtools.internal.gprof.Messages;
-import org.eclipse.linuxtools.internal.gprof.symbolManager.Bucket;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.HistRoot;
 
 
@@ -46,7 +47,7 @@ public class HistogramDecoder {
     protected int profRate;
     /** usually 's' for seconds, 'm' for milliseconds... */
     protected char dimenAbbrev;
-    /** used when aggregate several gmon files */
+    /** used when aggregate several gmon files: samples are accumulated once a histogram has been read */
     private boolean initialized = false;
 
 
@@ -92,13 +93,42 @@ public class HistogramDecoder {
             // TODO exception to normalize
             throw new RuntimeException(Messages.HistogramDecoder_INCOMPATIBLE_HIST_HEADER_ERROR_MSG);
         }
+        initHistogram(lowpc, highpc, prof_rate, hist_num_bins, (char) b);
+    }
+
+    /**
+     * Set the histogram header. Samples of a previous compatible histogram are kept, so that they are accumulated.
+     */
+    private void initHistogram(long lowpc, long highpc, int profRate, int histNumBins, char dimenAbbrev) {
         this.lowpc     = lowpc;
         this.highpc    = highpc;
-        this.profRate = prof_rate;
-        hist_sample    = new int[hist_num_bins]; // Impl note: JVM sets all integers to 0
-        dimenAbbrev   = (char) b;
+        this.profRate = profRate;
+        if (!initialized) {
+            hist_sample    = new int[histNumBins]; // Impl note: JVM sets all integers to 0
+            initialized = true;
+        }
+        this.dimenAbbrev   = dimenAbbrev;
         long temp = highpc - lowpc;
-        bucketSize = Math.round(temp/(double)hist_num_bins);
+        bucketSize = Math.round(temp/(double)histNumBins);
+    }
+
+    /**
+     * Add the samples read by another decoder (e.g. from another gmon file of the same program) to the ones of this
+     * decoder.
+     * @param other
+     */
+    void merge(HistogramDecoder other) {
+        if (!other.hasValues()) {
+            return;
+        }
+        if (!isCompatible(other.lowpc, other.highpc, other.profRate, other.hist_sample.length)) {
+            // TODO exception to normalize
+            throw new RuntimeException(Messages.HistogramDecoder_INCOMPATIBLE_HIST_HEADER_ERROR_MSG);
+        }
+        initHistogram(other.lowpc, other.highpc, other.profRate, other.hist_sample.length, other.dimenAbbrev);
+        for (int i = 0; i < hist_sample.length; i++) {
+            hist_sample[i] += other.hist_sample[i];
+        }
     }
 
     /**
@@ -141,13 +171,7 @@ public class HistogramDecoder {
         }
 
 
-        this.lowpc     = lowPC;
-        this.highpc    = highPC;
-        this.profRate = profrate;
-        hist_sample    = new int[histNumBins]; // Impl note: JVM sets all integers to 0
-        dimenAbbrev   = 's';
-        long temp = highpc - lowpc;
-        bucketSize = Math.round(temp/(double)histNumBins);
+        initHistogram(lowPC, highPC, profrate, histNumBins, 's');
     }
 
 
@@ -229,54 +253,99 @@ public class HistogramDecoder {
     }
 
     /**
-     * Assign the hits to the given symbols
-     * @param symblist
+     * Assign the hits to the symbols of the program. The symbol of each sampled bucket is found by a binary search in
+     * the sorted symbol addresses, and the buckets of a symbol are handed to the tree in primitive arrays: tree nodes
+     * for lines and buckets are only created when displayed.
      */
     public void assignSamplesSymbol() {
         if (hist_sample == null || hist_sample.length == 0) return;
         ISymbol[] symblist = this.decoder.getProgram().getSymbols();
-        /* read samples and assign to namelist symbols */
-        int j = 1;
+        long[] addresses = getAddresses(symblist);
+        if (!isSorted(addresses)) {
+            symblist = symblist.clone();
+            Arrays.sort(symblist, Comparator.comparingLong(sym -> sym.getAddress().getValue().longValue()));
+            addresses = getAddresses(symblist);
+        }
+        /* a symbol spans from its address to the address of the next one: the last symbol never gets samples */
+        int nbrSymbols = symblist.length - 1;
+        if (nbrSymbols <= 0) return;
+
+        /* samples and symbols are both sorted by address, so the buckets of a symbol are consecutive */
+        int current = -1;
+        int nbrBuckets = 0;
+        long[] startAddrs = new long[16];
+        long[] endAddrs = new long[16];
+        int[] times = new int[16];
         for (int i = 0; i < hist_sample.length; i++)
         {
             int ccnt = hist_sample[i];
-            if (ccnt != 0)
-            {
-                long pcl = lowpc + (bucketSize*i);
-                long pch = pcl+bucketSize;
-                total_time += ccnt;
-                long svalue0;
-                long svalue1 = symblist[j-1].getAddress().getValue().longValue();
-                for (j = j-1; j < symblist.length - 1; j++)
-                {
-                    svalue0 = svalue1;
-                    svalue1 = symblist[j+1].getAddress().getValue().longValue();
-                    /* if high end of tick is below entry address,
-                     * go for next tick. */
-                    if(pch < svalue0) {
-                        break;
-                    }
-                    /* if low end of tick into next routine,
-                     * go for next routine. */
-                    if(pcl < svalue1) {
-                        long start_addr = pcl>svalue0?pcl:svalue0;
-                        long end_addr   = pch<svalue1?pch:svalue1;
-                        long overlap = end_addr - start_addr;
-                        if(overlap > 0)    {
-                            ISymbol symbol = symblist[j];
-                            int time = (int) ((overlap * ccnt) / bucketSize);
-                            Bucket   bck = new Bucket(start_addr, end_addr, time);
-                            addBucket(bck,symbol);
-                        }
+            if (ccnt == 0) {
+                continue;
+            }
+            long pcl = lowpc + (bucketSize*i);
+            long pch = pcl+bucketSize;
+            total_time += ccnt;
+            /* last symbol starting at or before the low end of tick: previous ones end before it */
+            int j = Arrays.binarySearch(addresses, 0, nbrSymbols, pcl);
+            if (j < 0) {
+                j = Math.max(0, -j - 2);
+            } else {
+                while (j + 1 < nbrSymbols && addresses[j + 1] == pcl) {
+                    j++;
+                }
+            }
+            /* if high end of tick is below entry address, go for next tick. */
+            for (; j < nbrSymbols && addresses[j] <= pch; j++) {
+                long start_addr = pcl>addresses[j]?pcl:addresses[j];
+                long end_addr   = pch<addresses[j+1]?pch:addresses[j+1];
+                long overlap = end_addr - start_addr;
+                if (overlap <= 0) {
+                    continue;
+                }
+                if (j != current) {
+                    if (nbrBuckets > 0) {
+                        addSamples(symblist[current], startAddrs, endAddrs, times, nbrBuckets);
                     }
+                    current = j;
+                    nbrBuckets = 0;
+                }
+                if (nbrBuckets == times.length) {
+                    startAddrs = Arrays.copyOf(startAddrs, 2 * nbrBuckets);
+                    endAddrs = Arrays.copyOf(endAddrs, 2 * nbrBuckets);
+                    times = Arrays.copyOf(times, 2 * nbrBuckets);
                 }
+                startAddrs[nbrBuckets] = start_addr;
+                endAddrs[nbrBuckets] = end_addr;
+                times[nbrBuckets] = (int) ((overlap * ccnt) / bucketSize);
+                nbrBuckets++;
+            }
+        }
+        if (nbrBuckets > 0) {
+            addSamples(symblist[current], startAddrs, endAddrs, times, nbrBuckets);
+        }
+    }
+
+    private static long[] getAddresses(ISymbol[] symbols) {
+        long[] addresses = new long[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            addresses[i] = symbols[i].getAddress().getValue().longValue();
+        }
+        return addresses;
+    }
+
+    private static boolean isSorted(long[] values) {
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] < values[i - 1]) {
+                return false;
             }
         }
+        return true;
     }
 
-    private void addBucket(Bucket b, ISymbol s) {
+    private void addSamples(ISymbol s, long[] startAddrs, long[] endAddrs, int[] times, int nbrBuckets) {
         HistRoot root = this.decoder.getRootNode();
-        root.addBucket(b, s, decoder.getProgram());
+        root.addSamples(s, Arrays.copyOf(startAddrs, nbrBuckets), Arrays.copyOf(endAddrs, nbrBuckets),
+                Arrays.copyOf(times, nbrBuckets));
     }
 
     /**
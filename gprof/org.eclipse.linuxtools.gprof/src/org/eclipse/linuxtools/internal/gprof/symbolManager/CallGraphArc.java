@@ -29,11 +29,13 @@ public class CallGraphArc {
     /** number of occurence */
     private int count;
     private final IProject project;
+    private final IBinaryObject program;
+    private final IAddress parentAddress;
 
-    /** The location (source path) of the function call */
-    public String parentPath;
-    /** The location (line number) of the function call */
-    public int parentLine;
+    /* location of the function call, resolved when first displayed */
+    private boolean parentLocationResolved;
+    private String parentPath;
+    private int parentLine;
 
     /**
      * Constructor
@@ -54,11 +56,35 @@ public class CallGraphArc {
         this.parent = parent;
         this.child = child;
         this.count = count;
-        this.parentPath = STSymbolManager.sharedInstance.getFileName(program, parentAddress, project);
-        this.parentLine = STSymbolManager.sharedInstance.getLineNumber(program, parentAddress, project);
+        this.program = program;
+        this.parentAddress = parentAddress;
         this.project = project;
     }
 
+    private void resolveParentLocation() {
+        if (!parentLocationResolved) {
+            parentPath = STSymbolManager.sharedInstance.getFileName(program, parentAddress, project);
+            parentLine = STSymbolManager.sharedInstance.getLineNumber(program, parentAddress, project);
+            parentLocationResolved = true;
+        }
+    }
+
+    /**
+     * @return the location (source path) of the function call
+     */
+    public String getParentPath() {
+        resolveParentLocation();
+        return parentPath;
+    }
+
+    /**
+     * @return the location (line number) of the function call
+     */
+    public int getParentLine() {
+        resolveParentLocation();
+        return parentLine;
+    }
+
     /**
      * @return the count
      */
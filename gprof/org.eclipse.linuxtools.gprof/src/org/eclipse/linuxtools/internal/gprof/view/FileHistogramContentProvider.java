@@ -15,6 +15,7 @@ import java.util.LinkedList;
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.linuxtools.internal.gprof.parser.GmonDecoder;
+import org.eclipse.linuxtools.internal.gprof.parser.GmonDiff;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.AbstractTreeElement;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.HistRoot;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.TreeElement;
@@ -71,6 +72,12 @@ public class FileHistogramContentProvider implements ITreeContentProvider {
                     root
             };
         }
+        if (inputElement instanceof GmonDiff) {
+            GmonDiff diff = (GmonDiff) inputElement;
+            return new Object[] {
+                    diff.getRootNode()
+            };
+        }
         return new Object[0];
 
     }
@@ -12,6 +12,8 @@
 package org.eclipse.linuxtools.internal.gprof.view;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
 import org.eclipse.core.resources.IProject;
@@ -35,9 +37,11 @@ import org.eclipse.linuxtools.dataviewers.actions.STExportToCSVAction;
 import org.eclipse.linuxtools.dataviewers.charts.actions.ChartAction;
 import org.eclipse.linuxtools.internal.gprof.Activator;
 import org.eclipse.linuxtools.internal.gprof.Messages;
+import org.eclipse.linuxtools.internal.gprof.action.CompareWithBaselineAction;
 import org.eclipse.linuxtools.internal.gprof.action.SwitchContentProviderAction;
 import org.eclipse.linuxtools.internal.gprof.action.SwitchSampleTimeAction;
 import org.eclipse.linuxtools.internal.gprof.parser.GmonDecoder;
+import org.eclipse.linuxtools.internal.gprof.parser.GmonDiff;
 import org.eclipse.linuxtools.internal.gprof.parser.HistogramDecoder;
 import org.eclipse.linuxtools.internal.gprof.utils.PPC64ElfBinaryObjectWrapper;
 import org.eclipse.linuxtools.internal.gprof.view.fields.SampleProfField;
@@ -85,6 +89,7 @@ public class GmonView extends AbstractSTDataView {
     private Action action3;
     private Action action4;
     private Action switchSampleTime;
+    private Action compareWithBaseline;
 
     @Override
     public void createPartControl(Composite parent) {
@@ -129,6 +134,7 @@ public class GmonView extends AbstractSTDataView {
         manager.add(action1);
         manager.add(new Separator());
         manager.add(switchSampleTime);
+        manager.add(compareWithBaseline);
         manager.add(new Separator());
         manager.add(new ChartAction(getViewSite().getShell(), getSTViewer()));
     }
@@ -145,6 +151,7 @@ public class GmonView extends AbstractSTDataView {
         action4 = new SwitchContentProviderAction(
                 "Sort samples per line", "icons/line_obj.gif", getSTViewer().getViewer(), FlatHistogramContentProvider.sharedInstance); //$NON-NLS-1$ //$NON-NLS-2$
         switchSampleTime = new SwitchSampleTimeAction(this);
+        compareWithBaseline = new CompareWithBaselineAction(this);
     }
 
     /*
@@ -198,8 +205,11 @@ public class GmonView extends AbstractSTDataView {
      *            the title label
      */
     private static void setHistTitle(GmonDecoder decoder, Label titleLabel) {
+        int nbrFiles = decoder.getGmonFiles().size();
         String title = " gmon file: " //$NON-NLS-1$
-                + decoder.getGmonFile() + "\n program file: " //$NON-NLS-1$
+                + decoder.getGmonFile()
+                + (nbrFiles > 1 ? " (aggregated with " + (nbrFiles - 1) + " other files)" : "") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                + "\n program file: " //$NON-NLS-1$
                 + decoder.getProgram().getPath() + "\n" //$NON-NLS-1$
                 + " timestamp: " + decoder.getGmonFileTimeStamp(); //$NON-NLS-1$
         HistogramDecoder histo = decoder.getHistogramDecoder();
@@ -229,13 +239,49 @@ public class GmonView extends AbstractSTDataView {
     }
 
     /**
-     * Display gmon results in the GProf View. NOTE: this method has to be called from within the UI thread.
+     * set the gprof view title of a differential profile
      *
-     * @param binaryPath
-     * @param gmonPath
-     * @param instanceName
+     * @param diff
+     *            the compared profiles
+     * @param titleLabel
+     *            the title label
      */
-    public static GmonView displayGprofView(String binaryPath, String gmonPath, IProject project) {
+    private static void setDiffTitle(GmonDiff diff, Label titleLabel) {
+        GmonDecoder baseline = diff.getBaseline();
+        GmonDecoder current = diff.getCurrent();
+        String title = " gmon file: " //$NON-NLS-1$
+                + current.getGmonFile()
+                + "\n program file: " //$NON-NLS-1$
+                + current.getProgram().getPath() + "\n" //$NON-NLS-1$
+                + " compared with baseline gmon file: " //$NON-NLS-1$
+                + baseline.getGmonFile()
+                + "\n baseline program file: " //$NON-NLS-1$
+                + baseline.getProgram().getPath();
+        titleLabel.setText(title);
+        titleLabel.getParent().layout(true);
+    }
+
+    /**
+     * Enable or disable the actions which are meaningless for a differential profile: functions of both profiles are
+     * only matched by name and source file, so there is no call graph nor line information to compare.
+     */
+    private void setDiffMode(boolean diff) {
+        action1.setEnabled(!diff);
+        action3.setEnabled(!diff);
+        action4.setEnabled(!diff);
+        if (diff && !action2.isChecked()) {
+            action1.setChecked(false);
+            action3.setChecked(false);
+            action4.setChecked(false);
+            action2.setChecked(true);
+            action2.run();
+        }
+    }
+
+    /**
+     * Get the binary object of the given path, or display an error and return null if it is not a valid binary file.
+     */
+    private static IBinaryObject getBinaryObject(String binaryPath) {
         IBinaryObject binary = STSymbolManager.sharedInstance.getBinaryObject(new Path(binaryPath));
         if (binary == null) {
             MessageDialog.openError(PlatformUI.getWorkbench().getDisplay().getActiveShell(), "Invalid binary file", //$NON-NLS-1$
@@ -244,15 +290,46 @@ public class GmonView extends AbstractSTDataView {
         } else if (binary.getCPU().equals("ppc64") && !binary.isLittleEndian()) { //$NON-NLS-1$
             binary = new PPC64ElfBinaryObjectWrapper(binary.getBinaryParser(), binary.getPath(), binary.getType());
         }
+        return binary;
+    }
+
+    /**
+     * Display gmon results in the GProf View. NOTE: this method has to be called from within the UI thread.
+     *
+     * @param binaryPath
+     * @param gmonPath
+     * @param instanceName
+     */
+    public static GmonView displayGprofView(String binaryPath, String gmonPath, IProject project) {
+        return displayGprofView(binaryPath, Collections.singletonList(gmonPath), project);
+    }
+
+    /**
+     * Display the aggregation of several gmon files (e.g. one per run or per process) in the GProf View. NOTE: this
+     * method has to be called from within the UI thread.
+     *
+     * @param binaryPath
+     * @param gmonPaths gmon files produced by the same binary
+     * @param project
+     */
+    public static GmonView displayGprofView(String binaryPath, List<String> gmonPaths, IProject project) {
+        IBinaryObject binary = getBinaryObject(binaryPath);
+        if (binary == null) {
+            return null;
+        }
 
         GmonDecoder decoder = new GmonDecoder(binary, project);
         try {
-            decoder.read(gmonPath);
+            if (gmonPaths.size() == 1) {
+                decoder.read(gmonPaths.get(0));
+            } else {
+                decoder.read(gmonPaths);
+            }
         } catch (IOException e) {
             Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, IStatus.ERROR, e.getMessage(), e);
             Activator.getDefault().getLog().log(status);
         }
-        return displayGprofView(decoder, gmonPath);
+        return displayGprofView(decoder, gmonPaths.get(0));
     }
 
     /**
@@ -276,6 +353,7 @@ public class GmonView extends AbstractSTDataView {
                 gmonview.switchSampleTime.setToolTipText("Unable to display time, because profiling rate is null"); //$NON-NLS-1$
                 gmonview.switchSampleTime.setEnabled(false);
             }
+            gmonview.setDiffMode(false);
             gmonview.setInput(decoder);
             GmonView.setHistTitle(decoder, gmonview.label);
             if (!decoder.getHistogramDecoder().hasValues()) {
@@ -290,6 +368,97 @@ public class GmonView extends AbstractSTDataView {
         return gmonview;
     }
 
+    /**
+     * Compare two gmon files, e.g. produced by two builds of the same program, in the GProf View. Both files are
+     * decoded concurrently. NOTE: this method has to be called from within the UI thread.
+     *
+     * @param baselineBinaryPath the binary which produced the baseline gmon file
+     * @param baselineGmonPath the baseline gmon file
+     * @param binaryPath the binary which produced the current gmon file
+     * @param gmonPath the current gmon file
+     * @param project
+     */
+    public static GmonView displayGprofDiffView(String baselineBinaryPath, String baselineGmonPath,
+            String binaryPath, String gmonPath, IProject project) {
+        IBinaryObject baselineBinary = getBinaryObject(baselineBinaryPath);
+        if (baselineBinary == null) {
+            return null;
+        }
+        IBinaryObject binary = getBinaryObject(binaryPath);
+        if (binary == null) {
+            return null;
+        }
+        GmonDecoder baseline = new GmonDecoder(baselineBinary, project);
+        GmonDecoder current = new GmonDecoder(binary, project);
+        try {
+            GmonDiff.read(baseline, baselineGmonPath, current, gmonPath);
+        } catch (IOException e) {
+            Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, IStatus.ERROR, e.getMessage(), e);
+            Activator.getDefault().getLog().log(status);
+        }
+        return displayGprofDiffView(new GmonDiff(baseline, current), gmonPath);
+    }
+
+    /**
+     * Compare an already decoded profile with baseline gmon files in the GProf View. NOTE: this method has to be
+     * called from within the UI thread.
+     *
+     * @param baselineBinaryPath the binary which produced the baseline gmon files
+     * @param baselineGmonPaths the baseline gmon files
+     * @param current the current profile
+     */
+    public static GmonView displayGprofDiffView(String baselineBinaryPath, List<String> baselineGmonPaths,
+            GmonDecoder current) {
+        IBinaryObject baselineBinary = getBinaryObject(baselineBinaryPath);
+        if (baselineBinary == null) {
+            return null;
+        }
+        GmonDecoder baseline = new GmonDecoder(baselineBinary, current.getProject());
+        try {
+            if (baselineGmonPaths.size() == 1) {
+                baseline.read(baselineGmonPaths.get(0));
+            } else {
+                baseline.read(baselineGmonPaths);
+            }
+        } catch (IOException e) {
+            Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, IStatus.ERROR, e.getMessage(), e);
+            Activator.getDefault().getLog().log(status);
+        }
+        return displayGprofDiffView(new GmonDiff(baseline, current), current.getGmonFile());
+    }
+
+    /**
+     * Display a differential profile in the GProf View. NOTE: this method has to be called from within the UI thread.
+     *
+     * @param diff
+     * @param id Secondary id, usually path to the current gmon file.
+     */
+    public static GmonView displayGprofDiffView(GmonDiff diff, String id) {
+        GmonView gmonview = null;
+        try {
+            IWorkbenchWindow window = PlatformUI.getWorkbench().getActiveWorkbenchWindow();
+            IWorkbenchPage page = window.getActivePage();
+            if (id != null) {
+                // do not replace the view of the current gmon file alone
+                id = id.replace('.', '_') + "_diff"; //$NON-NLS-1$
+                id = id.replace(':', '_');
+            }
+            gmonview = (GmonView) page.showView(ID, id,
+                    IWorkbenchPage.VIEW_ACTIVATE);
+            if (diff.getCurrent().getHistogramDecoder().getProfRate() == 0) {
+                gmonview.switchSampleTime.setToolTipText("Unable to display time, because profiling rate is null"); //$NON-NLS-1$
+                gmonview.switchSampleTime.setEnabled(false);
+            }
+            gmonview.setDiffMode(true);
+            gmonview.setInput(diff);
+            GmonView.setDiffTitle(diff, gmonview.label);
+        } catch (CoreException e) {
+            Status status = new Status(IStatus.ERROR, Activator.PLUGIN_ID, IStatus.ERROR, e.getMessage(), e);
+            Activator.getDefault().getLog().log(status);
+        }
+        return gmonview;
+    }
+
     @Override
     protected IAction createExportToCSVAction() {
         IAction action = new STExportToCSVAction(this.getSTViewer()) {
@@ -299,6 +468,9 @@ public class GmonView extends AbstractSTDataView {
                 if (o instanceof GmonDecoder) {
                     GmonDecoder gd = (GmonDecoder) o;
                     getExporter().setFilePath(gd.getGmonFile() + ".csv"); //$NON-NLS-1$
+                } else if (o instanceof GmonDiff) {
+                    GmonDecoder gd = ((GmonDiff) o).getCurrent();
+                    getExporter().setFilePath(gd.getGmonFile() + ".diff.csv"); //$NON-NLS-1$
                 }
                 super.run();
             }
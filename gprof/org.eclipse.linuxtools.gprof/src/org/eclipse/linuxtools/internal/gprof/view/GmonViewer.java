@@ -25,6 +25,7 @@ import org.eclipse.linuxtools.internal.gprof.view.fields.NameProfField;
 import org.eclipse.linuxtools.internal.gprof.view.fields.RatioProfField;
 import org.eclipse.linuxtools.internal.gprof.view.fields.SamplePerCallField;
 import org.eclipse.linuxtools.internal.gprof.view.fields.SampleProfField;
+import org.eclipse.linuxtools.internal.gprof.view.histogram.DiffRoot;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.HistRoot;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.TreeElement;
 import org.eclipse.swt.widgets.Composite;
@@ -87,7 +88,13 @@ public class GmonViewer extends AbstractSTTreeViewer {
                 return; // nothing to do here.
             } else {
                 int lineNumber = element.getSourceLine();
-                IBinaryObject exec = ((HistRoot)element.getRoot()).decoder.getProgram();
+                TreeElement root = element.getRoot();
+                IBinaryObject exec;
+                if (root instanceof DiffRoot) {
+                    exec = ((DiffRoot) root).diff.getCurrent().getProgram();
+                } else {
+                    exec = ((HistRoot) root).decoder.getProgram();
+                }
                 STLink2SourceSupport.openSourceFileAtLocation(exec, s, lineNumber);
             }
         }
@@ -16,9 +16,11 @@ import org.eclipse.linuxtools.internal.gprof.Messages;
 import org.eclipse.linuxtools.internal.gprof.view.GmonView;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.CGArc;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.CGCategory;
+import org.eclipse.linuxtools.internal.gprof.view.histogram.DiffTreeElement;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.HistFunction;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.HistRoot;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.TreeElement;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.graphics.Color;
 
 /**
@@ -49,7 +51,10 @@ public class CallsProfField extends AbstractSTDataViewersField implements IChart
 
     @Override
     public String getToolTipText(Object element) {
-        if (element instanceof HistRoot) {
+        if (element instanceof DiffTreeElement) {
+            DiffTreeElement e = (DiffTreeElement) element;
+            return NLS.bind(Messages.SampleProfField_BASELINE_AND_CURRENT, e.getBaselineCalls(), e.getCurrentCalls());
+        } else if (element instanceof HistRoot) {
             return Messages.CallsProfField_TOTAL_NUMBER_OF_FUNCTION_CALLS;
         } else if (element instanceof HistFunction) {
             String format = Messages.CallsProfField_INVOCATION_NUMBER;
@@ -78,6 +83,10 @@ public class CallsProfField extends AbstractSTDataViewersField implements IChart
 
     @Override
     public String getValue(Object obj) {
+        if (obj instanceof DiffTreeElement) {
+            int delta = ((DiffTreeElement) obj).getCalls();
+            return delta > 0 ? "+" + delta : String.valueOf(delta); //$NON-NLS-1$
+        }
         TreeElement e = (TreeElement) obj;
         int i = e.getCalls();
         if (i == -1) {
@@ -93,6 +102,9 @@ public class CallsProfField extends AbstractSTDataViewersField implements IChart
 
     @Override
     public Number getNumber(Object obj) {
+        if (obj instanceof DiffTreeElement) {
+            return ((DiffTreeElement) obj).getCalls();
+        }
         TreeElement e = (TreeElement) obj;
         int i = e.getCalls();
         if (i == -1) {
@@ -17,6 +17,7 @@ import java.text.NumberFormat;
 import org.eclipse.linuxtools.dataviewers.abstractviewers.AbstractPercentageDrawerField;
 import org.eclipse.linuxtools.dataviewers.charts.provider.IChartField;
 import org.eclipse.linuxtools.internal.gprof.Messages;
+import org.eclipse.linuxtools.internal.gprof.view.histogram.DiffTreeElement;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.TreeElement;
 
 
@@ -35,6 +36,15 @@ public class RatioProfField extends AbstractPercentageDrawerField implements ICh
      */
     @Override
     public float getPercentage(Object obj) {
+        if (obj instanceof DiffTreeElement) {
+            // difference relative to the whole baseline profile
+            DiffTreeElement e = (DiffTreeElement) obj;
+            int baselineSum = ((DiffTreeElement) e.getRoot()).getBaselineSamples();
+            if (baselineSum == 0) {
+                return 0;
+            }
+            return (100.0f*e.getSamples())/baselineSum;
+        }
         TreeElement e = (TreeElement) obj;
         int SamplesSum = e.getRoot().getSamples();
         if (SamplesSum == 0) {
@@ -13,6 +13,7 @@ package org.eclipse.linuxtools.internal.gprof.view.fields;
 import org.eclipse.linuxtools.dataviewers.abstractviewers.AbstractSTTreeViewer;
 import org.eclipse.linuxtools.internal.gprof.Messages;
 import org.eclipse.linuxtools.internal.gprof.view.GmonView;
+import org.eclipse.linuxtools.internal.gprof.view.histogram.DiffTreeElement;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.TreeElement;
 import org.eclipse.swt.graphics.Color;
 
@@ -34,6 +35,13 @@ public class SamplePerCallField extends SampleProfField {
 
     @Override
     public int compare(Object obj1, Object obj2) {
+        if (obj1 instanceof DiffTreeElement && obj2 instanceof DiffTreeElement) {
+            // unknown differences first, as unknown samples per call
+            double d1 = ((DiffTreeElement) obj1).getSamplesPerCallDelta();
+            double d2 = ((DiffTreeElement) obj2).getSamplesPerCallDelta();
+            return Double.compare(Double.isNaN(d1) ? Double.NEGATIVE_INFINITY : d1,
+                    Double.isNaN(d2) ? Double.NEGATIVE_INFINITY : d2);
+        }
         TreeElement e1 = (TreeElement) obj1;
         TreeElement e2 = (TreeElement) obj2;
         int c1 = e1.getCalls();
@@ -64,6 +72,13 @@ public class SamplePerCallField extends SampleProfField {
 
     @Override
     public String getValue(Object obj) {
+        if (obj instanceof DiffTreeElement) {
+            double delta = ((DiffTreeElement) obj).getSamplesPerCallDelta();
+            if (Double.isNaN(delta)) {
+                return ""; //$NON-NLS-1$
+            }
+            return getDeltaValue(delta);
+        }
         TreeElement e = (TreeElement) obj;
         int i = e.getSamples();
         int j = e.getCalls();
@@ -87,6 +102,14 @@ public class SamplePerCallField extends SampleProfField {
 
     @Override
     public Number getNumber(Object obj) {
+        if (obj instanceof DiffTreeElement) {
+            double delta = ((DiffTreeElement) obj).getSamplesPerCallDelta();
+            double prof_rate = getProfRate();
+            if (Double.isNaN(delta) || prof_rate == 0) {
+                return 0L;
+            }
+            return delta/prof_rate;
+        }
         TreeElement e = (TreeElement) obj;
         int i = e.getSamples();
         int j = e.getCalls();
@@ -10,18 +10,24 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.gprof.view.fields;
 
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+
 import org.eclipse.linuxtools.dataviewers.abstractviewers.AbstractSTDataViewersField;
 import org.eclipse.linuxtools.dataviewers.abstractviewers.AbstractSTTreeViewer;
 import org.eclipse.linuxtools.dataviewers.charts.provider.IChartField;
 import org.eclipse.linuxtools.internal.gprof.Messages;
 import org.eclipse.linuxtools.internal.gprof.parser.GmonDecoder;
+import org.eclipse.linuxtools.internal.gprof.parser.GmonDiff;
 import org.eclipse.linuxtools.internal.gprof.parser.HistogramDecoder;
 import org.eclipse.linuxtools.internal.gprof.view.GmonView;
+import org.eclipse.linuxtools.internal.gprof.view.histogram.DiffTreeElement;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.HistFile;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.HistFunction;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.HistLine;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.HistRoot;
 import org.eclipse.linuxtools.internal.gprof.view.histogram.TreeElement;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.graphics.Color;
 
 
@@ -35,6 +41,7 @@ public class SampleProfField extends AbstractSTDataViewersField implements IChar
     private boolean samples = true;
     protected final AbstractSTTreeViewer viewer;
     protected final static double UNINITIALIZED = 0;
+    private final static NumberFormat SAMPLE_DELTA_FORMAT = new DecimalFormat("#,##0.##"); //$NON-NLS-1$
 
     /**
      * Constructor
@@ -68,6 +75,9 @@ public class SampleProfField extends AbstractSTDataViewersField implements IChar
 
     @Override
     public String getValue(Object obj) {
+        if (obj instanceof DiffTreeElement) {
+            return getDeltaValue(((DiffTreeElement) obj).getSamples());
+        }
         TreeElement e = (TreeElement) obj;
         int i = e.getSamples();
         if (i == -1) {
@@ -140,9 +150,30 @@ public class SampleProfField extends AbstractSTDataViewersField implements IChar
     }
 
 
+    /**
+     * Get the signed difference of samples, or of time, with the best unit display
+     * @param delta difference of samples
+     * @return the difference with a sign, or "?" if time is displayed and the profiling frequency is unknown
+     */
+    protected String getDeltaValue(double delta) {
+        String sign = delta > 0 ? "+" : delta < 0 ? "-" : ""; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        if (samples) {
+            return sign + SAMPLE_DELTA_FORMAT.format(Math.abs(delta));
+        }
+        double prof_rate = getProfRate();
+        if (prof_rate == UNINITIALIZED) {
+            return "?"; //$NON-NLS-1$
+        }
+        return sign + getValue(Math.abs(delta), prof_rate);
+    }
+
     protected double getProfRate() {
         double prof_rate = UNINITIALIZED;
         Object o = viewer.getViewer().getInput();
+        if (o instanceof GmonDiff) {
+            // both profiles are expected to be sampled at the same rate
+            o = ((GmonDiff) o).getCurrent();
+        }
         if (o instanceof GmonDecoder) {
             GmonDecoder decoder = (GmonDecoder)  o;
             HistogramDecoder histo = decoder.getHistogramDecoder();
@@ -164,7 +195,11 @@ public class SampleProfField extends AbstractSTDataViewersField implements IChar
 
     @Override
     public String getToolTipText(Object element) {
-        if (element instanceof HistRoot) {
+        if (element instanceof DiffTreeElement) {
+            DiffTreeElement e = (DiffTreeElement) element;
+            return NLS.bind(Messages.SampleProfField_BASELINE_AND_CURRENT, getDiffSideValue(e.getBaselineSamples()),
+                    getDiffSideValue(e.getCurrentSamples()));
+        } else if (element instanceof HistRoot) {
             return Messages.SampleProfField_TOTAL_TIME_SPENT;
         } else if (element instanceof HistFunction) {
             return Messages.SampleProfField_TIME_SPENT_IN_FUNCTION;
@@ -176,6 +211,17 @@ public class SampleProfField extends AbstractSTDataViewersField implements IChar
         return null;
     }
 
+    private String getDiffSideValue(int i) {
+        if (samples) {
+            return String.valueOf(i);
+        }
+        double prof_rate = getProfRate();
+        if (prof_rate == UNINITIALIZED) {
+            return "?"; //$NON-NLS-1$
+        }
+        return getValue(i, prof_rate);
+    }
+
     /**
      * Switch from samples to time ans vice-versa
      */
@@ -185,6 +231,9 @@ public class SampleProfField extends AbstractSTDataViewersField implements IChar
 
     @Override
     public Number getNumber(Object obj) {
+        if (obj instanceof DiffTreeElement) {
+            return ((DiffTreeElement) obj).getSamples();
+        }
         TreeElement e = (TreeElement) obj;
         int i = e.getSamples();
         if (i == -1) {
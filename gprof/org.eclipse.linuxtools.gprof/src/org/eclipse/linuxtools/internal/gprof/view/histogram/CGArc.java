@@ -63,7 +63,7 @@ public class CGArc extends AbstractTreeElement {
         } else {
             symbol = arc.parent.getSymbol();
         }
-        return HistFunction.getSamples(symbol);
+        return ((HistRoot) getRoot()).getSamples(symbol);
     }
 
     public String getFunctionName() {
@@ -93,7 +93,7 @@ public class CGArc extends AbstractTreeElement {
             ISymbol symbol = arc.child.getSymbol();
             return STSymbolManager.sharedInstance.getLineNumber(symbol, arc.getProject());
         } else {
-            return arc.parentLine;
+            return arc.getParentLine();
         }
     }
 
@@ -105,10 +105,11 @@ public class CGArc extends AbstractTreeElement {
             ISymbol symbol  = arc.child.getSymbol();
             return ((HistRoot)getRoot()).decoder.getFileName(symbol);
         } else {
-            if (arc.parentPath == null) {
+            String parentPath = arc.getParentPath();
+            if (parentPath == null) {
                 return "??"; //$NON-NLS-1$
             }
-            return arc.parentPath;
+            return parentPath;
         }
     }
 
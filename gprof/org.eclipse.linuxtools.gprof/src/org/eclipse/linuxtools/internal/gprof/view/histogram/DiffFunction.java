@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gprof.view.histogram;
+
+import java.util.LinkedList;
+
+/**
+ * A function of a differential profile: the same function in the baseline
+ * and in the current profile. One of them is missing if the function was
+ * added or removed, or never sampled nor called in one of the runs.
+ */
+public class DiffFunction extends AbstractTreeElement implements DiffTreeElement {
+
+    private HistFunction baseline;
+    private HistFunction current;
+
+    /**
+     * Constructor
+     * @param parent
+     */
+    DiffFunction(DiffRoot parent) {
+        super(parent);
+    }
+
+    void setBaseline(HistFunction f) {
+        this.baseline = f;
+    }
+
+    void setCurrent(HistFunction f) {
+        this.current = f;
+    }
+
+    /**
+     * @return the function in the baseline profile, or null
+     */
+    public HistFunction getBaseline() {
+        return baseline;
+    }
+
+    /**
+     * @return the function in the current profile, or null
+     */
+    public HistFunction getCurrent() {
+        return current;
+    }
+
+    private HistFunction getAny() {
+        return current != null ? current : baseline;
+    }
+
+    @Override
+    public boolean hasChildren() {
+        return false;
+    }
+
+    @Override
+    public LinkedList<? extends TreeElement> getChildren() {
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return getAny().getName();
+    }
+
+    @Override
+    public int getSourceLine() {
+        return getAny().getSourceLine();
+    }
+
+    @Override
+    public String getSourcePath() {
+        return getAny().getSourcePath();
+    }
+
+    @Override
+    public int getSamples() {
+        return getCurrentSamples() - getBaselineSamples();
+    }
+
+    @Override
+    public int getCalls() {
+        return getCurrentCalls() - getBaselineCalls();
+    }
+
+    @Override
+    public int getBaselineSamples() {
+        return baseline == null ? 0 : baseline.getSamples();
+    }
+
+    @Override
+    public int getCurrentSamples() {
+        return current == null ? 0 : current.getSamples();
+    }
+
+    @Override
+    public int getBaselineCalls() {
+        return baseline == null ? 0 : Math.max(0, baseline.getCalls());
+    }
+
+    @Override
+    public int getCurrentCalls() {
+        return current == null ? 0 : Math.max(0, current.getCalls());
+    }
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gprof.view.histogram;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+import org.eclipse.linuxtools.internal.gprof.Messages;
+import org.eclipse.linuxtools.internal.gprof.parser.GmonDecoder;
+import org.eclipse.linuxtools.internal.gprof.parser.GmonDiff;
+
+/**
+ * Root node of a differential profile: its children are the functions of
+ * both profiles, matched by demangled name and source file.
+ */
+public class DiffRoot extends AbstractTreeElement implements DiffTreeElement {
+
+    /** The compared profiles */
+    public final GmonDiff diff;
+    private LinkedList<DiffFunction> children;
+    private int baselineSamples;
+    private int currentSamples;
+    private int baselineCalls;
+    private int currentCalls;
+
+    /**
+     * Constructor
+     * @param diff
+     */
+    public DiffRoot(GmonDiff diff) {
+        super(null);
+        this.diff = diff;
+    }
+
+    private void createFunctions() {
+        Map<String, DiffFunction> functions = new LinkedHashMap<>();
+        for (HistFunction f : getFunctions(diff.getBaseline())) {
+            getFunction(functions, f).setBaseline(f);
+        }
+        for (HistFunction f : getFunctions(diff.getCurrent())) {
+            getFunction(functions, f).setCurrent(f);
+        }
+        children = new LinkedList<>(functions.values());
+        for (DiffFunction f : children) {
+            baselineSamples += f.getBaselineSamples();
+            currentSamples += f.getCurrentSamples();
+            baselineCalls += f.getBaselineCalls();
+            currentCalls += f.getCurrentCalls();
+        }
+    }
+
+    private DiffFunction getFunction(Map<String, DiffFunction> functions, HistFunction f) {
+        String key = f.getName() + '\0' + f.getSourcePath();
+        DiffFunction ret = functions.get(key);
+        if (ret == null) {
+            ret = new DiffFunction(this);
+            functions.put(key, ret);
+        }
+        return ret;
+    }
+
+    private static LinkedList<HistFunction> getFunctions(GmonDecoder decoder) {
+        LinkedList<HistFunction> ret = new LinkedList<>();
+        for (TreeElement file : decoder.getRootNode().getChildren()) {
+            for (TreeElement function : file.getChildren()) {
+                ret.add((HistFunction) function);
+            }
+        }
+        return ret;
+    }
+
+    @Override
+    public LinkedList<? extends TreeElement> getChildren() {
+        if (children == null) {
+            createFunctions();
+        }
+        return children;
+    }
+
+    @Override
+    public String getName() {
+        return Messages.HistRoot_Summary;
+    }
+
+    @Override
+    public int getSamples() {
+        return getCurrentSamples() - getBaselineSamples();
+    }
+
+    @Override
+    public int getCalls() {
+        return getCurrentCalls() - getBaselineCalls();
+    }
+
+    @Override
+    public int getBaselineSamples() {
+        getChildren();
+        return baselineSamples;
+    }
+
+    @Override
+    public int getCurrentSamples() {
+        getChildren();
+        return currentSamples;
+    }
+
+    @Override
+    public int getBaselineCalls() {
+        getChildren();
+        return baselineCalls;
+    }
+
+    @Override
+    public int getCurrentCalls() {
+        getChildren();
+        return currentCalls;
+    }
+}
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gprof.view.histogram;
+
+/**
+ * Element of a differential profile. {@link #getSamples()} and
+ * {@link #getCalls()} return the differences between the current and the
+ * baseline profiles, so that columns sort on them.
+ */
+public interface DiffTreeElement extends TreeElement {
+
+    /**
+     * @return the samples in the baseline profile
+     */
+    int getBaselineSamples();
+
+    /**
+     * @return the samples in the current profile
+     */
+    int getCurrentSamples();
+
+    /**
+     * @return the calls in the baseline profile, 0 if unknown
+     */
+    int getBaselineCalls();
+
+    /**
+     * @return the calls in the current profile, 0 if unknown
+     */
+    int getCurrentCalls();
+
+    /**
+     * @return the difference of samples per call, or NaN if calls are unknown in one of the profiles
+     */
+    default double getSamplesPerCallDelta() {
+        int baselineCalls = getBaselineCalls();
+        int currentCalls = getCurrentCalls();
+        if (baselineCalls <= 0 || currentCalls <= 0) {
+            return Double.NaN;
+        }
+        return (double) getCurrentSamples() / currentCalls - (double) getBaselineSamples() / baselineCalls;
+    }
+}
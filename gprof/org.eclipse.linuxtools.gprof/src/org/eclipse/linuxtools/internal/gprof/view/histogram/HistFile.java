@@ -10,13 +10,11 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.gprof.view.histogram;
 
+import java.util.HashMap;
 import java.util.LinkedList;
 
-import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
 import org.eclipse.cdt.core.IBinaryParser.ISymbol;
 import org.eclipse.core.runtime.Path;
-import org.eclipse.linuxtools.internal.gprof.symbolManager.Bucket;
-import org.eclipse.linuxtools.internal.gprof.symbolManager.CallGraphNode;
 
 
 /**
@@ -29,6 +27,7 @@ public class HistFile extends AbstractTreeElement {
     /** The source path to display */
     public final String sourcePath;
     private final LinkedList<HistFunction> children = new LinkedList<>();
+    private final HashMap<ISymbol, HistFunction> functions = new HashMap<>();
 
     /**
      * Constructor
@@ -46,28 +45,16 @@ public class HistFile extends AbstractTreeElement {
      * @param s
      * @return a {@link HistFunction}
      */
-    private HistFunction getChild(ISymbol s) {
-        for (HistFunction f : this.children) {
-            if (f.symbol == s) {
-                return f;
-            }
+    HistFunction getChild(ISymbol s) {
+        HistFunction f = this.functions.get(s);
+        if (f == null) {
+            f = new HistFunction(this, s);
+            this.functions.put(s, f);
+            this.children.add(f);
         }
-        HistFunction f = new HistFunction(this, s);
-        this.children.add(f);
         return f;
     }
 
-    void addBucket(Bucket b, ISymbol s, IBinaryObject program) {
-        HistFunction hf = getChild(s);
-        hf.addBucket(b, program);
-    }
-
-    void addCallGraphNode(CallGraphNode node) {
-        ISymbol s = node.getSymbol();
-        HistFunction hf = getChild(s);
-        hf.addCallGraphNode(node);
-    }
-
     @Override
     public LinkedList<? extends TreeElement> getChildren() {
         return this.children;
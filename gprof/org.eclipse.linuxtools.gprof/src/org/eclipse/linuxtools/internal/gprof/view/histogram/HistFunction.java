@@ -14,9 +14,11 @@ import java.util.HashMap;
 import java.util.LinkedList;
 
 import org.eclipse.cdt.core.IAddress;
+import org.eclipse.cdt.core.IAddressFactory;
 import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
 import org.eclipse.cdt.core.IBinaryParser.ISymbol;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.linuxtools.binutils.utils.STSourceLocation;
 import org.eclipse.linuxtools.binutils.utils.STSymbolManager;
 import org.eclipse.linuxtools.internal.gprof.symbolManager.Bucket;
 import org.eclipse.linuxtools.internal.gprof.symbolManager.CallGraphArc;
@@ -32,11 +34,11 @@ public class HistFunction extends AbstractTreeElement {
     /** The sympbol to display */
     public final ISymbol symbol;
     private final LinkedList<HistLine> children = new LinkedList<>();
+    private SampledBuckets buckets = new SampledBuckets();
+    private boolean linesCreated;
     private CGCategory parentsFunctions;
     private CGCategory childrenFunctions;
 
-    private static HashMap<ISymbol, Integer> histSym = new HashMap<>();
-
     /**
      * Constructor
      * @param parent
@@ -45,34 +47,44 @@ public class HistFunction extends AbstractTreeElement {
     public HistFunction(HistFile parent, ISymbol s) {
         super(parent);
         this.symbol = s;
-        histSym.put(s, 0);
     }
 
     /**
-     * Gets the tree item corresponding to the given line.
-     * Lazily create it if needed.
-     * @param line
-     * @return a {@link HistFunction}
+     * Set the sampled buckets of this function. Lines are only computed when the children of this node are needed.
+     * @param b
      */
-    private HistLine getChild(int line) {
-        for (HistLine l : this.children) {
-            if (l.line == line) {
-                return l;
-            }
-        }
-        HistLine l = new HistLine(this, line);
-        this.children.add(l);
-        return l;
+    void setSamples(SampledBuckets b) {
+        this.buckets = b;
+        this.children.clear();
+        linesCreated = false;
     }
 
-
-    void addBucket(Bucket b, IBinaryObject program) {
-        int lineNumber = -1;
-        IAddress address = program.getAddressFactory().createAddress(String.valueOf(b.startAddr));
-        lineNumber = STSymbolManager.sharedInstance.getLineNumber(program, address, getProject());
-        HistLine hf = getChild(lineNumber);
-        hf.addBucket(b);
-        histSym.put(symbol, b.time + histSym.get(symbol));
+    private void createLines() {
+        linesCreated = true;
+        IBinaryObject program = ((HistRoot) getRoot()).decoder.getProgram();
+        IAddressFactory addressFactory = program.getAddressFactory();
+        IProject project = getProject();
+        IAddress[] addresses = new IAddress[buckets.size()];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = addressFactory.createAddress(String.valueOf(buckets.getStartAddr(i)));
+        }
+        // a single addr2line run for all buckets
+        STSourceLocation[] locations = STSymbolManager.sharedInstance.getSourceLocations(program, addresses, project);
+        HashMap<Integer, HistLine> lines = new HashMap<>();
+        for (int i = 0; i < addresses.length; i++) {
+            int lineNumber = locations[i].getLineNumber();
+            if (lineNumber == -1) {
+                // let addr2line look for the nearest address with debug information
+                lineNumber = STSymbolManager.sharedInstance.getLineNumber(program, addresses[i], project);
+            }
+            HistLine hl = lines.get(lineNumber);
+            if (hl == null) {
+                hl = new HistLine(this, lineNumber);
+                lines.put(lineNumber, hl);
+                this.children.add(hl);
+            }
+            hl.addBucket(new Bucket(buckets.getStartAddr(i), buckets.getEndAddr(i), buckets.getTime(i)));
+        }
     }
 
     void addCallGraphNode(CallGraphNode node) {
@@ -89,9 +101,17 @@ public class HistFunction extends AbstractTreeElement {
 
     @Override
     public LinkedList<? extends TreeElement> getChildren() {
+        if (!linesCreated) {
+            createLines();
+        }
         return this.children;
     }
 
+    @Override
+    public int getSamples() {
+        return buckets.getSamples();
+    }
+
     @Override
     public int getCalls() {
         return this.calls;
@@ -126,17 +146,6 @@ public class HistFunction extends AbstractTreeElement {
         return ((HistRoot)getRoot()).decoder.getFileName(symbol);
     }
 
-    /**
-     * @return the function samples
-     */
-    public static int getSamples(ISymbol sym){
-        if (histSym.containsKey(sym)) {
-            return histSym.get(sym);
-        } else {
-            return 0;
-        }
-    }
-
     private IProject getProject() {
         return ((HistRoot)getParent().getParent()).getProject();
     }
@@ -24,6 +24,7 @@ public class HistLine extends AbstractTreeElement {
 
     public final int line;
     private final LinkedList<HistBucket> children = new LinkedList<>();
+    private int lineSamples;
 
     /**
      * Constructor
@@ -37,6 +38,7 @@ public class HistLine extends AbstractTreeElement {
 
     void addBucket(Bucket b) {
         this.children.add(new HistBucket(this,b));
+        lineSamples += b.time;
     }
 
     @Override
@@ -57,11 +59,7 @@ public class HistLine extends AbstractTreeElement {
 
     @Override
     public int getSamples() {
-        int ret = 0;
-        for (HistBucket b : children) {
-            ret += b.getSamples();
-        }
-        return ret;
+        return lineSamples;
     }
 
     @Override
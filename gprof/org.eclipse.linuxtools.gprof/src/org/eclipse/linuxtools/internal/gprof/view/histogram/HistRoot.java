@@ -10,14 +10,16 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.gprof.view.histogram;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 
-import org.eclipse.cdt.core.IBinaryParser.IBinaryObject;
 import org.eclipse.cdt.core.IBinaryParser.ISymbol;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.linuxtools.internal.gprof.Messages;
 import org.eclipse.linuxtools.internal.gprof.parser.GmonDecoder;
-import org.eclipse.linuxtools.internal.gprof.symbolManager.Bucket;
 import org.eclipse.linuxtools.internal.gprof.symbolManager.CallGraphNode;
 
 /**
@@ -27,7 +29,20 @@ import org.eclipse.linuxtools.internal.gprof.symbolManager.CallGraphNode;
  */
 public class HistRoot extends AbstractTreeElement {
 
+    /**
+     * Profile of a symbol, kept until the file of the symbol is needed
+     */
+    private static final class SymbolProfile {
+        private final SampledBuckets buckets = new SampledBuckets();
+        private CallGraphNode node;
+    }
+
     private final LinkedList<HistFile> children = new LinkedList<>();
+    private final HashMap<String, HistFile> files = new HashMap<>();
+    /** profiles by symbol, in the order in which they are first added */
+    private final LinkedHashMap<ISymbol, SymbolProfile> profiles = new LinkedHashMap<>();
+    private boolean filesCreated;
+    private int totalSamples;
 
     /** The decoded gmon to display */
     public final GmonDecoder decoder;
@@ -42,30 +57,37 @@ public class HistRoot extends AbstractTreeElement {
     }
 
     private HistFile getChild(String p) {
-        for (HistFile f : this.children) {
-            if (p != null) {
-                if (p.equals(f.sourcePath)) {
-                    return f;
-                }
-            } else if (f.sourcePath == null) {
-                return f;
-            }
+        HistFile f = this.files.get(p);
+        if (f == null) {
+            f = new HistFile(this, p);
+            this.files.put(p, f);
+            this.children.add(f);
         }
-        HistFile f = new HistFile(this, p);
-        this.children.add(f);
         return f;
     }
 
+    private SymbolProfile getProfile(ISymbol s) {
+        SymbolProfile profile = profiles.get(s);
+        if (profile == null) {
+            profile = new SymbolProfile();
+            profiles.put(s, profile);
+        }
+        return profile;
+    }
+
     /**
-     * Add a bucket to the tree representation of the gmon file
-     * @param b a bucket
-     * @param s a symbol (the bucket belong to this symbol)
-     * @param program the program
+     * Add the sampled buckets of a symbol to the tree representation of the gmon file
+     * @param s a symbol (the buckets belong to this symbol)
+     * @param startAddrs start address of each bucket
+     * @param endAddrs end address of each bucket
+     * @param times time spent in each bucket
      */
-    public void addBucket(Bucket b, ISymbol s, IBinaryObject program) {
-        String path = decoder.getFileName(s);
-        HistFile hf = getChild(path);
-        hf.addBucket(b, s, program);
+    public void addSamples(ISymbol s, long[] startAddrs, long[] endAddrs, int[] times) {
+        SymbolProfile profile = getProfile(s);
+        totalSamples += profile.buckets.add(startAddrs, endAddrs, times);
+        if (filesCreated) {
+            getFunction(s).setSamples(profile.buckets);
+        }
     }
 
     /**
@@ -74,16 +96,59 @@ public class HistRoot extends AbstractTreeElement {
      */
     public void addCallGraphNode(CallGraphNode node) {
         ISymbol s = node.getSymbol();
-        String path = decoder.getFileName(s);
-        HistFile hf = getChild(path);
-        hf.addCallGraphNode(node);
+        getProfile(s).node = node;
+        if (filesCreated) {
+            getFunction(s).addCallGraphNode(node);
+        }
+    }
+
+    private HistFunction getFunction(ISymbol s) {
+        return getChild(decoder.getFileName(s)).getChild(s);
+    }
+
+    /**
+     * Group the symbols by file: file names of all symbols are resolved at once, the first time the files are
+     * needed.
+     */
+    private void createFiles() {
+        filesCreated = true;
+        List<ISymbol> symbols = new ArrayList<>(profiles.keySet());
+        String[] paths = decoder.getFileNames(symbols);
+        for (int i = 0; i < paths.length; i++) {
+            ISymbol s = symbols.get(i);
+            SymbolProfile profile = profiles.get(s);
+            HistFunction f = getChild(paths[i]).getChild(s);
+            if (profile.node != null) {
+                f.addCallGraphNode(profile.node);
+            }
+            if (profile.buckets.size() > 0) {
+                f.setSamples(profile.buckets);
+            }
+        }
+    }
+
+    /**
+     * @param s
+     * @return the samples of the given symbol
+     */
+    public int getSamples(ISymbol s) {
+        SymbolProfile profile = profiles.get(s);
+        return profile == null ? 0 : profile.buckets.getSamples();
     }
 
     @Override
     public LinkedList<? extends TreeElement> getChildren() {
+        if (!filesCreated) {
+            createFiles();
+        }
         return this.children;
     }
 
+    @Override
+    public int getSamples() {
+        return totalSamples;
+    }
+
     @Override
     public String getName() {
         return Messages.HistRoot_Summary;
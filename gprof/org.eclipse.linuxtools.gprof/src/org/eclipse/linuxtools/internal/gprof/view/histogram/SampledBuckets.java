@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.gprof.view.histogram;
+
+import java.util.Arrays;
+
+/**
+ * The sampled buckets of a function, in primitive arrays: {@link HistLine}
+ * and {@link HistBucket} nodes are only created from them when the function
+ * is expanded.
+ */
+final class SampledBuckets {
+
+    private long[] startAddrs = new long[0];
+    private long[] endAddrs = new long[0];
+    private int[] times = new int[0];
+    private int samples;
+
+    /**
+     * Add buckets
+     * @param starts start address of each bucket
+     * @param ends end address of each bucket
+     * @param bucketTimes time spent in each bucket
+     * @return the total time of the added buckets
+     */
+    int add(long[] starts, long[] ends, int[] bucketTimes) {
+        int n = times.length;
+        if (n == 0) {
+            startAddrs = starts;
+            endAddrs = ends;
+            times = bucketTimes;
+        } else {
+            startAddrs = Arrays.copyOf(startAddrs, n + bucketTimes.length);
+            endAddrs = Arrays.copyOf(endAddrs, n + bucketTimes.length);
+            times = Arrays.copyOf(times, n + bucketTimes.length);
+            System.arraycopy(starts, 0, startAddrs, n, bucketTimes.length);
+            System.arraycopy(ends, 0, endAddrs, n, bucketTimes.length);
+            System.arraycopy(bucketTimes, 0, times, n, bucketTimes.length);
+        }
+        int time = 0;
+        for (int t : bucketTimes) {
+            time += t;
+        }
+        samples += time;
+        return time;
+    }
+
+    int size() {
+        return times.length;
+    }
+
+    long getStartAddr(int i) {
+        return startAddrs[i];
+    }
+
+    long getEndAddr(int i) {
+        return endAddrs[i];
+    }
+
+    int getTime(int i) {
+        return times[i];
+    }
+
+    /**
+     * @return the total time of all buckets
+     */
+    int getSamples() {
+        return samples;
+    }
+}
@@ -31,6 +31,7 @@ import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.swt.widgets.Text;
 import org.junit.After;
 import org.junit.Before;
@@ -76,9 +77,11 @@ public class LaunchTabsTest extends AbstractTest {
         protected Button getChkRecordVerbose() { return chkRecordVerbose; }
         protected Button getChkSourceLineNumbers() { return chkSourceLineNumbers; }
         protected Button getChkKernelSourceLineNumbers() { return chkKernelSourceLineNumbers; }
+        protected Spinner getAnnotateJobs() { return annotateJobs; }
         protected Button getChkMultiplexEvents() { return chkMultiplexEvents; }
         protected Button getChkModuleSymbols() { return chkModuleSymbols; }
         protected Button getChkHideUnresolvedSymbols() { return chkHideUnresolvedSymbols; }
+        protected Button getChkNativeReport() { return chkNativeReport; }
     }
     @Test
     public void testOptionsTab() throws CoreException {
@@ -133,6 +136,22 @@ public class LaunchTabsTest extends AbstractTest {
         performApply(tab, wc);
         assertEquals(false, config.getAttribute(PerfPlugin.ATTR_Kernel_SourceLineNumbers, true));
 
+        Spinner ajSpinner = tab.getAnnotateJobs();
+        assertEquals(PerfPlugin.ATTR_AnnotateJobs_default, ajSpinner.getSelection());
+        ajSpinner.setSelection(8);
+        performApply(tab, wc);
+        assertEquals(8, config.getAttribute(PerfPlugin.ATTR_AnnotateJobs, PerfPlugin.ATTR_AnnotateJobs_default));
+
+        Button nrCheck = tab.getChkNativeReport();
+        nrCheck.setSelection(false);
+        nrCheck.notifyListeners(SWT.Selection, null);
+        performApply(tab, wc);
+        assertEquals(false, config.getAttribute(PerfPlugin.ATTR_NativeReport, true));
+        nrCheck.setSelection(true);
+        nrCheck.notifyListeners(SWT.Selection, null);
+        performApply(tab, wc);
+        assertEquals(true, config.getAttribute(PerfPlugin.ATTR_NativeReport, false));
+
         PerfVersion version = PerfCore.getPerfVersion(config);
         Button meCheck = tab.getChkMultiplexEvents();
         if (meCheck.isEnabled()) {
@@ -14,6 +14,8 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -27,6 +29,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
@@ -38,6 +41,7 @@ import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.linuxtools.internal.perf.PerfCore;
 import org.eclipse.linuxtools.internal.perf.PerfPlugin;
+import org.eclipse.linuxtools.internal.perf.PerfReportStream;
 import org.eclipse.linuxtools.internal.perf.launch.PerfEventsTab;
 import org.eclipse.linuxtools.internal.perf.launch.PerfOptionsTab;
 import org.eclipse.linuxtools.internal.perf.model.PMCommand;
@@ -49,6 +53,7 @@ import org.eclipse.linuxtools.internal.perf.model.TreeParent;
 import org.eclipse.linuxtools.internal.perf.ui.PerfDoubleClickAction;
 import org.eclipse.linuxtools.internal.perf.ui.PerfProfileView;
 import org.eclipse.linuxtools.profiling.tests.AbstractTest;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.PartInitException;
 import org.eclipse.ui.PlatformUI;
 import org.junit.After;
@@ -312,6 +317,93 @@ public class ModelTest extends AbstractTest {
         }
     }
 
+    @Test
+    public void testChildLookup() {
+        PMCommand cmd = new PMCommand("testCommand");
+        PMDso dso = new PMDso("testDso", false);
+        cmd.addChild(dso);
+        PMFile first = new PMFile("file");
+        PMFile second = new PMFile("file");
+        dso.addChild(first);
+        dso.addChild(second);
+        dso.addChild(new PMFile("other"));
+
+        assertSame(first, dso.getChild("file"));
+        assertEquals(3, dso.getChildList().size());
+
+        dso.removeChild(first);
+        assertSame(second, dso.getChild("file"));
+        dso.removeChild(second);
+        assertNull(dso.getChild("file"));
+        assertNotNull(dso.getChild("other"));
+        assertEquals(1, dso.getChildren().length);
+    }
+
+    @Test
+    public void testReportStream() {
+        TreeParent root = new TreeParent("");
+        PerfReportStream stream = new PerfReportStream(root);
+        stream.addEvent("cycles");
+        stream.addSymbol("cmd", "dso", "[.] first", 60, 6, false);
+        stream.addSymbol("cmd", "[kernel.kallsyms]", "[k] second", 40, 4, true);
+        stream.finish();
+        assertTrue(stream.isFinished());
+        assertTrue(stream.apply());
+        assertFalse(stream.apply());
+
+        PMEvent event = (PMEvent) root.getChild("cycles");
+        PMCommand cmd = (PMCommand) event.getChild("cmd");
+        assertEquals(2, cmd.getChildren().length);
+        PMDso kernel = (PMDso) cmd.getChild("[kernel.kallsyms]");
+        assertTrue(kernel.isKernelDso());
+        PMSymbol sym = (PMSymbol) kernel.getFile(PerfPlugin.STRINGS_UnfiledSymbols).getChild("[k] second");
+        assertEquals(40, sym.getPercent(), 0);
+        assertEquals(100, cmd.getPercent(), 0);
+    }
+
+    @Test
+    public void testRefreshWhileAnnotating() throws Exception {
+        ILaunchConfigurationWorkingCopy wc = config.getWorkingCopy();
+        wc.setAttribute(PerfPlugin.ATTR_SourceLineNumbers, true);
+        ILaunchConfiguration annotateConfig = wc.doSave();
+
+        TreeParent invisibleRoot = PerfPlugin.getDefault().clearModelRoot();
+        PerfProfileView view = (PerfProfileView) PlatformUI.getWorkbench()
+                .getActiveWorkbenchWindow().getActivePage()
+                .showView(PerfPlugin.VIEW_ID);
+        view.refreshModel();
+        TreeViewer tv = view.getTreeViewer();
+
+        // read and annotate the report on another thread, as a launch does
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader input = new BufferedReader(new FileReader("resources/defaultevent-data/perf.data.txt"));
+                    BufferedReader error = new BufferedReader(new FileReader("resources/defaultevent-data/perf.data.err.log"))) {
+                PerfCore.parseReport(annotateConfig, null, null, "resources/defaultevent-data/perf.data", null,
+                        invisibleRoot, false, input, error);
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+
+        // the model changes on this thread, between two refreshes of the view
+        Display display = Display.getCurrent();
+        while (reader.isAlive()) {
+            tv.refresh();
+            tv.expandAll();
+            if (!display.readAndDispatch()) {
+                Thread.sleep(1);
+            }
+        }
+        reader.join();
+
+        assertNull(failure.get());
+        tv.refresh();
+        assertTrue(invisibleRoot.hasChildren());
+        assertEquals(invisibleRoot.getChildren().length, tv.getTree().getItemCount());
+    }
+
     @Test
     public void testAnnotateString() throws CoreException {
         ILaunchConfigurationWorkingCopy tempConfig = config.copy("test-config");
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.perf.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.linuxtools.internal.perf.PerfDataReport;
+import org.eclipse.linuxtools.internal.perf.PerfDataReport.Entry;
+import org.eclipse.linuxtools.internal.perf.model.PMCommand;
+import org.eclipse.linuxtools.internal.perf.model.PMDso;
+import org.eclipse.linuxtools.internal.perf.model.PMEvent;
+import org.eclipse.linuxtools.internal.perf.model.TreeParent;
+import org.junit.Test;
+
+public class PerfDataReaderTest {
+
+    private static final String DEFAULT_EVENT_DATA = "resources/defaultevent-data/perf.data"; //$NON-NLS-1$
+    private static final String MULTI_EVENT_DATA = "resources/multievent-data/perf.data"; //$NON-NLS-1$
+
+    @Test
+    public void testDefaultEvent() throws IOException {
+        PerfDataReport report = PerfDataReport.read(new File(DEFAULT_EVENT_DATA), null, null);
+        assertNotNull(report);
+        assertEquals(Arrays.asList("cycles"), report.getEventNames()); //$NON-NLS-1$
+        assertEquals(898, report.getSamples(0));
+
+        long samples = 0;
+        for (Entry entry : report.getEntries(0)) {
+            if (entry.getCommand().equals("hellotest") && entry.getDso().equals("hellotest")) { //$NON-NLS-1$ //$NON-NLS-2$
+                samples += entry.getSamples();
+            }
+        }
+        assertEquals(883, samples);
+    }
+
+    @Test
+    public void testMultiEvent() throws IOException {
+        PerfDataReport report = PerfDataReport.read(new File(MULTI_EVENT_DATA), null, null);
+        assertNotNull(report);
+        assertEquals(Arrays.asList("cpu-clock", "task-clock", "page-faults", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                "minor-faults", "major-faults"), report.getEventNames()); //$NON-NLS-1$ //$NON-NLS-2$
+        long[] samples = { 917, 917, 6, 6, 0 };
+        for (int i = 0; i < samples.length; i++) {
+            assertEquals(samples[i], report.getSamples(i));
+        }
+
+        // Entries come by decreasing period
+        List<Entry> entries = report.getEntries(2);
+        for (int i = 1; i < entries.size(); i++) {
+            assertTrue(entries.get(i - 1).getPeriod() >= entries.get(i).getPeriod());
+        }
+        assertEquals("ld-2.14.90.so", entries.get(0).getDso()); //$NON-NLS-1$
+    }
+
+    @Test
+    public void testBuildModel() throws IOException {
+        PerfDataReport report = PerfDataReport.read(new File(MULTI_EVENT_DATA), null, null);
+        TreeParent root = new TreeParent(""); //$NON-NLS-1$
+        report.buildModel(root);
+
+        assertEquals(5, root.getChildren().length);
+        PMEvent event = (PMEvent) root.getChild("cpu-clock"); //$NON-NLS-1$
+        PMCommand command = (PMCommand) event.getChild("hellotest"); //$NON-NLS-1$
+        PMDso dso = (PMDso) command.getChild("hellotest"); //$NON-NLS-1$
+        assertNotNull(dso);
+        assertEquals(100, dso.getPercent(), 0.1);
+
+        event = (PMEvent) root.getChild("page-faults"); //$NON-NLS-1$
+        dso = (PMDso) event.getChild("hellotest").getChild("[kernel.kallsyms]"); //$NON-NLS-1$ //$NON-NLS-2$
+        assertNotNull(dso);
+        assertTrue(dso.isKernelDso());
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException {
+        File file = File.createTempFile("perf", ".data"); //$NON-NLS-1$ //$NON-NLS-2$
+        try {
+            Files.copy(new File(DEFAULT_EVENT_DATA).toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+                raf.write("NOTPERF!".getBytes()); //$NON-NLS-1$
+            }
+            PerfDataReport.read(file, null, null);
+            fail("Expected an IOException for a bad magic"); //$NON-NLS-1$
+        } catch (IOException e) {
+            // expected
+        } finally {
+            file.delete();
+        }
+    }
+}
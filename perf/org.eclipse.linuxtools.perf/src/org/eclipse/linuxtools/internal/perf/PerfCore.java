@@ -11,14 +11,27 @@
 package org.eclipse.linuxtools.internal.perf;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.cdt.debug.core.ICDTLaunchConfigurationConstants;
 import org.eclipse.core.resources.IProject;
@@ -27,6 +40,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.debug.core.ILaunchConfiguration;
@@ -348,7 +362,10 @@ public class PerfCore {
     public static void report(ILaunchConfiguration config, IPath workingDir, IProgressMonitor monitor, String perfDataLoc, PrintStream print) {
         IProject project = getProject(config);
 
-        TreeParent invisibleRoot = PerfPlugin.getDefault().clearModelRoot();
+        // The view may show the previous model, which is cleared on its thread
+        AtomicReference<TreeParent> modelRoot = new AtomicReference<>();
+        getModelExecutor().execute(() -> modelRoot.set(PerfPlugin.getDefault().clearModelRoot()));
+        TreeParent invisibleRoot = modelRoot.get();
 
         PerfVersion perfVersion = getPerfVersion(config);
         boolean oldPerfVersion = false;
@@ -366,6 +383,10 @@ public class PerfCore {
             return;
         }
 
+        if (nativeReport(config, workingDir, monitor, perfDataLoc, print, invisibleRoot, oldPerfVersion, project)) {
+            return;
+        }
+
         try {
             if (workingDir==null) {
                 p = RuntimeProcessFactory.getFactory().exec(getReportString(config, perfDataLoc), project);
@@ -386,7 +407,7 @@ public class PerfCore {
         }
 
         PerfCore.parseRemoteReport(config, workingDir, monitor, perfDataLoc, print,
-                invisibleRoot, oldPerfVersion, input, error, project);
+                invisibleRoot, oldPerfVersion, input, error, project, true);
     }
 
     /**
@@ -406,13 +427,14 @@ public class PerfCore {
             PrintStream print, TreeParent invisibleRoot,
             boolean oldPerfVersion, BufferedReader input, BufferedReader error) {
         PerfCore.parseRemoteReport(config, workingDir, monitor, perfDataLoc, print,
-                invisibleRoot, oldPerfVersion, input, error, null);
+                invisibleRoot, oldPerfVersion, input, error, null, false);
     }
 
     private static void parseRemoteReport(ILaunchConfiguration config,
             IPath workingDir, IProgressMonitor monitor, String perfDataLoc,
             PrintStream print, TreeParent invisibleRoot,
-            boolean oldPerfVersion, BufferedReader input, BufferedReader error, IProject project) {
+            boolean oldPerfVersion, BufferedReader input, BufferedReader error, IProject project,
+            boolean showProgress) {
 
         if (monitor != null && monitor.isCanceled()) {
             return;
@@ -421,18 +443,22 @@ public class PerfCore {
         String items[];
         float percent;
 
-        Process p = null;
         double samples;
         String comm,dso,symbol;
         boolean kernelFlag;
-        PMEvent currentEvent = null;
-        PMCommand currentCommand = null;
-        PMDso currentDso = null;
-        PMFile currentFile = null;
-        PMSymbol currentSym = null;
+
+        // Lines are added to the model in batches, shown by the view while the report is read
+        Executor modelExecutor = getModelExecutor();
+        PerfReportStream stream = new PerfReportStream(invisibleRoot);
+        if (showProgress) {
+            showReport(stream);
+        }
         try {
             while (( line = input.readLine()) != null){
                 if (monitor != null && monitor.isCanceled()) {
+                    // keep what was read so far
+                    stream.finish();
+                    modelExecutor.execute(stream::apply);
                     return;
                 }
                 // line containing report information
@@ -448,13 +474,10 @@ public class PerfCore {
                         if (line.contains("Samples:")){ //$NON-NLS-1$
                             event = event.substring(1, event.length() -1);
                         }
-                        currentEvent = new PMEvent(event);
-                        invisibleRoot.addChild(currentEvent);
-                        currentCommand = null;
-                        currentDso = null;
+                        stream.addEvent(event);
                     } else if (line.contains("Samples:")) { //"samples" was used instead of events in an older version, some incompatibilities may arise. //$NON-NLS-1$
                         if (print != null) { print.println("WARNING: You are running an older version of Perf, please update if you can. The plugin may produce unpredictable results."); } //$NON-NLS-1$
-                        invisibleRoot.addChild(new PMEvent("WARNING: You are running an older version of Perf, the plugin may produce unpredictable results.")); //$NON-NLS-1$
+                        stream.addNote("WARNING: You are running an older version of Perf, the plugin may produce unpredictable results."); //$NON-NLS-1$
                     }
                     // contains profiled information
                 } else {
@@ -469,41 +492,77 @@ public class PerfCore {
                     symbol = items[4].trim(); //symbol column
                     kernelFlag = (""+symbol.charAt(1)).equals("k"); //$NON-NLS-1$ //$NON-NLS-2$
 
-                    // initialize current command if it doesn't exist
-                    if ((currentCommand == null) || (!currentCommand.getName().equals(comm))) {
-                        currentCommand = (PMCommand) currentEvent.getChild(comm);
-                        if(currentCommand == null) {
-                            currentCommand = new PMCommand(comm);
-                            currentEvent.addChild(currentCommand);
-                        }
-                    }
-
-                    // initialize current dso if it doesn't exist
-                    if ((currentDso == null) || (!currentDso.getName().equals(dso))) {
-                        currentDso = (PMDso) currentCommand.getChild(dso);
-                        if (currentDso == null) {
-                            currentDso = new PMDso(dso,kernelFlag);
-                            currentCommand.addChild(currentDso);
-                        }
-                    }
-
-                    /*
-                     *  Initialize the current file, and symbol
-                     *
-                     *  We won't know the name of the file containing the symbol
-                     *  until we run 'perf annotate' to resolve it, so for now we
-                     *  attach all symbols as children of 'Unfiled Symbols'.
-                     */
-                    currentFile = currentDso.getFile(PerfPlugin.STRINGS_UnfiledSymbols);
-                    currentSym = new PMSymbol(symbol, percent, samples);
-                    currentFile.addChild(currentSym);
+                    stream.addSymbol(comm, dso, symbol, percent, samples, kernelFlag);
                 }
             }
         } catch (IOException e) {
             logException(e);
         }
+        stream.finish();
+        modelExecutor.execute(stream::apply);
         spitStream(error,"Perf Report", print); //$NON-NLS-1$
 
+        annotateReport(config, workingDir, monitor, perfDataLoc, print, invisibleRoot, oldPerfVersion, project);
+    }
+
+    /**
+     * Build the model by reading a local perf data file directly, which is
+     * much faster than parsing the output of perf report on large files.
+     * @return true if the model was built, false if perf report must be used
+     */
+    private static boolean nativeReport(ILaunchConfiguration config,
+            IPath workingDir, IProgressMonitor monitor, String perfDataLoc,
+            PrintStream print, TreeParent invisibleRoot,
+            boolean oldPerfVersion, IProject project) {
+        String host = getHostName(config);
+        if (config == null || (host != null && !host.isEmpty())) {
+            return false;
+        }
+        String kernelLoc;
+        try {
+            if (!config.getAttribute(PerfPlugin.ATTR_NativeReport, PerfPlugin.ATTR_NativeReport_default)) {
+                return false;
+            }
+            // Module symbols are only loaded by perf report
+            if (config.getAttribute(PerfPlugin.ATTR_ModuleSymbols, PerfPlugin.ATTR_ModuleSymbols_default)) {
+                return false;
+            }
+            kernelLoc = config.getAttribute(PerfPlugin.ATTR_Kernel_Location, PerfPlugin.ATTR_Kernel_Location_default);
+        } catch (CoreException e) {
+            return false;
+        }
+        String dataLoc = workingDir == null ? perfDataLoc : workingDir.toOSString() + PerfPlugin.PERF_DEFAULT_DATA;
+        if (dataLoc == null) {
+            return false;
+        }
+
+        final PerfDataReport report;
+        try {
+            File kernelImage = kernelLoc.equals(PerfPlugin.ATTR_Kernel_Location_default) ? null : new File(kernelLoc);
+            report = PerfDataReport.read(new File(dataLoc), kernelImage, monitor);
+        } catch (IOException e) {
+            // Formats not read natively, like piped or compressed data, are left to perf report
+            logException(e);
+            return false;
+        }
+        if (report == null) {
+            return true;
+        }
+        getModelExecutor().execute(() -> report.buildModel(invisibleRoot));
+        PerfPlugin.getDefault().setPerfProfileData(new Path(dataLoc));
+        PerfPlugin.getDefault().setWorkingDir(workingDir == null ? project.getLocation() : workingDir);
+
+        annotateReport(config, workingDir, monitor, perfDataLoc, print, invisibleRoot, oldPerfVersion, project);
+        return true;
+    }
+
+    private static void annotateReport(ILaunchConfiguration config,
+            IPath workingDir, IProgressMonitor monitor, String perfDataLoc,
+            PrintStream print, TreeParent invisibleRoot,
+            boolean oldPerfVersion, IProject project) {
+        PMDso currentDso = null;
+        PMSymbol currentSym = null;
+        Executor modelExecutor = getModelExecutor();
         boolean SourceLineNumbers = PerfPlugin.ATTR_SourceLineNumbers_default;
         boolean Kernel_SourceLineNumbers = PerfPlugin.ATTR_Kernel_SourceLineNumbers_default;
         try {
@@ -518,69 +577,85 @@ public class PerfCore {
             return;
         }
 
-        boolean hasProfileData = invisibleRoot.getChildren().length != 0;
+        boolean hasProfileData = invisibleRoot.hasChildren();
 
         if (SourceLineNumbers) {
-            for (TreeParent ev : invisibleRoot.getChildren()) {
-                if (!(ev instanceof PMEvent)) continue;
-                for (TreeParent cmd : ev.getChildren()) {
-                    if (!(cmd instanceof PMCommand)) continue;
-                    for (TreeParent d : cmd.getChildren()) {
-                        if (!(d instanceof PMDso)) continue;
-                        currentDso = (PMDso)d;
-                        if ((!Kernel_SourceLineNumbers) && currentDso.isKernelDso()) continue;
-                        for (TreeParent s : currentDso.getFile(PerfPlugin.STRINGS_UnfiledSymbols).getChildren()) {
-                            if (!(s instanceof PMSymbol)) continue;
-
-                            if (monitor != null && monitor.isCanceled()) {
-                                return;
-                            }
-                            currentSym = (PMSymbol)s;
-                            String[] annotateCmd;
-                            if (workingDir == null) {
-                                annotateCmd = getAnnotateString(config, currentDso.getName(), currentSym.getName().substring(4), perfDataLoc, oldPerfVersion);
-                            } else {
-                                String perfDefaultDataLoc = workingDir + "/" + PerfPlugin.PERF_DEFAULT_DATA; //$NON-NLS-1$
-                                annotateCmd = getAnnotateString(config, currentDso.getName(), currentSym.getName().substring(4), perfDefaultDataLoc, oldPerfVersion);
-                            }
+            int annotateJobs = PerfPlugin.ATTR_AnnotateJobs_default;
+            try {
+                annotateJobs = config.getAttribute(PerfPlugin.ATTR_AnnotateJobs, PerfPlugin.ATTR_AnnotateJobs_default);
+            } catch (CoreException e) {
+                // keep the default number of jobs
+            }
+            String annotateDataLoc = perfDataLoc;
+            if (workingDir != null) {
+                annotateDataLoc = workingDir + "/" + PerfPlugin.PERF_DEFAULT_DATA; //$NON-NLS-1$
+            }
 
-                            try {
-                                if(project==null) {
-                                    p = Runtime.getRuntime().exec(annotateCmd);
-                                } else {
-                                    StringBuffer sb = new StringBuffer();
-                                    ArrayList<String> al = new ArrayList<>();
-                                    /*
-                                     *  Wrap the whole Perf annotate line as a single argument of sh command
-                                     *   so that any IO redirection will take effect. Change to working directory before run perf annotate.
-                                     *  It results on a command string as 'sh', '-c', 'cd <workindir> && perf annotate <args> < /dev/null'
-                                     */
-                                    al.add("sh"); //$NON-NLS-1$
-                                    al.add("-c"); //$NON-NLS-1$
-                                    if(workingDir != null) {
-                                        sb.append("cd " + workingDir.toOSString() + " && "); //$NON-NLS-1$ //$NON-NLS-2$
-                                    }
-                                    for(int i=0; i<annotateCmd.length; i++) {
-                                        sb.append(annotateCmd[i]);
-                                        sb.append(" "); //$NON-NLS-1$
-                                    }
-                                    al.add(sb.toString());
-                                    p = RuntimeProcessFactory.getFactory().exec(al.toArray(new String[]{}), project);
-                                }
-                                input = new BufferedReader(new InputStreamReader(p.getInputStream()));
-                                error = new BufferedReader(new InputStreamReader(p.getErrorStream()));
-                            } catch (IOException e) {
-                                logException(e);
+            /*
+             *  Start 'perf annotate' for every symbol on a bounded pool, but merge
+             *  the results in report order so that the model is the same as when
+             *  the symbols are annotated one after another.
+             */
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, annotateJobs));
+            Set<Process> running = ConcurrentHashMap.newKeySet();
+            Map<PMDso, List<Future<Annotation>>> annotations = new LinkedHashMap<>();
+            try {
+                for (TreeParent ev : invisibleRoot.getChildList()) {
+                    if (!(ev instanceof PMEvent)) continue;
+                    for (TreeParent cmd : ev.getChildList()) {
+                        if (!(cmd instanceof PMCommand)) continue;
+                        for (TreeParent d : cmd.getChildList()) {
+                            if (!(d instanceof PMDso)) continue;
+                            currentDso = (PMDso)d;
+                            if ((!Kernel_SourceLineNumbers) && currentDso.isKernelDso()) continue;
+                            List<Future<Annotation>> dsoAnnotations = new ArrayList<>();
+                            for (TreeParent s : currentDso.getFile(PerfPlugin.STRINGS_UnfiledSymbols).getChildList()) {
+                                if (!(s instanceof PMSymbol)) continue;
+                                currentSym = (PMSymbol)s;
+                                String[] annotateCmd = getAnnotateString(config, currentDso.getName(), currentSym.getName().substring(4), annotateDataLoc, oldPerfVersion);
+                                PMSymbol sym = currentSym;
+                                dsoAnnotations.add(executor.submit(() -> annotate(monitor, annotateCmd, workingDir, project, sym, running)));
                             }
-
-                            PerfCore.parseAnnotation(monitor, input, workingDir, currentDso, currentSym);
+                            annotations.put(currentDso, dsoAnnotations);
                         }
+                    }
+                }
 
-                        if (currentDso.getFile(PerfPlugin.STRINGS_UnfiledSymbols).getChildren().length == 0) {
-                            currentDso.removeChild(currentDso.getFile(PerfPlugin.STRINGS_UnfiledSymbols));
+                for (Map.Entry<PMDso, List<Future<Annotation>>> entry : annotations.entrySet()) {
+                    PMDso dso = entry.getKey();
+                    // errors of all the perf annotate runs of the dso
+                    StringBuilder annotateErrors = new StringBuilder();
+                    List<Annotation> dsoAnnotations = new ArrayList<>();
+                    for (Future<Annotation> future : entry.getValue()) {
+                        Annotation annotation = waitForAnnotation(monitor, future);
+                        if (annotation != null) {
+                            dsoAnnotations.add(annotation);
+                            if (annotation.errors != null) {
+                                annotateErrors.append(annotation.errors);
+                            }
                         }
-                        spitStream(error,"Perf Annotate", print); //$NON-NLS-1$
                     }
+
+                    modelExecutor.execute(() -> {
+                        for (Annotation annotation : dsoAnnotations) {
+                            applyAnnotation(annotation, dso);
+                        }
+                        if (!dso.getFile(PerfPlugin.STRINGS_UnfiledSymbols).hasChildren()) {
+                            dso.removeChild(dso.getFile(PerfPlugin.STRINGS_UnfiledSymbols));
+                        }
+                    });
+                    spitStream(new BufferedReader(new StringReader(annotateErrors.toString())), "Perf Annotate", print); //$NON-NLS-1$
+                }
+            } catch (OperationCanceledException e) {
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                // Stop the symbols not annotated yet when the report is cancelled
+                executor.shutdownNow();
+                for (Process annotateProcess : running) {
+                    annotateProcess.destroy();
                 }
             }
         }
@@ -594,6 +669,98 @@ public class PerfCore {
         }
     }
 
+    /**
+     * Source lines of a symbol read from the output of perf annotate, kept
+     * apart from the model until they are merged into it.
+     */
+    private static class Annotation {
+        private final PMSymbol symbol;
+        private final List<String> files = new ArrayList<>();
+        private final List<Integer> lineNums = new ArrayList<>();
+        private final List<Float> percents = new ArrayList<>();
+        private String dsoPath;
+        private String errors;
+
+        private Annotation(PMSymbol symbol) {
+            this.symbol = symbol;
+        }
+    }
+
+    private static Process startAnnotate(String[] annotateCmd, IPath workingDir, IProject project) throws IOException {
+        if(project==null) {
+            return Runtime.getRuntime().exec(annotateCmd);
+        }
+        StringBuffer sb = new StringBuffer();
+        ArrayList<String> al = new ArrayList<>();
+        /*
+         *  Wrap the whole Perf annotate line as a single argument of sh command
+         *   so that any IO redirection will take effect. Change to working directory before run perf annotate.
+         *  It results on a command string as 'sh', '-c', 'cd <workindir> && perf annotate <args> < /dev/null'
+         */
+        al.add("sh"); //$NON-NLS-1$
+        al.add("-c"); //$NON-NLS-1$
+        if(workingDir != null) {
+            sb.append("cd " + workingDir.toOSString() + " && "); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        for(int i=0; i<annotateCmd.length; i++) {
+            sb.append(annotateCmd[i]);
+            sb.append(" "); //$NON-NLS-1$
+        }
+        al.add(sb.toString());
+        return RuntimeProcessFactory.getFactory().exec(al.toArray(new String[]{}), project);
+    }
+
+    /**
+     * Run perf annotate for a symbol and read its output. Runs on the annotate
+     * pool, so it must not touch the model.
+     */
+    private static Annotation annotate(IProgressMonitor monitor, String[] annotateCmd, IPath workingDir,
+            IProject project, PMSymbol currentSym, Set<Process> running) {
+        if (monitor != null && monitor.isCanceled()) {
+            return null;
+        }
+        Process p = null;
+        try {
+            p = startAnnotate(annotateCmd, workingDir, project);
+            running.add(p);
+            // The report may have been cancelled before the process was registered
+            if (monitor != null && monitor.isCanceled()) {
+                p.destroy();
+                return null;
+            }
+            BufferedReader input = new BufferedReader(new InputStreamReader(p.getInputStream()));
+            BufferedReader error = new BufferedReader(new InputStreamReader(p.getErrorStream()));
+            Annotation annotation = readAnnotation(input, workingDir, currentSym);
+            annotation.errors = spitStream(error, "Perf Annotate", null); //$NON-NLS-1$
+            return annotation;
+        } catch (IOException e) {
+            logException(e);
+            return null;
+        } finally {
+            if (p != null) {
+                running.remove(p);
+            }
+        }
+    }
+
+    private static Annotation waitForAnnotation(IProgressMonitor monitor, Future<Annotation> future) throws InterruptedException {
+        while (true) {
+            if (monitor != null && monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            try {
+                return future.get(100, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // check the monitor again
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception) {
+                    logException((Exception) e.getCause());
+                }
+                return null;
+            }
+        }
+    }
+
     /**
      * Parse annotation file for a dso given a symbol
      * @param monitor monitor
@@ -610,6 +777,11 @@ public class PerfCore {
             return;
         }
 
+        applyAnnotation(readAnnotation(input, workingDir, currentSym), currentDso);
+    }
+
+    private static Annotation readAnnotation(BufferedReader input, IPath workingDir, PMSymbol currentSym) {
+        Annotation annotation = new Annotation(currentSym);
         boolean grabBlock = false;
         boolean blockStarted = false;
         String dsoName,lineRef;
@@ -630,7 +802,7 @@ public class PerfCore {
                             dsoName = workingDir.toOSString() + dsoName.substring(1); // path doesn't have '/', so trim just the '.'
                         }
                     }
-                    currentDso.setPath(dsoName);
+                    annotation.dsoPath = dsoName;
                 } else if (line.startsWith("---")) { //$NON-NLS-1$
                     if (blockStarted) {
                         blockStarted = false;
@@ -647,38 +819,79 @@ public class PerfCore {
                     percent = Float.parseFloat(items[0]);
                     lineRef = items[1];
                     items = lineRef.split(":"); //$NON-NLS-1$
-                    if (currentDso == null) {
-                        //if (PerfPlugin.DEBUG_ON) System.err.println("Parsed line ref without being in valid block, shouldn't happen.");
-                        break;
-                    } else {
-                        int lineNum = -1;
-                        try {
-                            /*
-                             *  May not have line number when parsing a line like "100.00 [vdso][7ffce9fdbda0]"
-                             */
-                             if( items.length > 1) {
-                                 lineNum = Integer.parseInt(items[1]);
-                             }
-                        } catch (NumberFormatException e) {
-                            // leave line number as -1
-                        }
-                        currentSym.addPercent(lineNum, percent);
-                        // Symbol currently in 'Unfiled Symbols' but we now know the actual parent
-                        if (currentSym.getParent().getName().equals(PerfPlugin.STRINGS_UnfiledSymbols)) {
-                            currentSym.getParent().removeChild(currentSym);
-                            currentDso.getFile(items[0]).addChild(currentSym);
-                            // Symbol has 2 (or more) parents
-                        } else if (!((PMFile)currentSym.getParent()).getPath().equals(items[0])) {
-                            currentSym.markConflict();
-                            currentSym.getParent().removeChild(currentSym);
-                            currentDso.getFile(PerfPlugin.STRINGS_MultipleFilesForSymbol).addChild(currentSym);
-                        }
+                    int lineNum = -1;
+                    try {
+                        /*
+                         *  May not have line number when parsing a line like "100.00 [vdso][7ffce9fdbda0]"
+                         */
+                         if( items.length > 1) {
+                             lineNum = Integer.parseInt(items[1]);
+                         }
+                    } catch (NumberFormatException e) {
+                        // leave line number as -1
                     }
+                    annotation.files.add(items[0]);
+                    annotation.lineNums.add(lineNum);
+                    annotation.percents.add(percent);
                 }
             }
         } catch (IOException e) {
             logException(e);
         }
+        return annotation;
+    }
+
+    private static void applyAnnotation(Annotation annotation, PMDso currentDso) {
+        if (annotation.dsoPath != null) {
+            currentDso.setPath(annotation.dsoPath);
+        }
+        PMSymbol currentSym = annotation.symbol;
+        for (int i = 0; i < annotation.files.size(); i++) {
+            String file = annotation.files.get(i);
+            currentSym.addPercent(annotation.lineNums.get(i), annotation.percents.get(i));
+            // Symbol currently in 'Unfiled Symbols' but we now know the actual parent
+            if (currentSym.getParent().getName().equals(PerfPlugin.STRINGS_UnfiledSymbols)) {
+                currentSym.getParent().removeChild(currentSym);
+                currentDso.getFile(file).addChild(currentSym);
+                // Symbol has 2 (or more) parents
+            } else if (!((PMFile)currentSym.getParent()).getPath().equals(file)) {
+                currentSym.markConflict();
+                currentSym.getParent().removeChild(currentSym);
+                currentDso.getFile(PerfPlugin.STRINGS_MultipleFilesForSymbol).addChild(currentSym);
+            }
+        }
+    }
+
+    /**
+     * @return how to run the changes of a model the profile view may show: on
+     * the UI thread when the workbench runs, so that the view never reads the
+     * model while it changes
+     */
+    private static Executor getModelExecutor() {
+        if (PlatformUI.isWorkbenchRunning()) {
+            return change -> Display.getDefault().syncExec(change);
+        }
+        return Runnable::run;
+    }
+
+    /**
+     * Show the profile view, updated with the report as it is read.
+     * @param stream the report being read
+     */
+    private static void showReport(final PerfReportStream stream) {
+        if (!PlatformUI.isWorkbenchRunning()) {
+            return;
+        }
+        Display.getDefault().asyncExec(() -> {
+            try {
+                PerfProfileView view = (PerfProfileView) PlatformUI
+                        .getWorkbench().getActiveWorkbenchWindow()
+                        .getActivePage().showView(PerfPlugin.VIEW_ID);
+                view.followReport(stream);
+            } catch (PartInitException e) {
+                logException(e);
+            }
+        });
     }
 
     public static void refreshView (final String title) {
@@ -0,0 +1,484 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.perf;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Reads the records of a perf.data file written by perf record, without
+ * running perf. The data section is memory-mapped and read in windows, so
+ * that large recordings are not loaded at once.
+ *
+ * Only the records needed to attribute samples to commands, shared objects
+ * and addresses are decoded; the others are skipped.
+ */
+public class PerfDataReader implements Closeable {
+
+    /**
+     * Receives the records of a perf.data file, in file order. The records of
+     * the different processors are not sorted by time in the file: each one
+     * comes with its time, or with its position in the file when the events
+     * were not recorded with their time.
+     */
+    public interface Handler {
+        void mmap(long time, int pid, int tid, long start, long length, long pgoff, String fileName, boolean kernel);
+        void comm(long time, int pid, int tid, String comm);
+        void fork(long time, int pid, int ppid, int tid, int ptid);
+        void sample(long time, int event, int pid, int tid, long ip, long period, boolean kernel);
+    }
+
+    /**
+     * An event recorded in the file.
+     */
+    public static class Event {
+        private final int type;
+        private final long config;
+        private final long sampleType;
+        private final long samplePeriod;
+        private final boolean freq;
+        private final boolean sampleIdAll;
+        private String name;
+
+        private Event(int type, long config, long sampleType, long samplePeriod, boolean freq, boolean sampleIdAll) {
+            this.type = type;
+            this.config = config;
+            this.sampleType = sampleType;
+            this.samplePeriod = samplePeriod;
+            this.freq = freq;
+            this.sampleIdAll = sampleIdAll;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getType() {
+            return type;
+        }
+
+        public long getConfig() {
+            return config;
+        }
+    }
+
+    private static final long MAGIC_V1 = 0x454c494646524550L; // "PERFFILE"
+    private static final long MAGIC_V2 = 0x32454c4946524550L; // "PERFILE2"
+    private static final int FILE_HEADER_SIZE = 104;
+
+    private static final int PERF_RECORD_MMAP = 1;
+    private static final int PERF_RECORD_COMM = 3;
+    private static final int PERF_RECORD_FORK = 7;
+    private static final int PERF_RECORD_SAMPLE = 9;
+    private static final int PERF_RECORD_MMAP2 = 10;
+    private static final int PERF_RECORD_COMPRESSED = 81;
+
+    private static final int PERF_RECORD_MISC_CPUMODE_MASK = 7;
+    private static final int PERF_RECORD_MISC_KERNEL = 1;
+    private static final int PERF_RECORD_MISC_GUEST_KERNEL = 4;
+
+    private static final long PERF_SAMPLE_IP = 1L << 0;
+    private static final long PERF_SAMPLE_TID = 1L << 1;
+    private static final long PERF_SAMPLE_TIME = 1L << 2;
+    private static final long PERF_SAMPLE_ADDR = 1L << 3;
+    private static final long PERF_SAMPLE_ID = 1L << 6;
+    private static final long PERF_SAMPLE_CPU = 1L << 7;
+    private static final long PERF_SAMPLE_PERIOD = 1L << 8;
+    private static final long PERF_SAMPLE_STREAM_ID = 1L << 9;
+    private static final long PERF_SAMPLE_IDENTIFIER = 1L << 16;
+
+    private static final long ATTR_FLAG_FREQ = 1L << 10;
+    private static final long ATTR_FLAG_SAMPLE_ID_ALL = 1L << 18;
+
+    private static final int HEADER_EVENT_DESC = 12;
+    private static final int HEADER_FEAT_BITS = 256;
+
+    private static final int PERF_TYPE_HARDWARE = 0;
+    private static final int PERF_TYPE_SOFTWARE = 1;
+    private static final String[] HARDWARE_EVENTS = { "cycles", "instructions", "cache-references", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            "cache-misses", "branches", "branch-misses", "bus-cycles", "stalled-cycles-frontend", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+            "stalled-cycles-backend", "ref-cycles" }; //$NON-NLS-1$ //$NON-NLS-2$
+    private static final String[] SOFTWARE_EVENTS = { "cpu-clock", "task-clock", "page-faults", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            "context-switches", "cpu-migrations", "minor-faults", "major-faults", "alignment-faults", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+            "emulation-faults", "dummy" }; //$NON-NLS-1$ //$NON-NLS-2$
+
+    // Size of the parts of the data section mapped at once
+    private static final int WINDOW_SIZE = 64 << 20;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final ByteOrder order;
+    private final long dataOffset;
+    private final long dataSize;
+    private final List<Event> events = new ArrayList<>();
+    private final Map<Long, Integer> eventIds = new HashMap<>();
+    // Where the other records than samples end with their time, from their end
+    private int timeFromEnd = -1;
+    private MappedByteBuffer window;
+    private long windowOffset;
+
+    /**
+     * Open a perf.data file and read its header and events.
+     * @param path the perf.data file
+     * @throws IOException if the file can not be read, or is not a perf.data
+     * file written by perf record to a file
+     */
+    public PerfDataReader(File path) throws IOException {
+        file = new RandomAccessFile(path, "r"); //$NON-NLS-1$
+        channel = file.getChannel();
+        try {
+            ByteBuffer header = read(0, FILE_HEADER_SIZE);
+            long magic = header.order(ByteOrder.LITTLE_ENDIAN).getLong(0);
+            if (magic == MAGIC_V2) {
+                order = ByteOrder.LITTLE_ENDIAN;
+            } else if (Long.reverseBytes(magic) == MAGIC_V2) {
+                order = ByteOrder.BIG_ENDIAN;
+            } else if (magic == MAGIC_V1 || Long.reverseBytes(magic) == MAGIC_V1) {
+                // The first version of the format has no byte order mark, but the header size
+                order = header.getLong(8) == FILE_HEADER_SIZE ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            } else {
+                throw new IOException(path + ": not a perf.data file"); //$NON-NLS-1$
+            }
+            header.order(order);
+            if (header.getLong(8) != FILE_HEADER_SIZE) {
+                // A file written to a pipe, which describes its events in records
+                throw new IOException(path + ": unsupported perf.data header"); //$NON-NLS-1$
+            }
+            long attrSize = header.getLong(16);
+            long attrsOffset = header.getLong(24);
+            long attrsSize = header.getLong(32);
+            dataOffset = header.getLong(40);
+            dataSize = header.getLong(48);
+            if (attrSize <= 16 || dataOffset < 0 || dataSize < 0 || dataOffset + dataSize > channel.size()) {
+                throw new IOException(path + ": truncated perf.data file"); //$NON-NLS-1$
+            }
+            readEvents(attrsOffset, attrsSize, (int) attrSize);
+            initTimeFromEnd(events.get(0));
+            long[] features = new long[HEADER_FEAT_BITS / 64];
+            for (int i = 0; i < features.length; i++) {
+                features[i] = header.getLong(72 + i * 8);
+            }
+            readEventNames(features);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the events recorded in the file, in the order perf report lists them
+     */
+    public List<Event> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+
+    /**
+     * Read all the records of the data section. Can be called several times.
+     * @param handler receives the records
+     * @param monitor monitor, may be null
+     * @return false if the monitor was cancelled before all the records were read
+     * @throws IOException if the file can not be read, or uses records this
+     * reader does not understand
+     */
+    public boolean readRecords(Handler handler, IProgressMonitor monitor) throws IOException {
+        long position = dataOffset;
+        long end = dataOffset + dataSize;
+        int count = 0;
+        while (position + 8 <= end) {
+            if ((++count & 0xffff) == 0 && monitor != null && monitor.isCanceled()) {
+                return false;
+            }
+            long sequence = count;
+            ByteBuffer record = map(position, 8);
+            int base = (int) (position - windowOffset);
+            int type = record.getInt(base);
+            int misc = record.getShort(base + 4) & 0xffff;
+            int size = record.getShort(base + 6) & 0xffff;
+            if (size < 8 || position + size > end) {
+                throw new IOException("corrupted perf.data record at offset " + position); //$NON-NLS-1$
+            }
+            record = map(position, size);
+            base = (int) (position - windowOffset);
+            readRecord(handler, record, base, type, misc, size, sequence);
+            position += size;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        file.close();
+    }
+
+    private void readRecord(Handler handler, ByteBuffer record, int base, int type, int misc, int size, long sequence) throws IOException {
+        int cpumode = misc & PERF_RECORD_MISC_CPUMODE_MASK;
+        boolean kernel = cpumode == PERF_RECORD_MISC_KERNEL || cpumode == PERF_RECORD_MISC_GUEST_KERNEL;
+        long time = sequence;
+        if (timeFromEnd > 0 && type != PERF_RECORD_SAMPLE && timeFromEnd <= size - 8) {
+            time = record.getLong(base + size - timeFromEnd);
+        }
+        switch (type) {
+        case PERF_RECORD_MMAP:
+            handler.mmap(time, record.getInt(base + 8), record.getInt(base + 12), record.getLong(base + 16),
+                    record.getLong(base + 24), record.getLong(base + 32), getString(record, base + 40, base + size), kernel);
+            break;
+        case PERF_RECORD_MMAP2:
+            // maj, min, ino and ino_generation (or the build id) come before prot and flags
+            handler.mmap(time, record.getInt(base + 8), record.getInt(base + 12), record.getLong(base + 16),
+                    record.getLong(base + 24), record.getLong(base + 32), getString(record, base + 72, base + size), kernel);
+            break;
+        case PERF_RECORD_COMM:
+            handler.comm(time, record.getInt(base + 8), record.getInt(base + 12), getString(record, base + 16, base + size));
+            break;
+        case PERF_RECORD_FORK:
+            handler.fork(time, record.getInt(base + 8), record.getInt(base + 12), record.getInt(base + 16), record.getInt(base + 20));
+            break;
+        case PERF_RECORD_SAMPLE:
+            readSample(handler, record, base, size, kernel, time);
+            break;
+        case PERF_RECORD_COMPRESSED:
+            throw new IOException("compressed perf.data records are not supported"); //$NON-NLS-1$
+        default:
+            // not needed to attribute samples
+        }
+    }
+
+    private void readSample(Handler handler, ByteBuffer record, int base, int size, boolean kernel, long sequence) {
+        // All the events have the fields up to the sample id at the same place
+        long sampleType = events.get(0).sampleType;
+        int offset = base + 8;
+        int end = base + size;
+        long id = -1;
+        long ip = 0;
+        int pid = -1;
+        int tid = -1;
+        long period = 0;
+        long time = sequence;
+        if ((sampleType & PERF_SAMPLE_IDENTIFIER) != 0) {
+            id = record.getLong(offset);
+            offset += 8;
+        }
+        if ((sampleType & PERF_SAMPLE_IP) != 0) {
+            ip = record.getLong(offset);
+            offset += 8;
+        }
+        if ((sampleType & PERF_SAMPLE_TID) != 0) {
+            pid = record.getInt(offset);
+            tid = record.getInt(offset + 4);
+            offset += 8;
+        }
+        if ((sampleType & PERF_SAMPLE_TIME) != 0) {
+            if (timeFromEnd > 0) {
+                time = record.getLong(offset);
+            }
+            offset += 8;
+        }
+        if ((sampleType & PERF_SAMPLE_ADDR) != 0) {
+            offset += 8;
+        }
+        if ((sampleType & PERF_SAMPLE_ID) != 0) {
+            id = record.getLong(offset);
+            offset += 8;
+        }
+        int eventIndex = 0;
+        if (events.size() > 1) {
+            Integer index = eventIds.get(id);
+            if (index == null) {
+                return;
+            }
+            eventIndex = index;
+        }
+        Event event = events.get(eventIndex);
+        if ((event.sampleType & PERF_SAMPLE_STREAM_ID) != 0) {
+            offset += 8;
+        }
+        if ((event.sampleType & PERF_SAMPLE_CPU) != 0) {
+            offset += 8;
+        }
+        if ((event.sampleType & PERF_SAMPLE_PERIOD) != 0 && offset + 8 <= end) {
+            period = record.getLong(offset);
+        } else {
+            period = event.freq ? 1 : Math.max(1, event.samplePeriod);
+        }
+        handler.sample(time, eventIndex, pid, tid, ip, period, kernel);
+    }
+
+    private void readEvents(long offset, long size, int attrSize) throws IOException {
+        int count = (int) (size / attrSize);
+        if (count == 0) {
+            throw new IOException("perf.data file without events"); //$NON-NLS-1$
+        }
+        ByteBuffer attrs = read(offset, count * attrSize);
+        for (int i = 0; i < count; i++) {
+            int base = i * attrSize;
+            Event event = readAttr(attrs, base);
+            events.add(event);
+            // The file section listing the sample ids of the event follows the attribute
+            long idsOffset = attrs.getLong(base + attrSize - 16);
+            long idsSize = attrs.getLong(base + attrSize - 8);
+            if (idsSize > 0) {
+                ByteBuffer ids = read(idsOffset, (int) idsSize);
+                for (int j = 0; j + 8 <= idsSize; j += 8) {
+                    eventIds.put(ids.getLong(j), i);
+                }
+            }
+        }
+    }
+
+    private static Event readAttr(ByteBuffer attrs, int base) {
+        int type = attrs.getInt(base);
+        long config = attrs.getLong(base + 8);
+        long samplePeriod = attrs.getLong(base + 16);
+        long sampleType = attrs.getLong(base + 24);
+        long flags = attrs.getLong(base + 40);
+        return new Event(type, config, sampleType, samplePeriod, (flags & ATTR_FLAG_FREQ) != 0,
+                (flags & ATTR_FLAG_SAMPLE_ID_ALL) != 0);
+    }
+
+    /**
+     * The records are sorted by time only when all of them have it: the other
+     * records than samples then end with the fields identifying the sample,
+     * the time being the second one if the thread id comes first.
+     */
+    private void initTimeFromEnd(Event event) {
+        if (!event.sampleIdAll || (event.sampleType & PERF_SAMPLE_TIME) == 0) {
+            return;
+        }
+        long[] fields = { PERF_SAMPLE_TID, PERF_SAMPLE_TIME, PERF_SAMPLE_ID, PERF_SAMPLE_STREAM_ID,
+                PERF_SAMPLE_CPU, PERF_SAMPLE_IDENTIFIER };
+        int size = 0;
+        for (long field : fields) {
+            if ((event.sampleType & field) != 0) {
+                size += 8;
+            }
+        }
+        timeFromEnd = size - ((event.sampleType & PERF_SAMPLE_TID) != 0 ? 8 : 0);
+    }
+
+    private void readEventNames(long[] features) throws IOException {
+        if (hasFeature(features, HEADER_EVENT_DESC)) {
+            // The feature sections follow the data, one for each feature in the bitmap
+            int index = 0;
+            for (int bit = 0; bit < HEADER_EVENT_DESC; bit++) {
+                if (hasFeature(features, bit)) {
+                    index++;
+                }
+            }
+            ByteBuffer section = read(dataOffset + dataSize + index * 16L, 16);
+            long descOffset = section.getLong(0);
+            long descSize = section.getLong(8);
+            if (descSize > 8 && descOffset + descSize <= channel.size()) {
+                readEventDesc(read(descOffset, (int) descSize));
+            }
+        }
+        for (Event event : events) {
+            if (event.name == null) {
+                event.name = getEventName(event.type, event.config);
+            }
+        }
+    }
+
+    private void readEventDesc(ByteBuffer desc) {
+        int count = desc.getInt(0);
+        int attrSize = desc.getInt(4);
+        int offset = 8;
+        for (int i = 0; i < count && offset + attrSize + 8 <= desc.limit(); i++) {
+            offset += attrSize;
+            int idCount = desc.getInt(offset);
+            int nameLength = desc.getInt(offset + 4);
+            offset += 8;
+            if (nameLength < 0 || offset + nameLength > desc.limit()) {
+                return;
+            }
+            String name = getString(desc, offset, offset + nameLength);
+            offset += nameLength;
+            // Match the description with its event by the sample ids, or else by position
+            Integer index = null;
+            if (idCount > 0 && offset + 8 <= desc.limit()) {
+                index = eventIds.get(desc.getLong(offset));
+            }
+            if (index == null && i < events.size()) {
+                index = i;
+            }
+            if (index != null) {
+                events.get(index).name = name;
+            }
+            offset += idCount * 8;
+        }
+    }
+
+    private static boolean hasFeature(long[] features, int bit) {
+        return (features[bit / 64] & (1L << (bit % 64))) != 0;
+    }
+
+    private static String getEventName(int type, long config) {
+        if (type == PERF_TYPE_HARDWARE && config >= 0 && config < HARDWARE_EVENTS.length) {
+            return HARDWARE_EVENTS[(int) config];
+        } else if (type == PERF_TYPE_SOFTWARE && config >= 0 && config < SOFTWARE_EVENTS.length) {
+            return SOFTWARE_EVENTS[(int) config];
+        }
+        return type + ":0x" + Long.toHexString(config); //$NON-NLS-1$
+    }
+
+    private static String getString(ByteBuffer buffer, int start, int end) {
+        int stop = start;
+        while (stop < end && buffer.get(stop) != 0) {
+            stop++;
+        }
+        byte[] bytes = new byte[stop - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private ByteBuffer read(long offset, int size) throws IOException {
+        if (offset < 0 || size < 0 || offset + size > channel.size()) {
+            throw new IOException("truncated perf.data file"); //$NON-NLS-1$
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("truncated perf.data file"); //$NON-NLS-1$
+            }
+        }
+        buffer.flip();
+        return buffer.order(order == null ? ByteOrder.LITTLE_ENDIAN : order);
+    }
+
+    /**
+     * Make sure the given range of the data section is mapped.
+     */
+    private ByteBuffer map(long offset, int size) throws IOException {
+        if (window == null || offset < windowOffset || offset + size > windowOffset + window.limit()) {
+            long length = Math.min(Math.max(WINDOW_SIZE, size), dataOffset + dataSize - offset);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            window.order(order);
+            windowOffset = offset;
+        }
+        return window;
+    }
+}
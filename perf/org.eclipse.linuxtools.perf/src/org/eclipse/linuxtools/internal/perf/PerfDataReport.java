@@ -0,0 +1,715 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.perf;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.linuxtools.binutils.elf.ElfFile;
+import org.eclipse.linuxtools.binutils.elf.ElfSymbolTable;
+import org.eclipse.linuxtools.binutils.utils.STItaniumDemangler;
+import org.eclipse.linuxtools.internal.perf.model.PMCommand;
+import org.eclipse.linuxtools.internal.perf.model.PMDso;
+import org.eclipse.linuxtools.internal.perf.model.PMEvent;
+import org.eclipse.linuxtools.internal.perf.model.PMSymbol;
+import org.eclipse.linuxtools.internal.perf.model.TreeParent;
+
+/**
+ * The samples of a perf.data file, sorted by command, shared object and
+ * symbol as 'perf report --sort comm,dso,sym' does, but read without running
+ * perf. Symbols are resolved through the symbol tables of the shared objects
+ * on this host, and kernel symbols through the given kernel image or, when
+ * the recording comes from the running kernel, /proc/kallsyms.
+ *
+ * The samples are kept once read, so that the model can be built again
+ * without reading the file.
+ */
+public class PerfDataReport {
+
+    public static final String KERNEL_DSO = "[kernel.kallsyms]"; //$NON-NLS-1$
+    private static final String UNKNOWN_DSO = "[unknown]"; //$NON-NLS-1$
+    private static final String USER_PREFIX = "[.] "; //$NON-NLS-1$
+    private static final String KERNEL_PREFIX = "[k] "; //$NON-NLS-1$
+    private static final String KALLSYMS = "/proc/kallsyms"; //$NON-NLS-1$
+    private static final String KERNEL_TEXT = "_text"; //$NON-NLS-1$
+    private static final int KERNEL_PID = -1;
+
+    /**
+     * Samples of an event with the same command, shared object and symbol.
+     */
+    public static class Entry {
+        private final int event;
+        private final String command;
+        private final String dso;
+        private final String symbol;
+        private final boolean kernel;
+        private long samples;
+        private long period;
+
+        private Entry(int event, String command, String dso, String symbol, boolean kernel) {
+            this.event = event;
+            this.command = command;
+            this.dso = dso;
+            this.symbol = symbol;
+            this.kernel = kernel;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public String getDso() {
+            return dso;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        public long getSamples() {
+            return samples;
+        }
+
+        public long getPeriod() {
+            return period;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) obj;
+            return event == other.event && command.equals(other.command) && dso.equals(other.dso)
+                    && symbol.equals(other.symbol);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(event, command, dso, symbol);
+        }
+    }
+
+    /**
+     * Values taking effect at given times, added in time order.
+     */
+    private static class History<T> {
+        private long[] times = new long[1];
+        private Object[] values = new Object[1];
+        private int size;
+
+        private void add(long time, T value) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            times[size] = time;
+            values[size] = value;
+            size++;
+        }
+
+        /**
+         * @return the index of the last value taking effect at or before the time, or -1
+         */
+        private int indexOf(long time) {
+            int low = 0;
+            int high = size - 1;
+            int ret = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] <= time) {
+                    ret = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return ret;
+        }
+
+        /**
+         * @return the value at the given time, or the first one if none has taken effect yet
+         */
+        @SuppressWarnings("unchecked")
+        private T get(long time) {
+            int index = indexOf(time);
+            return size == 0 ? null : (T) values[Math.max(index, 0)];
+        }
+
+        @SuppressWarnings("unchecked")
+        private T getValue(int index) {
+            return (T) values[index];
+        }
+
+        private long getTime(int index) {
+            return times[index];
+        }
+    }
+
+    /**
+     * The mappings of a process: each change is a new mapping, or the id of
+     * the parent process whose mappings it starts with.
+     */
+    private static class ProcessMaps {
+        private final History<Object> changes = new History<>();
+        // mappings after a change, for the changes samples were taken after
+        private final TreeMap<Integer, TreeMap<Long, Mapping>> snapshots = new TreeMap<>();
+
+        private void add(long time, Object change) {
+            changes.add(time, change);
+        }
+    }
+
+    private static class SideBand {
+        private final long time;
+        private final int pid;
+        private int tid;
+        private int ppid;
+        private int ptid;
+        private Mapping mapping;
+        private String comm;
+
+        private SideBand(long time, int pid) {
+            this.time = time;
+            this.pid = pid;
+        }
+    }
+
+    private static class Mapping {
+        private final long start;
+        private final long end;
+        private final long pgoff;
+        private final String fileName;
+
+        private Mapping(long start, long end, long pgoff, String fileName) {
+            this.start = start;
+            this.end = end;
+            this.pgoff = pgoff;
+            this.fileName = fileName;
+        }
+    }
+
+    /**
+     * Symbols of a shared object, looked up by address.
+     */
+    private static class DsoSymbols {
+        private final String name;
+        private ElfSymbolTable table;
+        // file offset and address of the sections loaded in memory
+        private long[] offsets = new long[0];
+        private long[] addresses = new long[0];
+        private long[] sizes = new long[0];
+        private final Map<Integer, String> names = new HashMap<>();
+
+        private DsoSymbols(String name) {
+            this.name = name;
+        }
+    }
+
+    private final List<PerfDataReader.Event> events;
+    private final File kernelImage;
+    private final Map<Entry, Entry> entries = new HashMap<>();
+    private final Map<Integer, History<String>> comms = new HashMap<>();
+    private final Map<Integer, ProcessMaps> maps = new HashMap<>();
+    private final Map<String, DsoSymbols> dsos = new HashMap<>();
+    private final STItaniumDemangler demangler = new STItaniumDemangler();
+    private long[] totalPeriods;
+    private long[] totalSamples;
+    private DsoSymbols kernelSymbols;
+    private long[] kallsymsAddresses;
+    private String[] kallsymsNames;
+
+    private PerfDataReport(List<PerfDataReader.Event> events, File kernelImage) {
+        this.events = events;
+        this.kernelImage = kernelImage;
+        totalPeriods = new long[events.size()];
+        totalSamples = new long[events.size()];
+    }
+
+    /**
+     * Read the samples of a perf.data file.
+     * @param perfData the perf.data file
+     * @param kernelImage uncompressed kernel image to resolve kernel symbols, or null
+     * @param monitor monitor, may be null
+     * @return the report, or null if the monitor was cancelled
+     * @throws IOException if the file can not be read by this reader; perf report can then be used
+     */
+    public static PerfDataReport read(File perfData, File kernelImage, IProgressMonitor monitor) throws IOException {
+        try (PerfDataReader reader = new PerfDataReader(perfData)) {
+            PerfDataReport report = new PerfDataReport(reader.getEvents(), kernelImage);
+            // The records are not sorted by time: know how the threads change first
+            SideBandCollector collector = report.new SideBandCollector();
+            if (!reader.readRecords(collector, monitor)) {
+                return null;
+            }
+            collector.replay();
+            if (!reader.readRecords(report.new SampleHandler(), monitor)) {
+                return null;
+            }
+            return report;
+        }
+    }
+
+    /**
+     * @return the names of the events, in the order of the report
+     */
+    public List<String> getEventNames() {
+        List<String> names = new ArrayList<>();
+        for (PerfDataReader.Event event : events) {
+            names.add(event.getName());
+        }
+        return names;
+    }
+
+    /**
+     * @param event index of the event
+     * @return the entries of the event, by decreasing period as perf report lists them
+     */
+    public List<Entry> getEntries(int event) {
+        List<Entry> ret = new ArrayList<>();
+        for (Entry entry : entries.keySet()) {
+            if (entry.event == event) {
+                ret.add(entry);
+            }
+        }
+        ret.sort((a, b) -> {
+            int cmp = Long.compare(b.period, a.period);
+            if (cmp == 0) {
+                cmp = Long.compare(b.samples, a.samples);
+            }
+            if (cmp == 0) {
+                cmp = (a.command + a.dso + a.symbol).compareTo(b.command + b.dso + b.symbol);
+            }
+            return cmp;
+        });
+        return ret;
+    }
+
+    /**
+     * @param event index of the event
+     * @return the number of samples of the event
+     */
+    public long getSamples(int event) {
+        return totalSamples[event];
+    }
+
+    /**
+     * Add the events, commands, shared objects and symbols of the report to a
+     * model, the same way parsing the output of perf report does.
+     * @param invisibleRoot root of the model
+     */
+    public void buildModel(TreeParent invisibleRoot) {
+        for (int i = 0; i < events.size(); i++) {
+            PMEvent event = new PMEvent(events.get(i).getName());
+            invisibleRoot.addChild(event);
+            for (Entry entry : getEntries(i)) {
+                // percentage of the period, rounded as perf report prints it
+                float percent = totalPeriods[i] == 0 ? 0 : Math.round(entry.period * 10000.0 / totalPeriods[i]) / 100f;
+                PMCommand command = (PMCommand) event.getChild(entry.command);
+                if (command == null) {
+                    command = new PMCommand(entry.command);
+                    event.addChild(command);
+                }
+                PMDso dso = (PMDso) command.getChild(entry.dso);
+                if (dso == null) {
+                    dso = new PMDso(entry.dso, entry.kernel);
+                    command.addChild(dso);
+                }
+                // We won't know the file of the symbol until perf annotate resolves it
+                dso.getFile(PerfPlugin.STRINGS_UnfiledSymbols).addChild(new PMSymbol(entry.symbol, percent, entry.samples));
+            }
+        }
+    }
+
+    /**
+     * Collects the records changing the commands and the mappings of the
+     * threads, which are replayed in time order before reading the samples.
+     */
+    private class SideBandCollector implements PerfDataReader.Handler {
+        private final List<SideBand> records = new ArrayList<>();
+
+        @Override
+        public void mmap(long time, int pid, int tid, long start, long length, long pgoff, String fileName, boolean kernel) {
+            SideBand record = new SideBand(time, kernel ? KERNEL_PID : pid);
+            record.mapping = new Mapping(start, start + length, pgoff, fileName);
+            records.add(record);
+        }
+
+        @Override
+        public void comm(long time, int pid, int tid, String comm) {
+            SideBand record = new SideBand(time, pid);
+            record.tid = tid;
+            record.comm = comm;
+            records.add(record);
+        }
+
+        @Override
+        public void fork(long time, int pid, int ppid, int tid, int ptid) {
+            SideBand record = new SideBand(time, pid);
+            record.tid = tid;
+            record.ppid = ppid;
+            record.ptid = ptid;
+            records.add(record);
+        }
+
+        @Override
+        public void sample(long time, int event, int pid, int tid, long ip, long period, boolean kernel) {
+            // read in the second pass
+        }
+
+        private void replay() {
+            // The sort is stable: records of the same time stay in file order
+            records.sort((a, b) -> Long.compare(a.time, b.time));
+            for (SideBand record : records) {
+                if (record.mapping != null) {
+                    getProcessMaps(record.pid).add(record.time, record.mapping);
+                } else if (record.comm != null) {
+                    getComms(record.tid).add(record.time, record.comm);
+                } else {
+                    // A new thread has the command of its parent, a new process its mappings too
+                    String comm = getComm(record.ptid, record.time);
+                    if (comm != null) {
+                        getComms(record.tid).add(record.time, comm);
+                    }
+                    if (record.pid != record.ppid) {
+                        getProcessMaps(record.pid).add(record.time, record.ppid);
+                    }
+                }
+            }
+        }
+    }
+
+    private class SampleHandler implements PerfDataReader.Handler {
+
+        @Override
+        public void mmap(long time, int pid, int tid, long start, long length, long pgoff, String fileName, boolean kernel) {
+            // replayed from the first pass
+        }
+
+        @Override
+        public void comm(long time, int pid, int tid, String comm) {
+            // replayed from the first pass
+        }
+
+        @Override
+        public void fork(long time, int pid, int ppid, int tid, int ptid) {
+            // replayed from the first pass
+        }
+
+        @Override
+        public void sample(long time, int event, int pid, int tid, long ip, long period, boolean kernel) {
+            String comm = getComm(tid, time);
+            if (comm == null) {
+                comm = getComm(pid, time);
+                if (comm == null) {
+                    comm = ":" + tid; //$NON-NLS-1$
+                }
+            }
+            Mapping mapping = findMapping(kernel ? KERNEL_PID : pid, ip, time);
+            String dso;
+            String symbol;
+            if (kernel) {
+                dso = mapping == null ? KERNEL_DSO : getKernelDsoName(mapping.fileName);
+                symbol = KERNEL_PREFIX + resolveKernelSymbol(ip);
+            } else if (mapping == null) {
+                dso = UNKNOWN_DSO;
+                symbol = USER_PREFIX + toHex(ip);
+            } else {
+                DsoSymbols symbols = getDsoSymbols(mapping.fileName);
+                dso = symbols.name;
+                symbol = USER_PREFIX + resolveSymbol(symbols, ip - mapping.start + mapping.pgoff);
+            }
+            Entry key = new Entry(event, comm, dso, symbol, kernel);
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = key;
+                entries.put(entry, entry);
+            }
+            entry.samples++;
+            entry.period += period;
+            totalSamples[event]++;
+            totalPeriods[event] += period;
+        }
+    }
+
+    private History<String> getComms(int tid) {
+        return comms.computeIfAbsent(tid, k -> new History<>());
+    }
+
+    private String getComm(int tid, long time) {
+        History<String> history = comms.get(tid);
+        return history == null ? null : history.get(time);
+    }
+
+    private ProcessMaps getProcessMaps(int pid) {
+        return maps.computeIfAbsent(pid, k -> new ProcessMaps());
+    }
+
+    private Mapping findMapping(int pid, long ip, long time) {
+        TreeMap<Long, Mapping> processMaps = getMappings(pid, time);
+        if (processMaps == null) {
+            return null;
+        }
+        Map.Entry<Long, Mapping> floor = processMaps.floorEntry(ip);
+        if (floor == null || Long.compareUnsigned(ip, floor.getValue().end) >= 0) {
+            return null;
+        }
+        return floor.getValue();
+    }
+
+    /**
+     * @return the mappings of a process at the given time, by start address
+     */
+    private TreeMap<Long, Mapping> getMappings(int pid, long time) {
+        ProcessMaps processMaps = maps.get(pid);
+        if (processMaps == null) {
+            return null;
+        }
+        int index = processMaps.changes.indexOf(time);
+        if (index < 0) {
+            return null;
+        }
+        TreeMap<Long, Mapping> ret = processMaps.snapshots.get(index);
+        if (ret != null) {
+            return ret;
+        }
+        // Replay the changes from the closest mappings already known
+        Map.Entry<Integer, TreeMap<Long, Mapping>> base = processMaps.snapshots.floorEntry(index);
+        int from = 0;
+        ret = new TreeMap<>(Long::compareUnsigned);
+        if (base != null) {
+            from = base.getKey() + 1;
+            ret.putAll(base.getValue());
+        }
+        for (int i = from; i <= index; i++) {
+            Object change = processMaps.changes.getValue(i);
+            if (change instanceof Mapping) {
+                addMapping(ret, (Mapping) change);
+            } else {
+                ret.clear();
+                TreeMap<Long, Mapping> parentMaps = getMappings((Integer) change, processMaps.changes.getTime(i));
+                if (parentMaps != null) {
+                    ret.putAll(parentMaps);
+                }
+            }
+        }
+        processMaps.snapshots.put(index, ret);
+        return ret;
+    }
+
+    private static void addMapping(TreeMap<Long, Mapping> processMaps, Mapping mapping) {
+        // The new mapping replaces what it overlaps
+        Map.Entry<Long, Mapping> before = processMaps.lowerEntry(mapping.start);
+        if (before != null && Long.compareUnsigned(before.getValue().end, mapping.start) > 0) {
+            Mapping old = before.getValue();
+            processMaps.put(old.start, new Mapping(old.start, mapping.start, old.pgoff, old.fileName));
+        }
+        if (Long.compareUnsigned(mapping.start, mapping.end) < 0) {
+            processMaps.subMap(mapping.start, mapping.end).clear();
+        }
+        processMaps.put(mapping.start, mapping);
+    }
+
+    private static String getKernelDsoName(String fileName) {
+        if (fileName.startsWith(KERNEL_DSO)) {
+            return KERNEL_DSO;
+        }
+        // Kernel modules are named after their file, as in [i2c_core]
+        String name = new File(fileName).getName();
+        int dot = name.indexOf('.');
+        if (dot > 0) {
+            name = name.substring(0, dot);
+        }
+        return '[' + name.replace('-', '_') + ']';
+    }
+
+    private DsoSymbols getDsoSymbols(String fileName) {
+        DsoSymbols symbols = dsos.get(fileName);
+        if (symbols == null) {
+            // Anonymous memory, [heap], [stack] or [vdso] have no symbols on disk
+            if (fileName.startsWith("/") && !fileName.startsWith("//")) { //$NON-NLS-1$ //$NON-NLS-2$
+                symbols = new DsoSymbols(new File(fileName).getName());
+                readDsoSymbols(symbols, new File(fileName));
+            } else {
+                symbols = new DsoSymbols(fileName);
+            }
+            dsos.put(fileName, symbols);
+        }
+        return symbols;
+    }
+
+    private static void readDsoSymbols(DsoSymbols symbols, File file) {
+        try (ElfFile elf = ElfFile.open(file)) {
+            List<Long> offsets = new ArrayList<>();
+            List<Long> addresses = new ArrayList<>();
+            List<Long> sizes = new ArrayList<>();
+            for (ElfFile.Section section : elf.getSections()) {
+                if ((section.getFlags() & ElfFile.SHF_ALLOC) != 0 && section.getType() != ElfFile.SHT_NOBITS) {
+                    offsets.add(section.getOffset());
+                    addresses.add(section.getAddr());
+                    sizes.add(section.getSize());
+                }
+            }
+            symbols.offsets = toArray(offsets);
+            symbols.addresses = toArray(addresses);
+            symbols.sizes = toArray(sizes);
+            symbols.table = ElfSymbolTable.get(file);
+        } catch (IOException e) {
+            // The shared object is not on this host any more: show addresses
+            symbols.table = null;
+        }
+    }
+
+    private String resolveSymbol(DsoSymbols symbols, long fileOffset) {
+        if (symbols.table == null) {
+            return toHex(fileOffset);
+        }
+        long address = fileOffset;
+        for (int i = 0; i < symbols.offsets.length; i++) {
+            if (Long.compareUnsigned(fileOffset - symbols.offsets[i], symbols.sizes[i]) < 0) {
+                address = fileOffset - symbols.offsets[i] + symbols.addresses[i];
+                break;
+            }
+        }
+        int index = symbols.table.find(address);
+        if (index < 0) {
+            return toHex(address);
+        }
+        return getSymbolName(symbols, index);
+    }
+
+    private String getSymbolName(DsoSymbols symbols, int index) {
+        String name = symbols.names.get(index);
+        if (name == null) {
+            name = symbols.table.getName(index);
+            if (name.startsWith("_Z")) { //$NON-NLS-1$
+                String demangled = demangler.demangle(name);
+                if (demangled != null) {
+                    name = demangled;
+                }
+            }
+            symbols.names.put(index, name);
+        }
+        return name;
+    }
+
+    private String resolveKernelSymbol(long ip) {
+        if (kernelSymbols == null) {
+            readKernelSymbols();
+        }
+        if (kernelSymbols.table != null) {
+            return resolveSymbol(kernelSymbols, ip);
+        }
+        if (kallsymsAddresses != null) {
+            int index = Arrays.binarySearch(kallsymsAddresses, ip);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            if (index >= 0) {
+                return kallsymsNames[index];
+            }
+        }
+        return toHex(ip);
+    }
+
+    /**
+     * Read the symbols of the kernel from the kernel image if one is given,
+     * or else from the running kernel if it is the one that was recorded.
+     */
+    private void readKernelSymbols() {
+        kernelSymbols = new DsoSymbols(KERNEL_DSO);
+        // perf records the address of _text as the offset of the kernel mapping
+        Long text = null;
+        ProcessMaps kernelMaps = maps.get(KERNEL_PID);
+        if (kernelMaps != null) {
+            for (int i = 0; i < kernelMaps.changes.size; i++) {
+                Object change = kernelMaps.changes.getValue(i);
+                if (change instanceof Mapping && ((Mapping) change).fileName.startsWith(KERNEL_DSO)) {
+                    text = ((Mapping) change).pgoff;
+                }
+            }
+        }
+        if (kernelImage != null) {
+            readDsoSymbols(kernelSymbols, kernelImage);
+            // Kernel addresses are not file offsets
+            kernelSymbols.offsets = new long[0];
+            if (kernelSymbols.table != null) {
+                return;
+            }
+        }
+        if (text != null) {
+            readKallsyms(text);
+        }
+    }
+
+    private void readKallsyms(long text) {
+        List<Long> addresses = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        boolean textFound = false;
+        try (BufferedReader reader = new BufferedReader(new FileReader(KALLSYMS))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] items = line.split("\\s+"); //$NON-NLS-1$
+                if (items.length < 3 || !(items[1].equalsIgnoreCase("t") || items[1].equalsIgnoreCase("w"))) { //$NON-NLS-1$ //$NON-NLS-2$
+                    continue;
+                }
+                long address = Long.parseUnsignedLong(items[0], 16);
+                if (KERNEL_TEXT.equals(items[2])) {
+                    // Other boots and other kernels load their text elsewhere
+                    if (address != text) {
+                        return;
+                    }
+                    textFound = true;
+                }
+                addresses.add(address);
+                names.add(items[2]);
+            }
+        } catch (IOException | NumberFormatException e) {
+            return;
+        }
+        if (!textFound) {
+            return;
+        }
+        Integer[] order = new Integer[addresses.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(addresses.get(a), addresses.get(b)));
+        kallsymsAddresses = new long[order.length];
+        kallsymsNames = new String[order.length];
+        for (int i = 0; i < order.length; i++) {
+            kallsymsAddresses[i] = addresses.get(order[i]);
+            kallsymsNames[i] = names.get(order[i]);
+        }
+    }
+
+    private static long[] toArray(List<Long> values) {
+        long[] ret = new long[values.size()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = values.get(i);
+        }
+        return ret;
+    }
+
+    private static String toHex(long address) {
+        return String.format("0x%016x", address); //$NON-NLS-1$
+    }
+}
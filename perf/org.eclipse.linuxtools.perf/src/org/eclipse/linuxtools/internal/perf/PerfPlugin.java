@@ -65,6 +65,10 @@ public class PerfPlugin extends AbstractUIPlugin {
     public static final boolean ATTR_SourceLineNumbers_default = true;
     public static final String ATTR_Kernel_SourceLineNumbers = "org.eclipse.linuxtools.internal.perf.attr.Kernel.SourceLineNumbers"; //$NON-NLS-1$
     public static final boolean ATTR_Kernel_SourceLineNumbers_default = false;
+    public static final String ATTR_AnnotateJobs = "org.eclipse.linuxtools.internal.perf.attr.AnnotateJobs"; //$NON-NLS-1$
+    public static final int ATTR_AnnotateJobs_default = 4;
+    public static final String ATTR_NativeReport = "org.eclipse.linuxtools.internal.perf.attr.NativeReport"; //$NON-NLS-1$
+    public static final boolean ATTR_NativeReport_default = false;
     public static final String ATTR_Multiplex = "org.eclipse.linuxtools.internal.perf.attr.Multiplex"; //$NON-NLS-1$
     public static final boolean ATTR_Multiplex_default = false;
     public static final String ATTR_ModuleSymbols = "org.eclipse.linuxtools.internal.perf.attr.ModuleSymbols"; //$NON-NLS-1$
@@ -98,6 +102,8 @@ public class PerfPlugin extends AbstractUIPlugin {
     public static final String STRINGS_HideUnresolvedSymbols = "Hide Unresolved Symbols"; //$NON-NLS-1$
     public static final String STRINGS_SourceLineNumbers = "Obtain source line numbers from profile data"; //$NON-NLS-1$
     public static final String STRINGS_Kernel_SourceLineNumbers = "Obtain kernel source line numbers from profile data (Warning: May be very slow)"; //$NON-NLS-1$
+    public static final String STRINGS_AnnotateJobs = "Number of symbols to annotate in parallel: "; //$NON-NLS-1$
+    public static final String STRINGS_NativeReport = "Read local profile data without running perf report"; //$NON-NLS-1$
     public static final String STRINGS_Multiplex = "Multiplex counter output in a single channel"; //$NON-NLS-1$
     public static final String STRINGS_RAWHWEvents = "Raw hardware event descriptor"; //$NON-NLS-1$
     public static final String STRINGS_HWBREAKPOINTS = "Hardware breakpoint"; //$NON-NLS-1$
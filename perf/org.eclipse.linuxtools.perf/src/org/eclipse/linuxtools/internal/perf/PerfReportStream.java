@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.internal.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.linuxtools.internal.perf.model.PMCommand;
+import org.eclipse.linuxtools.internal.perf.model.PMDso;
+import org.eclipse.linuxtools.internal.perf.model.PMEvent;
+import org.eclipse.linuxtools.internal.perf.model.PMFile;
+import org.eclipse.linuxtools.internal.perf.model.PMSymbol;
+import org.eclipse.linuxtools.internal.perf.model.TreeParent;
+
+/**
+ * The lines of a perf report being read, passed in batches from the thread
+ * parsing the report to the model. The batches are applied on the thread
+ * changing the model, the UI thread when the profile view may show it: the
+ * view applies them on a timer while the report is read, so that the first
+ * entries show up early.
+ */
+public class PerfReportStream {
+
+    // A batch is published when it has this many rows or is this old
+    private static final int BATCH_SIZE = 1000;
+    private static final long BATCH_DELAY = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private static final int EVENT = 0;
+    private static final int NOTE = 1;
+    private static final int SYMBOL = 2;
+
+    /**
+     * A line of the report: a new event, a note shown as an event, or a
+     * symbol of the current event.
+     */
+    private static class Row {
+        private final int kind;
+        private final String name;
+        private String comm;
+        private String dso;
+        private float percent;
+        private double samples;
+        private boolean kernel;
+
+        private Row(int kind, String name) {
+            this.kind = kind;
+            this.name = name;
+        }
+    }
+
+    private final TreeParent root;
+    private final ConcurrentLinkedQueue<List<Row>> batches = new ConcurrentLinkedQueue<>();
+    private volatile boolean finished;
+
+    // read on the parsing thread only
+    private List<Row> batch = new ArrayList<>();
+    private long batchStart = System.nanoTime();
+
+    // model position, updated on the thread changing the model
+    private PMEvent currentEvent;
+    private PMCommand currentCommand;
+    private PMDso currentDso;
+
+    /**
+     * @param root root of the model the report is added to
+     */
+    public PerfReportStream(TreeParent root) {
+        this.root = root;
+    }
+
+    /**
+     * @return root of the model the report is added to
+     */
+    public TreeParent getRoot() {
+        return root;
+    }
+
+    /**
+     * Start a new event, to which the following symbols belong.
+     * @param name name of the event
+     */
+    public void addEvent(String name) {
+        add(new Row(EVENT, name));
+    }
+
+    /**
+     * Add a message shown as an event, which does not change the current event.
+     * @param message the message
+     */
+    public void addNote(String message) {
+        add(new Row(NOTE, message));
+    }
+
+    /**
+     * Add a symbol to the current event.
+     * @param comm command
+     * @param dso shared object
+     * @param symbol symbol, with its '[.] ' or '[k] ' prefix
+     * @param percent overhead
+     * @param samples number of samples
+     * @param kernel whether the shared object is the kernel or a module
+     */
+    public void addSymbol(String comm, String dso, String symbol, float percent, double samples, boolean kernel) {
+        Row row = new Row(SYMBOL, symbol);
+        row.comm = comm;
+        row.dso = dso;
+        row.percent = percent;
+        row.samples = samples;
+        row.kernel = kernel;
+        add(row);
+    }
+
+    private void add(Row row) {
+        batch.add(row);
+        if (batch.size() >= BATCH_SIZE || System.nanoTime() - batchStart >= BATCH_DELAY) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+            batch = new ArrayList<>();
+        }
+        batchStart = System.nanoTime();
+    }
+
+    /**
+     * Publish the rows not published yet; no rows are added afterwards.
+     */
+    public void finish() {
+        flush();
+        finished = true;
+    }
+
+    /**
+     * @return true if all the rows have been published
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Add the published rows to the model, on the thread changing the model.
+     * @return true if the model changed
+     */
+    public boolean apply() {
+        boolean changed = false;
+        List<Row> rows;
+        while ((rows = batches.poll()) != null) {
+            for (Row row : rows) {
+                apply(row);
+            }
+            changed = true;
+        }
+        return changed;
+    }
+
+    private void apply(Row row) {
+        switch (row.kind) {
+        case EVENT:
+            currentEvent = new PMEvent(row.name);
+            root.addChild(currentEvent);
+            currentCommand = null;
+            currentDso = null;
+            break;
+        case NOTE:
+            root.addChild(new PMEvent(row.name));
+            break;
+        default:
+            // initialize current command if it doesn't exist
+            if ((currentCommand == null) || (!currentCommand.getName().equals(row.comm))) {
+                currentCommand = (PMCommand) currentEvent.getChild(row.comm);
+                if (currentCommand == null) {
+                    currentCommand = new PMCommand(row.comm);
+                    currentEvent.addChild(currentCommand);
+                }
+            }
+
+            // initialize current dso if it doesn't exist
+            if ((currentDso == null) || (!currentDso.getName().equals(row.dso))) {
+                currentDso = (PMDso) currentCommand.getChild(row.dso);
+                if (currentDso == null) {
+                    currentDso = new PMDso(row.dso, row.kernel);
+                    currentCommand.addChild(currentDso);
+                }
+            }
+
+            /*
+             *  We won't know the name of the file containing the symbol
+             *  until we run 'perf annotate' to resolve it, so for now we
+             *  attach all symbols as children of 'Unfiled Symbols'.
+             */
+            PMFile currentFile = currentDso.getFile(PerfPlugin.STRINGS_UnfiledSymbols);
+            currentFile.addChild(new PMSymbol(row.name, row.percent, row.samples));
+            break;
+        }
+    }
+}
@@ -50,9 +50,11 @@ public class PerfOptionsTab extends AbstractLaunchConfigurationTab {
     protected Button chkRecordVerbose;
     protected Button chkSourceLineNumbers;
     protected Button chkKernelSourceLineNumbers;
+    protected Spinner annotateJobs;
     protected Button chkMultiplexEvents;
     protected Button chkModuleSymbols;
     protected Button chkHideUnresolvedSymbols;
+    protected Button chkNativeReport;
     protected Button chkShowSourceDisassembly;
     protected Button chkShowStat;
     protected Spinner statRunCount;
@@ -130,6 +132,7 @@ public class PerfOptionsTab extends AbstractLaunchConfigurationTab {
         chkRecordVerbose = createCheckButtonHelper(chkBoxComp, PerfPlugin.STRINGS_Record_Verbose);
         chkModuleSymbols = createCheckButtonHelper(chkBoxComp, PerfPlugin.STRINGS_ModuleSymbols);
         chkHideUnresolvedSymbols = createCheckButtonHelper(chkBoxComp, PerfPlugin.STRINGS_HideUnresolvedSymbols);
+        chkNativeReport = createCheckButtonHelper(chkBoxComp, PerfPlugin.STRINGS_NativeReport);
         chkSourceLineNumbers = createCheckButtonHelper(chkBoxComp, PerfPlugin.STRINGS_SourceLineNumbers);
         chkShowSourceDisassembly = createCheckButtonHelper(chkBoxComp, PerfPlugin.STRINGS_ShowSourceDisassembly);
 
@@ -149,9 +152,20 @@ public class PerfOptionsTab extends AbstractLaunchConfigurationTab {
 			} else {
 				chkKernelSourceLineNumbers.setEnabled(true);
 			}
+			annotateJobs.setEnabled(chkSourceLineNumbers.getSelection());
 		}));
         chkKernelSourceLineNumbers = createCheckButtonHelper(chkBoxComp, PerfPlugin.STRINGS_Kernel_SourceLineNumbers);
 
+        Composite annotateJobsComp = new Composite(top, SWT.NONE);
+        annotateJobsComp.setLayout(parallelLayout);
+
+        Label annotateJobsLabel = new Label(annotateJobsComp, SWT.NONE);
+        annotateJobsLabel.setText(PerfPlugin.STRINGS_AnnotateJobs);
+        annotateJobs = new Spinner(annotateJobsComp, SWT.BORDER);
+        annotateJobs.setMinimum(1);
+        annotateJobs.setMaximum(64);
+        annotateJobs.addModifyListener(e -> updateLaunchConfigurationDialog());
+
         Composite realtimeComp = new Composite(top, SWT.NONE);
         realtimeComp.setLayout(parallelLayout);
 
@@ -263,6 +277,7 @@ public class PerfOptionsTab extends AbstractLaunchConfigurationTab {
         chkRecordVerbose.setEnabled(enable);
         chkSourceLineNumbers.setEnabled(enable);
         chkKernelSourceLineNumbers.setEnabled(enable);
+        annotateJobs.setEnabled(enable && chkSourceLineNumbers.getSelection());
         if (version != null && multiplexEventsVersion.isNewer(version)) {
             chkMultiplexEvents.setEnabled(enable);
         } else {
@@ -270,6 +285,7 @@ public class PerfOptionsTab extends AbstractLaunchConfigurationTab {
         }
         chkModuleSymbols.setEnabled(enable);
         chkHideUnresolvedSymbols.setEnabled(enable);
+        chkNativeReport.setEnabled(enable);
         chkShowSourceDisassembly.setEnabled(enable);
     }
 
@@ -299,9 +315,12 @@ public class PerfOptionsTab extends AbstractLaunchConfigurationTab {
             chkRecordVerbose.setSelection(config.getAttribute(PerfPlugin.ATTR_Record_Verbose, PerfPlugin.ATTR_Record_Verbose_default));
             chkSourceLineNumbers.setSelection(config.getAttribute(PerfPlugin.ATTR_SourceLineNumbers, PerfPlugin.ATTR_SourceLineNumbers_default));
             chkKernelSourceLineNumbers.setSelection(config.getAttribute(PerfPlugin.ATTR_Kernel_SourceLineNumbers, PerfPlugin.ATTR_Kernel_SourceLineNumbers_default));
+            annotateJobs.setSelection(config.getAttribute(PerfPlugin.ATTR_AnnotateJobs, PerfPlugin.ATTR_AnnotateJobs_default));
+            annotateJobs.setEnabled(chkSourceLineNumbers.getSelection());
 
             chkModuleSymbols.setSelection(config.getAttribute(PerfPlugin.ATTR_ModuleSymbols, PerfPlugin.ATTR_ModuleSymbols_default));
             chkHideUnresolvedSymbols.setSelection(config.getAttribute(PerfPlugin.ATTR_HideUnresolvedSymbols, PerfPlugin.ATTR_HideUnresolvedSymbols_default));
+            chkNativeReport.setSelection(config.getAttribute(PerfPlugin.ATTR_NativeReport, PerfPlugin.ATTR_NativeReport_default));
             chkShowSourceDisassembly.setSelection(config.getAttribute(PerfPlugin.ATTR_ShowSourceDisassembly, PerfPlugin.ATTR_ShowSourceDisassembly_default));
             chkShowStat.setSelection(config.getAttribute(PerfPlugin.ATTR_ShowStat, PerfPlugin.ATTR_ShowStat_default));
             int runCount = config.getAttribute(PerfPlugin.ATTR_StatRunCount, PerfPlugin.ATTR_StatRunCount_default);
@@ -327,8 +346,10 @@ public class PerfOptionsTab extends AbstractLaunchConfigurationTab {
         wconfig.setAttribute(PerfPlugin.ATTR_Record_Verbose, chkRecordVerbose.getSelection());
         wconfig.setAttribute(PerfPlugin.ATTR_SourceLineNumbers, chkSourceLineNumbers.getSelection());
         wconfig.setAttribute(PerfPlugin.ATTR_Kernel_SourceLineNumbers, chkKernelSourceLineNumbers.getSelection());
+        wconfig.setAttribute(PerfPlugin.ATTR_AnnotateJobs, annotateJobs.getSelection());
         wconfig.setAttribute(PerfPlugin.ATTR_ModuleSymbols, chkModuleSymbols.getSelection());
         wconfig.setAttribute(PerfPlugin.ATTR_HideUnresolvedSymbols, chkHideUnresolvedSymbols.getSelection());
+        wconfig.setAttribute(PerfPlugin.ATTR_NativeReport, chkNativeReport.getSelection());
         wconfig.setAttribute(PerfPlugin.ATTR_ShowSourceDisassembly, chkShowSourceDisassembly.getSelection());
         wconfig.setAttribute(PerfPlugin.ATTR_ShowStat, chkShowStat.getSelection());
         wconfig.setAttribute(PerfPlugin.ATTR_StatRunCount, statRunCount.getSelection());
@@ -342,9 +363,11 @@ public class PerfOptionsTab extends AbstractLaunchConfigurationTab {
         wconfig.setAttribute(PerfPlugin.ATTR_Record_Verbose, PerfPlugin.ATTR_Record_Verbose_default);
         wconfig.setAttribute(PerfPlugin.ATTR_SourceLineNumbers, PerfPlugin.ATTR_SourceLineNumbers_default);
         wconfig.setAttribute(PerfPlugin.ATTR_Kernel_SourceLineNumbers, PerfPlugin.ATTR_Kernel_SourceLineNumbers_default);
+        wconfig.setAttribute(PerfPlugin.ATTR_AnnotateJobs, PerfPlugin.ATTR_AnnotateJobs_default);
         wconfig.setAttribute(PerfPlugin.ATTR_Multiplex, PerfPlugin.ATTR_Multiplex_default);
         wconfig.setAttribute(PerfPlugin.ATTR_ModuleSymbols, PerfPlugin.ATTR_ModuleSymbols_default);
         wconfig.setAttribute(PerfPlugin.ATTR_HideUnresolvedSymbols, PerfPlugin.ATTR_HideUnresolvedSymbols_default);
+        wconfig.setAttribute(PerfPlugin.ATTR_NativeReport, PerfPlugin.ATTR_NativeReport_default);
         wconfig.setAttribute(PerfPlugin.ATTR_ShowSourceDisassembly, PerfPlugin.ATTR_ShowSourceDisassembly_default);
         wconfig.setAttribute(PerfPlugin.ATTR_ShowStat, PerfPlugin.ATTR_ShowStat_default);
         wconfig.setAttribute(PerfPlugin.ATTR_StatRunCount, PerfPlugin.ATTR_StatRunCount_default);
@@ -11,19 +11,24 @@
 package org.eclipse.linuxtools.internal.perf.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class TreeParent {
     private String name;
     private TreeParent parent;
-    private List<TreeParent> children;
+    private final List<TreeParent> children = new ArrayList<>();
+    // First child of each name, so that getChild does not scan the children
+    private final Map<String, TreeParent> childIndex = new HashMap<>();
+    private final List<TreeParent> childList = Collections.unmodifiableList(children);
     private float percent = -1;
     private double samples = -1;
 
     public TreeParent(String name, float percent) {
         this.name = name;
         this.percent = percent;
-        children = new ArrayList<>();
     }
 
     public TreeParent(String name, float percent, double samples) {
@@ -82,7 +87,7 @@ public class TreeParent {
             if (samples == -1) {
                 int sampleSum = 0;
 
-                for (TreeParent child : getChildren()) {
+                for (TreeParent child : children) {
                     sampleSum += child.getSamples();
                 }
                 samples = sampleSum;
@@ -101,53 +106,83 @@ public class TreeParent {
 
     public TreeParent(String name) {
         this.name = name;
-        children = new ArrayList<>();
     }
 
     public void addChild(TreeParent child) {
         children.add(child);
+        childIndex.putIfAbsent(child.getName(), child);
         child.setParent(this);
-        recalculatePercentage();
+        if (sumsChildPercentages()) {
+            // Same sum, in the same order, as re-summing all the children
+            percent += child.getPercent();
+            recalculateParentPercentage();
+        }
     }
 
     public TreeParent getChild(String name) {
-        //check if it exists
-        for(TreeParent t : children) {
-            if (t.equals(name))
-                return t;
-        }
-        return null;
+        return childIndex.get(name);
     }
 
     public void removeChild(TreeParent child) {
         children.remove(child);
+        String childName = child.getName();
+        if (childIndex.get(childName) == child) {
+            childIndex.remove(childName);
+            for (TreeParent t : children) {
+                if (t.equals(childName)) {
+                    childIndex.put(childName, t);
+                    break;
+                }
+            }
+        }
         child.setParent(null);
         recalculatePercentage();
     }
 
+    /**
+     * @return a copy of the children, which stays the same when children are
+     * added or removed afterwards
+     */
     public TreeParent [] getChildren() {
         return children.toArray(new TreeParent[children.size()]);
     }
 
+    /**
+     * @return a read-only view of the children, which is not copied; it must
+     * not be iterated while children are added or removed
+     */
+    public List<TreeParent> getChildList() {
+        return childList;
+    }
+
     public boolean hasChildren() {
         return children.size() > 0;
     }
 
     public void clear() {
         children.clear();
+        childIndex.clear();
+    }
+
+    private boolean sumsChildPercentages() {
+        return getPercent() != -1 && (this instanceof PMDso || this instanceof PMFile);
     }
 
     private void recalculatePercentage() {
-        if (getPercent() != -1 && (this instanceof PMDso || this instanceof PMFile)){
+        if (sumsChildPercentages()){
             percent = 0;
             // Re-sum its children percentages
-            for (TreeParent c : getChildren()) {
+            for (TreeParent c : children) {
                 percent += c.getPercent();
             }
-            // Tell its parent to re-sum too.
-            if (getParent().getPercent() != -1) {
-                getParent().recalculatePercentage();
-            }
+            recalculateParentPercentage();
+        }
+    }
+
+    private void recalculateParentPercentage() {
+        // Tell its parent to re-sum too.
+        if (getParent().getPercent() != -1) {
+            getParent().recalculatePercentage();
         }
     }
 
@@ -19,6 +19,7 @@ import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerComparator;
 import org.eclipse.linuxtools.internal.perf.PerfPlugin;
+import org.eclipse.linuxtools.internal.perf.PerfReportStream;
 import org.eclipse.linuxtools.internal.perf.model.TreeParent;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Composite;
@@ -74,6 +75,16 @@ public class PerfProfileView extends ViewPart {
         viewer.refresh();
     }
 
+    /**
+     * Show a report while it is read, adding its entries as they come.
+     * @param stream the report being read
+     */
+    public void followReport(PerfReportStream stream) {
+        viewer.setInput(stream.getRoot());
+        viewer.refresh();
+        ((PerfViewContentProvider) viewer.getContentProvider()).follow(stream);
+    }
+
     private void hookContextMenu() {
         MenuManager menuMgr = new MenuManager("#PopupMenu"); //$NON-NLS-1$
         menuMgr.setRemoveAllWhenShown(true);
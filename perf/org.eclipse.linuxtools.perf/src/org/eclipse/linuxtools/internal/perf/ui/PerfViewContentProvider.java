@@ -12,16 +12,55 @@ package org.eclipse.linuxtools.internal.perf.ui;
 
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.linuxtools.internal.perf.PerfReportStream;
 import org.eclipse.linuxtools.internal.perf.model.TreeParent;
 
 public class PerfViewContentProvider implements ITreeContentProvider {
 
+    // milliseconds between two updates of the viewer while a report is read
+    private static final int UPDATE_INTERVAL = 250;
+
+    private Viewer viewer;
+    private PerfReportStream stream;
+
     @Override
     public void inputChanged(Viewer v, Object oldInput, Object newInput) {
+        viewer = v;
+        if (stream != null && stream.getRoot() != newInput) {
+            stream = null;
+        }
     }
 
     @Override
     public void dispose() {
+        stream = null;
+    }
+
+    /**
+     * Apply the batches of a report to the model, and refresh the viewer,
+     * until the whole report is read. The viewer input must be the root of
+     * the model of the report.
+     * @param reportStream the report being read
+     */
+    public void follow(PerfReportStream reportStream) {
+        stream = reportStream;
+        viewer.getControl().getDisplay().timerExec(UPDATE_INTERVAL, () -> update(reportStream));
+    }
+
+    private void update(PerfReportStream reportStream) {
+        if (stream != reportStream || viewer.getControl().isDisposed()) {
+            return;
+        }
+        // read isFinished() first, the last batches may come after it
+        boolean finished = reportStream.isFinished();
+        if (reportStream.apply()) {
+            viewer.refresh();
+        }
+        if (finished) {
+            stream = null;
+        } else {
+            viewer.getControl().getDisplay().timerExec(UPDATE_INTERVAL, () -> update(reportStream));
+        }
     }
 
     @Override
@@ -0,0 +1,754 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.binutils.elf;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.linuxtools.binutils.elf.ElfFile.Section;
+
+/**
+ * Address to source line table of an ELF file, decoded from its DWARF
+ * <code>.debug_line</code> section (DWARF versions 2 to 5). The line programs
+ * of all compilation units are run once, and their rows are kept in arrays
+ * sorted by address, so that each lookup is a binary search.
+ * <p>
+ * File names are built the way addr2line builds them: the compilation
+ * directory, the include directory and the file name are concatenated, unless
+ * one of them is absolute.
+ *
+ * @since 6.0
+ */
+public final class DwarfLineTable {
+
+    private static final long SHF_COMPRESSED = 0x800;
+
+    private static final int DW_LNS_COPY = 1;
+    private static final int DW_LNS_ADVANCE_PC = 2;
+    private static final int DW_LNS_ADVANCE_LINE = 3;
+    private static final int DW_LNS_SET_FILE = 4;
+    private static final int DW_LNS_CONST_ADD_PC = 8;
+    private static final int DW_LNS_FIXED_ADVANCE_PC = 9;
+
+    private static final int DW_LNE_END_SEQUENCE = 1;
+    private static final int DW_LNE_SET_ADDRESS = 2;
+    private static final int DW_LNE_DEFINE_FILE = 3;
+
+    private static final int DW_LNCT_PATH = 1;
+    private static final int DW_LNCT_DIRECTORY_INDEX = 2;
+
+    private static final int DW_AT_STMT_LIST = 0x10;
+    private static final int DW_AT_COMP_DIR = 0x1b;
+
+    private static final int DW_FORM_ADDR = 0x01;
+    private static final int DW_FORM_BLOCK2 = 0x03;
+    private static final int DW_FORM_BLOCK4 = 0x04;
+    private static final int DW_FORM_DATA2 = 0x05;
+    private static final int DW_FORM_DATA4 = 0x06;
+    private static final int DW_FORM_DATA8 = 0x07;
+    private static final int DW_FORM_STRING = 0x08;
+    private static final int DW_FORM_BLOCK = 0x09;
+    private static final int DW_FORM_BLOCK1 = 0x0a;
+    private static final int DW_FORM_DATA1 = 0x0b;
+    private static final int DW_FORM_FLAG = 0x0c;
+    private static final int DW_FORM_SDATA = 0x0d;
+    private static final int DW_FORM_STRP = 0x0e;
+    private static final int DW_FORM_UDATA = 0x0f;
+    private static final int DW_FORM_REF_ADDR = 0x10;
+    private static final int DW_FORM_REF1 = 0x11;
+    private static final int DW_FORM_REF2 = 0x12;
+    private static final int DW_FORM_REF4 = 0x13;
+    private static final int DW_FORM_REF8 = 0x14;
+    private static final int DW_FORM_REF_UDATA = 0x15;
+    private static final int DW_FORM_INDIRECT = 0x16;
+    private static final int DW_FORM_SEC_OFFSET = 0x17;
+    private static final int DW_FORM_EXPRLOC = 0x18;
+    private static final int DW_FORM_FLAG_PRESENT = 0x19;
+    private static final int DW_FORM_STRX = 0x1a;
+    private static final int DW_FORM_ADDRX = 0x1b;
+    private static final int DW_FORM_REF_SUP4 = 0x1c;
+    private static final int DW_FORM_STRP_SUP = 0x1d;
+    private static final int DW_FORM_DATA16 = 0x1e;
+    private static final int DW_FORM_LINE_STRP = 0x1f;
+    private static final int DW_FORM_REF_SIG8 = 0x20;
+    private static final int DW_FORM_IMPLICIT_CONST = 0x21;
+    private static final int DW_FORM_LOCLISTX = 0x22;
+    private static final int DW_FORM_RNGLISTX = 0x23;
+    private static final int DW_FORM_REF_SUP8 = 0x24;
+    private static final int DW_FORM_STRX1 = 0x25;
+    private static final int DW_FORM_STRX2 = 0x26;
+    private static final int DW_FORM_STRX3 = 0x27;
+    private static final int DW_FORM_STRX4 = 0x28;
+    private static final int DW_FORM_ADDRX1 = 0x29;
+    private static final int DW_FORM_ADDRX2 = 0x2a;
+    private static final int DW_FORM_ADDRX3 = 0x2b;
+    private static final int DW_FORM_ADDRX4 = 0x2c;
+
+    /** Marks the end of a sequence: addresses from this row to the next one have no line */
+    private static final int NO_FILE = -1;
+
+    private final long[] addresses;
+    private final int[] files;
+    private final int[] lines;
+    private final String[] fileNames;
+
+    private DwarfLineTable(long[] addresses, int[] files, int[] lines, String[] fileNames) {
+        this.addresses = addresses;
+        this.files = files;
+        this.lines = lines;
+        this.fileNames = fileNames;
+    }
+
+    /**
+     * Decode the line table of an ELF file.
+     * @param elf
+     * @return the line table, or null if the file has no line information that can be decoded in-process (e.g. no
+     *         <code>.debug_line</code> section, or a compressed one)
+     * @throws IOException if the debug information is corrupted
+     */
+    public static DwarfLineTable read(ElfFile elf) throws IOException {
+        Section debugLine = elf.getSection(".debug_line"); //$NON-NLS-1$
+        if (debugLine == null || debugLine.getSize() == 0 || (debugLine.getFlags() & SHF_COMPRESSED) != 0) {
+            return null;
+        }
+        try {
+            Map<Long, String> compDirs = readCompilationDirectories(elf);
+            ByteBuffer lineStr = getUncompressedData(elf, ".debug_line_str"); //$NON-NLS-1$
+            ByteBuffer str = getUncompressedData(elf, ".debug_str"); //$NON-NLS-1$
+            Builder builder = new Builder();
+            ByteBuffer b = elf.getData(debugLine);
+            while (b.remaining() > 0) {
+                long unitOffset = b.position();
+                builder.readUnit(b, compDirs.get(unitOffset), lineStr, str);
+            }
+            return builder.build();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupted DWARF line information", e); //$NON-NLS-1$
+        }
+    }
+
+    private static ByteBuffer getUncompressedData(ElfFile elf, String name) throws IOException {
+        Section s = elf.getSection(name);
+        if (s == null || (s.getFlags() & SHF_COMPRESSED) != 0) {
+            return null;
+        }
+        return elf.getData(s);
+    }
+
+    /**
+     * Find the row of an address
+     * @param address
+     * @return the index of the row of the given address, or -1 if the address has no line information
+     */
+    public int find(long address) {
+        // last row whose address is lower or equal
+        int low = 0;
+        int high = addresses.length - 1;
+        int ret = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(addresses[mid], address) <= 0) {
+                ret = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (ret == -1 || files[ret] == NO_FILE) {
+            return -1;
+        }
+        return ret;
+    }
+
+    /**
+     * @param row a row returned by {@link #find(long)}
+     * @return the file name of this row
+     */
+    public String getFileName(int row) {
+        return fileNames[files[row]];
+    }
+
+    /**
+     * @param row a row returned by {@link #find(long)}
+     * @return the line number of this row, 0 if the instructions of this row have no source line
+     */
+    public int getLine(int row) {
+        return lines[row];
+    }
+
+    /**
+     * @return the number of rows, including the rows that end sequences
+     */
+    public int size() {
+        return addresses.length;
+    }
+
+    /**
+     * Read the compilation directory of each compilation unit, by offset of its line program: file names of line
+     * programs before DWARF 5 are relative to it.
+     */
+    private static Map<Long, String> readCompilationDirectories(ElfFile elf) throws IOException {
+        Map<Long, String> ret = new HashMap<>();
+        ByteBuffer info = getUncompressedData(elf, ".debug_info"); //$NON-NLS-1$
+        ByteBuffer abbrev = getUncompressedData(elf, ".debug_abbrev"); //$NON-NLS-1$
+        if (info == null || abbrev == null) {
+            return ret;
+        }
+        ByteBuffer str = getUncompressedData(elf, ".debug_str"); //$NON-NLS-1$
+        ByteBuffer lineStr = getUncompressedData(elf, ".debug_line_str"); //$NON-NLS-1$
+        while (info.remaining() > 0) {
+            long length = info.getInt() & 0xffffffffL;
+            int offsetSize = 4;
+            if (length == 0xffffffffL) {
+                length = info.getLong();
+                offsetSize = 8;
+            }
+            int end = (int) (info.position() + length);
+            int version = info.getShort() & 0xffff;
+            long abbrevOffset;
+            int addressSize;
+            if (version >= 5) {
+                int unitType = info.get() & 0xff;
+                addressSize = info.get() & 0xff;
+                abbrevOffset = getOffset(info, offsetSize);
+                if (unitType == 2 || unitType == 6) {
+                    // type units: type signature and type offset
+                    info.position(info.position() + 8 + offsetSize);
+                } else if (unitType == 4 || unitType == 5) {
+                    // skeleton and split units: unit id
+                    info.position(info.position() + 8);
+                }
+            } else {
+                abbrevOffset = getOffset(info, offsetSize);
+                addressSize = info.get() & 0xff;
+            }
+            readCompilationDirectory(info, abbrev, (int) abbrevOffset, version, offsetSize, addressSize, str,
+                    lineStr, ret);
+            info.position(end);
+        }
+        return ret;
+    }
+
+    /**
+     * Read the DW_AT_stmt_list and DW_AT_comp_dir attributes of the first entry of a unit.
+     */
+    private static void readCompilationDirectory(ByteBuffer info, ByteBuffer abbrev, int abbrevOffset, int version,
+            int offsetSize, int addressSize, ByteBuffer str, ByteBuffer lineStr, Map<Long, String> compDirs) {
+        long code = readULEB128(info);
+        if (code == 0) {
+            return;
+        }
+        abbrev.position(abbrevOffset);
+        // look for the abbreviation of the entry
+        while (true) {
+            long c = readULEB128(abbrev);
+            if (c == 0) {
+                return;
+            }
+            readULEB128(abbrev); // tag
+            abbrev.get(); // children
+            if (c == code) {
+                break;
+            }
+            while (true) {
+                long name = readULEB128(abbrev);
+                long form = readULEB128(abbrev);
+                if (form == DW_FORM_IMPLICIT_CONST) {
+                    readSLEB128(abbrev);
+                }
+                if (name == 0 && form == 0) {
+                    break;
+                }
+            }
+        }
+        long stmtList = -1;
+        String compDir = null;
+        while (true) {
+            int name = (int) readULEB128(abbrev);
+            int form = (int) readULEB128(abbrev);
+            if (name == 0 && form == 0) {
+                break;
+            }
+            if (form == DW_FORM_IMPLICIT_CONST) {
+                readSLEB128(abbrev);
+                continue;
+            }
+            if (form == DW_FORM_INDIRECT) {
+                form = (int) readULEB128(info);
+            }
+            if (name == DW_AT_STMT_LIST && (form == DW_FORM_SEC_OFFSET || form == DW_FORM_DATA4
+                    || form == DW_FORM_DATA8)) {
+                stmtList = form == DW_FORM_DATA8 ? info.getLong() : getOffset(info, form == DW_FORM_DATA4 ? 4 : offsetSize);
+            } else if (name == DW_AT_COMP_DIR && (form == DW_FORM_STRING || form == DW_FORM_STRP
+                    || form == DW_FORM_LINE_STRP)) {
+                compDir = readString(info, form, offsetSize, str, lineStr);
+            } else if (!skipForm(info, form, version, offsetSize, addressSize)) {
+                // unknown form: the other attributes can not be read
+                break;
+            }
+        }
+        if (stmtList != -1 && compDir != null) {
+            compDirs.put(stmtList, compDir);
+        }
+    }
+
+    private static boolean skipForm(ByteBuffer b, int form, int version, int offsetSize, int addressSize) {
+        int skip;
+        switch (form) {
+        case DW_FORM_FLAG_PRESENT:
+            skip = 0;
+            break;
+        case DW_FORM_DATA1:
+        case DW_FORM_FLAG:
+        case DW_FORM_REF1:
+        case DW_FORM_STRX1:
+        case DW_FORM_ADDRX1:
+            skip = 1;
+            break;
+        case DW_FORM_DATA2:
+        case DW_FORM_REF2:
+        case DW_FORM_STRX2:
+        case DW_FORM_ADDRX2:
+            skip = 2;
+            break;
+        case DW_FORM_STRX3:
+        case DW_FORM_ADDRX3:
+            skip = 3;
+            break;
+        case DW_FORM_DATA4:
+        case DW_FORM_REF4:
+        case DW_FORM_REF_SUP4:
+        case DW_FORM_STRX4:
+        case DW_FORM_ADDRX4:
+            skip = 4;
+            break;
+        case DW_FORM_DATA8:
+        case DW_FORM_REF8:
+        case DW_FORM_REF_SIG8:
+        case DW_FORM_REF_SUP8:
+            skip = 8;
+            break;
+        case DW_FORM_DATA16:
+            skip = 16;
+            break;
+        case DW_FORM_ADDR:
+            skip = addressSize;
+            break;
+        case DW_FORM_REF_ADDR:
+            skip = version <= 2 ? addressSize : offsetSize;
+            break;
+        case DW_FORM_STRP:
+        case DW_FORM_SEC_OFFSET:
+        case DW_FORM_STRP_SUP:
+        case DW_FORM_LINE_STRP:
+            skip = offsetSize;
+            break;
+        case DW_FORM_SDATA:
+            readSLEB128(b);
+            skip = 0;
+            break;
+        case DW_FORM_UDATA:
+        case DW_FORM_REF_UDATA:
+        case DW_FORM_STRX:
+        case DW_FORM_ADDRX:
+        case DW_FORM_LOCLISTX:
+        case DW_FORM_RNGLISTX:
+            readULEB128(b);
+            skip = 0;
+            break;
+        case DW_FORM_STRING:
+            while (b.get() != 0) {
+                // skip the string
+            }
+            skip = 0;
+            break;
+        case DW_FORM_BLOCK1:
+            skip = b.get() & 0xff;
+            break;
+        case DW_FORM_BLOCK2:
+            skip = b.getShort() & 0xffff;
+            break;
+        case DW_FORM_BLOCK4:
+            skip = b.getInt();
+            break;
+        case DW_FORM_BLOCK:
+        case DW_FORM_EXPRLOC:
+            skip = (int) readULEB128(b);
+            break;
+        default:
+            return false;
+        }
+        b.position(b.position() + skip);
+        return true;
+    }
+
+    private static String readString(ByteBuffer b, int form, int offsetSize, ByteBuffer str, ByteBuffer lineStr) {
+        switch (form) {
+        case DW_FORM_STRING:
+            int start = b.position();
+            String s = ElfFile.getString(b, start);
+            while (b.get() != 0) {
+                // skip the string
+            }
+            return s;
+        case DW_FORM_STRP:
+            long offset = getOffset(b, offsetSize);
+            return str == null ? null : ElfFile.getString(str, (int) offset);
+        case DW_FORM_LINE_STRP:
+            offset = getOffset(b, offsetSize);
+            return lineStr == null ? null : ElfFile.getString(lineStr, (int) offset);
+        default:
+            return null;
+        }
+    }
+
+    private static long getOffset(ByteBuffer b, int offsetSize) {
+        return offsetSize == 8 ? b.getLong() : b.getInt() & 0xffffffffL;
+    }
+
+    private static long readULEB128(ByteBuffer b) {
+        long result = 0;
+        int shift = 0;
+        byte x;
+        do {
+            x = b.get();
+            if (shift < 64) {
+                result |= (long) (x & 0x7f) << shift;
+            }
+            shift += 7;
+        } while ((x & 0x80) != 0);
+        return result;
+    }
+
+    private static long readSLEB128(ByteBuffer b) {
+        long result = 0;
+        int shift = 0;
+        byte x;
+        do {
+            x = b.get();
+            if (shift < 64) {
+                result |= (long) (x & 0x7f) << shift;
+            }
+            shift += 7;
+        } while ((x & 0x80) != 0);
+        if (shift < 64 && (x & 0x40) != 0) {
+            result |= -1L << shift;
+        }
+        return result;
+    }
+
+    /**
+     * Joins a directory and a file name, unless the file name is absolute.
+     */
+    private static String concat(String dir, String name) {
+        if (dir == null || dir.isEmpty() || name.startsWith("/")) { //$NON-NLS-1$
+            return name;
+        }
+        return dir.endsWith("/") ? dir + name : dir + '/' + name; //$NON-NLS-1$
+    }
+
+    /**
+     * Runs the line programs, and collects the rows of each sequence.
+     */
+    private static final class Builder {
+        private final List<String> fileNames = new ArrayList<>();
+        private final Map<String, Integer> fileIndexes = new HashMap<>();
+
+        private long[] addresses = new long[1024];
+        private int[] files = new int[1024];
+        private int[] lines = new int[1024];
+        private int size;
+        /** start row of each sequence */
+        private final List<int[]> sequences = new ArrayList<>();
+        private int sequenceStart;
+
+        private void readUnit(ByteBuffer b, String compDir, ByteBuffer lineStr, ByteBuffer str) {
+            long length = b.getInt() & 0xffffffffL;
+            int offsetSize = 4;
+            if (length == 0xffffffffL) {
+                length = b.getLong();
+                offsetSize = 8;
+            }
+            int end = (int) (b.position() + length);
+            int version = b.getShort() & 0xffff;
+            if (version < 2 || version > 5) {
+                // unknown format: skip this unit
+                b.position(end);
+                return;
+            }
+            if (version >= 5) {
+                b.get(); // address size
+                b.get(); // segment selector size
+            }
+            long headerLength = getOffset(b, offsetSize);
+            int programStart = (int) (b.position() + headerLength);
+            int minInstLength = b.get() & 0xff;
+            if (version >= 4) {
+                b.get(); // maximum operations per instruction, only meaningful for VLIW
+            }
+            b.get(); // default is_stmt
+            int lineBase = b.get();
+            int lineRange = b.get() & 0xff;
+            int opcodeBase = b.get() & 0xff;
+            int[] opcodeLengths = new int[opcodeBase];
+            for (int i = 1; i < opcodeBase; i++) {
+                opcodeLengths[i] = b.get() & 0xff;
+            }
+
+            // file indexes of this unit, in the global file name table
+            List<Integer> unitFiles = new ArrayList<>();
+            List<String> dirs = new ArrayList<>();
+            if (version >= 5) {
+                int[] dirFormat = readEntryFormat(b);
+                long dirCount = readULEB128(b);
+                for (long i = 0; i < dirCount; i++) {
+                    String[] entry = readEntry(b, dirFormat, offsetSize, lineStr, str);
+                    String dir = entry[0] == null ? "" : entry[0]; //$NON-NLS-1$
+                    // directory 0 is the compilation directory
+                    dirs.add(i == 0 ? dir : concat(dirs.get(0), dir));
+                }
+                int[] fileFormat = readEntryFormat(b);
+                long fileCount = readULEB128(b);
+                for (long i = 0; i < fileCount; i++) {
+                    String[] entry = readEntry(b, fileFormat, offsetSize, lineStr, str);
+                    int dirIndex = entry[1] == null ? 0 : Integer.parseInt(entry[1]);
+                    String dir = dirIndex < dirs.size() ? dirs.get(dirIndex) : null;
+                    unitFiles.add(getFileIndex(concat(dir, entry[0] == null ? "" : entry[0]))); //$NON-NLS-1$
+                }
+            } else {
+                dirs.add(compDir);
+                String dir;
+                while (!(dir = ElfFile.getString(b, b.position())).isEmpty()) {
+                    skipString(b);
+                    dirs.add(concat(compDir, dir));
+                }
+                b.get();
+                // file indexes start at 1
+                unitFiles.add(getFileIndex("")); //$NON-NLS-1$
+                String name;
+                while (!(name = ElfFile.getString(b, b.position())).isEmpty()) {
+                    skipString(b);
+                    unitFiles.add(getFileIndex(fileName(dirs, name, b)));
+                }
+                b.get();
+            }
+
+            b.position(programStart);
+            runProgram(b, end, minInstLength, lineBase, lineRange, opcodeBase, opcodeLengths, unitFiles, dirs);
+            b.position(end);
+        }
+
+        /**
+         * Read the directory index, modification time and length of a file entry, and build its file name.
+         */
+        private static String fileName(List<String> dirs, String name, ByteBuffer b) {
+            int dirIndex = (int) readULEB128(b);
+            readULEB128(b); // modification time
+            readULEB128(b); // length
+            String dir = dirIndex < dirs.size() ? dirs.get(dirIndex) : null;
+            return concat(dir, name);
+        }
+
+        private static void skipString(ByteBuffer b) {
+            while (b.get() != 0) {
+                // skip the string
+            }
+        }
+
+        private static int[] readEntryFormat(ByteBuffer b) {
+            int count = b.get() & 0xff;
+            int[] format = new int[count * 2];
+            for (int i = 0; i < format.length; i++) {
+                format[i] = (int) readULEB128(b);
+            }
+            return format;
+        }
+
+        /**
+         * Read a directory or file entry of a DWARF 5 line header
+         * @return the path and the directory index of the entry, null if absent
+         */
+        private static String[] readEntry(ByteBuffer b, int[] format, int offsetSize, ByteBuffer lineStr,
+                ByteBuffer str) {
+            String[] ret = new String[2];
+            for (int i = 0; i < format.length; i += 2) {
+                int contentType = format[i];
+                int form = format[i + 1];
+                if (contentType == DW_LNCT_PATH) {
+                    ret[0] = readString(b, form, offsetSize, str, lineStr);
+                } else if (contentType == DW_LNCT_DIRECTORY_INDEX) {
+                    long index;
+                    switch (form) {
+                    case DW_FORM_DATA1:
+                        index = b.get() & 0xff;
+                        break;
+                    case DW_FORM_DATA2:
+                        index = b.getShort() & 0xffff;
+                        break;
+                    default:
+                        index = readULEB128(b);
+                        break;
+                    }
+                    ret[1] = String.valueOf(index);
+                } else if (!skipForm(b, form, 5, offsetSize, 0)) {
+                    throw new IllegalArgumentException("Unknown form " + form); //$NON-NLS-1$
+                }
+            }
+            return ret;
+        }
+
+        private int getFileIndex(String fileName) {
+            Integer index = fileIndexes.get(fileName);
+            if (index == null) {
+                index = fileNames.size();
+                fileNames.add(fileName);
+                fileIndexes.put(fileName, index);
+            }
+            return index;
+        }
+
+        private void runProgram(ByteBuffer b, int end, int minInstLength, int lineBase, int lineRange,
+                int opcodeBase, int[] opcodeLengths, List<Integer> unitFiles, List<String> dirs) {
+            long address = 0;
+            int file = 1;
+            int line = 1;
+            while (b.position() < end) {
+                int opcode = b.get() & 0xff;
+                if (opcode >= opcodeBase) {
+                    int adjusted = opcode - opcodeBase;
+                    address += (long) (adjusted / lineRange) * minInstLength;
+                    line += lineBase + adjusted % lineRange;
+                    addRow(address, unitFiles, file, line);
+                } else if (opcode == 0) {
+                    int length = (int) readULEB128(b);
+                    int next = b.position() + length;
+                    int extended = length == 0 ? 0 : b.get() & 0xff;
+                    switch (extended) {
+                    case DW_LNE_END_SEQUENCE:
+                        addRow(address, null, NO_FILE, 0);
+                        endSequence();
+                        address = 0;
+                        file = 1;
+                        line = 1;
+                        break;
+                    case DW_LNE_SET_ADDRESS:
+                        int size = length - 1;
+                        address = size == 8 ? b.getLong() : size == 4 ? b.getInt() & 0xffffffffL
+                                : size == 2 ? b.getShort() & 0xffff : 0;
+                        break;
+                    case DW_LNE_DEFINE_FILE:
+                        String name = ElfFile.getString(b, b.position());
+                        skipString(b);
+                        unitFiles.add(getFileIndex(fileName(dirs, name, b)));
+                        break;
+                    default:
+                        break;
+                    }
+                    b.position(next);
+                } else {
+                    switch (opcode) {
+                    case DW_LNS_COPY:
+                        addRow(address, unitFiles, file, line);
+                        break;
+                    case DW_LNS_ADVANCE_PC:
+                        address += readULEB128(b) * minInstLength;
+                        break;
+                    case DW_LNS_ADVANCE_LINE:
+                        line += (int) readSLEB128(b);
+                        break;
+                    case DW_LNS_SET_FILE:
+                        file = (int) readULEB128(b);
+                        break;
+                    case DW_LNS_CONST_ADD_PC:
+                        address += (long) ((255 - opcodeBase) / lineRange) * minInstLength;
+                        break;
+                    case DW_LNS_FIXED_ADVANCE_PC:
+                        address += b.getShort() & 0xffff;
+                        break;
+                    default:
+                        // other standard opcodes only change registers which are not kept
+                        for (int i = 0; i < opcodeLengths[opcode]; i++) {
+                            readULEB128(b);
+                        }
+                        break;
+                    }
+                }
+            }
+            if (size > sequenceStart) {
+                // sequence without end: drop it
+                size = sequenceStart;
+            }
+        }
+
+        private void addRow(long address, List<Integer> unitFiles, int file, int line) {
+            if (size == addresses.length) {
+                addresses = Arrays.copyOf(addresses, size * 2);
+                files = Arrays.copyOf(files, size * 2);
+                lines = Arrays.copyOf(lines, size * 2);
+            }
+            int fileIndex = NO_FILE;
+            if (unitFiles != null) {
+                fileIndex = file >= 0 && file < unitFiles.size() ? unitFiles.get(file) : getFileIndex("??"); //$NON-NLS-1$
+            }
+            if (size > sequenceStart && addresses[size - 1] == address && files[size - 1] != NO_FILE) {
+                // like addr2line, keep the last row of an address
+                size--;
+            }
+            addresses[size] = address;
+            files[size] = fileIndex;
+            lines[size] = line;
+            size++;
+        }
+
+        private void endSequence() {
+            if (size - sequenceStart > 1) {
+                sequences.add(new int[] { sequenceStart, size });
+            } else {
+                size = sequenceStart;
+            }
+            sequenceStart = size;
+        }
+
+        /**
+         * Sort sequences by address. Sequences overlapping a previous one (e.g. of functions discarded by the linker,
+         * left at address 0) are dropped.
+         */
+        private DwarfLineTable build() {
+            sequences.sort((s1, s2) -> Long.compareUnsigned(addresses[s1[0]], addresses[s2[0]]));
+            long[] a = new long[size];
+            int[] f = new int[size];
+            int[] l = new int[size];
+            int n = 0;
+            for (int[] s : sequences) {
+                int length = s[1] - s[0];
+                if (n > 0 && Long.compareUnsigned(addresses[s[0]], a[n - 1]) < 0) {
+                    continue;
+                }
+                if (n > 0 && addresses[s[0]] == a[n - 1]) {
+                    // this sequence starts where the previous one ends
+                    n--;
+                }
+                System.arraycopy(addresses, s[0], a, n, length);
+                System.arraycopy(files, s[0], f, n, length);
+                System.arraycopy(lines, s[0], l, n, length);
+                n += length;
+            }
+            return new DwarfLineTable(Arrays.copyOf(a, n), Arrays.copyOf(f, n), Arrays.copyOf(l, n),
+                    fileNames.toArray(new String[fileNames.size()]));
+        }
+    }
+}
@@ -0,0 +1,337 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.binutils.elf;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Minimal reader of ELF files: the section headers are read when the file is
+ * opened, and the content of a section is only read (small sections) or
+ * memory-mapped (big sections) on demand. This allows to look at a few
+ * sections of a big binary without running an external tool over the whole
+ * file.
+ *
+ * @since 6.0
+ */
+public final class ElfFile implements Closeable {
+
+    public static final int SHT_PROGBITS = 1;
+    public static final int SHT_SYMTAB = 2;
+    public static final int SHT_STRTAB = 3;
+    public static final int SHT_NOTE = 7;
+    public static final int SHT_NOBITS = 8;
+    public static final int SHT_DYNSYM = 11;
+
+    public static final long SHF_WRITE = 0x1;
+    public static final long SHF_ALLOC = 0x2;
+    public static final long SHF_EXECINSTR = 0x4;
+
+    /** Sections bigger than this are memory-mapped, smaller ones are read in a heap buffer. */
+    private static final long MAP_THRESHOLD = 1024 * 1024;
+
+    private static final int EI_NIDENT = 16;
+    private static final int ELFCLASS64 = 2;
+    private static final int ELFDATA2MSB = 2;
+    private static final int SHN_XINDEX = 0xffff;
+    private static final int NT_GNU_BUILD_ID = 3;
+
+    /**
+     * A section header.
+     */
+    public static final class Section {
+        private String name = ""; //$NON-NLS-1$
+        private final int nameOffset;
+        private final int type;
+        private final long flags;
+        private final long addr;
+        private final long offset;
+        private final long size;
+        private final int link;
+        private final int info;
+        private final long entsize;
+
+        private Section(int nameOffset, int type, long flags, long addr, long offset, long size, int link, int info,
+                long entsize) {
+            this.nameOffset = nameOffset;
+            this.type = type;
+            this.flags = flags;
+            this.addr = addr;
+            this.offset = offset;
+            this.size = size;
+            this.link = link;
+            this.info = info;
+            this.entsize = entsize;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getType() {
+            return type;
+        }
+
+        public long getFlags() {
+            return flags;
+        }
+
+        public long getAddr() {
+            return addr;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public int getLink() {
+            return link;
+        }
+
+        public int getInfo() {
+            return info;
+        }
+
+        public long getEntsize() {
+            return entsize;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final boolean is64;
+    private final ByteOrder order;
+    private final int machine;
+    private final List<Section> sections;
+
+    private ElfFile(File path) throws IOException {
+        file = new RandomAccessFile(path, "r"); //$NON-NLS-1$
+        channel = file.getChannel();
+        try {
+            ByteBuffer ident = read(0, EI_NIDENT);
+            if (ident.get(0) != 0x7f || ident.get(1) != 'E' || ident.get(2) != 'L' || ident.get(3) != 'F') {
+                throw new IOException(path + ": not an ELF file"); //$NON-NLS-1$
+            }
+            is64 = ident.get(4) == ELFCLASS64;
+            order = ident.get(5) == ELFDATA2MSB ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+
+            ByteBuffer header = read(0, is64 ? 64 : 52);
+            machine = header.getShort(18) & 0xffff;
+            long shoff = is64 ? header.getLong(40) : header.getInt(32) & 0xffffffffL;
+            int shentsize = header.getShort(is64 ? 58 : 46) & 0xffff;
+            int shnum = header.getShort(is64 ? 60 : 48) & 0xffff;
+            int shstrndx = header.getShort(is64 ? 62 : 50) & 0xffff;
+            sections = readSections(shoff, shentsize, shnum, shstrndx);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Open an ELF file.
+     * @param path
+     * @return the ELF file, whose section headers have been read
+     * @throws IOException if the file cannot be read or is not an ELF file
+     */
+    public static ElfFile open(File path) throws IOException {
+        return new ElfFile(path);
+    }
+
+    private List<Section> readSections(long shoff, int shentsize, int shnum, int shstrndx) throws IOException {
+        if (shoff == 0 || shentsize == 0) {
+            return Collections.emptyList();
+        }
+        if (shnum == 0 || shstrndx == SHN_XINDEX) {
+            // more sections than the header can tell: see the first section header
+            Section first = readSection(read(shoff, shentsize), 0);
+            if (shnum == 0) {
+                shnum = (int) first.getSize();
+            }
+            if (shstrndx == SHN_XINDEX) {
+                shstrndx = first.getLink();
+            }
+        }
+        ByteBuffer table = read(shoff, (long) shentsize * shnum);
+        List<Section> result = new ArrayList<>(shnum);
+        for (int i = 0; i < shnum; i++) {
+            result.add(readSection(table, i * shentsize));
+        }
+        if (shstrndx < result.size()) {
+            ByteBuffer names = getData(result.get(shstrndx));
+            for (Section s : result) {
+                s.name = getString(names, s.nameOffset);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private Section readSection(ByteBuffer b, int base) {
+        if (is64) {
+            return new Section(b.getInt(base), b.getInt(base + 4), b.getLong(base + 8), b.getLong(base + 16),
+                    b.getLong(base + 24), b.getLong(base + 32), b.getInt(base + 40), b.getInt(base + 44),
+                    b.getLong(base + 56));
+        }
+        return new Section(b.getInt(base), b.getInt(base + 4), b.getInt(base + 8) & 0xffffffffL,
+                b.getInt(base + 12) & 0xffffffffL, b.getInt(base + 16) & 0xffffffffL,
+                b.getInt(base + 20) & 0xffffffffL, b.getInt(base + 24), b.getInt(base + 28),
+                b.getInt(base + 36) & 0xffffffffL);
+    }
+
+    private ByteBuffer read(long position, long size) throws IOException {
+        if (size < 0 || position < 0 || position + size > channel.size()) {
+            throw new EOFException();
+        }
+        ByteBuffer buffer;
+        if (size > MAP_THRESHOLD) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        } else {
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException();
+                }
+            }
+            buffer.flip();
+        }
+        return buffer.order(order);
+    }
+
+    /**
+     * Read a NUL-terminated string.
+     * @param buffer the content of a string table, see {@link #getData(Section)}
+     * @param offset offset of the string in the table
+     * @return the string, or an empty string if the offset is out of the table
+     */
+    public static String getString(ByteBuffer buffer, int offset) {
+        if (offset < 0 || offset >= buffer.limit()) {
+            return ""; //$NON-NLS-1$
+        }
+        int end = offset;
+        while (end < buffer.limit() && buffer.get(end) != 0) {
+            end++;
+        }
+        byte[] bytes = new byte[end - offset];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return true for a 64-bit file, false for a 32-bit one
+     */
+    public boolean is64() {
+        return is64;
+    }
+
+    public ByteOrder getByteOrder() {
+        return order;
+    }
+
+    /**
+     * @return the e_machine field of the ELF header
+     */
+    public int getMachine() {
+        return machine;
+    }
+
+    public List<Section> getSections() {
+        return sections;
+    }
+
+    /**
+     * @param name
+     * @return the first section with the given name, or null
+     */
+    public Section getSection(String name) {
+        for (Section s : sections) {
+            if (s.getName().equals(name)) {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the content of a section. Big sections are memory-mapped, so the
+     * returned buffer may be used after this file has been closed.
+     * @param section a section of this file
+     * @return a buffer in the byte order of the file, empty for SHT_NOBITS sections
+     * @throws IOException
+     */
+    public ByteBuffer getData(Section section) throws IOException {
+        if (section.getType() == SHT_NOBITS) {
+            return ByteBuffer.allocate(0).order(order);
+        }
+        return read(section.getOffset(), section.getSize());
+    }
+
+    /**
+     * @return the GNU build-id of this file, as an hexadecimal string, or null if it has none
+     * @throws IOException
+     */
+    public String getBuildId() throws IOException {
+        for (Section s : sections) {
+            if (s.getType() != SHT_NOTE) {
+                continue;
+            }
+            ByteBuffer notes = getData(s);
+            int o = 0;
+            while (o + 12 <= notes.limit()) {
+                int namesz = notes.getInt(o);
+                int descsz = notes.getInt(o + 4);
+                int type = notes.getInt(o + 8);
+                int desc = o + 12 + align4(namesz);
+                if (namesz < 0 || descsz < 0 || desc < 0 || desc + descsz > notes.limit()) {
+                    break;
+                }
+                if (type == NT_GNU_BUILD_ID && namesz == 4 && "GNU".equals(getString(notes, o + 12))) { //$NON-NLS-1$
+                    StringBuilder ret = new StringBuilder(descsz * 2);
+                    for (int i = 0; i < descsz; i++) {
+                        ret.append(String.format("%02x", notes.get(desc + i) & 0xff)); //$NON-NLS-1$
+                    }
+                    return ret.toString();
+                }
+                o = desc + align4(descsz);
+            }
+        }
+        return null;
+    }
+
+    private static int align4(int size) {
+        return (size + 3) & ~3;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
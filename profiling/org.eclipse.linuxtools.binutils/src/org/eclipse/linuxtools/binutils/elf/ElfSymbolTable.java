@@ -0,0 +1,398 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.binutils.elf;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.linuxtools.binutils.elf.ElfFile.Section;
+
+/**
+ * Symbol table of an ELF file, read from its <code>.symtab</code> section, or
+ * from its <code>.dynsym</code> section when the file is stripped. The symbols
+ * are kept in primitive arrays sorted by address, and their names are only
+ * decoded when asked for, from the string table which stays memory-mapped when
+ * it is big. Section and file symbols are left out, as nm does.
+ * <p>
+ * The tables returned by {@link #get(File)} are shared: a file is read again
+ * only once it has been modified.
+ *
+ * @since 6.0
+ */
+public final class ElfSymbolTable {
+
+    public static final int STT_NOTYPE = 0;
+    public static final int STT_OBJECT = 1;
+    public static final int STT_FUNC = 2;
+    public static final int STT_SECTION = 3;
+    public static final int STT_FILE = 4;
+    public static final int STT_TLS = 6;
+    public static final int STT_GNU_IFUNC = 10;
+
+    public static final int STB_LOCAL = 0;
+    public static final int STB_GLOBAL = 1;
+    public static final int STB_WEAK = 2;
+    public static final int STB_GNU_UNIQUE = 10;
+
+    public static final int SHN_UNDEF = 0;
+    public static final int SHN_LORESERVE = 0xff00;
+    public static final int SHN_ABS = 0xfff1;
+    public static final int SHN_COMMON = 0xfff2;
+
+    /** Number of files whose symbol table is kept by {@link #get(File)} */
+    private static final int CACHE_SIZE = 16;
+
+    private static final int NO_FILE = -1;
+
+    private static final class CacheEntry {
+        private final long lastModified;
+        private final long length;
+        private final ElfSymbolTable table;
+
+        private CacheEntry(long lastModified, long length, ElfSymbolTable table) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.table = table;
+        }
+    }
+
+    /** Symbol tables by absolute path, the least recently used ones first */
+    private static final Map<String, CacheEntry> cache = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final boolean is64;
+    private final boolean dynamic;
+    private final List<Section> sections;
+    private final ByteBuffer strings;
+
+    /** The symbols, sorted by address */
+    private final long[] addresses;
+    private final long[] sizes;
+    private final int[] nameOffsets;
+    /** Offset of the name of the source file of each symbol, {@link #NO_FILE} if unknown */
+    private final int[] fileOffsets;
+    private final byte[] infos;
+    private final short[] sectionIndexes;
+
+    private ElfSymbolTable(boolean is64, boolean dynamic, List<Section> sections, ByteBuffer strings, int count) {
+        this.is64 = is64;
+        this.dynamic = dynamic;
+        this.sections = sections;
+        this.strings = strings;
+        addresses = new long[count];
+        sizes = new long[count];
+        nameOffsets = new int[count];
+        fileOffsets = new int[count];
+        infos = new byte[count];
+        sectionIndexes = new short[count];
+    }
+
+    /**
+     * Get the symbol table of a file, reading it only if it is not already cached or if the file has been modified
+     * since.
+     * @param file
+     * @return the symbol table of the file, empty if it has none
+     * @throws IOException if the file is not an ELF file or can not be read
+     */
+    public static ElfSymbolTable get(File file) throws IOException {
+        String key = file.getAbsolutePath();
+        long lastModified = file.lastModified();
+        long length = file.length();
+        synchronized (cache) {
+            CacheEntry entry = cache.get(key);
+            if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+                return entry.table;
+            }
+        }
+        ElfSymbolTable ret;
+        try (ElfFile elf = ElfFile.open(file)) {
+            ret = read(elf);
+        }
+        synchronized (cache) {
+            cache.put(key, new CacheEntry(lastModified, length, ret));
+        }
+        return ret;
+    }
+
+    /**
+     * Forget the symbol tables cached by {@link #get(File)}.
+     */
+    public static void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Read the symbol table of an ELF file.
+     * @param elf
+     * @return the symbol table, empty if the file has none
+     * @throws IOException
+     */
+    public static ElfSymbolTable read(ElfFile elf) throws IOException {
+        List<Section> sections = elf.getSections();
+        Section symtab = getSection(sections, ElfFile.SHT_SYMTAB);
+        if (symtab == null) {
+            symtab = getSection(sections, ElfFile.SHT_DYNSYM);
+        }
+        boolean is64 = elf.is64();
+        if (symtab == null || symtab.getLink() <= 0 || symtab.getLink() >= sections.size()) {
+            return new ElfSymbolTable(is64, false, Collections.<Section> emptyList(), ByteBuffer.allocate(0), 0);
+        }
+        int entsize = symtab.getEntsize() > 0 ? (int) symtab.getEntsize() : is64 ? 24 : 16;
+        ByteBuffer symbols = elf.getData(symtab);
+        ByteBuffer strings = elf.getData(sections.get(symtab.getLink()));
+        // the first entry is the undefined symbol
+        int count = Math.max(0, symbols.limit() / entsize - 1);
+        ElfSymbolTable unsorted = new ElfSymbolTable(is64, symtab.getType() == ElfFile.SHT_DYNSYM, sections, strings,
+                count);
+        int n = unsorted.readSymbols(symbols, entsize);
+        return unsorted.sorted(n);
+    }
+
+    private static Section getSection(List<Section> sections, int type) {
+        for (Section s : sections) {
+            if (s.getType() == type) {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fill the arrays in the order of the symbol table. As in addr2line, the file of a symbol is the last STT_FILE
+     * symbol before it; global symbols follow all the local ones, so they only get a file when there is a single one.
+     * @return the number of symbols kept
+     */
+    private int readSymbols(ByteBuffer symbols, int entsize) {
+        int n = 0;
+        int file = NO_FILE;
+        boolean symbolSeen = false;
+        boolean fileAfterSymbolSeen = false;
+        for (int o = entsize; o + entsize <= symbols.limit(); o += entsize) {
+            int name = symbols.getInt(o);
+            byte info = symbols.get(o + (is64 ? 4 : 12));
+            int type = info & 0xf;
+            if (type == STT_FILE) {
+                file = name > 0 && name < strings.limit() && strings.get(name) != 0 ? name : NO_FILE;
+                fileAfterSymbolSeen |= symbolSeen;
+                continue;
+            }
+            symbolSeen = true;
+            if (type == STT_SECTION) {
+                continue;
+            }
+            boolean local = ((info & 0xff) >> 4) == STB_LOCAL;
+            addresses[n] = is64 ? symbols.getLong(o + 8) : symbols.getInt(o + 4) & 0xffffffffL;
+            sizes[n] = is64 ? symbols.getLong(o + 16) : symbols.getInt(o + 8) & 0xffffffffL;
+            nameOffsets[n] = name;
+            fileOffsets[n] = local || !fileAfterSymbolSeen ? file : NO_FILE;
+            infos[n] = info;
+            sectionIndexes[n] = symbols.getShort(o + (is64 ? 6 : 14));
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * @param n the number of symbols read
+     * @return a table of these symbols sorted by address; the symbols with the same address keep their order
+     */
+    private ElfSymbolTable sorted(int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        int[] tmp = new int[n];
+        // bottom-up merge sort, which is stable
+        for (int width = 1; width < n; width *= 2) {
+            for (int low = 0; low < n; low += 2 * width) {
+                int mid = Math.min(low + width, n);
+                int high = Math.min(low + 2 * width, n);
+                int i = low;
+                int j = mid;
+                for (int k = low; k < high; k++) {
+                    if (i < mid && (j >= high || Long.compareUnsigned(addresses[order[i]], addresses[order[j]]) <= 0)) {
+                        tmp[k] = order[i++];
+                    } else {
+                        tmp[k] = order[j++];
+                    }
+                }
+            }
+            int[] swap = order;
+            order = tmp;
+            tmp = swap;
+        }
+        ElfSymbolTable ret = new ElfSymbolTable(is64, dynamic, sections, strings, n);
+        for (int i = 0; i < n; i++) {
+            int j = order[i];
+            ret.addresses[i] = addresses[j];
+            ret.sizes[i] = sizes[j];
+            ret.nameOffsets[i] = nameOffsets[j];
+            ret.fileOffsets[i] = fileOffsets[j];
+            ret.infos[i] = infos[j];
+            ret.sectionIndexes[i] = sectionIndexes[j];
+        }
+        return ret;
+    }
+
+    /**
+     * @return true for a 64-bit file, false for a 32-bit one
+     */
+    public boolean is64() {
+        return is64;
+    }
+
+    /**
+     * @return true if the symbols have been read from <code>.dynsym</code>, because the file has no
+     *         <code>.symtab</code>
+     */
+    public boolean isDynamic() {
+        return dynamic;
+    }
+
+    /**
+     * @return the number of symbols
+     */
+    public int size() {
+        return addresses.length;
+    }
+
+    /**
+     * @param index
+     * @return the value of the symbol
+     */
+    public long getAddress(int index) {
+        return addresses[index];
+    }
+
+    /**
+     * @param index
+     * @return the size of the symbol, 0 if unknown
+     */
+    public long getSize(int index) {
+        return sizes[index];
+    }
+
+    /**
+     * @param index
+     * @return the name of the symbol, decoded from the string table
+     */
+    public String getName(int index) {
+        return ElfFile.getString(strings, nameOffsets[index]);
+    }
+
+    /**
+     * @param index
+     * @return the source file of the symbol, as told by the file symbols of the table, or null if unknown
+     */
+    public String getFile(int index) {
+        int offset = fileOffsets[index];
+        return offset == NO_FILE ? null : ElfFile.getString(strings, offset);
+    }
+
+    /**
+     * @param index
+     * @return the type of the symbol, e.g. {@link #STT_FUNC}
+     */
+    public int getType(int index) {
+        return infos[index] & 0xf;
+    }
+
+    /**
+     * @param index
+     * @return the binding of the symbol, e.g. {@link #STB_GLOBAL}
+     */
+    public int getBinding(int index) {
+        return (infos[index] & 0xff) >> 4;
+    }
+
+    /**
+     * @param index
+     * @return the index of the section of the symbol in the section header table, or a special index such as
+     *         {@link #SHN_UNDEF} or {@link #SHN_ABS}
+     */
+    public int getSectionIndex(int index) {
+        return sectionIndexes[index] & 0xffff;
+    }
+
+    /**
+     * @param index
+     * @return the header of the section of the symbol, or null for the undefined symbols and the special indexes
+     */
+    public Section getSection(int index) {
+        int section = getSectionIndex(index);
+        if (section == SHN_UNDEF || section >= SHN_LORESERVE || section >= sections.size()) {
+            return null;
+        }
+        return sections.get(section);
+    }
+
+    /**
+     * Find the symbol containing an address: among the symbols of the sections of the program, the one starting the
+     * closest before the address, or the biggest one if several symbols start there. A symbol without size only
+     * contains its own address.
+     * @param address
+     * @return the index of the symbol, or -1 if the address is not within the symbol starting the closest before it
+     */
+    public int find(long address) {
+        // last symbol whose address is lower or equal
+        int low = 0;
+        int high = addresses.length - 1;
+        int ret = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(addresses[mid], address) <= 0) {
+                ret = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        while (ret >= 0 && !isInSection(ret)) {
+            ret--;
+        }
+        if (ret == -1) {
+            return -1;
+        }
+        for (int i = ret - 1; i >= 0 && addresses[i] == addresses[ret]; i--) {
+            if (isInSection(i) && Long.compareUnsigned(sizes[i], sizes[ret]) > 0) {
+                ret = i;
+            }
+        }
+        long size = sizes[ret] == 0 ? 1 : sizes[ret];
+        return Long.compareUnsigned(address - addresses[ret], size) < 0 ? ret : -1;
+    }
+
+    /**
+     * @return true if the value of the symbol is an address in one of the sections of the program
+     */
+    private boolean isInSection(int index) {
+        int section = getSectionIndex(index);
+        return section != SHN_UNDEF && section < SHN_LORESERVE && getType(index) != STT_TLS;
+    }
+
+    @Override
+    public String toString() {
+        return "ElfSymbolTable[size=" + addresses.length + (dynamic ? ", dynamic" : "") + ']'; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+}
@@ -37,6 +37,25 @@ public class DefaultBinutilsFactory implements ISTBinutilsFactory {
         return new Addr2line(addr2line, args, path);
     }
 
+    /**
+     * Decode the DWARF line information of the program in-process if possible, or else run addr2line once for all
+     * addresses.
+     * @since 6.0
+     */
+    @Override
+    public ISTSourceLocator getSourceLocator(String path, IProject project) throws IOException {
+        ISTSourceLocator locator = ISTBinutilsFactory.super.getSourceLocator(path, project);
+        if (locator != null) {
+            return locator;
+        }
+        IPreferenceStore prefsStore = Activator.getDefault().getPreferenceStore();
+        String addr2lineCmd = prefsStore.getString(BinutilsPreferencePage.PREFKEY_ADDR2LINE_CMD);
+        String addr2lineArgs = prefsStore.getString(BinutilsPreferencePage.PREFKEY_ADDR2LINE_ARGS);
+        String[] args = CommandLineUtil.argumentsToArray(addr2lineArgs);
+        String addr2line = RuntimeProcessFactory.getFactory().whichCommand(addr2lineCmd, project);
+        return new STAddr2lineBatch(addr2line, args, path, project);
+    }
+
     @Override
     public CPPFilt getCPPFilt(IProject project) throws IOException {
         IPreferenceStore prefsStore = Activator.getDefault().getPreferenceStore();
@@ -47,6 +66,19 @@ public class DefaultBinutilsFactory implements ISTBinutilsFactory {
         return new CPPFilt(cppfilt, args);
     }
 
+    /**
+     * Demangle the names in-process unless disabled in the preferences.
+     * @since 6.0
+     */
+    @Override
+    public ISTDemangler getDemangler(IProject project) {
+        IPreferenceStore prefsStore = Activator.getDefault().getPreferenceStore();
+        if (!prefsStore.getBoolean(BinutilsPreferencePage.PREFKEY_NATIVE_DEMANGLER)) {
+            return null;
+        }
+        return ISTBinutilsFactory.super.getDemangler(project);
+    }
+
     @Override
     public STNM getNM(String path, STNMSymbolsHandler handler, IProject project) throws IOException {
         IPreferenceStore prefsStore = Activator.getDefault().getPreferenceStore();
@@ -25,8 +25,35 @@ public interface ISTBinutilsFactory {
 
     Addr2line getAddr2line(String path, IProject project) throws IOException;
 
+    /**
+     * @param path
+     * @param project
+     * @return a source locator resolving many addresses of the given program at once, or null if the program can not
+     *         be resolved this way. By default, the DWARF line information of the program is decoded in-process.
+     * @throws IOException
+     * @since 6.0
+     */
+    default ISTSourceLocator getSourceLocator(String path, IProject project) throws IOException {
+        try {
+            return STDwarfSourceLocator.open(path);
+        } catch (IOException e) {
+            // not a local ELF file, or unreadable debug information: let addr2line resolve it
+            return null;
+        }
+    }
+
     CPPFilt getCPPFilt(IProject project) throws IOException;
 
+    /**
+     * @param project
+     * @return a demangler running in-process, or null if names must be demangled by c++filt. By default, the names
+     *         are demangled following the Itanium C++ ABI.
+     * @since 6.0
+     */
+    default ISTDemangler getDemangler(IProject project) {
+        return new STItaniumDemangler();
+    }
+
     STNM getNM(String path, STNMSymbolsHandler handler, IProject project) throws IOException;
 
     /**
@@ -0,0 +1,26 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.binutils.utils;
+
+/**
+ * Demangles symbol names without running c++filt.
+ *
+ * @since 6.0
+ */
+@FunctionalInterface
+public interface ISTDemangler {
+
+    /**
+     * @param mangledName
+     * @return the demangled name, or null if this demangler can not demangle the given name; c++filt is then used
+     */
+    String demangle(String mangledName);
+}
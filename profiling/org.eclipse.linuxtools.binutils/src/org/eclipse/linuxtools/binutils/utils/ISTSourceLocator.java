@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.binutils.utils;
+
+import java.io.IOException;
+
+import org.eclipse.cdt.core.IAddress;
+
+/**
+ * Resolves many addresses of a program to source locations at once.
+ *
+ * @see ISTBinutilsFactory#getSourceLocator(String, org.eclipse.core.resources.IProject)
+ * @since 6.0
+ */
+public interface ISTSourceLocator {
+
+    /**
+     * Resolve the source locations of the given addresses
+     * @param addresses
+     * @return the source location of each address, {@link STSourceLocation#UNKNOWN} if it can not be resolved
+     * @throws IOException
+     */
+    STSourceLocation[] getSourceLocations(IAddress[] addresses) throws IOException;
+}
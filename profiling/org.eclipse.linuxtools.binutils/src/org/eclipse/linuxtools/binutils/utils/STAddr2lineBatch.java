@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.binutils.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+
+import org.eclipse.cdt.core.IAddress;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.linuxtools.tools.launch.core.factory.CdtSpawnerProcessFactory;
+
+/**
+ * This class resolves many addresses of a program with a single addr2line run: all addresses are written at once on
+ * the standard input of addr2line, and its output is parsed while it is produced. Unlike
+ * {@link org.eclipse.cdt.utils.Addr2line}, there is no round trip per address, and the file name and line number of
+ * an address are resolved together.
+ *
+ * @since 6.0
+ */
+public class STAddr2lineBatch implements ISTSourceLocator {
+
+    private final String[] args;
+    private final IProject project;
+
+    /**
+     * Constructor
+     *
+     * @param command
+     *            the addr2line to call
+     * @param params
+     *            addr2line params. They must not change the output format, which is expected to be one
+     *            "file:line" line per address.
+     * @param file
+     *            the program
+     * @param project
+     *            the project to get the path to use to run addr2line
+     */
+    public STAddr2lineBatch(String command, String[] params, String file, IProject project) {
+        int nbrParams = params == null ? 0 : params.length;
+        args = new String[nbrParams + 3];
+        args[0] = command;
+        if (nbrParams > 0) {
+            System.arraycopy(params, 0, args, 1, nbrParams);
+        }
+        args[nbrParams + 1] = "-e"; //$NON-NLS-1$
+        args[nbrParams + 2] = file;
+        this.project = project;
+    }
+
+    @Override
+    public STSourceLocation[] getSourceLocations(IAddress[] addresses) throws IOException {
+        STSourceLocation[] ret = new STSourceLocation[addresses.length];
+        Arrays.fill(ret, STSourceLocation.UNKNOWN);
+        if (addresses.length == 0) {
+            return ret;
+        }
+        Process process = CdtSpawnerProcessFactory.getFactory().exec(args, project);
+        // addr2line blocks when its output is not read: feed it from another thread
+        IOException[] writeError = new IOException[1];
+        Thread writer = new Thread(() -> {
+            try (Writer w = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()))) {
+                for (IAddress address : addresses) {
+                    w.write(address.toString(16));
+                    w.write('\n');
+                }
+            } catch (IOException e) {
+                writeError[0] = e;
+            }
+        }, "addr2line input"); //$NON-NLS-1$
+        writer.start();
+        boolean completed = false;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            int i = 0;
+            while (i < ret.length && (line = reader.readLine()) != null) {
+                ret[i++] = STSourceLocation.parse(line);
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                // unblock the writer
+                process.destroy();
+            }
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } finally {
+                process.destroy();
+            }
+        }
+        if (writeError[0] != null) {
+            throw writeError[0];
+        }
+        return ret;
+    }
+}
@@ -108,6 +108,21 @@ public class STBinutilsFactoryManager {
         return factory.getAddr2line(programPath, project);
     }
 
+    /**
+     * @param cpuType
+     * @param programPath
+     * @param project
+     *            The project to get the path to run addr2line
+     * @return a source locator resolving many addresses of the given program at once, or null if the binutils of this
+     *         cpu can not resolve the program this way
+     * @throws IOException
+     * @since 6.0
+     */
+    public static ISTSourceLocator getSourceLocator(String cpuType, String programPath, IProject project)
+            throws IOException {
+        ISTBinutilsFactory factory = getBinutilsFactory(cpuType);
+        return factory.getSourceLocator(programPath, project);
+    }
 
     /**
      *
@@ -135,6 +150,17 @@ public class STBinutilsFactoryManager {
         return factory.getCPPFilt(project);
     }
 
+    /**
+     * @param cpuType
+     * @param project
+     * @return a demangler running in-process for the given cpu type, or null if names must be demangled by c++filt
+     * @since 6.0
+     */
+    public static ISTDemangler getDemangler(String cpuType, IProject project) {
+        ISTBinutilsFactory factory = getBinutilsFactory(cpuType);
+        return factory.getDemangler(project);
+    }
+
     /**
      * @param cpuType
      * @param programPath
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.binutils.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.cdt.core.IAddress;
+import org.eclipse.linuxtools.binutils.elf.DwarfLineTable;
+import org.eclipse.linuxtools.binutils.elf.ElfFile;
+import org.eclipse.linuxtools.binutils.elf.ElfFile.Section;
+import org.eclipse.linuxtools.binutils.elf.ElfSymbolTable;
+
+/**
+ * Resolves source locations in-process, without running addr2line: the DWARF line table of the program is decoded
+ * once, and each address is then looked up with a binary search.
+ * <p>
+ * Like addr2line, an address without line information is resolved to the source file of the function symbol which
+ * contains it, when the symbol table tells it.
+ *
+ * @since 6.0
+ */
+public final class STDwarfSourceLocator implements ISTSourceLocator {
+
+    private final DwarfLineTable lineTable;
+
+    /** Allocated sections: index in the section header table, start and end address */
+    private final int[] sectionIndexes;
+    private final long[] sectionStarts;
+    private final long[] sectionEnds;
+
+    /** Function symbols sorted by section and address, and the source file of each symbol (may be null) */
+    private final int[] symbolSections;
+    private final long[] symbolAddresses;
+    private final String[] symbolFiles;
+
+    private STDwarfSourceLocator(DwarfLineTable lineTable, List<Section> sections, List<FunctionSymbol> symbols) {
+        this.lineTable = lineTable;
+        List<Integer> allocated = new ArrayList<>();
+        for (int i = 0; i < sections.size(); i++) {
+            Section s = sections.get(i);
+            if ((s.getFlags() & ElfFile.SHF_ALLOC) != 0 && s.getSize() > 0) {
+                allocated.add(i);
+            }
+        }
+        sectionIndexes = new int[allocated.size()];
+        sectionStarts = new long[allocated.size()];
+        sectionEnds = new long[allocated.size()];
+        for (int i = 0; i < sectionIndexes.length; i++) {
+            Section s = sections.get(allocated.get(i));
+            sectionIndexes[i] = allocated.get(i);
+            sectionStarts[i] = s.getAddr();
+            sectionEnds[i] = s.getAddr() + s.getSize();
+        }
+        symbolSections = new int[symbols.size()];
+        symbolAddresses = new long[symbols.size()];
+        symbolFiles = new String[symbols.size()];
+        for (int i = 0; i < symbolSections.length; i++) {
+            FunctionSymbol symbol = symbols.get(i);
+            symbolSections[i] = symbol.section;
+            symbolAddresses[i] = symbol.address;
+            symbolFiles[i] = symbol.file;
+        }
+    }
+
+    /**
+     * Decode the line information of a program.
+     * @param path
+     * @return the source locator of the program, or null if it has no line information that can be decoded
+     *         in-process
+     * @throws IOException if the program is not an ELF file or can not be read
+     */
+    public static STDwarfSourceLocator open(String path) throws IOException {
+        try (ElfFile elf = ElfFile.open(new File(path))) {
+            DwarfLineTable lineTable = DwarfLineTable.read(elf);
+            if (lineTable == null) {
+                return null;
+            }
+            return new STDwarfSourceLocator(lineTable, elf.getSections(),
+                    readFunctionSymbols(ElfSymbolTable.get(new File(path))));
+        }
+    }
+
+    @Override
+    public STSourceLocation[] getSourceLocations(IAddress[] addresses) {
+        STSourceLocation[] ret = new STSourceLocation[addresses.length];
+        for (int i = 0; i < addresses.length; i++) {
+            ret[i] = getSourceLocation(addresses[i].getValue().longValue());
+        }
+        return ret;
+    }
+
+    /**
+     * @param address
+     * @return the source location of the given address, {@link STSourceLocation#UNKNOWN} if it can not be resolved
+     */
+    public STSourceLocation getSourceLocation(long address) {
+        int row = lineTable.find(address);
+        if (row != -1) {
+            int line = lineTable.getLine(row);
+            return new STSourceLocation(lineTable.getFileName(row), line == 0 ? -1 : line);
+        }
+        String file = getSymbolFile(address);
+        return file == null ? STSourceLocation.UNKNOWN : new STSourceLocation(file, -1);
+    }
+
+    private String getSymbolFile(long address) {
+        int section = -1;
+        for (int i = 0; i < sectionIndexes.length; i++) {
+            if (Long.compareUnsigned(sectionStarts[i], address) <= 0
+                    && Long.compareUnsigned(address, sectionEnds[i]) < 0) {
+                section = sectionIndexes[i];
+                break;
+            }
+        }
+        if (section == -1) {
+            return null;
+        }
+        // last symbol of this section whose address is lower or equal
+        int low = 0;
+        int high = symbolSections.length - 1;
+        int ret = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(symbolSections[mid], symbolAddresses[mid], section, address) <= 0) {
+                ret = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (ret == -1 || symbolSections[ret] != section) {
+            return null;
+        }
+        return symbolFiles[ret];
+    }
+
+    private static int compare(int section1, long address1, int section2, long address2) {
+        int ret = Integer.compare(section1, section2);
+        return ret != 0 ? ret : Long.compareUnsigned(address1, address2);
+    }
+
+    private static final class FunctionSymbol {
+        private final int section;
+        private final long address;
+        private final long size;
+        private final String file;
+
+        private FunctionSymbol(int section, long address, long size, String file) {
+            this.section = section;
+            this.address = address;
+            this.size = size;
+            this.file = file;
+        }
+    }
+
+    /**
+     * Get the symbols which may be functions, with the source file each of them belongs to.
+     */
+    private static List<FunctionSymbol> readFunctionSymbols(ElfSymbolTable table) {
+        List<FunctionSymbol> ret = new ArrayList<>();
+        for (int i = 0; i < table.size(); i++) {
+            int type = table.getType(i);
+            int section = table.getSectionIndex(i);
+            if (type == ElfSymbolTable.STT_OBJECT || type == ElfSymbolTable.STT_TLS
+                    || section == ElfSymbolTable.SHN_UNDEF || section >= ElfSymbolTable.SHN_LORESERVE) {
+                continue;
+            }
+            String file = table.getFile(i);
+            long size = table.getSize(i);
+            ret.add(new FunctionSymbol(section, table.getAddress(i), size == 0 ? 1 : size, file));
+        }
+        // stable sort: among symbols at the same address, keep the first of the biggest ones
+        Collections.sort(ret, (s1, s2) -> compare(s1.section, s1.address, s2.section, s2.address));
+        List<FunctionSymbol> unique = new ArrayList<>(ret.size());
+        for (FunctionSymbol s : ret) {
+            int last = unique.size() - 1;
+            if (last >= 0 && compare(unique.get(last).section, unique.get(last).address, s.section, s.address) == 0) {
+                if (Long.compareUnsigned(s.size, unique.get(last).size) > 0) {
+                    unique.set(last, s);
+                }
+            } else {
+                unique.add(s);
+            }
+        }
+        return unique;
+    }
+}
@@ -0,0 +1,2643 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.binutils.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Demangles C++ names following the Itanium C++ ABI, as used by GCC and Clang on Linux. A name is parsed into a tree
+ * of components which is then printed; both steps follow the demangler of the GNU libiberty library, so that the
+ * names are printed exactly as c++filt prints them.
+ * <p>
+ * The constructs which are not supported (C++20 modules, fold expressions, new-expressions, Java names...) make
+ * {@link #demangle(String)} return null, so that c++filt is used for them.
+ *
+ * @since 6.0
+ */
+public final class STItaniumDemangler implements ISTDemangler {
+
+    /** Limits the nesting of parsed components, and the length of a demangled name */
+    private static final int MAX_DEPTH = 512;
+    private static final int MAX_LENGTH = 65536;
+
+    @Override
+    public String demangle(String mangledName) {
+        if (!mangledName.startsWith("_Z")) { //$NON-NLS-1$
+            return null;
+        }
+        try {
+            Parser parser = new Parser(mangledName);
+            Node dc = parser.mangledName(true);
+            if (parser.peek() != '\0') {
+                return null;
+            }
+            Printer printer = new Printer();
+            printer.print(dc);
+            return printer.out.toString();
+        } catch (DemangleException e) {
+            return null;
+        }
+    }
+
+    /** Thrown when a name can not be demangled */
+    private static final class DemangleException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private static final DemangleException INSTANCE = new DemangleException();
+
+        private DemangleException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static DemangleException fail() {
+        return DemangleException.INSTANCE;
+    }
+
+    private enum Kind {
+        NAME, QUAL_NAME, LOCAL_NAME, TYPED_NAME, TEMPLATE, TEMPLATE_PARAM, FUNCTION_PARAM, CTOR, DTOR, VTABLE, VTT,
+        CONSTRUCTION_VTABLE, TYPEINFO, TYPEINFO_NAME, TYPEINFO_FN, THUNK, VIRTUAL_THUNK, COVARIANT_THUNK, GUARD,
+        TLS_INIT, TLS_WRAPPER, REFTEMP, HIDDEN_ALIAS, TRANSACTION_CLONE, NONTRANSACTION_CLONE, TPARM_OBJ, SUB_STD,
+        RESTRICT, VOLATILE, CONST, RESTRICT_THIS, VOLATILE_THIS, CONST_THIS, REFERENCE_THIS, RVALUE_REFERENCE_THIS,
+        TRANSACTION_SAFE, NOEXCEPT, THROW_SPEC, VENDOR_TYPE_QUAL, POINTER, REFERENCE, RVALUE_REFERENCE, COMPLEX,
+        IMAGINARY, BUILTIN_TYPE, VENDOR_TYPE, FUNCTION_TYPE, ARRAY_TYPE, PTRMEM_TYPE, VECTOR_TYPE, ARGLIST,
+        TEMPLATE_ARGLIST, INITIALIZER_LIST, OPERATOR, EXTENDED_OPERATOR, CAST, CONVERSION, NULLARY, UNARY, BINARY,
+        BINARY_ARGS, TRINARY, TRINARY_ARG1, TRINARY_ARG2, LITERAL, LITERAL_NEG, NUMBER, DECLTYPE, LAMBDA, DEFAULT_ARG,
+        UNNAMED_TYPE, PACK_EXPANSION, TAGGED_NAME, CLONE
+    }
+
+    /** How the literals of a builtin type are printed */
+    private enum LiteralStyle {
+        DEFAULT, INT, UNSIGNED, LONG, UNSIGNED_LONG, LONG_LONG, UNSIGNED_LONG_LONG, BOOL, FLOAT, VOID
+    }
+
+    private static final class BuiltinType {
+        private final String name;
+        private final LiteralStyle style;
+
+        private BuiltinType(String name, LiteralStyle style) {
+            this.name = name;
+            this.style = style;
+        }
+    }
+
+    /** Builtin types, by code letter */
+    private static final BuiltinType[] BUILTIN_TYPES = new BuiltinType[26];
+    private static final BuiltinType DECIMAL32 = new BuiltinType("decimal32", LiteralStyle.DEFAULT); //$NON-NLS-1$
+    private static final BuiltinType DECIMAL64 = new BuiltinType("decimal64", LiteralStyle.DEFAULT); //$NON-NLS-1$
+    private static final BuiltinType DECIMAL128 = new BuiltinType("decimal128", LiteralStyle.DEFAULT); //$NON-NLS-1$
+    private static final BuiltinType HALF = new BuiltinType("half", LiteralStyle.FLOAT); //$NON-NLS-1$
+    private static final BuiltinType BFLOAT16 = new BuiltinType("std::bfloat16_t", LiteralStyle.FLOAT); //$NON-NLS-1$
+    private static final BuiltinType CHAR8 = new BuiltinType("char8_t", LiteralStyle.DEFAULT); //$NON-NLS-1$
+    private static final BuiltinType CHAR16 = new BuiltinType("char16_t", LiteralStyle.DEFAULT); //$NON-NLS-1$
+    private static final BuiltinType CHAR32 = new BuiltinType("char32_t", LiteralStyle.DEFAULT); //$NON-NLS-1$
+    private static final BuiltinType NULLPTR = new BuiltinType("decltype(nullptr)", LiteralStyle.DEFAULT); //$NON-NLS-1$
+
+    private static void builtin(char code, String name, LiteralStyle style) {
+        BUILTIN_TYPES[code - 'a'] = new BuiltinType(name, style);
+    }
+
+    static {
+        builtin('a', "signed char", LiteralStyle.DEFAULT); //$NON-NLS-1$
+        builtin('b', "bool", LiteralStyle.BOOL); //$NON-NLS-1$
+        builtin('c', "char", LiteralStyle.DEFAULT); //$NON-NLS-1$
+        builtin('d', "double", LiteralStyle.FLOAT); //$NON-NLS-1$
+        builtin('e', "long double", LiteralStyle.FLOAT); //$NON-NLS-1$
+        builtin('f', "float", LiteralStyle.FLOAT); //$NON-NLS-1$
+        builtin('g', "__float128", LiteralStyle.FLOAT); //$NON-NLS-1$
+        builtin('h', "unsigned char", LiteralStyle.DEFAULT); //$NON-NLS-1$
+        builtin('i', "int", LiteralStyle.INT); //$NON-NLS-1$
+        builtin('j', "unsigned int", LiteralStyle.UNSIGNED); //$NON-NLS-1$
+        builtin('l', "long", LiteralStyle.LONG); //$NON-NLS-1$
+        builtin('m', "unsigned long", LiteralStyle.UNSIGNED_LONG); //$NON-NLS-1$
+        builtin('n', "__int128", LiteralStyle.DEFAULT); //$NON-NLS-1$
+        builtin('o', "unsigned __int128", LiteralStyle.DEFAULT); //$NON-NLS-1$
+        builtin('s', "short", LiteralStyle.DEFAULT); //$NON-NLS-1$
+        builtin('t', "unsigned short", LiteralStyle.DEFAULT); //$NON-NLS-1$
+        builtin('v', "void", LiteralStyle.VOID); //$NON-NLS-1$
+        builtin('w', "wchar_t", LiteralStyle.DEFAULT); //$NON-NLS-1$
+        builtin('x', "long long", LiteralStyle.LONG_LONG); //$NON-NLS-1$
+        builtin('y', "unsigned long long", LiteralStyle.UNSIGNED_LONG_LONG); //$NON-NLS-1$
+        builtin('z', "...", LiteralStyle.DEFAULT); //$NON-NLS-1$
+    }
+
+    private static final class Operator {
+        private final String code;
+        private final String name;
+        private final int args;
+
+        private Operator(String code, String name, int args) {
+            this.code = code;
+            this.name = name;
+            this.args = args;
+        }
+    }
+
+    private static final Map<String, Operator> OPERATORS = new HashMap<>();
+
+    private static void operator(String code, String name, int args) {
+        OPERATORS.put(code, new Operator(code, name, args));
+    }
+
+    static {
+        operator("aN", "&=", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("aS", "=", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("aa", "&&", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("ad", "&", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("an", "&", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("at", "alignof ", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("aw", "co_await ", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("az", "alignof ", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("cc", "const_cast", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("cl", "()", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("cm", ",", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("co", "~", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("dV", "/=", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("dX", "[...]=", 3); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("da", "delete[] ", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("dc", "dynamic_cast", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("de", "*", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("di", "=", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("dl", "delete ", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("ds", ".*", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("dt", ".", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("dv", "/", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("dx", "]=", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("eO", "^=", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("eo", "^", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("eq", "==", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("fL", "...", 3); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("fR", "...", 3); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("fl", "...", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("fr", "...", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("ge", ">=", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("gs", "::", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("gt", ">", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("ix", "[]", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("lS", "<<=", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("le", "<=", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("li", "operator\"\" ", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("ls", "<<", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("lt", "<", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("mI", "-=", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("mL", "*=", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("mi", "-", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("ml", "*", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("mm", "--", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("na", "new[]", 3); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("ne", "!=", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("ng", "-", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("nt", "!", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("nw", "new", 3); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("oR", "|=", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("oo", "||", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("or", "|", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("pL", "+=", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("pl", "+", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("pm", "->*", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("pp", "++", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("ps", "+", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("pt", "->", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("qu", "?", 3); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("rM", "%=", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("rS", ">>=", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("rc", "reinterpret_cast", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("rm", "%", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("rs", ">>", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("sP", "sizeof...", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("sZ", "sizeof...", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("sc", "static_cast", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("ss", "<=>", 2); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("st", "sizeof ", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("sz", "sizeof ", 1); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("tr", "throw", 0); //$NON-NLS-1$ //$NON-NLS-2$
+        operator("tw", "throw ", 1); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /** A component of a demangled name */
+    private static final class Node {
+        private Kind kind;
+        private Node left;
+        private Node right;
+        /** NAME, SUB_STD */
+        private String text;
+        /** Parameter index, lambda or unnamed type number, extended operator arity... */
+        private int number;
+        private BuiltinType builtin;
+        private Operator op;
+        /** Number of times this component is being printed, to detect cycles */
+        private int printing;
+
+        private Node(Kind kind, Node left, Node right) {
+            this.kind = kind;
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    private static Node comp(Kind kind, Node left, Node right) {
+        return new Node(kind, left, right);
+    }
+
+    private static Node makeName(String text) {
+        Node ret = new Node(Kind.NAME, null, null);
+        ret.text = text;
+        return ret;
+    }
+
+    private static Node numbered(Kind kind, int number, Node sub) {
+        Node ret = new Node(kind, sub, null);
+        ret.number = number;
+        return ret;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLower(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isFunctionQualifier(Kind kind) {
+        switch (kind) {
+        case RESTRICT_THIS:
+        case VOLATILE_THIS:
+        case CONST_THIS:
+        case REFERENCE_THIS:
+        case RVALUE_REFERENCE_THIS:
+        case TRANSACTION_SAFE:
+        case NOEXCEPT:
+        case THROW_SPEC:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private static boolean isCtorDtorOrConversion(Node dc) {
+        switch (dc.kind) {
+        case QUAL_NAME:
+        case LOCAL_NAME:
+            return isCtorDtorOrConversion(dc.right);
+        case CTOR:
+        case DTOR:
+        case CONVERSION:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /** Tells whether the function type of the given name starts with the return type */
+    private static boolean hasReturnType(Node dc) {
+        if (dc == null) {
+            return false;
+        }
+        switch (dc.kind) {
+        case LOCAL_NAME:
+            return hasReturnType(dc.right);
+        case TEMPLATE:
+            return !isCtorDtorOrConversion(dc.left);
+        default:
+            return isFunctionQualifier(dc.kind) && hasReturnType(dc.left);
+        }
+    }
+
+    /** Chain of cv-qualifiers, the innermost one still lacking the qualified component */
+    private static final class Qualifiers {
+        private Node first;
+        private Node last;
+    }
+
+    private static final class Parser {
+        private final String s;
+        private int pos;
+        private final List<Node> subs = new ArrayList<>();
+        private Node lastName;
+        private boolean isExpression;
+        private boolean isConversion;
+        private int depth;
+
+        private Parser(String s) {
+            this.s = s;
+        }
+
+        private char peek() {
+            return pos < s.length() ? s.charAt(pos) : '\0';
+        }
+
+        private char peekNext() {
+            return pos + 1 < s.length() ? s.charAt(pos + 1) : '\0';
+        }
+
+        private char next() {
+            char c = peek();
+            if (c != '\0') {
+                pos++;
+            }
+            return c;
+        }
+
+        private boolean check(char c) {
+            if (peek() != c) {
+                return false;
+            }
+            pos++;
+            return true;
+        }
+
+        private void expect(char c) {
+            if (!check(c)) {
+                throw fail();
+            }
+        }
+
+        private void enter() {
+            if (++depth > MAX_DEPTH) {
+                throw fail();
+            }
+        }
+
+        private void addSubstitution(Node dc) {
+            subs.add(dc);
+        }
+
+        // <mangled-name> ::= _Z <encoding> [<clone-suffix>]*
+        private Node mangledName(boolean topLevel) {
+            if (!check('_') && topLevel) {
+                throw fail();
+            }
+            expect('Z');
+            Node p = encoding(topLevel);
+            if (topLevel) {
+                while (peek() == '.' && (isLower(peekNext()) || peekNext() == '_' || isDigit(peekNext()))) {
+                    p = cloneSuffix(p);
+                }
+            }
+            return p;
+        }
+
+        private Node cloneSuffix(Node encoding) {
+            int start = pos;
+            int end = pos;
+            if (end + 1 < s.length() && s.charAt(end) == '.') {
+                char c = s.charAt(end + 1);
+                if (isLower(c) || isDigit(c) || c == '_') {
+                    end += 2;
+                    while (end < s.length() && (isLower(s.charAt(end)) || isDigit(s.charAt(end))
+                            || s.charAt(end) == '_')) {
+                        end++;
+                    }
+                }
+            }
+            while (end + 1 < s.length() && s.charAt(end) == '.' && isDigit(s.charAt(end + 1))) {
+                end += 2;
+                while (end < s.length() && isDigit(s.charAt(end))) {
+                    end++;
+                }
+            }
+            pos = end;
+            return comp(Kind.CLONE, encoding, makeName(s.substring(start, end)));
+        }
+
+        // <encoding> ::= <(function) name> <bare-function-type> | <(data) name> | <special-name>
+        private Node encoding(boolean topLevel) {
+            enter();
+            char c = peek();
+            Node dc;
+            if (c == 'G' || c == 'T') {
+                dc = specialName();
+            } else {
+                dc = name(false);
+                c = peek();
+                if (c != '\0' && c != 'E') {
+                    Node ftype = bareFunctionType(hasReturnType(dc));
+                    // the return type of a function containing a local entity is not printed
+                    if (!topLevel && dc.kind == Kind.LOCAL_NAME && ftype.kind == Kind.FUNCTION_TYPE) {
+                        ftype.left = null;
+                    }
+                    dc = comp(Kind.TYPED_NAME, dc, ftype);
+                }
+            }
+            depth--;
+            return dc;
+        }
+
+        // <name> ::= <nested-name> | <unscoped-name> | <unscoped-template-name> <template-args> | <local-name>
+        private Node name(boolean substable) {
+            Node dc = null;
+            boolean subst = false;
+            switch (peek()) {
+            case 'N':
+                dc = nestedName();
+                break;
+            case 'Z':
+                dc = localName();
+                break;
+            case 'U':
+                dc = unqualifiedName(null);
+                break;
+            default:
+                if (peek() == 'S') {
+                    if (peekNext() == 't') {
+                        pos += 2;
+                        dc = makeName("std"); //$NON-NLS-1$
+                    }
+                    if (peek() == 'S') {
+                        if (dc != null) {
+                            throw fail();
+                        }
+                        dc = substitution();
+                        subst = true;
+                    }
+                }
+                if (!subst) {
+                    dc = unqualifiedName(dc);
+                }
+                if (peek() == 'I') {
+                    // <unscoped-template-name> is a substitution candidate
+                    if (!subst) {
+                        addSubstitution(dc);
+                    }
+                    dc = comp(Kind.TEMPLATE, dc, templateArgs());
+                    subst = false;
+                }
+                break;
+            }
+            if (substable && !subst) {
+                addSubstitution(dc);
+            }
+            return dc;
+        }
+
+        // <nested-name> ::= N [<CV-qualifiers>] [<ref-qualifier>] <prefix> <unqualified-name> E
+        private Node nestedName() {
+            expect('N');
+            Qualifiers qualifiers = cvQualifiers(true);
+            Node refQualifier = refQualifier(null);
+            Node ret = prefix(true);
+            if (qualifiers.first != null) {
+                qualifiers.last.left = ret;
+                ret = qualifiers.first;
+            }
+            if (refQualifier != null) {
+                refQualifier.left = ret;
+                ret = refQualifier;
+            }
+            expect('E');
+            return ret;
+        }
+
+        private Node prefix(boolean substable) {
+            Node ret = null;
+            for (;;) {
+                char c = peek();
+                if (c == 'D' && (peekNext() == 'T' || peekNext() == 't')) {
+                    if (ret != null) {
+                        throw fail();
+                    }
+                    ret = type();
+                } else if (c == 'I') {
+                    if (ret == null) {
+                        throw fail();
+                    }
+                    ret = comp(Kind.TEMPLATE, ret, templateArgs());
+                } else if (c == 'T') {
+                    if (ret != null) {
+                        throw fail();
+                    }
+                    ret = templateParam();
+                } else if (c == 'M') {
+                    // initializer scope of a lambda, already a substitution candidate
+                    pos++;
+                    continue;
+                } else if (c == 'S') {
+                    Node sub = substitution();
+                    if (ret != null) {
+                        throw fail();
+                    }
+                    ret = sub;
+                    continue;
+                } else {
+                    ret = unqualifiedName(ret);
+                }
+                if (peek() == 'E') {
+                    break;
+                }
+                if (substable) {
+                    addSubstitution(ret);
+                }
+            }
+            return ret;
+        }
+
+        private Node unqualifiedName(Node scope) {
+            char c = peek();
+            Node ret;
+            if (isDigit(c)) {
+                ret = sourceName();
+            } else if (isLower(c)) {
+                boolean wasExpression = isExpression;
+                if (c == 'o' && peekNext() == 'n') {
+                    pos += 2;
+                    // treat cv as naming a conversion operator
+                    isExpression = false;
+                }
+                ret = operatorName();
+                isExpression = wasExpression;
+                if (ret.kind == Kind.OPERATOR && ret.op.code.equals("li")) { //$NON-NLS-1$
+                    ret = comp(Kind.UNARY, ret, sourceName());
+                }
+            } else if (c == 'D' && peekNext() == 'C') {
+                // structured binding
+                throw fail();
+            } else if (c == 'C' || c == 'D') {
+                ret = ctorDtorName();
+            } else if (c == 'L') {
+                pos++;
+                ret = sourceName();
+                if (!discriminator()) {
+                    throw fail();
+                }
+            } else if (c == 'U' && peekNext() == 'l') {
+                ret = lambda();
+            } else if (c == 'U' && peekNext() == 't') {
+                ret = unnamedType();
+            } else {
+                throw fail();
+            }
+            if (peek() == 'B') {
+                ret = abiTags(ret);
+            }
+            if (scope != null) {
+                ret = comp(Kind.QUAL_NAME, scope, ret);
+            }
+            return ret;
+        }
+
+        private int number() {
+            boolean negative = false;
+            if (peek() == 'n') {
+                negative = true;
+                pos++;
+            }
+            int ret = 0;
+            while (isDigit(peek())) {
+                int digit = peek() - '0';
+                if (ret > (Integer.MAX_VALUE - digit) / 10) {
+                    return -1;
+                }
+                ret = ret * 10 + digit;
+                pos++;
+            }
+            return negative ? -ret : ret;
+        }
+
+        // <non-negative number> _, where the number is encoded minus one
+        private int compactNumber() {
+            int num;
+            if (peek() == '_') {
+                num = 0;
+            } else if (peek() == 'n') {
+                return -1;
+            } else {
+                num = number() + 1;
+            }
+            if (num < 0 || !check('_')) {
+                return -1;
+            }
+            return num;
+        }
+
+        private Node sourceName() {
+            int len = number();
+            if (len <= 0 || s.length() - pos < len) {
+                throw fail();
+            }
+            String id = s.substring(pos, pos + len);
+            pos += len;
+            Node ret;
+            if (len >= 10 && id.startsWith("_GLOBAL_") //$NON-NLS-1$
+                    && (id.charAt(8) == '.' || id.charAt(8) == '_' || id.charAt(8) == '$') && id.charAt(9) == 'N') {
+                ret = makeName("(anonymous namespace)"); //$NON-NLS-1$
+            } else {
+                ret = makeName(id);
+            }
+            lastName = ret;
+            return ret;
+        }
+
+        // <discriminator> ::= _ <digit> | __ <number> _
+        private boolean discriminator() {
+            if (peek() != '_') {
+                return true;
+            }
+            pos++;
+            boolean twoUnderscores = check('_');
+            int discriminator = number();
+            if (discriminator < 0) {
+                return false;
+            }
+            if (twoUnderscores && discriminator >= 10) {
+                return check('_');
+            }
+            return true;
+        }
+
+        private Node abiTags(Node dc) {
+            Node holdLastName = lastName;
+            while (peek() == 'B') {
+                pos++;
+                dc = comp(Kind.TAGGED_NAME, dc, sourceName());
+            }
+            lastName = holdLastName;
+            return dc;
+        }
+
+        private Node ctorDtorName() {
+            if (lastName == null) {
+                throw fail();
+            }
+            if (peek() == 'C') {
+                boolean inheriting = false;
+                if (peekNext() == 'I') {
+                    inheriting = true;
+                    pos++;
+                }
+                char kind = peekNext();
+                if (kind < '1' || kind > '5') {
+                    throw fail();
+                }
+                pos += 2;
+                if (inheriting) {
+                    type();
+                }
+                return comp(Kind.CTOR, lastName, null);
+            }
+            char kind = peekNext();
+            if (kind != '0' && kind != '1' && kind != '2' && kind != '4' && kind != '5') {
+                throw fail();
+            }
+            pos += 2;
+            return comp(Kind.DTOR, lastName, null);
+        }
+
+        private Node operatorName() {
+            char c1 = next();
+            char c2 = next();
+            if (c1 == 'v' && isDigit(c2)) {
+                return numbered(Kind.EXTENDED_OPERATOR, c2 - '0', sourceName());
+            } else if (c1 == 'c' && c2 == 'v') {
+                boolean wasConversion = isConversion;
+                isConversion = !isExpression;
+                Node type = type();
+                Node ret = comp(isConversion ? Kind.CONVERSION : Kind.CAST, type, null);
+                isConversion = wasConversion;
+                return ret;
+            }
+            Operator op = OPERATORS.get(new String(new char[] { c1, c2 }));
+            if (op == null) {
+                throw fail();
+            }
+            Node ret = comp(Kind.OPERATOR, null, null);
+            ret.op = op;
+            return ret;
+        }
+
+        private Node specialName() {
+            if (check('T')) {
+                switch (next()) {
+                case 'V':
+                    return comp(Kind.VTABLE, type(), null);
+                case 'T':
+                    return comp(Kind.VTT, type(), null);
+                case 'I':
+                    return comp(Kind.TYPEINFO, type(), null);
+                case 'S':
+                    return comp(Kind.TYPEINFO_NAME, type(), null);
+                case 'F':
+                    return comp(Kind.TYPEINFO_FN, type(), null);
+                case 'h':
+                    callOffset('h');
+                    return comp(Kind.THUNK, encoding(false), null);
+                case 'v':
+                    callOffset('v');
+                    return comp(Kind.VIRTUAL_THUNK, encoding(false), null);
+                case 'c':
+                    callOffset('\0');
+                    callOffset('\0');
+                    return comp(Kind.COVARIANT_THUNK, encoding(false), null);
+                case 'C': {
+                    Node derivedType = type();
+                    if (number() < 0) {
+                        throw fail();
+                    }
+                    expect('_');
+                    Node baseType = type();
+                    return comp(Kind.CONSTRUCTION_VTABLE, baseType, derivedType);
+                }
+                case 'H':
+                    return comp(Kind.TLS_INIT, name(false), null);
+                case 'W':
+                    return comp(Kind.TLS_WRAPPER, name(false), null);
+                case 'A':
+                    return comp(Kind.TPARM_OBJ, templateArg(), null);
+                default:
+                    throw fail();
+                }
+            } else if (check('G')) {
+                switch (next()) {
+                case 'V':
+                    return comp(Kind.GUARD, name(false), null);
+                case 'R': {
+                    Node name = name(false);
+                    return comp(Kind.REFTEMP, name, numbered(Kind.NUMBER, number(), null));
+                }
+                case 'A':
+                    return comp(Kind.HIDDEN_ALIAS, encoding(false), null);
+                case 'T':
+                    if (next() == 'n') {
+                        return comp(Kind.NONTRANSACTION_CLONE, encoding(false), null);
+                    }
+                    return comp(Kind.TRANSACTION_CLONE, encoding(false), null);
+                default:
+                    throw fail();
+                }
+            }
+            throw fail();
+        }
+
+        // <call-offset> ::= h <nv-offset> _ | v <v-offset> _
+        private void callOffset(char c) {
+            if (c == '\0') {
+                c = next();
+            }
+            if (c == 'h') {
+                number();
+            } else if (c == 'v') {
+                number();
+                expect('_');
+                number();
+            } else {
+                throw fail();
+            }
+            expect('_');
+        }
+
+        // <local-name> ::= Z <(function) encoding> E <(entity) name> [<discriminator>]
+        // ::= Z <(function) encoding> E s [<discriminator>]
+        // ::= Z <(function) encoding> E d [<parameter number>] _ <entity name>
+        private Node localName() {
+            expect('Z');
+            Node function = encoding(false);
+            expect('E');
+            Node name;
+            if (peek() == 's') {
+                pos++;
+                if (!discriminator()) {
+                    throw fail();
+                }
+                name = makeName("string literal"); //$NON-NLS-1$
+            } else {
+                int num = -1;
+                if (peek() == 'd') {
+                    pos++;
+                    num = compactNumber();
+                    if (num < 0) {
+                        throw fail();
+                    }
+                }
+                name = name(false);
+                // lambdas and unnamed types have internal discriminators
+                if (name.kind != Kind.LAMBDA && name.kind != Kind.UNNAMED_TYPE && !discriminator()) {
+                    throw fail();
+                }
+                if (num >= 0) {
+                    name = numbered(Kind.DEFAULT_ARG, num, name);
+                }
+            }
+            if (function.kind == Kind.TYPED_NAME && function.right.kind == Kind.FUNCTION_TYPE) {
+                function.right.left = null;
+            }
+            return comp(Kind.LOCAL_NAME, function, name);
+        }
+
+        private boolean nextIsTypeQualifier() {
+            char c = peek();
+            if (c == 'r' || c == 'V' || c == 'K') {
+                return true;
+            }
+            if (c == 'D') {
+                c = peekNext();
+                return c == 'x' || c == 'o' || c == 'O' || c == 'w';
+            }
+            return false;
+        }
+
+        // <CV-qualifiers> ::= [r] [V] [K] [Dx] [Do | DO <expression> E | Dw <type>+ E]
+        private Qualifiers cvQualifiers(boolean memberFunction) {
+            Qualifiers ret = new Qualifiers();
+            while (nextIsTypeQualifier()) {
+                char c = next();
+                Kind kind;
+                Node right = null;
+                if (c == 'r') {
+                    kind = memberFunction ? Kind.RESTRICT_THIS : Kind.RESTRICT;
+                } else if (c == 'V') {
+                    kind = memberFunction ? Kind.VOLATILE_THIS : Kind.VOLATILE;
+                } else if (c == 'K') {
+                    kind = memberFunction ? Kind.CONST_THIS : Kind.CONST;
+                } else {
+                    c = next();
+                    if (c == 'x') {
+                        kind = Kind.TRANSACTION_SAFE;
+                    } else if (c == 'o' || c == 'O') {
+                        kind = Kind.NOEXCEPT;
+                        if (c == 'O') {
+                            right = expression();
+                            expect('E');
+                        }
+                    } else {
+                        kind = Kind.THROW_SPEC;
+                        right = parmlist();
+                        expect('E');
+                    }
+                }
+                Node qualifier = comp(kind, null, right);
+                if (ret.first == null) {
+                    ret.first = qualifier;
+                } else {
+                    ret.last.left = qualifier;
+                }
+                ret.last = qualifier;
+            }
+            // qualifiers before a function type apply to 'this'
+            if (!memberFunction && peek() == 'F') {
+                for (Node q = ret.first; q != null; q = q == ret.last ? null : q.left) {
+                    if (q.kind == Kind.RESTRICT) {
+                        q.kind = Kind.RESTRICT_THIS;
+                    } else if (q.kind == Kind.VOLATILE) {
+                        q.kind = Kind.VOLATILE_THIS;
+                    } else if (q.kind == Kind.CONST) {
+                        q.kind = Kind.CONST_THIS;
+                    }
+                }
+            }
+            return ret;
+        }
+
+        // <ref-qualifier> ::= R | O
+        private Node refQualifier(Node sub) {
+            char c = peek();
+            if (c == 'R' || c == 'O') {
+                pos++;
+                return comp(c == 'R' ? Kind.REFERENCE_THIS : Kind.RVALUE_REFERENCE_THIS, sub, null);
+            }
+            return sub;
+        }
+
+        private Node type() {
+            enter();
+            Node ret = typeImpl();
+            depth--;
+            return ret;
+        }
+
+        private Node typeImpl() {
+            if (nextIsTypeQualifier()) {
+                Qualifiers qualifiers = cvQualifiers(false);
+                // qualifiers before a function type apply to 'this': the unqualified function type is not a
+                // substitution candidate
+                Node inner = peek() == 'F' ? functionType() : type();
+                qualifiers.last.left = inner;
+                Node ret = qualifiers.first;
+                if (inner.kind == Kind.RVALUE_REFERENCE_THIS || inner.kind == Kind.REFERENCE_THIS) {
+                    // move the ref-qualifier outside the cv-qualifiers, so they are printed in the right order
+                    Node fn = inner.left;
+                    inner.left = ret;
+                    ret = inner;
+                    qualifiers.last.left = fn;
+                }
+                addSubstitution(ret);
+                return ret;
+            }
+
+            boolean canSubstitute = true;
+            Node ret;
+            char c = peek();
+            switch (c) {
+            case 'a': case 'b': case 'c': case 'd': case 'e': case 'f': case 'g': case 'h': case 'i': case 'j':
+            case 'l': case 'm': case 'n': case 'o': case 's': case 't': case 'v': case 'w': case 'x': case 'y':
+            case 'z':
+                ret = builtinType(BUILTIN_TYPES[c - 'a']);
+                canSubstitute = false;
+                pos++;
+                break;
+            case 'u':
+                pos++;
+                ret = comp(Kind.VENDOR_TYPE, sourceName(), null);
+                break;
+            case 'F':
+                ret = functionType();
+                break;
+            case 'A':
+                ret = arrayType();
+                break;
+            case 'M':
+                ret = pointerToMemberType();
+                break;
+            case 'T':
+                ret = templateParam();
+                if (peek() == 'I') {
+                    // <template-template-param> <template-args>; for the type of a conversion operator, the
+                    // arguments belong to the operator unless they are followed by other ones
+                    if (!isConversion) {
+                        addSubstitution(ret);
+                        ret = comp(Kind.TEMPLATE, ret, templateArgs());
+                    } else {
+                        int holdPos = pos;
+                        int holdSubs = subs.size();
+                        Node holdLastName = lastName;
+                        Node args = null;
+                        try {
+                            args = templateArgs();
+                        } catch (DemangleException e) {
+                            // backtrack
+                        }
+                        if (args != null && peek() == 'I') {
+                            addSubstitution(ret);
+                            ret = comp(Kind.TEMPLATE, ret, args);
+                        } else {
+                            pos = holdPos;
+                            subs.subList(holdSubs, subs.size()).clear();
+                            lastName = holdLastName;
+                        }
+                    }
+                }
+                break;
+            case 'S': {
+                char n = peekNext();
+                if (isDigit(n) || n == '_' || isUpper(n)) {
+                    ret = substitution();
+                    // the substituted name may be a template name followed by template arguments
+                    if (peek() == 'I') {
+                        ret = comp(Kind.TEMPLATE, ret, templateArgs());
+                    } else {
+                        canSubstitute = false;
+                    }
+                } else {
+                    ret = name(false);
+                    // a complete standard substitution is not a new substitution candidate
+                    if (ret.kind == Kind.SUB_STD) {
+                        canSubstitute = false;
+                    }
+                }
+                break;
+            }
+            case 'O':
+                pos++;
+                ret = comp(Kind.RVALUE_REFERENCE, type(), null);
+                break;
+            case 'P':
+                pos++;
+                ret = comp(Kind.POINTER, type(), null);
+                break;
+            case 'R':
+                pos++;
+                ret = comp(Kind.REFERENCE, type(), null);
+                break;
+            case 'C':
+                pos++;
+                ret = comp(Kind.COMPLEX, type(), null);
+                break;
+            case 'G':
+                pos++;
+                ret = comp(Kind.IMAGINARY, type(), null);
+                break;
+            case 'U': {
+                pos++;
+                Node qualifier = sourceName();
+                if (peek() == 'I') {
+                    qualifier = comp(Kind.TEMPLATE, qualifier, templateArgs());
+                }
+                ret = comp(Kind.VENDOR_TYPE_QUAL, type(), qualifier);
+                break;
+            }
+            case 'D':
+                canSubstitute = false;
+                pos++;
+                switch (next()) {
+                case 'T':
+                case 't':
+                    ret = comp(Kind.DECLTYPE, expression(), null);
+                    expect('E');
+                    canSubstitute = true;
+                    break;
+                case 'p':
+                    ret = comp(Kind.PACK_EXPANSION, type(), null);
+                    canSubstitute = true;
+                    break;
+                case 'a':
+                    ret = makeName("auto"); //$NON-NLS-1$
+                    break;
+                case 'c':
+                    ret = makeName("decltype(auto)"); //$NON-NLS-1$
+                    break;
+                case 'f':
+                    ret = builtinType(DECIMAL32);
+                    break;
+                case 'd':
+                    ret = builtinType(DECIMAL64);
+                    break;
+                case 'e':
+                    ret = builtinType(DECIMAL128);
+                    break;
+                case 'h':
+                    ret = builtinType(HALF);
+                    break;
+                case 'u':
+                    ret = builtinType(CHAR8);
+                    break;
+                case 's':
+                    ret = builtinType(CHAR16);
+                    break;
+                case 'i':
+                    ret = builtinType(CHAR32);
+                    break;
+                case 'n':
+                    ret = builtinType(NULLPTR);
+                    break;
+                case 'F':
+                    ret = extendedFloatType();
+                    break;
+                case 'v':
+                    ret = vectorType();
+                    canSubstitute = true;
+                    break;
+                default:
+                    throw fail();
+                }
+                break;
+            default:
+                return name(true);
+            }
+            if (canSubstitute) {
+                addSubstitution(ret);
+            }
+            return ret;
+        }
+
+        private Node builtinType(BuiltinType type) {
+            if (type == null) {
+                throw fail();
+            }
+            Node ret = comp(Kind.BUILTIN_TYPE, null, null);
+            ret.builtin = type;
+            return ret;
+        }
+
+        // DF <number> _ | DF <number> x | DF16b
+        private Node extendedFloatType() {
+            int bits = number();
+            if (bits <= 0) {
+                throw fail();
+            }
+            if (bits == 16 && check('b')) {
+                return builtinType(BFLOAT16);
+            }
+            char suffix = next();
+            if (suffix != '_' && suffix != 'x') {
+                throw fail();
+            }
+            // the literals of these types are printed as integers
+            return builtinType(new BuiltinType("_Float" + bits + (suffix == 'x' ? "x" : ""), //$NON-NLS-1$ //$NON-NLS-2$
+                    LiteralStyle.DEFAULT));
+        }
+
+        // <function-type> ::= F [Y] <bare-function-type> [<ref-qualifier>] E
+        private Node functionType() {
+            expect('F');
+            check('Y');
+            Node ret = refQualifier(bareFunctionType(true));
+            expect('E');
+            return ret;
+        }
+
+        private Node parmlist() {
+            Node list = null;
+            Node tail = null;
+            for (;;) {
+                char c = peek();
+                if (c == '\0' || c == 'E' || c == '.') {
+                    break;
+                }
+                if ((c == 'R' || c == 'O') && peekNext() == 'E') {
+                    // ref-qualifier of the function
+                    break;
+                }
+                Node arg = comp(Kind.ARGLIST, type(), null);
+                if (list == null) {
+                    list = arg;
+                } else {
+                    tail.right = arg;
+                }
+                tail = arg;
+            }
+            if (list == null) {
+                throw fail();
+            }
+            // a single void parameter means no parameter
+            if (list.right == null && list.left.kind == Kind.BUILTIN_TYPE
+                    && list.left.builtin.style == LiteralStyle.VOID) {
+                list.left = null;
+            }
+            return list;
+        }
+
+        // <bare-function-type> ::= [J]<type>+
+        private Node bareFunctionType(boolean hasReturnType) {
+            if (check('J')) {
+                hasReturnType = true;
+            }
+            Node returnType = hasReturnType ? type() : null;
+            return comp(Kind.FUNCTION_TYPE, returnType, parmlist());
+        }
+
+        // <array-type> ::= A <(positive dimension) number> _ <(element) type> | A [<(dimension) expression>] _ <type>
+        private Node arrayType() {
+            expect('A');
+            Node dim;
+            if (peek() == '_') {
+                dim = null;
+            } else if (isDigit(peek())) {
+                int start = pos;
+                while (isDigit(peek())) {
+                    pos++;
+                }
+                dim = makeName(s.substring(start, pos));
+            } else {
+                dim = expression();
+            }
+            expect('_');
+            return comp(Kind.ARRAY_TYPE, dim, type());
+        }
+
+        // <vector-type> ::= Dv <number> _ <type> | Dv _ <expression> _ <type>
+        private Node vectorType() {
+            Node dim;
+            if (check('_')) {
+                dim = expression();
+            } else {
+                dim = numbered(Kind.NUMBER, number(), null);
+            }
+            expect('_');
+            return comp(Kind.VECTOR_TYPE, dim, type());
+        }
+
+        // <pointer-to-member-type> ::= M <(class) type> <(member) type>
+        private Node pointerToMemberType() {
+            expect('M');
+            Node cl = type();
+            Node mem = type();
+            return comp(Kind.PTRMEM_TYPE, cl, mem);
+        }
+
+        // <template-param> ::= T_ | T <(parameter-2 non-negative) number> _
+        private Node templateParam() {
+            expect('T');
+            int param = compactNumber();
+            if (param < 0) {
+                throw fail();
+            }
+            return numbered(Kind.TEMPLATE_PARAM, param, null);
+        }
+
+        // <template-args> ::= I <template-arg>+ E
+        private Node templateArgs() {
+            // the arguments must not change the name used by a following constructor or destructor
+            Node holdLastName = lastName;
+            char c = peek();
+            if (c != 'I' && c != 'J') {
+                throw fail();
+            }
+            pos++;
+            if (check('E')) {
+                // an argument pack can be empty
+                return comp(Kind.TEMPLATE_ARGLIST, null, null);
+            }
+            Node list = null;
+            Node tail = null;
+            do {
+                Node arg = comp(Kind.TEMPLATE_ARGLIST, templateArg(), null);
+                if (list == null) {
+                    list = arg;
+                } else {
+                    tail.right = arg;
+                }
+                tail = arg;
+            } while (!check('E'));
+            lastName = holdLastName;
+            return list;
+        }
+
+        private Node templateArg() {
+            switch (peek()) {
+            case 'X': {
+                pos++;
+                Node ret = expression();
+                expect('E');
+                return ret;
+            }
+            case 'L':
+                return exprPrimary();
+            case 'I':
+            case 'J':
+                // argument pack
+                return templateArgs();
+            default:
+                return type();
+            }
+        }
+
+        // <expr-primary> ::= L <type> <(value) number> E | L <type> <(value) float> E | L <mangled-name> E
+        private Node exprPrimary() {
+            expect('L');
+            Node ret;
+            if (peek() == '_' || peek() == 'Z') {
+                ret = mangledName(false);
+            } else {
+                Node type = type();
+                if (type.kind == Kind.BUILTIN_TYPE && type.builtin == NULLPTR && check('E')) {
+                    return type;
+                }
+                Kind kind = Kind.LITERAL;
+                if (check('n')) {
+                    kind = Kind.LITERAL_NEG;
+                }
+                int start = pos;
+                while (peek() != 'E') {
+                    if (peek() == '\0') {
+                        throw fail();
+                    }
+                    pos++;
+                }
+                if (pos == start) {
+                    throw fail();
+                }
+                ret = comp(kind, type, makeName(s.substring(start, pos)));
+            }
+            expect('E');
+            return ret;
+        }
+
+        private Node expression() {
+            boolean wasExpression = isExpression;
+            isExpression = true;
+            enter();
+            Node ret = expressionImpl();
+            depth--;
+            isExpression = wasExpression;
+            return ret;
+        }
+
+        private Node expressionImpl() {
+            char c = peek();
+            if (c == 'L') {
+                return exprPrimary();
+            } else if (c == 'T') {
+                return templateParam();
+            } else if (c == 's' && peekNext() == 'r') {
+                pos += 2;
+                Node type = type();
+                Node name = unqualifiedName(null);
+                if (peek() == 'I') {
+                    name = comp(Kind.TEMPLATE, name, templateArgs());
+                }
+                return comp(Kind.QUAL_NAME, type, name);
+            } else if (c == 's' && peekNext() == 'p') {
+                pos += 2;
+                return comp(Kind.PACK_EXPANSION, expressionImpl(), null);
+            } else if (c == 'f' && peekNext() == 'p') {
+                // function parameter used in a late-specified return type
+                pos += 2;
+                int index;
+                if (check('T')) {
+                    index = 0;
+                } else {
+                    index = compactNumber();
+                    if (index == Integer.MAX_VALUE || index == -1) {
+                        throw fail();
+                    }
+                    index++;
+                }
+                return numbered(Kind.FUNCTION_PARAM, index, null);
+            } else if (isDigit(c) || (c == 'o' && peekNext() == 'n')) {
+                // unqualified name of a dependent function call, or operator-function-id
+                if (c == 'o') {
+                    pos += 2;
+                }
+                Node name = unqualifiedName(null);
+                if (peek() == 'I') {
+                    return comp(Kind.TEMPLATE, name, templateArgs());
+                }
+                return name;
+            } else if ((c == 'i' || c == 't') && peekNext() == 'l') {
+                // brace-enclosed initializer list, untyped or typed
+                pos += 2;
+                Node type = c == 't' ? type() : null;
+                if (peek() == '\0' || peekNext() == '\0') {
+                    throw fail();
+                }
+                return comp(Kind.INITIALIZER_LIST, type, exprlist('E'));
+            } else if (c == 'u') {
+                // vendor extended expression
+                throw fail();
+            }
+
+            Node op = operatorName();
+            String code = null;
+            int args;
+            switch (op.kind) {
+            case OPERATOR:
+                code = op.op.code;
+                if (code.equals("st")) { //$NON-NLS-1$
+                    return comp(Kind.UNARY, op, type());
+                }
+                args = op.op.args;
+                break;
+            case EXTENDED_OPERATOR:
+                args = op.number;
+                break;
+            case CAST:
+                args = 1;
+                break;
+            default:
+                throw fail();
+            }
+
+            switch (args) {
+            case 0:
+                return comp(Kind.NULLARY, op, null);
+            case 1: {
+                boolean suffix = false;
+                if (code != null && (code.charAt(0) == 'p' || code.charAt(0) == 'm')
+                        && code.charAt(1) == code.charAt(0)) {
+                    // pp_ and mm_ are the prefix variants
+                    suffix = !check('_');
+                }
+                Node operand;
+                if (op.kind == Kind.CAST && check('_')) {
+                    operand = exprlist('E');
+                } else if ("sP".equals(code)) { //$NON-NLS-1$
+                    throw fail();
+                } else {
+                    operand = expressionImpl();
+                }
+                if (suffix) {
+                    // marks the suffix variant for the printer
+                    operand = comp(Kind.BINARY_ARGS, operand, operand);
+                }
+                return comp(Kind.UNARY, op, operand);
+            }
+            case 2: {
+                if (code == null || code.charAt(0) == 'f' || code.equals("di") || code.equals("dx")) { //$NON-NLS-1$ //$NON-NLS-2$
+                    // fold expressions and designated initializers are not supported
+                    throw fail();
+                }
+                Node left = isNewCast(op) ? type() : expressionImpl();
+                Node right;
+                if (code.equals("cl")) { //$NON-NLS-1$
+                    right = exprlist('E');
+                } else if (code.equals("dt") || code.equals("pt")) { //$NON-NLS-1$ //$NON-NLS-2$
+                    c = peek();
+                    if ((c == 'g' && peekNext() == 's') || (c == 's' && peekNext() == 'r')) {
+                        right = expressionImpl();
+                    } else {
+                        right = unqualifiedName(null);
+                        if (peek() == 'I') {
+                            right = comp(Kind.TEMPLATE, right, templateArgs());
+                        }
+                    }
+                } else {
+                    right = expressionImpl();
+                }
+                return comp(Kind.BINARY, op, comp(Kind.BINARY_ARGS, left, right));
+            }
+            case 3: {
+                if (!"qu".equals(code)) { //$NON-NLS-1$
+                    // new-expressions, fold expressions and designated initializers are not supported
+                    throw fail();
+                }
+                Node first = expressionImpl();
+                Node second = expressionImpl();
+                Node third = expressionImpl();
+                return comp(Kind.TRINARY, op,
+                        comp(Kind.TRINARY_ARG1, first, comp(Kind.TRINARY_ARG2, second, third)));
+            }
+            default:
+                throw fail();
+            }
+        }
+
+        private Node exprlist(char terminator) {
+            if (check(terminator)) {
+                return comp(Kind.ARGLIST, null, null);
+            }
+            Node list = null;
+            Node tail = null;
+            do {
+                Node arg = comp(Kind.ARGLIST, expression(), null);
+                if (list == null) {
+                    list = arg;
+                } else {
+                    tail.right = arg;
+                }
+                tail = arg;
+            } while (!check(terminator));
+            return list;
+        }
+
+        // <substitution> ::= S <seq-id> _ | S_ | St | Sa | Sb | Ss | Si | So | Sd
+        private Node substitution() {
+            expect('S');
+            char c = next();
+            if (c == '_' || isDigit(c) || isUpper(c)) {
+                int id = 0;
+                if (c != '_') {
+                    do {
+                        int newId;
+                        if (isDigit(c)) {
+                            newId = id * 36 + c - '0';
+                        } else if (isUpper(c)) {
+                            newId = id * 36 + c - 'A' + 10;
+                        } else {
+                            throw fail();
+                        }
+                        if (newId < id) {
+                            throw fail();
+                        }
+                        id = newId;
+                        c = next();
+                    } while (c != '_');
+                    id++;
+                }
+                if (id >= subs.size()) {
+                    throw fail();
+                }
+                return subs.get(id);
+            }
+            // like c++filt, print the full expansion of the standard substitutions
+            String expansion;
+            String lastNameText;
+            switch (c) {
+            case 't':
+                expansion = "std"; //$NON-NLS-1$
+                lastNameText = null;
+                break;
+            case 'a':
+                expansion = "std::allocator"; //$NON-NLS-1$
+                lastNameText = "allocator"; //$NON-NLS-1$
+                break;
+            case 'b':
+                expansion = "std::basic_string"; //$NON-NLS-1$
+                lastNameText = "basic_string"; //$NON-NLS-1$
+                break;
+            case 's':
+                expansion = "std::basic_string<char, std::char_traits<char>, std::allocator<char> >"; //$NON-NLS-1$
+                lastNameText = "basic_string"; //$NON-NLS-1$
+                break;
+            case 'i':
+                expansion = "std::basic_istream<char, std::char_traits<char> >"; //$NON-NLS-1$
+                lastNameText = "basic_istream"; //$NON-NLS-1$
+                break;
+            case 'o':
+                expansion = "std::basic_ostream<char, std::char_traits<char> >"; //$NON-NLS-1$
+                lastNameText = "basic_ostream"; //$NON-NLS-1$
+                break;
+            case 'd':
+                expansion = "std::basic_iostream<char, std::char_traits<char> >"; //$NON-NLS-1$
+                lastNameText = "basic_iostream"; //$NON-NLS-1$
+                break;
+            default:
+                throw fail();
+            }
+            if (lastNameText != null) {
+                lastName = standardSubstitution(lastNameText);
+            }
+            Node dc = standardSubstitution(expansion);
+            if (peek() == 'B') {
+                // with ABI tags, the abbreviation becomes a substitution candidate
+                dc = abiTags(dc);
+                addSubstitution(dc);
+            }
+            return dc;
+        }
+
+        private Node standardSubstitution(String text) {
+            Node ret = comp(Kind.SUB_STD, null, null);
+            ret.text = text;
+            return ret;
+        }
+
+        // <closure-type-name> ::= Ul <lambda-sig> E [<nonnegative number>] _
+        private Node lambda() {
+            expect('U');
+            expect('l');
+            Node parameters = parmlist();
+            expect('E');
+            int num = compactNumber();
+            if (num < 0) {
+                throw fail();
+            }
+            return numbered(Kind.LAMBDA, num, parameters);
+        }
+
+        // <unnamed-type-name> ::= Ut [<nonnegative number>] _
+        private Node unnamedType() {
+            expect('U');
+            expect('t');
+            int num = compactNumber();
+            if (num < 0) {
+                throw fail();
+            }
+            Node ret = numbered(Kind.UNNAMED_TYPE, num, null);
+            addSubstitution(ret);
+            return ret;
+        }
+
+        private static boolean isNewCast(Node op) {
+            if (op.kind != Kind.OPERATOR) {
+                return false;
+            }
+            String code = op.op.code;
+            return code.equals("dc") || code.equals("sc") || code.equals("cc") || code.equals("rc"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        }
+    }
+
+    /** A modifier (pointer, qualifier, array...) waiting to be printed after the type it applies to */
+    private static final class Modifier {
+        private Node mod;
+        private boolean printed;
+        private Templates templates;
+        private Modifier next;
+
+        private Modifier(Node mod, Templates templates, Modifier next) {
+            this.mod = mod;
+            this.templates = templates;
+            this.next = next;
+        }
+    }
+
+    /** The templates whose arguments are referenced by the template parameters being printed */
+    private static final class Templates {
+        private final Node template;
+        private final Templates next;
+
+        private Templates(Node template, Templates next) {
+            this.template = template;
+            this.next = next;
+        }
+    }
+
+    /** The components being printed, innermost first */
+    private static final class Frame {
+        private final Node dc;
+        private final Frame parent;
+
+        private Frame(Node dc, Frame parent) {
+            this.dc = dc;
+            this.parent = parent;
+        }
+    }
+
+    private static final class Printer {
+        private final StringBuilder out = new StringBuilder();
+        /** The last character appended, which is not always the last one of the output */
+        private char last = '\0';
+        private Templates templates;
+        private Modifier modifiers;
+        private Node currentTemplate;
+        private int packIndex;
+        private int lambdaArg;
+        private int recursion;
+        private Frame stack;
+        /** Templates in scope when a template parameter behind a reference was first printed */
+        private final Map<Node, Templates> savedScopes = new IdentityHashMap<>();
+
+        private void append(char c) {
+            out.append(c);
+            last = c;
+        }
+
+        private void append(String str) {
+            if (!str.isEmpty()) {
+                out.append(str);
+                last = str.charAt(str.length() - 1);
+            }
+            if (out.length() > MAX_LENGTH) {
+                throw fail();
+            }
+        }
+
+        private void append(int num) {
+            append(Integer.toString(num));
+        }
+
+        private void print(Node dc) {
+            if (dc == null || dc.printing > 1 || recursion > MAX_DEPTH) {
+                throw fail();
+            }
+            dc.printing++;
+            recursion++;
+            stack = new Frame(dc, stack);
+            printInner(dc);
+            stack = stack.parent;
+            dc.printing--;
+            recursion--;
+        }
+
+        private void printInner(Node dc) {
+            switch (dc.kind) {
+            case NAME:
+            case SUB_STD:
+                append(dc.text);
+                return;
+            case TAGGED_NAME:
+                print(dc.left);
+                append("[abi:"); //$NON-NLS-1$
+                print(dc.right);
+                append(']');
+                return;
+            case QUAL_NAME:
+            case LOCAL_NAME: {
+                print(dc.left);
+                append("::"); //$NON-NLS-1$
+                Node localName = dc.right;
+                if (localName.kind == Kind.DEFAULT_ARG) {
+                    append("{default arg#"); //$NON-NLS-1$
+                    append(localName.number + 1);
+                    append("}::"); //$NON-NLS-1$
+                    localName = localName.left;
+                }
+                print(localName);
+                return;
+            }
+            case TYPED_NAME:
+                printTypedName(dc);
+                return;
+            case TEMPLATE: {
+                // this template may be referenced by a conversion operator in its subtree
+                Node holdCurrent = currentTemplate;
+                currentTemplate = dc;
+                // the modifiers do not apply to the template arguments
+                Modifier holdModifiers = modifiers;
+                modifiers = null;
+                print(dc.left);
+                printTemplateArgs(dc.right);
+                modifiers = holdModifiers;
+                currentTemplate = holdCurrent;
+                return;
+            }
+            case TEMPLATE_PARAM: {
+                if (lambdaArg > 0) {
+                    append("auto:"); //$NON-NLS-1$
+                    append(dc.number + 1);
+                    return;
+                }
+                Node a = lookupTemplateArgument(dc);
+                if (a != null && a.kind == Kind.TEMPLATE_ARGLIST) {
+                    a = indexTemplateArgument(a, packIndex);
+                }
+                if (a == null) {
+                    throw fail();
+                }
+                // the argument may itself reference a parameter of an outer template
+                Templates holdTemplates = templates;
+                templates = holdTemplates.next;
+                print(a);
+                templates = holdTemplates;
+                return;
+            }
+            case CTOR:
+                print(dc.left);
+                return;
+            case DTOR:
+                append('~');
+                print(dc.left);
+                return;
+            case VTABLE:
+                append("vtable for "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case VTT:
+                append("VTT for "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case CONSTRUCTION_VTABLE:
+                append("construction vtable for "); //$NON-NLS-1$
+                print(dc.left);
+                append("-in-"); //$NON-NLS-1$
+                print(dc.right);
+                return;
+            case TYPEINFO:
+                append("typeinfo for "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case TYPEINFO_NAME:
+                append("typeinfo name for "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case TYPEINFO_FN:
+                append("typeinfo fn for "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case THUNK:
+                append("non-virtual thunk to "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case VIRTUAL_THUNK:
+                append("virtual thunk to "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case COVARIANT_THUNK:
+                append("covariant return thunk to "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case GUARD:
+                append("guard variable for "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case TLS_INIT:
+                append("TLS init function for "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case TLS_WRAPPER:
+                append("TLS wrapper function for "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case REFTEMP:
+                append("reference temporary #"); //$NON-NLS-1$
+                print(dc.right);
+                append(" for "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case HIDDEN_ALIAS:
+                append("hidden alias for "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case TRANSACTION_CLONE:
+                append("transaction clone for "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case NONTRANSACTION_CLONE:
+                append("non-transaction clone for "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case TPARM_OBJ:
+                append("template parameter object for "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case RESTRICT:
+            case VOLATILE:
+            case CONST:
+                // when printing arrays, the same qualifier may be pushed several times, and a template argument may
+                // repeat the qualifier of the parameter: print it once
+                for (Modifier m = modifiers; m != null; m = m.next) {
+                    if (!m.printed) {
+                        if (m.mod.kind != Kind.RESTRICT && m.mod.kind != Kind.VOLATILE
+                                && m.mod.kind != Kind.CONST) {
+                            break;
+                        }
+                        if (m.mod.kind == dc.kind) {
+                            print(dc.left);
+                            return;
+                        }
+                    }
+                }
+                printModifier(dc, null);
+                return;
+            case REFERENCE:
+            case RVALUE_REFERENCE:
+                printReference(dc);
+                return;
+            case VENDOR_TYPE_QUAL:
+            case POINTER:
+            case COMPLEX:
+            case IMAGINARY:
+            case RESTRICT_THIS:
+            case VOLATILE_THIS:
+            case CONST_THIS:
+            case REFERENCE_THIS:
+            case RVALUE_REFERENCE_THIS:
+            case TRANSACTION_SAFE:
+            case NOEXCEPT:
+            case THROW_SPEC:
+                printModifier(dc, null);
+                return;
+            case BUILTIN_TYPE:
+                append(dc.builtin.name);
+                return;
+            case VENDOR_TYPE:
+                print(dc.left);
+                return;
+            case FUNCTION_TYPE:
+                if (dc.left != null) {
+                    // the return type is printed first, and the rest of the function type as its modifier
+                    Modifier mod = new Modifier(dc, templates, modifiers);
+                    modifiers = mod;
+                    print(dc.left);
+                    modifiers = mod.next;
+                    if (mod.printed) {
+                        return;
+                    }
+                    append(' ');
+                }
+                printFunctionType(dc, modifiers);
+                return;
+            case ARRAY_TYPE:
+                printArray(dc);
+                return;
+            case PTRMEM_TYPE:
+            case VECTOR_TYPE: {
+                Modifier mod = new Modifier(dc, templates, modifiers);
+                modifiers = mod;
+                print(dc.right);
+                if (!mod.printed) {
+                    printMod(dc);
+                }
+                modifiers = mod.next;
+                return;
+            }
+            case ARGLIST:
+            case TEMPLATE_ARGLIST:
+                if (dc.left != null) {
+                    print(dc.left);
+                }
+                if (dc.right != null) {
+                    append(", "); //$NON-NLS-1$
+                    int len = out.length();
+                    print(dc.right);
+                    // nothing printed for an empty argument pack: remove the separator
+                    if (out.length() == len) {
+                        out.setLength(len - 2);
+                    }
+                }
+                return;
+            case INITIALIZER_LIST:
+                if (dc.left != null) {
+                    print(dc.left);
+                }
+                append('{');
+                print(dc.right);
+                append('}');
+                return;
+            case OPERATOR: {
+                String opName = dc.op.name;
+                append("operator"); //$NON-NLS-1$
+                // a space before new, delete...
+                if (isLower(opName.charAt(0))) {
+                    append(' ');
+                }
+                // but not after
+                if (opName.endsWith(" ")) { //$NON-NLS-1$
+                    opName = opName.substring(0, opName.length() - 1);
+                }
+                append(opName);
+                return;
+            }
+            case EXTENDED_OPERATOR:
+                append("operator "); //$NON-NLS-1$
+                print(dc.left);
+                return;
+            case CONVERSION:
+                append("operator "); //$NON-NLS-1$
+                printConversion(dc);
+                return;
+            case NULLARY:
+                printExprOp(dc.left);
+                return;
+            case UNARY:
+                printUnary(dc);
+                return;
+            case BINARY:
+                printBinary(dc);
+                return;
+            case TRINARY:
+                printTrinary(dc);
+                return;
+            case LITERAL:
+            case LITERAL_NEG:
+                printLiteral(dc);
+                return;
+            case NUMBER:
+                append(dc.number);
+                return;
+            case DECLTYPE:
+                append("decltype ("); //$NON-NLS-1$
+                print(dc.left);
+                append(')');
+                return;
+            case PACK_EXPANSION: {
+                Node a = findPack(dc.left);
+                if (a == null) {
+                    // only function parameter packs are involved: print the pattern
+                    printSubexpr(dc.left);
+                    append("..."); //$NON-NLS-1$
+                    return;
+                }
+                int len = packLength(a);
+                for (int i = 0; i < len; i++) {
+                    packIndex = i;
+                    print(dc.left);
+                    if (i < len - 1) {
+                        append(", "); //$NON-NLS-1$
+                    }
+                }
+                return;
+            }
+            case FUNCTION_PARAM:
+                if (dc.number == 0) {
+                    append("this"); //$NON-NLS-1$
+                } else {
+                    append("{parm#"); //$NON-NLS-1$
+                    append(dc.number);
+                    append('}');
+                }
+                return;
+            case LAMBDA:
+                append("{lambda("); //$NON-NLS-1$
+                // the auto parameters of generic lambdas are mangled as template parameters
+                lambdaArg++;
+                print(dc.left);
+                lambdaArg--;
+                append(")#"); //$NON-NLS-1$
+                append(dc.number + 1);
+                append('}');
+                return;
+            case UNNAMED_TYPE:
+                append("{unnamed type#"); //$NON-NLS-1$
+                append(dc.number + 1);
+                append('}');
+                return;
+            case CLONE:
+                print(dc.left);
+                append(" [clone "); //$NON-NLS-1$
+                print(dc.right);
+                append(']');
+                return;
+            default:
+                throw fail();
+            }
+        }
+
+        private void printTemplateArgs(Node args) {
+            if (last == '<') {
+                append(' ');
+            }
+            append('<');
+            print(args);
+            // avoid two consecutive '>'
+            if (last == '>') {
+                append(' ');
+            }
+            append('>');
+        }
+
+        private void printTypedName(Node dc) {
+            // the name is printed by the type, as a modifier; so are the qualifiers of 'this'
+            Modifier holdModifiers = modifiers;
+            modifiers = null;
+            List<Modifier> mods = new ArrayList<>(4);
+            Node typedName = dc.left;
+            while (typedName != null) {
+                Modifier mod = new Modifier(typedName, templates, modifiers);
+                mods.add(mod);
+                modifiers = mod;
+                if (!isFunctionQualifier(typedName.kind)) {
+                    break;
+                }
+                typedName = typedName.left;
+            }
+            if (typedName == null || mods.size() > 4) {
+                throw fail();
+            }
+            // the qualifiers of a member function of a local class apply here
+            if (typedName.kind == Kind.LOCAL_NAME) {
+                typedName = typedName.right;
+                if (typedName.kind == Kind.DEFAULT_ARG) {
+                    typedName = typedName.left;
+                }
+                while (typedName != null && isFunctionQualifier(typedName.kind)) {
+                    Modifier previous = mods.get(mods.size() - 1);
+                    Modifier mod = new Modifier(previous.mod, previous.templates, previous);
+                    mod.printed = previous.printed;
+                    previous.mod = typedName;
+                    previous.printed = false;
+                    previous.templates = templates;
+                    mods.add(mod);
+                    modifiers = mod;
+                    typedName = typedName.left;
+                }
+                if (typedName == null || mods.size() > 4) {
+                    throw fail();
+                }
+            }
+            // the arguments of a template function apply to its type
+            boolean isTemplate = typedName.kind == Kind.TEMPLATE;
+            if (isTemplate) {
+                templates = new Templates(typedName, templates);
+            }
+            print(dc.right);
+            if (isTemplate) {
+                templates = templates.next;
+            }
+            for (int i = mods.size() - 1; i >= 0; i--) {
+                if (!mods.get(i).printed) {
+                    append(' ');
+                    printMod(mods.get(i).mod);
+                }
+            }
+            modifiers = holdModifiers;
+        }
+
+        private void printReference(Node dc) {
+            // reference collapsing: & + && = &
+            Node sub = dc.left;
+            Node modInner = null;
+            Templates savedTemplates = null;
+            boolean restoreTemplates = false;
+            if (lambdaArg == 0 && sub.kind == Kind.TEMPLATE_PARAM) {
+                if (!savedScopes.containsKey(sub)) {
+                    savedScopes.put(sub, templates);
+                } else {
+                    // when reentering the parameter as a substitution, restore its templates unless it is being
+                    // printed beneath itself or this reference
+                    boolean found = false;
+                    for (Frame f = stack; f != null; f = f.parent) {
+                        if (f.dc == sub || (f.dc == dc && f != stack)) {
+                            found = true;
+                            break;
+                        }
+                    }
+                    if (!found) {
+                        savedTemplates = templates;
+                        templates = savedScopes.get(sub);
+                        restoreTemplates = true;
+                    }
+                }
+                Node a = lookupTemplateArgument(sub);
+                if (a != null && a.kind == Kind.TEMPLATE_ARGLIST) {
+                    a = indexTemplateArgument(a, packIndex);
+                }
+                if (a == null) {
+                    throw fail();
+                }
+                sub = a;
+            }
+            if (sub.kind == Kind.REFERENCE || sub.kind == dc.kind) {
+                dc = sub;
+            } else if (sub.kind == Kind.RVALUE_REFERENCE) {
+                modInner = sub.left;
+            }
+            printModifier(dc, modInner);
+            if (restoreTemplates) {
+                templates = savedTemplates;
+            }
+        }
+
+        private void printModifier(Node dc, Node modInner) {
+            Modifier mod = new Modifier(dc, templates, modifiers);
+            modifiers = mod;
+            print(modInner != null ? modInner : dc.left);
+            // print the modifier now, unless the type did it
+            if (!mod.printed) {
+                printMod(dc);
+            }
+            modifiers = mod.next;
+        }
+
+        private void printArray(Node dc) {
+            // an array is passed down as a modifier, to print multi-dimensional arrays correctly; the qualifiers of
+            // the array apply to its elements
+            Modifier holdModifiers = modifiers;
+            Modifier arrayMod = new Modifier(dc, templates, holdModifiers);
+            modifiers = arrayMod;
+            List<Modifier> qualifiers = new ArrayList<>(3);
+            for (Modifier m = holdModifiers; m != null && (m.mod.kind == Kind.RESTRICT
+                    || m.mod.kind == Kind.VOLATILE || m.mod.kind == Kind.CONST); m = m.next) {
+                if (!m.printed) {
+                    if (qualifiers.size() >= 3) {
+                        throw fail();
+                    }
+                    Modifier copy = new Modifier(m.mod, m.templates, modifiers);
+                    modifiers = copy;
+                    qualifiers.add(copy);
+                    m.printed = true;
+                }
+            }
+            print(dc.right);
+            modifiers = holdModifiers;
+            if (arrayMod.printed) {
+                return;
+            }
+            for (int i = qualifiers.size() - 1; i >= 0; i--) {
+                printMod(qualifiers.get(i).mod);
+            }
+            printArrayType(dc, modifiers);
+        }
+
+        private void printModList(Modifier mods, boolean suffix) {
+            if (mods == null) {
+                return;
+            }
+            if (mods.printed || (!suffix && isFunctionQualifier(mods.mod.kind))) {
+                printModList(mods.next, suffix);
+                return;
+            }
+            mods.printed = true;
+            Templates holdTemplates = templates;
+            templates = mods.templates;
+            if (mods.mod.kind == Kind.FUNCTION_TYPE) {
+                printFunctionType(mods.mod, mods.next);
+                templates = holdTemplates;
+                return;
+            } else if (mods.mod.kind == Kind.ARRAY_TYPE) {
+                printArrayType(mods.mod, mods.next);
+                templates = holdTemplates;
+                return;
+            } else if (mods.mod.kind == Kind.LOCAL_NAME) {
+                // the qualifiers of the local name were already pulled off; the function is printed without
+                // modifiers
+                Modifier holdModifiers = modifiers;
+                modifiers = null;
+                print(mods.mod.left);
+                modifiers = holdModifiers;
+                append("::"); //$NON-NLS-1$
+                Node dc = mods.mod.right;
+                if (dc.kind == Kind.DEFAULT_ARG) {
+                    append("{default arg#"); //$NON-NLS-1$
+                    append(dc.number + 1);
+                    append("}::"); //$NON-NLS-1$
+                    dc = dc.left;
+                }
+                while (isFunctionQualifier(dc.kind)) {
+                    dc = dc.left;
+                }
+                print(dc);
+                templates = holdTemplates;
+                return;
+            }
+            printMod(mods.mod);
+            templates = holdTemplates;
+            printModList(mods.next, suffix);
+        }
+
+        private void printMod(Node mod) {
+            switch (mod.kind) {
+            case RESTRICT:
+            case RESTRICT_THIS:
+                append(" restrict"); //$NON-NLS-1$
+                return;
+            case VOLATILE:
+            case VOLATILE_THIS:
+                append(" volatile"); //$NON-NLS-1$
+                return;
+            case CONST:
+            case CONST_THIS:
+                append(" const"); //$NON-NLS-1$
+                return;
+            case TRANSACTION_SAFE:
+                append(" transaction_safe"); //$NON-NLS-1$
+                return;
+            case NOEXCEPT:
+                append(" noexcept"); //$NON-NLS-1$
+                if (mod.right != null) {
+                    append('(');
+                    print(mod.right);
+                    append(')');
+                }
+                return;
+            case THROW_SPEC:
+                append(" throw"); //$NON-NLS-1$
+                if (mod.right != null) {
+                    append('(');
+                    print(mod.right);
+                    append(')');
+                }
+                return;
+            case VENDOR_TYPE_QUAL:
+                append(' ');
+                print(mod.right);
+                return;
+            case POINTER:
+                append('*');
+                return;
+            case REFERENCE_THIS:
+                append(" &"); //$NON-NLS-1$
+                return;
+            case REFERENCE:
+                append('&');
+                return;
+            case RVALUE_REFERENCE_THIS:
+                append(" &&"); //$NON-NLS-1$
+                return;
+            case RVALUE_REFERENCE:
+                append("&&"); //$NON-NLS-1$
+                return;
+            case COMPLEX:
+                append(" _Complex"); //$NON-NLS-1$
+                return;
+            case IMAGINARY:
+                append(" _Imaginary"); //$NON-NLS-1$
+                return;
+            case PTRMEM_TYPE:
+                if (last != '(') {
+                    append(' ');
+                }
+                print(mod.left);
+                append("::*"); //$NON-NLS-1$
+                return;
+            case TYPED_NAME:
+                print(mod.left);
+                return;
+            case VECTOR_TYPE:
+                append(" __vector("); //$NON-NLS-1$
+                print(mod.left);
+                append(')');
+                return;
+            default:
+                print(mod);
+                return;
+            }
+        }
+
+        private void printFunctionType(Node dc, Modifier mods) {
+            boolean needParen = false;
+            boolean needSpace = false;
+            for (Modifier p = mods; p != null && !p.printed && !needParen; p = p.next) {
+                switch (p.mod.kind) {
+                case POINTER:
+                case REFERENCE:
+                case RVALUE_REFERENCE:
+                    needParen = true;
+                    break;
+                case RESTRICT:
+                case VOLATILE:
+                case CONST:
+                case VENDOR_TYPE_QUAL:
+                case COMPLEX:
+                case IMAGINARY:
+                case PTRMEM_TYPE:
+                    needSpace = true;
+                    needParen = true;
+                    break;
+                default:
+                    break;
+                }
+            }
+            if (needParen) {
+                if (!needSpace && last != '(' && last != '*') {
+                    needSpace = true;
+                }
+                if (needSpace && last != ' ') {
+                    append(' ');
+                }
+                append('(');
+            }
+            Modifier holdModifiers = modifiers;
+            modifiers = null;
+            printModList(mods, false);
+            if (needParen) {
+                append(')');
+            }
+            append('(');
+            if (dc.right != null) {
+                print(dc.right);
+            }
+            append(')');
+            printModList(mods, true);
+            modifiers = holdModifiers;
+        }
+
+        private void printArrayType(Node dc, Modifier mods) {
+            boolean needSpace = true;
+            if (mods != null) {
+                boolean needParen = false;
+                for (Modifier p = mods; p != null; p = p.next) {
+                    if (!p.printed) {
+                        if (p.mod.kind == Kind.ARRAY_TYPE) {
+                            needSpace = false;
+                        } else {
+                            needParen = true;
+                            needSpace = true;
+                        }
+                        break;
+                    }
+                }
+                if (needParen) {
+                    append(" ("); //$NON-NLS-1$
+                }
+                printModList(mods, false);
+                if (needParen) {
+                    append(')');
+                }
+            }
+            if (needSpace) {
+                append(' ');
+            }
+            append('[');
+            if (dc.left != null) {
+                print(dc.left);
+            }
+            append(']');
+        }
+
+        private void printConversion(Node dc) {
+            // the parameters of the enclosing template are in scope for the type of the conversion
+            Templates holdTemplates = templates;
+            if (currentTemplate != null) {
+                templates = new Templates(currentTemplate, templates);
+            }
+            if (dc.left.kind != Kind.TEMPLATE) {
+                print(dc.left);
+                templates = holdTemplates;
+            } else {
+                print(dc.left.left);
+                // but not for its own template arguments
+                templates = holdTemplates;
+                printTemplateArgs(dc.left.right);
+            }
+        }
+
+        private Node lookupTemplateArgument(Node dc) {
+            if (templates == null) {
+                throw fail();
+            }
+            return indexTemplateArgument(templates.template.right, dc.number);
+        }
+
+        private static Node indexTemplateArgument(Node args, int i) {
+            if (i < 0) {
+                return args;
+            }
+            Node a;
+            for (a = args; a != null; a = a.right) {
+                if (a.kind != Kind.TEMPLATE_ARGLIST) {
+                    return null;
+                }
+                if (i <= 0) {
+                    break;
+                }
+                i--;
+            }
+            if (i != 0 || a == null) {
+                return null;
+            }
+            return a.left;
+        }
+
+        /** Find the template argument pack expanded by the given pattern */
+        private Node findPack(Node dc) {
+            if (dc == null) {
+                return null;
+            }
+            switch (dc.kind) {
+            case TEMPLATE_PARAM: {
+                Node a = lookupTemplateArgument(dc);
+                return a != null && a.kind == Kind.TEMPLATE_ARGLIST ? a : null;
+            }
+            case PACK_EXPANSION:
+            case LAMBDA:
+            case NAME:
+            case TAGGED_NAME:
+            case OPERATOR:
+            case BUILTIN_TYPE:
+            case SUB_STD:
+            case FUNCTION_PARAM:
+            case UNNAMED_TYPE:
+            case DEFAULT_ARG:
+            case NUMBER:
+                return null;
+            case EXTENDED_OPERATOR:
+            case CTOR:
+            case DTOR:
+                return findPack(dc.left);
+            default: {
+                Node a = findPack(dc.left);
+                return a != null ? a : findPack(dc.right);
+            }
+            }
+        }
+
+        private static int packLength(Node dc) {
+            int count = 0;
+            while (dc != null && dc.kind == Kind.TEMPLATE_ARGLIST && dc.left != null) {
+                count++;
+                dc = dc.right;
+            }
+            return count;
+        }
+
+        private void printSubexpr(Node dc) {
+            boolean simple = dc.kind == Kind.NAME || dc.kind == Kind.QUAL_NAME || dc.kind == Kind.INITIALIZER_LIST
+                    || dc.kind == Kind.FUNCTION_PARAM;
+            if (!simple) {
+                append('(');
+            }
+            print(dc);
+            if (!simple) {
+                append(')');
+            }
+        }
+
+        private void printExprOp(Node dc) {
+            if (dc.kind == Kind.OPERATOR) {
+                append(dc.op.name);
+            } else {
+                print(dc);
+            }
+        }
+
+        private void printUnary(Node dc) {
+            Node op = dc.left;
+            Node operand = dc.right;
+            String code = null;
+            if (op.kind == Kind.OPERATOR) {
+                code = op.op.code;
+                // the argument list is not printed for the address of a function
+                if (code.equals("ad") && operand.kind == Kind.TYPED_NAME //$NON-NLS-1$
+                        && operand.left.kind == Kind.QUAL_NAME && operand.right.kind == Kind.FUNCTION_TYPE) {
+                    operand = operand.left;
+                }
+                if (operand.kind == Kind.BINARY_ARGS) {
+                    // suffix operator
+                    printSubexpr(operand.left);
+                    printExprOp(op);
+                    return;
+                }
+            }
+            if ("sZ".equals(code)) { //$NON-NLS-1$
+                // sizeof... prints the length of the pack
+                append(packLength(findPack(operand)));
+                return;
+            }
+            if (op.kind != Kind.CAST) {
+                printExprOp(op);
+            } else {
+                append('(');
+                print(op.left);
+                append(')');
+            }
+            if ("gs".equals(code)) { //$NON-NLS-1$
+                print(operand);
+            } else if ("st".equals(code)) { //$NON-NLS-1$
+                append('(');
+                print(operand);
+                append(')');
+            } else {
+                printSubexpr(operand);
+            }
+        }
+
+        private void printBinary(Node dc) {
+            Node op = dc.left;
+            Node args = dc.right;
+            if (args.kind != Kind.BINARY_ARGS || op.kind != Kind.OPERATOR) {
+                throw fail();
+            }
+            String code = op.op.code;
+            if (Parser.isNewCast(op)) {
+                printExprOp(op);
+                append('<');
+                print(args.left);
+                append(">("); //$NON-NLS-1$
+                print(args.right);
+                append(')');
+                return;
+            }
+            // an expression using '>' is wrapped in parentheses, not to end the template arguments
+            boolean greater = op.op.name.equals(">"); //$NON-NLS-1$
+            if (greater) {
+                append('(');
+            }
+            if (code.equals("cl") && args.left.kind == Kind.TYPED_NAME) { //$NON-NLS-1$
+                // the types of the arguments of a function call are not printed
+                if (args.left.right.kind != Kind.FUNCTION_TYPE) {
+                    throw fail();
+                }
+                printSubexpr(args.left.left);
+            } else {
+                printSubexpr(args.left);
+            }
+            if (code.equals("ix")) { //$NON-NLS-1$
+                append('[');
+                print(args.right);
+                append(']');
+            } else {
+                if (!code.equals("cl")) { //$NON-NLS-1$
+                    printExprOp(op);
+                }
+                printSubexpr(args.right);
+            }
+            if (greater) {
+                append(')');
+            }
+        }
+
+        private void printTrinary(Node dc) {
+            Node op = dc.left;
+            if (dc.right.kind != Kind.TRINARY_ARG1 || dc.right.right.kind != Kind.TRINARY_ARG2) {
+                throw fail();
+            }
+            printSubexpr(dc.right.left);
+            printExprOp(op);
+            printSubexpr(dc.right.right.left);
+            append(" : "); //$NON-NLS-1$
+            printSubexpr(dc.right.right.right);
+        }
+
+        private void printLiteral(Node dc) {
+            LiteralStyle style = LiteralStyle.DEFAULT;
+            if (dc.left.kind == Kind.BUILTIN_TYPE) {
+                style = dc.left.builtin.style;
+                switch (style) {
+                case INT:
+                case UNSIGNED:
+                case LONG:
+                case UNSIGNED_LONG:
+                case LONG_LONG:
+                case UNSIGNED_LONG_LONG:
+                    if (dc.right.kind == Kind.NAME) {
+                        if (dc.kind == Kind.LITERAL_NEG) {
+                            append('-');
+                        }
+                        print(dc.right);
+                        switch (style) {
+                        case UNSIGNED:
+                            append('u');
+                            break;
+                        case LONG:
+                            append('l');
+                            break;
+                        case UNSIGNED_LONG:
+                            append("ul"); //$NON-NLS-1$
+                            break;
+                        case LONG_LONG:
+                            append("ll"); //$NON-NLS-1$
+                            break;
+                        case UNSIGNED_LONG_LONG:
+                            append("ull"); //$NON-NLS-1$
+                            break;
+                        default:
+                            break;
+                        }
+                        return;
+                    }
+                    break;
+                case BOOL:
+                    if (dc.right.kind == Kind.NAME && dc.kind == Kind.LITERAL) {
+                        if (dc.right.text.equals("0")) { //$NON-NLS-1$
+                            append("false"); //$NON-NLS-1$
+                            return;
+                        } else if (dc.right.text.equals("1")) { //$NON-NLS-1$
+                            append("true"); //$NON-NLS-1$
+                            return;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+                }
+            }
+            append('(');
+            print(dc.left);
+            append(')');
+            if (dc.kind == Kind.LITERAL_NEG) {
+                append('-');
+            }
+            if (style == LiteralStyle.FLOAT) {
+                append('[');
+            }
+            print(dc.right);
+            if (style == LiteralStyle.FLOAT) {
+                append(']');
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.binutils.utils;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Thread-safe cache keeping a bounded number of entries, and discarding the least recently used ones first. The
+ * entries are spread over segments which are locked independently, so the eviction order is only approximately the
+ * global LRU order.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ * @since 6.0
+ */
+public final class STLRUCache<K, V> {
+
+    private static final int SEGMENTS = 16;
+
+    private final List<LinkedHashMap<K, V>> segments = new ArrayList<>(SEGMENTS);
+    private final int capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructor
+     * @param capacity the maximum number of entries
+     */
+    public STLRUCache(int capacity) {
+        this.capacity = capacity;
+        int segmentCapacity = Math.max(1, (capacity + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments.add(new LinkedHashMap<K, V>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    return size() > segmentCapacity;
+                }
+            });
+        }
+    }
+
+    private LinkedHashMap<K, V> getSegment(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return segments.get((h & 0x7fffffff) % SEGMENTS);
+    }
+
+    /**
+     * @param key
+     * @return the value of the given key, or null if it is not in the cache
+     */
+    public V get(K key) {
+        LinkedHashMap<K, V> segment = getSegment(key);
+        V ret;
+        synchronized (segment) {
+            ret = segment.get(key);
+        }
+        if (ret == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return ret;
+    }
+
+    /**
+     * Like {@link #get}, without updating the hit and miss counters.
+     * @param key
+     * @return the value of the given key, or null if it is not in the cache
+     */
+    public V peek(K key) {
+        LinkedHashMap<K, V> segment = getSegment(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    /**
+     * Add an entry, possibly discarding the least recently used entry of its segment.
+     * @param key
+     * @param value not null
+     */
+    public void put(K key, V value) {
+        LinkedHashMap<K, V> segment = getSegment(key);
+        synchronized (segment) {
+            segment.put(key, value);
+        }
+    }
+
+    /**
+     * Call the given function on a snapshot of the entries of each segment, without changing their order.
+     * @param action
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (LinkedHashMap<K, V> segment : segments) {
+            List<Map.Entry<K, V>> entries;
+            synchronized (segment) {
+                entries = new ArrayList<>(segment.size());
+                for (Map.Entry<K, V> e : segment.entrySet()) {
+                    entries.add(new AbstractMap.SimpleImmutableEntry<>(e));
+                }
+            }
+            for (Map.Entry<K, V> e : entries) {
+                action.accept(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Discard all the entries. The counters are kept.
+     */
+    public void clear() {
+        for (LinkedHashMap<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        int ret = 0;
+        for (LinkedHashMap<K, V> segment : segments) {
+            synchronized (segment) {
+                ret += segment.size();
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * @return the maximum number of entries
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of calls to {@link #get(Object)} which found their key
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of calls to {@link #get(Object)} which did not find their key
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "STLRUCache[size=" + size() + ", capacity=" + capacity + ", hits=" + getHitCount() //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                + ", misses=" + getMissCount() + ']'; //$NON-NLS-1$
+    }
+}
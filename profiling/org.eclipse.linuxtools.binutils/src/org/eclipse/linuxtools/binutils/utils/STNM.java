@@ -12,6 +12,7 @@
 package org.eclipse.linuxtools.binutils.utils;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -19,10 +20,14 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.linuxtools.binutils.elf.ElfFile;
+import org.eclipse.linuxtools.binutils.elf.ElfFile.Section;
+import org.eclipse.linuxtools.binutils.elf.ElfSymbolTable;
 import org.eclipse.linuxtools.tools.launch.core.factory.CdtSpawnerProcessFactory;
 
 /**
- * This class launches NM and parses output.
+ * This class launches NM and parses output. When nm has no options and the file is a local ELF file, its symbol table
+ * is read in-process instead.
  */
 public class STNM {
 
@@ -54,6 +59,9 @@ public class STNM {
     }
 
     private void init(String command, String[] params, String file, IProject project) throws IOException {
+        if ((params == null || params.length == 0) && readSymbolTable(file)) {
+            return;
+        }
         String[] args = null;
         if (params == null || params.length == 0) {
             args = new String[] { command, file };
@@ -68,6 +76,60 @@ public class STNM {
         process.destroy();
     }
 
+    /**
+     * Report the symbols of a local ELF file the way nm reports them: weak, unique and indirect symbols are left out,
+     * as nm does not show them with the letters parsed here. Like nm without -D, nothing is reported for a stripped
+     * file, even though it still has dynamic symbols.
+     * @param file
+     * @return false if the file is not a local ELF file
+     */
+    private boolean readSymbolTable(String file) {
+        ElfSymbolTable table;
+        try {
+            table = ElfSymbolTable.get(new File(file));
+        } catch (IOException e) {
+            return false;
+        }
+        if (table.isDynamic()) {
+            return true;
+        }
+        int digits = table.is64() ? 16 : 8;
+        for (int i = 0; i < table.size(); i++) {
+            int binding = table.getBinding(i);
+            if (binding == ElfSymbolTable.STB_WEAK || binding == ElfSymbolTable.STB_GNU_UNIQUE
+                    || table.getType(i) == ElfSymbolTable.STT_GNU_IFUNC) {
+                continue;
+            }
+            if (table.getSectionIndex(i) == ElfSymbolTable.SHN_UNDEF) {
+                handler.foundUndefSymbol(table.getName(i));
+                continue;
+            }
+            Section section = table.getSection(i);
+            if (section == null || (section.getFlags() & ElfFile.SHF_ALLOC) == 0) {
+                continue;
+            }
+            if ((section.getFlags() & ElfFile.SHF_EXECINSTR) != 0) {
+                handler.foundTextSymbol(table.getName(i), toHex(table.getAddress(i), digits));
+            } else if ((section.getFlags() & ElfFile.SHF_WRITE) != 0) {
+                if (section.getType() == ElfFile.SHT_NOBITS) {
+                    handler.foundBssSymbol(table.getName(i), toHex(table.getAddress(i), digits));
+                } else {
+                    handler.foundDataSymbol(table.getName(i), toHex(table.getAddress(i), digits));
+                }
+            }
+        }
+        return true;
+    }
+
+    private static String toHex(long address, int digits) {
+        String hex = Long.toHexString(address);
+        StringBuilder ret = new StringBuilder(digits);
+        for (int i = hex.length(); i < digits; i++) {
+            ret.append('0');
+        }
+        return ret.append(hex).toString();
+    }
+
     private void parseOutput(InputStream stream) throws IOException {
         BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
         String line;
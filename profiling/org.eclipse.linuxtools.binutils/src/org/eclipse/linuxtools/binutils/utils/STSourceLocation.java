@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.binutils.utils;
+
+/**
+ * Source location of an address, as given by addr2line: the file name and the line number are always resolved
+ * together.
+ *
+ * @since 6.0
+ */
+public final class STSourceLocation {
+
+    /** Location of an address which can not be resolved */
+    public static final STSourceLocation UNKNOWN = new STSourceLocation(null, -1);
+
+    private final String fileName;
+    private final int lineNumber;
+
+    /**
+     * Constructor
+     * @param fileName the file name, or null if unknown
+     * @param lineNumber the line number, or -1 if unknown
+     */
+    public STSourceLocation(String fileName, int lineNumber) {
+        this.fileName = fileName;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Parse a line of addr2line output, e.g. "/path/to/file.c:42" or "/path/to/file.c:42 (discriminator 3)".
+     * @param line a line of addr2line output
+     * @return the source location
+     */
+    public static STSourceLocation parse(String line) {
+        if (line == null) {
+            return UNKNOWN;
+        }
+        int index = line.indexOf(" (discriminator "); //$NON-NLS-1$
+        if (index != -1) {
+            line = line.substring(0, index);
+        }
+        index = line.lastIndexOf(':');
+        if (index == -1) {
+            return UNKNOWN;
+        }
+        String fileName = line.substring(0, index);
+        if (fileName.equals("??")) { //$NON-NLS-1$
+            fileName = null;
+        }
+        int lineNumber = -1;
+        String number = line.substring(index + 1).trim();
+        if (!number.startsWith("0")) { //$NON-NLS-1$
+            try {
+                lineNumber = Integer.parseInt(number);
+            } catch (NumberFormatException e) {
+                // "?" when the line is unknown
+            }
+        }
+        if (fileName == null && lineNumber == -1) {
+            return UNKNOWN;
+        }
+        return new STSourceLocation(fileName, lineNumber);
+    }
+
+    /**
+     * @return the file name, or null if unknown
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @return the line number, or -1 if unknown
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public String toString() {
+        return (fileName == null ? "??" : fileName) + ':' + (lineNumber == -1 ? "?" : String.valueOf(lineNumber)); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2018 Red Hat, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.linuxtools.binutils.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Stores the source locations and demangled names resolved for a binary in a file named after its build-id, so that
+ * they are not resolved again in the next sessions. A file holds one entry per line:
+ *
+ * <pre>
+ * L &lt;address in hexadecimal&gt; &lt;line, -1 if unknown&gt; &lt;file, empty if unknown&gt;
+ * D &lt;mangled name&gt; &lt;demangled name&gt;
+ * </pre>
+ *
+ * with tabs between fields.
+ */
+final class STSymbolCacheStore {
+
+    private static final String HEADER = "STSymbolCache 1"; //$NON-NLS-1$
+    private static final String SUFFIX = ".cache"; //$NON-NLS-1$
+    private static final String LOCATION = "L"; //$NON-NLS-1$
+    private static final String DEMANGLED_NAME = "D"; //$NON-NLS-1$
+
+    private final File directory;
+
+    /**
+     * Constructor
+     * @param directory the directory of the cache files, created on demand
+     */
+    STSymbolCacheStore(File directory) {
+        this.directory = directory;
+    }
+
+    private File getFile(String buildId) {
+        return new File(directory, buildId + SUFFIX);
+    }
+
+    /**
+     * Read the entries stored for a binary. A missing or unreadable file is ignored, as are the malformed lines.
+     * @param buildId
+     * @param locations receives the source location of each address
+     * @param demangledNames receives the demangled name of each mangled name
+     */
+    void load(String buildId, BiConsumer<BigInteger, STSourceLocation> locations,
+            BiConsumer<String, String> demangledNames) {
+        File file = getFile(buildId);
+        if (!file.isFile()) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                return;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1); //$NON-NLS-1$
+                try {
+                    if (fields.length == 4 && fields[0].equals(LOCATION)) {
+                        String fileName = fields[3].isEmpty() ? null : fields[3];
+                        locations.accept(new BigInteger(fields[1], 16),
+                                new STSourceLocation(fileName, Integer.parseInt(fields[2])));
+                    } else if (fields.length == 3 && fields[0].equals(DEMANGLED_NAME)) {
+                        demangledNames.accept(fields[1], fields[2]);
+                    }
+                } catch (NumberFormatException e) {
+                    // skip the line
+                }
+            }
+        } catch (IOException e) {
+            // the entries read so far are valid
+        }
+    }
+
+    /**
+     * Replace the entries stored for a binary.
+     * @param buildId
+     * @param locations
+     * @param demangledNames
+     * @throws IOException
+     */
+    void save(String buildId, Map<BigInteger, STSourceLocation> locations, Map<String, String> demangledNames)
+            throws IOException {
+        Files.createDirectories(directory.toPath());
+        Path tmp = Files.createTempFile(directory.toPath(), buildId, null);
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+                for (Map.Entry<BigInteger, STSourceLocation> e : locations.entrySet()) {
+                    String fileName = e.getValue().getFileName();
+                    if (fileName != null && !isStorable(fileName)) {
+                        continue;
+                    }
+                    writer.write(LOCATION + '\t' + e.getKey().toString(16) + '\t' + e.getValue().getLineNumber()
+                            + '\t' + (fileName == null ? "" : fileName)); //$NON-NLS-1$
+                    writer.newLine();
+                }
+                for (Map.Entry<String, String> e : demangledNames.entrySet()) {
+                    if (!isStorable(e.getKey()) || !isStorable(e.getValue())) {
+                        continue;
+                    }
+                    writer.write(DEMANGLED_NAME + '\t' + e.getKey() + '\t' + e.getValue());
+                    writer.newLine();
+                }
+            }
+            Files.move(tmp, getFile(buildId).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static boolean isStorable(String field) {
+        return field.indexOf('\t') == -1 && field.indexOf('\n') == -1 && field.indexOf('\r') == -1;
+    }
+
+    /**
+     * Delete all the stored entries.
+     */
+    void clear() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+}
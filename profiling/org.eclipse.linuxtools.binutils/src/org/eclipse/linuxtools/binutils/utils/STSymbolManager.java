@@ -12,12 +12,25 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.binutils.utils;
 
+import java.io.File;
 import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.eclipse.cdt.core.CCorePlugin;
 import org.eclipse.cdt.core.IAddress;
@@ -47,11 +60,17 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.linuxtools.binutils.elf.ElfFile;
+import org.eclipse.linuxtools.binutils.elf.ElfSymbolTable;
 import org.eclipse.linuxtools.internal.Activator;
+import org.eclipse.linuxtools.internal.binutils.preferences.BinutilsPreferencePage;
 
 /**
  * This class Is a utility on top of c++filt and addr2line. It allows an easy conversion between address and source
  * location, and between mangled and demangled symbols.
+ * <p>
+ * It may be used by several threads at once: the instances of addr2line are pooled per program, and the instances of
+ * c++filt per cpu, so that threads working on different programs do not wait for each other.
  */
 public class STSymbolManager {
 
@@ -60,117 +79,388 @@ public class STSymbolManager {
      */
     private final static long AUTO_DISPOSE_TIMEOUT = 30000;
 
+    /**
+     * Period (in ms) of the search for tools to dispose.
+     */
+    private final static long AUTO_DISPOSE_PERIOD = 10000;
+
+    /**
+     * Maximum number of instances of a tool running at the same time for a given program (addr2line) or cpu
+     * (c++filt). Callers wait for an instance to be available beyond this limit.
+     */
+    private final static int MAX_TOOLS_PER_POOL = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * Maximum number of demangled names kept in memory.
+     */
+    private final static int DEMANGLED_NAMES_CACHE_SIZE = 100000;
+
+    /**
+     * Maximum number of source locations kept in memory, for all programs.
+     */
+    private final static int SOURCE_LOCATIONS_CACHE_SIZE = 200000;
+
+    private final static ISTDemangler NO_DEMANGLER = mangledName -> null;
+
     /**
      * Singleton instance
      */
     public final static STSymbolManager sharedInstance = new STSymbolManager();
 
+    /**
+     * Creates a tool instance.
+     */
+    @FunctionalInterface
+    private interface ToolFactory<T> {
+        T create() throws IOException;
+    }
+
+    /**
+     * Uses a tool instance.
+     */
+    @FunctionalInterface
+    private interface ToolCall<T, R> {
+        R call(T tool) throws IOException;
+    }
+
+    /**
+     * Bounded pool of instances of a tool. An instance is used by one thread at a time, and is disposed once it has
+     * been idle for {@link STSymbolManager#AUTO_DISPOSE_TIMEOUT} ms.
+     */
+    private final static class ToolPool<T> {
+
+        private final static class IdleTool<T> {
+            private final T tool;
+            private final long idleSince;
+
+            private IdleTool(T tool, long idleSince) {
+                this.tool = tool;
+                this.idleSince = idleSince;
+            }
+        }
+
+        private final Semaphore permits = new Semaphore(MAX_TOOLS_PER_POOL);
+        private final Consumer<T> disposer;
+        /** Idle instances, the most recently used first */
+        private final Deque<IdleTool<T>> idle = new ArrayDeque<>();
+        private boolean closed;
+
+        private ToolPool(Consumer<T> disposer) {
+            this.disposer = disposer;
+        }
+
+        /**
+         * Call the given function with an instance of the tool, waiting for one if all are busy.
+         * @return the result of the call, or the default value if the tool is not available or failed
+         */
+        private <R> R call(ToolFactory<T> factory, ToolCall<T, R> call, R defaultValue) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return defaultValue;
+            }
+            T tool = null;
+            boolean reusable = false;
+            try {
+                synchronized (this) {
+                    IdleTool<T> idleTool = idle.pollFirst();
+                    tool = idleTool == null ? null : idleTool.tool;
+                }
+                if (tool == null) {
+                    tool = factory.create();
+                }
+                if (tool == null) {
+                    return defaultValue;
+                }
+                R ret = call.call(tool);
+                reusable = true;
+                return ret;
+            } catch (IOException e) {
+                // TODO: log the error ?;
+                // Perhaps log the error only once, because
+                // this method is called many many times...
+                return defaultValue;
+            } finally {
+                if (tool != null) {
+                    release(tool, reusable);
+                }
+                permits.release();
+            }
+        }
+
+        private void release(T tool, boolean reusable) {
+            synchronized (this) {
+                if (reusable && !closed) {
+                    idle.addFirst(new IdleTool<>(tool, System.currentTimeMillis()));
+                    return;
+                }
+            }
+            // a tool which failed may be in any state
+            disposer.accept(tool);
+        }
+
+        /**
+         * Dispose the instances idle since more than {@link STSymbolManager#AUTO_DISPOSE_TIMEOUT} ms.
+         * @return true if no instance remains and none is used
+         */
+        private boolean evictIdle(long currentTime) {
+            List<T> evicted = new ArrayList<>();
+            boolean empty;
+            synchronized (this) {
+                while (!idle.isEmpty() && currentTime - idle.peekLast().idleSince > AUTO_DISPOSE_TIMEOUT) {
+                    evicted.add(idle.pollLast().tool);
+                }
+                empty = idle.isEmpty() && permits.availablePermits() == MAX_TOOLS_PER_POOL;
+            }
+            evicted.forEach(disposer);
+            return empty;
+        }
+
+        /**
+         * Dispose all idle instances. The instances in use are disposed when they are released.
+         */
+        private void close() {
+            List<T> evicted = new ArrayList<>();
+            synchronized (this) {
+                closed = true;
+                for (IdleTool<T> idleTool : idle) {
+                    evicted.add(idleTool.tool);
+                }
+                idle.clear();
+            }
+            evicted.forEach(disposer);
+        }
+    }
+
     private final static class AutoDisposeAddr2line {
-        private Addr2line addr2line;
-        private long startTime;
+        private final ToolPool<Addr2line> addr2lines = new ToolPool<>(Addr2line::dispose);
+        private ISTSourceLocator sourceLocator;
+        private boolean sourceLocatorUnsupported;
+        /** GNU build-id of the program, or null */
+        private final String buildId;
+        /** Identifies the program in the caches: its build-id, or its path and time stamp */
+        private final String key;
+        /** True once the entries stored for the program have been loaded in the caches */
+        private volatile boolean loaded;
+        /** True if the entries of the program must be stored at the end of the session */
+        private volatile boolean persistent;
+        /** True if new entries of the program have been cached since they were stored */
+        private volatile boolean dirty;
+        /** Mangled names demangled for the program, to be stored with it */
+        private final Set<String> mangledNames = ConcurrentHashMap.newKeySet();
+        /** Addresses of the program with a cached source location, to be stored with it */
+        private final Set<BigInteger> addresses = ConcurrentHashMap.newKeySet();
+        private volatile long startTime;
+
+        private AutoDisposeAddr2line(IBinaryObject program) {
+            File file = program.getPath().toFile();
+            String id = null;
+            try (ElfFile elf = ElfFile.open(file)) {
+                id = elf.getBuildId();
+            } catch (IOException e) {
+                // not an ELF file
+            }
+            buildId = id;
+            key = id != null ? id : file.getAbsolutePath() + ':' + file.lastModified() + ':' + file.length();
+        }
     }
 
-    private final static class AutoDisposeCPPFilt {
-        private CPPFilt cppfilt;
-        private long startTime;
+    /**
+     * Key of the source location of an address in a program.
+     */
+    private final static class SourceLocationKey {
+        private final String program;
+        private final BigInteger address;
+
+        private SourceLocationKey(String program, BigInteger address) {
+            this.program = program;
+            this.address = address;
+        }
+
+        @Override
+        public int hashCode() {
+            return program.hashCode() * 31 + address.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof SourceLocationKey)) {
+                return false;
+            }
+            SourceLocationKey other = (SourceLocationKey) obj;
+            return program.equals(other.program) && address.equals(other.address);
+        }
     }
 
     /** Map of all living instance of addr2line */
-    private final HashMap<IBinaryObject, AutoDisposeAddr2line> addr2lines = new HashMap<>();
-    /** Map of all living instance of cppfilt */
-    private final HashMap<String, AutoDisposeCPPFilt> cppfilts = new HashMap<>();
+    private final ConcurrentHashMap<IBinaryObject, AutoDisposeAddr2line> addr2lines = new ConcurrentHashMap<>();
+    /** Map of all living instance of cppfilt, by cpu */
+    private final ConcurrentHashMap<String, ToolPool<CPPFilt>> cppfilts = new ConcurrentHashMap<>();
+    /** In-process demanglers, by cpu; {@link #NO_DEMANGLER} when names are demangled by c++filt only */
+    private final ConcurrentHashMap<String, ISTDemangler> demanglers = new ConcurrentHashMap<>();
+    /** Demangled names, by mangled name */
+    private final STLRUCache<String, String> demangledNames = new STLRUCache<>(DEMANGLED_NAMES_CACHE_SIZE);
+    /** Source locations already resolved, by program and address */
+    private final STLRUCache<SourceLocationKey, STSourceLocation> sourceLocations = new STLRUCache<>(
+            SOURCE_LOCATIONS_CACHE_SIZE);
+    /** Where the caches of the programs with a build-id are stored across sessions, or null */
+    private final STSymbolCacheStore store = createStore();
 
     /**
      * Constructor
      */
     private STSymbolManager() {
-        Runnable worker = () -> {
-		    try {
-		        do {
-		            try {
-		                Thread.sleep(AUTO_DISPOSE_TIMEOUT);
-		            } catch (InterruptedException e1) {
-		                break;
-		            }
-		            cleanup();
-		        } while (true);
-		    } catch (Exception e2) {
-		        Status s = new Status(IStatus.ERROR, Activator.PLUGIN_ID, e2.getMessage(), e2);
-		        Activator.getDefault().getLog().log(s);
-		    }
-		};
-        new Thread(worker, "ST System Analysis Symbol Manager").start(); //$NON-NLS-1$
-        // TODO: perhaps this thread has to be lazy-created ?
-        // and perhaps this thread has to destroy itself when it is no longer
-        // used ?
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ST System Analysis Symbol Manager"); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                cleanup();
+            } catch (RuntimeException e) {
+                // an exception would cancel the next runs
+                Status s = new Status(IStatus.ERROR, Activator.PLUGIN_ID, e.getMessage(), e);
+                Activator.getDefault().getLog().log(s);
+            }
+        }, AUTO_DISPOSE_PERIOD, AUTO_DISPOSE_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    private static STSymbolCacheStore createStore() {
+        Activator plugin = Activator.getDefault();
+        if (plugin == null) {
+            return null;
+        }
+        try {
+            return new STSymbolCacheStore(plugin.getStateLocation().append("symbol-cache").toFile()); //$NON-NLS-1$
+        } catch (IllegalStateException e) {
+            // no instance location
+            return null;
+        }
     }
 
     /**
+     * Dispose the tools, and forget the demangled names, source locations and symbol tables already read, including
+     * the ones stored across sessions.
      * @since 4.1
      */
-    public synchronized void reset() {
-        Iterator<Entry<IBinaryObject, AutoDisposeAddr2line>> iter = addr2lines.entrySet().iterator();
+    public void reset() {
+        demangledNames.clear();
+        sourceLocations.clear();
+        demanglers.clear();
+        ElfSymbolTable.clearCache();
+        if (store != null) {
+            store.clear();
+        }
+        Iterator<AutoDisposeAddr2line> iter = addr2lines.values().iterator();
         while (iter.hasNext()) {
-            Entry<IBinaryObject, AutoDisposeAddr2line> entry = iter.next();
-            AutoDisposeAddr2line ada2l = entry.getValue();
-            ada2l.addr2line.dispose();
-            ada2l.addr2line = null;
+            AutoDisposeAddr2line ada2l = iter.next();
             iter.remove();
+            ada2l.addr2lines.close();
         }
 
-        Iterator<Entry<String, AutoDisposeCPPFilt>> iter2 = cppfilts.entrySet().iterator();
+        Iterator<ToolPool<CPPFilt>> iter2 = cppfilts.values().iterator();
         while (iter2.hasNext()) {
-            Entry<String, AutoDisposeCPPFilt> entry = iter2.next();
-            AutoDisposeCPPFilt adcppf = entry.getValue();
-            adcppf.cppfilt.dispose();
-            adcppf.cppfilt = null;
+            ToolPool<CPPFilt> pool = iter2.next();
+            iter2.remove();
+            pool.close();
         }
     }
 
     /**
-     * each {@link #AUTO_DISPOSE_TIMEOUT} ms, the unused addr2line and c++filt programs are disposed.
+     * each {@link #AUTO_DISPOSE_PERIOD} ms, the addr2line and c++filt programs unused for
+     * {@link #AUTO_DISPOSE_TIMEOUT} ms are disposed.
      */
-    private synchronized void cleanup() {
+    private void cleanup() {
         long currentTime = System.currentTimeMillis();
-        Iterator<Entry<IBinaryObject, AutoDisposeAddr2line>> iter = addr2lines.entrySet().iterator();
-        while (iter.hasNext()) {
-            Entry<IBinaryObject, AutoDisposeAddr2line> entry = iter.next();
+        for (Entry<IBinaryObject, AutoDisposeAddr2line> entry : addr2lines.entrySet()) {
             AutoDisposeAddr2line ada2l = entry.getValue();
-            long diff = currentTime - ada2l.startTime;
-            if (diff > AUTO_DISPOSE_TIMEOUT) {
-                if (ada2l.addr2line != null) {
-                    ada2l.addr2line.dispose();
-                    ada2l.addr2line = null;
-                }
-                iter.remove();
+            boolean empty = ada2l.addr2lines.evictIdle(currentTime);
+            if (empty && currentTime - ada2l.startTime > AUTO_DISPOSE_TIMEOUT
+                    && addr2lines.remove(entry.getKey(), ada2l)) {
+                ada2l.addr2lines.close();
+                save(ada2l);
             }
         }
 
-        Iterator<Entry<String, AutoDisposeCPPFilt>> iter2 = cppfilts.entrySet().iterator();
-        while (iter2.hasNext()) {
-            Entry<String, AutoDisposeCPPFilt> entry = iter2.next();
-            AutoDisposeCPPFilt adcppf = entry.getValue();
-            long diff = currentTime - adcppf.startTime;
-            if (diff > AUTO_DISPOSE_TIMEOUT) {
-                if (adcppf.cppfilt != null) {
-                    adcppf.cppfilt.dispose();
-                    adcppf.cppfilt = null;
-                }
-                iter2.remove();
+        for (Entry<String, ToolPool<CPPFilt>> entry : cppfilts.entrySet()) {
+            ToolPool<CPPFilt> pool = entry.getValue();
+            if (pool.evictIdle(currentTime) && cppfilts.remove(entry.getKey(), pool)) {
+                pool.close();
             }
         }
     }
 
+    /**
+     * Store the demangled names and source locations resolved for the programs in use, so that they are not resolved
+     * again in the next sessions. Only the programs with a build-id are stored, if the preferences allow it.
+     * @since 6.0
+     */
+    public void saveCaches() {
+        for (AutoDisposeAddr2line ada2l : addr2lines.values()) {
+            save(ada2l);
+        }
+    }
+
+    private void save(AutoDisposeAddr2line ada2l) {
+        if (store == null || !ada2l.persistent || !ada2l.dirty) {
+            return;
+        }
+        ada2l.dirty = false;
+        // Look the entries of the program up, forgetting the ones evicted from the caches
+        Map<BigInteger, STSourceLocation> locations = new HashMap<>();
+        ada2l.addresses.removeIf(address -> {
+            STSourceLocation location = sourceLocations.peek(new SourceLocationKey(ada2l.key, address));
+            if (location == null) {
+                return true;
+            }
+            locations.put(address, location);
+            return false;
+        });
+        Map<String, String> names = new HashMap<>();
+        ada2l.mangledNames.removeIf(mangled -> {
+            String demangled = demangledNames.peek(mangled);
+            if (demangled == null) {
+                return true;
+            }
+            names.put(mangled, demangled);
+            return false;
+        });
+        try {
+            store.save(ada2l.buildId, locations, names);
+        } catch (IOException e) {
+            Status s = new Status(IStatus.WARNING, Activator.PLUGIN_ID, e.getMessage(), e);
+            Activator.getDefault().getLog().log(s);
+        }
+    }
+
+    /**
+     * @return the cache of the demangled names, by mangled name
+     * @since 6.0
+     */
+    public STLRUCache<String, String> getDemangledNamesCache() {
+        return demangledNames;
+    }
+
+    /**
+     * @return the cache of the source locations, by program and address
+     * @since 6.0
+     */
+    public STLRUCache<?, STSourceLocation> getSourceLocationsCache() {
+        return sourceLocations;
+    }
+
     /**
      * Demangle the given symbol
      * @param symbol
      * @param project The project to be
      * @return The demangled symbol.
      */
-    public synchronized String demangle(ISymbol symbol, IProject project) {
-        String cpu = symbol.getBinaryObject().getCPU();
+    public String demangle(ISymbol symbol, IProject project) {
+        IBinaryObject program = symbol.getBinaryObject();
         String symbolName = symbol.getName();
-        return demangleImpl(symbolName, cpu, project);
+        return demangleImpl(symbolName, program, project);
     }
 
     /**
@@ -180,29 +470,51 @@ public class STSymbolManager {
      * @param project
      * @return The demangled symbol.
      */
-    public synchronized String demangle(IBinaryObject program, String symbolName, IProject project) {
-        String cpu = program.getCPU();
-        return demangleImpl(symbolName, cpu, project);
+    public String demangle(IBinaryObject program, String symbolName, IProject project) {
+        return demangleImpl(symbolName, program, project);
+    }
+
+    /**
+     * @param cpu
+     * @param project
+     * @return the in-process demangler of the given cpu, or {@link #NO_DEMANGLER}
+     */
+    private ISTDemangler getDemangler(String cpu, IProject project) {
+        return demanglers.computeIfAbsent(cpu, c -> {
+            ISTDemangler demangler = STBinutilsFactoryManager.getDemangler(c, project);
+            return demangler == null ? NO_DEMANGLER : demangler;
+        });
     }
 
     /**
      * Demangle the given symbol
      * @param symbolName
-     * @param cpu
+     * @param program
      * @param project
-     * @param symbol
      * @return
      */
-    private synchronized String demangleImpl(String symbolName, String cpu, IProject project) {
-        CPPFilt cppfilt = getCppFilt(cpu, project);
-        if (cppfilt != null && (symbolName.startsWith("_Z") || symbolName.startsWith("_G"))) { //$NON-NLS-1$ //$NON-NLS-2$
-            try {
-                symbolName = cppfilt.getFunction(symbolName);
-            } catch (IOException e) {
-                // TODO: log the error ?
+    private String demangleImpl(String symbolName, IBinaryObject program, IProject project) {
+        String ret = demangledNames.get(symbolName);
+        if (ret == null) {
+            ret = getDemangler(program.getCPU(), project).demangle(symbolName);
+            if (ret == null) {
+                // c++filt knows more schemes than the in-process demangler, and leaves the other names unchanged
+                ret = withCppFilt(program.getCPU(), project, cppfilt -> cppfilt.getFunction(symbolName), null);
             }
+            if (ret == null) {
+                return symbolName;
+            }
+            // names left unchanged are cached too, so that c++filt is not run again for them
+            demangledNames.put(symbolName, ret);
+        }
+        if (ret.equals(symbolName)) {
+            return ret;
+        }
+        AutoDisposeAddr2line adAddr2line = getAddr2lineEntry(program);
+        if (adAddr2line.persistent && adAddr2line.mangledNames.add(symbolName)) {
+            adAddr2line.dirty = true;
         }
-        return symbolName;
+        return ret;
     }
 
     /**
@@ -211,19 +523,12 @@ public class STSymbolManager {
      * @param project
      * @return the line number of the given address
      */
-    public synchronized int getLineNumber(IBinaryObject program, IAddress address, IProject project) {
-        Addr2line addr2line = getAddr2line(program, project);
-        if (addr2line == null) {
-            return -1;
-        }
-        try {
-            return addr2line.getLineNumber(address);
-        } catch (IOException e) {
-            // TODO: log the error ?;
-            // Perhaps log the error only once, because
-            // this method is called many many times...
-            return -1;
+    public int getLineNumber(IBinaryObject program, IAddress address, IProject project) {
+        STSourceLocation location = getKnownSourceLocation(program, address, project);
+        if (location != null && location.getLineNumber() != -1) {
+            return location.getLineNumber();
         }
+        return withAddr2line(program, project, addr2line -> addr2line.getLineNumber(address), -1);
     }
 
     /**
@@ -243,19 +548,12 @@ public class STSymbolManager {
      * @param project
      * @return the file name of the given address
      */
-    public synchronized String getFileName(IBinaryObject program, IAddress address, IProject project) {
-        Addr2line addr2line = getAddr2line(program, project);
-        if (addr2line == null) {
-            return null;
-        }
-        try {
-            return addr2line.getFileName(address);
-        } catch (IOException e) {
-            // TODO: log the error ?;
-            // Perhaps log the error only once, because
-            // this method is called many many times...
-            return null;
+    public String getFileName(IBinaryObject program, IAddress address, IProject project) {
+        STSourceLocation location = getKnownSourceLocation(program, address, project);
+        if (location != null && location.getFileName() != null) {
+            return location.getFileName();
         }
+        return withAddr2line(program, project, addr2line -> addr2line.getFileName(address), null);
     }
 
     /**
@@ -270,59 +568,191 @@ public class STSymbolManager {
     }
 
     /**
-     * Gets the c++filt support for the given program Note that the instance if kept in a local hashmap, and discarded
-     * after 30 seconds of inactivity.
-     * @param cpu
-     * @param project
+     * Resolve the source locations of many addresses of a program at once: unlike {@link #getFileName} and
+     * {@link #getLineNumber}, all the addresses which are not resolved yet are resolved together, either in-process
+     * from the DWARF line information of the program or with a single addr2line run, and the file name and line number
+     * of each address are resolved together. Results are kept in a cache shared by all programs, and are also used by
+     * {@link #getFileName} and {@link #getLineNumber}.
      * @param program
-     * @return an instance of CPPFilt suitable for the given program
+     * @param addresses
+     * @param project
+     * @return the source location of each address, {@link STSourceLocation#UNKNOWN} if it can not be resolved
+     * @since 6.0
      */
-    private synchronized CPPFilt getCppFilt(String cpu, IProject project) {
-        AutoDisposeCPPFilt adCppfilt = cppfilts.get(cpu);
-        if (adCppfilt == null) {
-            adCppfilt = new AutoDisposeCPPFilt();
-            cppfilts.put(cpu, adCppfilt);
+    public STSourceLocation[] getSourceLocations(IBinaryObject program, IAddress[] addresses,
+            IProject project) {
+        AutoDisposeAddr2line adAddr2line = getAddr2lineEntry(program);
+        STSourceLocation[] ret = new STSourceLocation[addresses.length];
+        HashMap<BigInteger, IAddress> unresolved = new HashMap<>();
+        for (int i = 0; i < addresses.length; i++) {
+            ret[i] = sourceLocations.get(new SourceLocationKey(adAddr2line.key, addresses[i].getValue()));
+            if (ret[i] == null) {
+                unresolved.putIfAbsent(addresses[i].getValue(), addresses[i]);
+            }
         }
-        if (adCppfilt.cppfilt == null) {
-            try {
-                adCppfilt.cppfilt = STBinutilsFactoryManager.getCPPFilt(cpu, project);
-            } catch (IOException e) {
-                // TODO: log the error ?;
-                // Perhaps log the error only once, because
-                // this method is called many many times...
-                return null;
+        if (unresolved.isEmpty()) {
+            return ret;
+        }
+        ArrayList<IAddress> toResolve = new ArrayList<>(unresolved.values());
+        STSourceLocation[] resolved = resolve(adAddr2line, program, toResolve.toArray(new IAddress[0]), project);
+        if (resolved == null) {
+            for (int i = 0; i < ret.length; i++) {
+                if (ret[i] == null) {
+                    ret[i] = STSourceLocation.UNKNOWN;
+                }
             }
+            return ret;
         }
-        adCppfilt.startTime = System.currentTimeMillis();
-        return adCppfilt.cppfilt;
+        HashMap<BigInteger, STSourceLocation> resolvedByAddress = new HashMap<>();
+        for (int i = 0; i < resolved.length; i++) {
+            BigInteger address = toResolve.get(i).getValue();
+            resolvedByAddress.put(address, resolved[i]);
+            sourceLocations.put(new SourceLocationKey(adAddr2line.key, address), resolved[i]);
+            if (adAddr2line.persistent) {
+                adAddr2line.addresses.add(address);
+            }
+        }
+        adAddr2line.dirty = true;
+        for (int i = 0; i < ret.length; i++) {
+            if (ret[i] == null) {
+                ret[i] = resolvedByAddress.get(addresses[i].getValue());
+            }
+        }
+        return ret;
     }
 
     /**
-     * Gets the addr2line support for the given program Note that the instance if kept in a local hashmap, and discarded
-     * after 30 seconds of inactivity.
      * @param program
+     * @param address
      * @param project
-     * @return an instance of Addr2line suitable for the given program
+     * @return the source location of the given address
+     * @since 6.0
      */
-    private synchronized Addr2line getAddr2line(IBinaryObject program, IProject project) {
-        AutoDisposeAddr2line adAddr2line = addr2lines.get(program);
-        if (adAddr2line == null) {
-            adAddr2line = new AutoDisposeAddr2line();
-            addr2lines.put(program, adAddr2line);
+    public STSourceLocation getSourceLocation(IBinaryObject program, IAddress address, IProject project) {
+        return getSourceLocations(program, new IAddress[] { address }, project)[0];
+    }
+
+    private static ISTSourceLocator getSourceLocator(AutoDisposeAddr2line adAddr2line, IBinaryObject program,
+            IProject project) throws IOException {
+        // the locator of a program is created once, even when several threads resolve its addresses
+        synchronized (adAddr2line) {
+            if (adAddr2line.sourceLocator == null && !adAddr2line.sourceLocatorUnsupported) {
+                adAddr2line.sourceLocator = STBinutilsFactoryManager.getSourceLocator(program.getCPU(),
+                        program.getPath().toOSString(), project);
+                adAddr2line.sourceLocatorUnsupported = adAddr2line.sourceLocator == null;
+            }
+            return adAddr2line.sourceLocator;
         }
-        if (adAddr2line.addr2line == null) {
-            try {
-                adAddr2line.addr2line = STBinutilsFactoryManager.getAddr2line(program.getCPU(), program.getPath()
-                        .toOSString(), project);
-            } catch (IOException e) {
-                // TODO: log the error ?;
-                // Perhaps log the error only once, because
-                // this method is called many many times...
-                return null;
+    }
+
+    /**
+     * Get the source location of an address if it is already known, or if it can be resolved without running an
+     * external tool.
+     * @return the source location, or null
+     */
+    private STSourceLocation getKnownSourceLocation(IBinaryObject program, IAddress address, IProject project) {
+        AutoDisposeAddr2line adAddr2line = getAddr2lineEntry(program);
+        try {
+            if (getSourceLocator(adAddr2line, program, project) instanceof STDwarfSourceLocator) {
+                return getSourceLocation(program, address, project);
             }
+        } catch (IOException e) {
+            // resolve it with addr2line
         }
+        return sourceLocations.get(new SourceLocationKey(adAddr2line.key, address.getValue()));
+    }
+
+    /**
+     * Resolve addresses with the source locator of the program if its binutils provide one: in-process, or with a
+     * single addr2line run. Else resolve them with addr2line one address after the other.
+     * @return the source locations, or null if addr2line failed
+     */
+    private STSourceLocation[] resolve(AutoDisposeAddr2line adAddr2line, IBinaryObject program,
+            IAddress[] addresses, IProject project) {
+        try {
+            ISTSourceLocator locator = getSourceLocator(adAddr2line, program, project);
+            if (locator != null) {
+                return locator.getSourceLocations(addresses);
+            }
+        } catch (IOException e) {
+            // TODO: log the error ?;
+            // Perhaps log the error only once, because
+            // this method is called many many times...
+            return null;
+        }
+        return withAddr2line(program, project, addr2line -> {
+            STSourceLocation[] ret = new STSourceLocation[addresses.length];
+            for (int i = 0; i < addresses.length; i++) {
+                ret[i] = STSourceLocation.parse(addr2line.getLine(addresses[i]));
+            }
+            return ret;
+        }, null);
+    }
+
+    /**
+     * Calls the given function with a c++filt instance suitable for the given cpu. Note that the instances are kept in
+     * a pool, and discarded after 30 seconds of inactivity.
+     * @param cpu
+     * @param project
+     * @param call
+     * @param defaultValue
+     * @return the result of the call, or the default value if c++filt is not available or failed
+     */
+    private <R> R withCppFilt(String cpu, IProject project, ToolCall<CPPFilt, R> call, R defaultValue) {
+        ToolPool<CPPFilt> pool = cppfilts.computeIfAbsent(cpu, c -> new ToolPool<>(CPPFilt::dispose));
+        return pool.call(() -> STBinutilsFactoryManager.getCPPFilt(cpu, project), call, defaultValue);
+    }
+
+    /**
+     * Calls the given function with an addr2line instance suitable for the given program. Note that the instances are
+     * kept in a pool, and discarded after 30 seconds of inactivity.
+     * @param program
+     * @param project
+     * @param call
+     * @param defaultValue
+     * @return the result of the call, or the default value if addr2line is not available or failed
+     */
+    private <R> R withAddr2line(IBinaryObject program, IProject project, ToolCall<Addr2line, R> call, R defaultValue) {
+        AutoDisposeAddr2line adAddr2line = getAddr2lineEntry(program);
+        return adAddr2line.addr2lines.call(() -> STBinutilsFactoryManager.getAddr2line(program.getCPU(),
+                program.getPath().toOSString(), project), call, defaultValue);
+    }
+
+    /**
+     * Gets the addr2line entry of the given program, and mark it as used. The first time, the entries stored for the
+     * program in a previous session are loaded in the caches.
+     * @param program
+     * @return the entry holding the addr2line instances of the given program
+     */
+    private AutoDisposeAddr2line getAddr2lineEntry(IBinaryObject program) {
+        AutoDisposeAddr2line adAddr2line = addr2lines.computeIfAbsent(program, AutoDisposeAddr2line::new);
         adAddr2line.startTime = System.currentTimeMillis();
-        return adAddr2line.addr2line;
+        if (!adAddr2line.loaded) {
+            synchronized (adAddr2line) {
+                if (!adAddr2line.loaded) {
+                    load(adAddr2line);
+                    adAddr2line.loaded = true;
+                }
+            }
+        }
+        return adAddr2line;
+    }
+
+    private void load(AutoDisposeAddr2line adAddr2line) {
+        Activator plugin = Activator.getDefault();
+        adAddr2line.persistent = store != null && adAddr2line.buildId != null && plugin != null
+                && plugin.getPreferenceStore().getBoolean(BinutilsPreferencePage.PREFKEY_PERSIST_SYMBOL_CACHE);
+        if (adAddr2line.persistent) {
+            store.load(adAddr2line.buildId,
+                    (address, location) -> {
+                        sourceLocations.put(new SourceLocationKey(adAddr2line.key, address), location);
+                        adAddr2line.addresses.add(address);
+                    },
+                    (mangled, demangled) -> {
+                        demangledNames.put(mangled, demangled);
+                        adAddr2line.mangledNames.add(mangled);
+                    });
+        }
     }
 
     /**
@@ -332,7 +762,7 @@ public class STSymbolManager {
      * @return an instance of Strings suitable for the given program
      * @since 6.0
      */
-    public synchronized STStrings getStrings(IBinaryObject program, IProject project) {
+    public STStrings getStrings(IBinaryObject program, IProject project) {
         STStrings strings = null;
         try {
             strings = STBinutilsFactoryManager.getStrings(program.getCPU(), project);
@@ -343,6 +773,21 @@ public class STSymbolManager {
         return strings;
     }
 
+    /**
+     * Gets the symbol table of the given program. The table is read without running nm, and shared with all the other
+     * users of the same file until it is modified.
+     * @param program
+     * @return the symbol table of the program, or null if it is not a local ELF file
+     * @since 6.0
+     */
+    public ElfSymbolTable getSymbolTable(IBinaryObject program) {
+        try {
+            return ElfSymbolTable.get(program.getPath().toFile());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
 	/**
      * Gets the IBinaryObject corresponding to the given path (absolute path in filesystem). If a IBinaryObject
      * corresponding to the given path has been already built by eclipse, return it. Otherwise build a new
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal;
 
+import org.eclipse.linuxtools.binutils.utils.STSymbolManager;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
 
@@ -32,6 +33,7 @@ public class Activator extends AbstractUIPlugin {
 
     @Override
     public void stop(BundleContext context) throws Exception {
+        STSymbolManager.sharedInstance.saveCaches();
         plugin = null;
         super.stop(context);
     }
@@ -11,6 +11,7 @@
  *******************************************************************************/
 package org.eclipse.linuxtools.internal.binutils.preferences;
 
+import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
 import org.eclipse.jface.preference.StringFieldEditor;
 import org.eclipse.linuxtools.binutils.utils.STSymbolManager;
@@ -35,6 +36,10 @@ public class BinutilsPreferencePage extends FieldEditorPreferencePage implements
     public static final String PREFKEY_STRINGS_CMD = "PREFKEY_STRINGS_CMD"; //$NON-NLS-1$
     public static final String PREFKEY_STRINGS_ARGS = "PREFKEY_STRINGS_ARGS"; //$NON-NLS-1$
 
+    public static final String PREFKEY_PERSIST_SYMBOL_CACHE = "PREFKEY_PERSIST_SYMBOL_CACHE"; //$NON-NLS-1$
+
+    public static final String PREFKEY_NATIVE_DEMANGLER = "PREFKEY_NATIVE_DEMANGLER"; //$NON-NLS-1$
+
     public BinutilsPreferencePage() {
         super(Messages.BinutilsPreferencePage_title, FieldEditorPreferencePage.GRID);
         this.setPreferenceStore(Activator.getDefault().getPreferenceStore());
@@ -66,6 +71,12 @@ public class BinutilsPreferencePage extends FieldEditorPreferencePage implements
         this.addField(fstrings);
         StringFieldEditor fstringsArgs = new StringFieldEditor(PREFKEY_STRINGS_ARGS, Messages.BinutilsPreferencePage_strings_flags, this.getFieldEditorParent());
         this.addField(fstringsArgs);
+
+        BooleanFieldEditor fpersistSymbolCache = new BooleanFieldEditor(PREFKEY_PERSIST_SYMBOL_CACHE, Messages.BinutilsPreferencePage_persist_symbol_cache, this.getFieldEditorParent());
+        this.addField(fpersistSymbolCache);
+
+        BooleanFieldEditor fnativeDemangler = new BooleanFieldEditor(PREFKEY_NATIVE_DEMANGLER, Messages.BinutilsPreferencePage_native_demangler, this.getFieldEditorParent());
+        this.addField(fnativeDemangler);
     }
 
     @Override
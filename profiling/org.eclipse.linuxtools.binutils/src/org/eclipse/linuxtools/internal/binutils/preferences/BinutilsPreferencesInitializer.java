@@ -36,6 +36,8 @@ public class BinutilsPreferencesInitializer extends AbstractPreferenceInitialize
         store.setDefault(BinutilsPreferencePage.PREFKEY_NM_ARGS, ""); //$NON-NLS-1$
         store.setDefault(BinutilsPreferencePage.PREFKEY_STRINGS_CMD, STRINGS_CMD);
         store.setDefault(BinutilsPreferencePage.PREFKEY_STRINGS_ARGS, ""); //$NON-NLS-1$
+        store.setDefault(BinutilsPreferencePage.PREFKEY_PERSIST_SYMBOL_CACHE, true);
+        store.setDefault(BinutilsPreferencePage.PREFKEY_NATIVE_DEMANGLER, true);
     }
 
 }
@@ -20,8 +20,10 @@ public class Messages extends NLS {
     public static String BinutilsPreferencePage_cppfilt;
     public static String BinutilsPreferencePage_cppfilt_flags;
     public static String BinutilsPreferencePage_description;
+    public static String BinutilsPreferencePage_native_demangler;
     public static String BinutilsPreferencePage_nm;
     public static String BinutilsPreferencePage_nm_flags;
+    public static String BinutilsPreferencePage_persist_symbol_cache;
     public static String BinutilsPreferencePage_title;
     public static String BinutilsPreferencePage_strings;
     public static String BinutilsPreferencePage_strings_flags;